@@ -0,0 +1,140 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.benchmarks;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.leadpony.joy.api.JsonParser;
+import org.leadpony.joy.api.JsonParserFactory;
+import org.leadpony.joy.api.KeyMatcher;
+import org.leadpony.joy.classic.ClassicJsonProvider;
+
+/**
+ * Measures the throughput of dispatching on the key names of objects.
+ *
+ * @author leadpony
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyDispatchBenchmark {
+
+    private static final int NUMBER_OF_ITEMS = 10000;
+
+    private static final KeyMatcher KEYS = KeyMatcher.of(
+            "id", "firstName", "lastName", "email", "age", "active");
+
+    private JsonParserFactory factory;
+    private String text;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        this.factory = (JsonParserFactory) new ClassicJsonProvider().createParserFactory(null);
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < NUMBER_OF_ITEMS; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"id\":").append(i)
+                .append(",\"firstName\":\"John\",\"lastName\":\"Smith\"")
+                .append(",\"email\":\"john@example.com\",\"age\":").append(i % 100)
+                .append(",\"active\":true,\"unknown\":null}");
+        }
+        this.text = builder.append(']').toString();
+        this.bytes = text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public long switchOnStringFromReader() {
+        return switchOnString(factory.createParser(new StringReader(text)));
+    }
+
+    @Benchmark
+    public long switchOnStringFromBytes() {
+        return switchOnString(factory.createParser(bytes));
+    }
+
+    @Benchmark
+    public long getKeyIndexFromReader() {
+        return getKeyIndex(factory.createParser(new StringReader(text)));
+    }
+
+    @Benchmark
+    public long getKeyIndexFromBytes() {
+        return getKeyIndex(factory.createParser(bytes));
+    }
+
+    private static long switchOnString(JsonParser parser) {
+        long sum = 0;
+        try (JsonParser p = parser) {
+            while (p.hasNext()) {
+                if (p.next() == JsonParser.Event.KEY_NAME) {
+                    switch (p.getString()) {
+                    case "id":
+                        sum += 1;
+                        break;
+                    case "firstName":
+                        sum += 2;
+                        break;
+                    case "lastName":
+                        sum += 3;
+                        break;
+                    case "email":
+                        sum += 4;
+                        break;
+                    case "age":
+                        sum += 5;
+                        break;
+                    case "active":
+                        sum += 6;
+                        break;
+                    default:
+                        break;
+                    }
+                }
+            }
+        }
+        return sum;
+    }
+
+    private static long getKeyIndex(JsonParser parser) {
+        long sum = 0;
+        try (JsonParser p = parser) {
+            while (p.hasNext()) {
+                if (p.next() == JsonParser.Event.KEY_NAME) {
+                    sum += p.getKeyIndex(KEYS) + 1;
+                }
+            }
+        }
+        return sum;
+    }
+}
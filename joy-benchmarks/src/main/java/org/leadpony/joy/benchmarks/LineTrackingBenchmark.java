@@ -0,0 +1,121 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.benchmarks;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.leadpony.joy.api.JsonParser;
+import org.leadpony.joy.api.JsonParserFactory;
+import org.leadpony.joy.classic.ClassicJsonProvider;
+
+import jakarta.json.spi.JsonProvider;
+
+/**
+ * Measures the throughput of parsing pretty-printed documents with and
+ * without counting lines.
+ *
+ * @author leadpony
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineTrackingBenchmark {
+
+    @Param({"1000", "100000"})
+    public int items;
+
+    private JsonParserFactory defaultFactory;
+    private JsonParserFactory offsetOnlyFactory;
+    private String text;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        JsonProvider provider = new ClassicJsonProvider();
+        this.defaultFactory = (JsonParserFactory) provider.createParserFactory(null);
+        Map<String, Object> config = new HashMap<>();
+        config.put(JsonParser.OFFSET_ONLY_LOCATION, Boolean.TRUE);
+        this.offsetOnlyFactory = (JsonParserFactory) provider.createParserFactory(config);
+
+        StringBuilder builder = new StringBuilder("[\n");
+        for (int i = 0; i < items; i++) {
+            if (i > 0) {
+                builder.append(",\n");
+            }
+            builder.append("    {\n")
+                .append("        \"id\" : ").append(i).append(",\n")
+                .append("        \"message\" : \"The quick brown fox jumps over the lazy dog.\",\n")
+                .append("        \"tags\" : [\n")
+                .append("            \"alpha\",\n")
+                .append("            \"beta\"\n")
+                .append("        ],\n")
+                .append("        \"ok\" : true\n")
+                .append("    }");
+        }
+        builder.append("\n]\n");
+        this.text = builder.toString();
+        this.bytes = text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int parseTrackingLines() {
+        return parse(defaultFactory.createParser(bytes));
+    }
+
+    @Benchmark
+    public int parseIgnoringLines() {
+        return parse(offsetOnlyFactory.createParser(bytes));
+    }
+
+    @Benchmark
+    public int readTrackingLines() {
+        return parse((JsonParser) defaultFactory.createParser(new StringReader(text)));
+    }
+
+    @Benchmark
+    public int readIgnoringLines() {
+        return parse((JsonParser) offsetOnlyFactory.createParser(new StringReader(text)));
+    }
+
+    private static int parse(JsonParser parser) {
+        int count = 0;
+        try (JsonParser p = parser) {
+            while (p.hasNext()) {
+                p.next();
+                count++;
+            }
+        }
+        return count;
+    }
+}
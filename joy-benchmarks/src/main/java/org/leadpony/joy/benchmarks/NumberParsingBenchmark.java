@@ -0,0 +1,129 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.benchmarks;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.leadpony.joy.api.JsonParser;
+import org.leadpony.joy.api.JsonParserFactory;
+import org.leadpony.joy.classic.ClassicJsonProvider;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonValue;
+import jakarta.json.spi.JsonProvider;
+
+/**
+ * Measures the throughput of parsing floating-point numbers.
+ *
+ * @author leadpony
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumberParsingBenchmark {
+
+    private static final int NUMBER_OF_ITEMS = 10000;
+
+    private JsonProvider provider;
+    private JsonParserFactory factory;
+    private String text;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        this.provider = new ClassicJsonProvider();
+        this.factory = (JsonParserFactory) provider.createParserFactory(null);
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < NUMBER_OF_ITEMS; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(20) - 10));
+        }
+        this.text = builder.append(']').toString();
+        this.bytes = text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public double getBigDecimal() {
+        double sum = 0;
+        try (JsonParser parser = factory.createParser(bytes)) {
+            while (parser.hasNext()) {
+                if (parser.next() == JsonParser.Event.VALUE_NUMBER) {
+                    sum += parser.getBigDecimal().doubleValue();
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double getDouble() {
+        double sum = 0;
+        try (JsonParser parser = factory.createParser(bytes)) {
+            while (parser.hasNext()) {
+                if (parser.next() == JsonParser.Event.VALUE_NUMBER) {
+                    sum += parser.getDouble();
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double getDoubleFromReader() {
+        double sum = 0;
+        try (JsonParser parser = factory.createParser(new StringReader(text))) {
+            while (parser.hasNext()) {
+                if (parser.next() == JsonParser.Event.VALUE_NUMBER) {
+                    sum += parser.getDouble();
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double readArray() {
+        double sum = 0;
+        try (JsonReader reader = provider.createReader(new StringReader(text))) {
+            JsonArray array = reader.readArray();
+            for (JsonValue value : array) {
+                sum += ((JsonNumber) value).doubleValue();
+            }
+        }
+        return sum;
+    }
+}
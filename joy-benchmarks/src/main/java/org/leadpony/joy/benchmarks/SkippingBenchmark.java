@@ -0,0 +1,103 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.leadpony.joy.api.JsonParser;
+import org.leadpony.joy.api.JsonParserFactory;
+import org.leadpony.joy.classic.ClassicJsonProvider;
+
+import jakarta.json.spi.JsonProvider;
+
+/**
+ * Measures the throughput of skipping large objects.
+ *
+ * @author leadpony
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SkippingBenchmark {
+
+    private static final int NUMBER_OF_ITEMS = 10000;
+
+    private JsonParserFactory strictFactory;
+    private JsonParserFactory lenientFactory;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        JsonProvider provider = new ClassicJsonProvider();
+        this.strictFactory = (JsonParserFactory) provider.createParserFactory(null);
+        Map<String, Object> config = new HashMap<>();
+        config.put(JsonParser.LENIENT_SKIPPING, Boolean.TRUE);
+        this.lenientFactory = (JsonParserFactory) provider.createParserFactory(config);
+
+        StringBuilder builder = new StringBuilder("{\"debug\":{\"entries\":[");
+        for (int i = 0; i < NUMBER_OF_ITEMS; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"id\":").append(i)
+                .append(",\"message\":\"The quick brown fox jumps over the lazy dog.\"")
+                .append(",\"elapsed\":").append(i * 0.125)
+                .append(",\"tags\":[\"alpha\",\"beta\",\"gamma\"],\"ok\":true}");
+        }
+        builder.append("]},\"result\":42}");
+        this.bytes = builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int skipObjectStrictly() {
+        return skipDebug(strictFactory.createParser(bytes));
+    }
+
+    @Benchmark
+    public int skipObjectLeniently() {
+        return skipDebug(lenientFactory.createParser(bytes));
+    }
+
+    private static int skipDebug(JsonParser parser) {
+        try (JsonParser p = parser) {
+            // {"debug":{
+            p.next();
+            p.next();
+            p.next();
+            p.skipObject();
+            // "result":42
+            p.next();
+            p.next();
+            return p.getInt();
+        }
+    }
+}
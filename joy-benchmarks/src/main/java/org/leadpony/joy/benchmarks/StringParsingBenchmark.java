@@ -0,0 +1,151 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.leadpony.joy.api.JsonParserFactory;
+import org.leadpony.joy.classic.ClassicJsonProvider;
+
+import jakarta.json.stream.JsonParser;
+
+/**
+ * Measures the throughput of parsing string values.
+ *
+ * <p>
+ * The {@code escaped} corpus contains JSON documents embedded as strings,
+ * which is the typical case where most of the characters are escaped.
+ * </p>
+ *
+ * @author leadpony
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringParsingBenchmark {
+
+    private static final int NUMBER_OF_ITEMS = 1000;
+
+    @Param({"plain", "escaped", "unicode"})
+    private String corpus;
+
+    private JsonParserFactory factory;
+    private String text;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        this.factory = (JsonParserFactory) new ClassicJsonProvider().createParserFactory(null);
+        this.text = generateCorpus(corpus);
+        this.bytes = text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void parseReader(Blackhole blackhole) {
+        try (JsonParser parser = factory.createParser(new StringReader(text))) {
+            consume(parser, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void parseInputStream(Blackhole blackhole) {
+        try (JsonParser parser = factory.createParser(new ByteArrayInputStream(bytes))) {
+            consume(parser, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void parseByteArray(Blackhole blackhole) {
+        try (JsonParser parser = factory.createParser(bytes)) {
+            consume(parser, blackhole);
+        }
+    }
+
+    private static void consume(JsonParser parser, Blackhole blackhole) {
+        while (parser.hasNext()) {
+            if (parser.next() == JsonParser.Event.VALUE_STRING) {
+                blackhole.consume(parser.getString());
+            }
+        }
+    }
+
+    private static String generateCorpus(String corpus) {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < NUMBER_OF_ITEMS; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append('"');
+            switch (corpus) {
+            case "escaped":
+                appendEscapedDocument(builder, random);
+                break;
+            case "unicode":
+                appendUnicodeEscapes(builder, random);
+                break;
+            default:
+                appendPlainText(builder, random);
+                break;
+            }
+            builder.append('"');
+        }
+        return builder.append(']').toString();
+    }
+
+    private static void appendPlainText(StringBuilder builder, Random random) {
+        for (int i = 0; i < 200; i++) {
+            builder.append((char) ('a' + random.nextInt(26)));
+        }
+    }
+
+    private static void appendEscapedDocument(StringBuilder builder, Random random) {
+        builder.append("{\\\"id\\\":").append(random.nextInt(100000));
+        for (int i = 0; i < 8; i++) {
+            builder.append(",\\\"key").append(i).append("\\\":\\\"");
+            for (int j = 0; j < 8; j++) {
+                builder.append((char) ('a' + random.nextInt(26)));
+            }
+            builder.append("\\\\n\\\"");
+        }
+        builder.append("}\\n");
+    }
+
+    private static void appendUnicodeEscapes(StringBuilder builder, Random random) {
+        for (int i = 0; i < 40; i++) {
+            builder.append(String.format("\\u%04x", 0x3041 + random.nextInt(0x56)));
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonGeneratorFactory;
+import jakarta.json.stream.JsonParser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.leadpony.joy.api.BufferPool;
+import org.leadpony.joy.api.JsonParserFactory;
+import org.leadpony.joy.classic.ClassicJsonProvider;
+
+/**
+ * Tests the pools of buffers of the provider and of the parser factories.
+ *
+ * <p>
+ * The pools keep the buffers through weak references, so a buffer released
+ * may be reclaimed before it is taken again. The tests do not assume that a
+ * particular request hits the pool.
+ * </p>
+ *
+ * @author leadpony
+ */
+public class BufferPoolTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 5, 7, 16, 17, 100, 1000})
+    public void getCapacityShouldNotExceedConfiguredValue(int capacity) {
+        ClassicJsonProvider provider = createProvider(BufferPool.CAPACITY, capacity);
+
+        for (BufferPool pool : new BufferPool[] {provider.getCharBufferPool(), provider.getByteBufferPool()}) {
+            assertThat(pool.getCapacity()).isLessThanOrEqualTo(capacity).isGreaterThanOrEqualTo((capacity + 1) / 2);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 16})
+    public void poolShouldKeepBuffersUpToCapacity(int capacity) {
+        ClassicJsonProvider provider = createProvider(BufferPool.CAPACITY, capacity);
+        JsonGeneratorFactory factory = provider.createGeneratorFactory(null);
+        BufferPool pool = provider.getCharBufferPool();
+        int count = pool.getCapacity() * 2 + 1;
+
+        closeAll(createGenerators(factory, count));
+        long hits = pool.getHitCount();
+        closeAll(createGenerators(factory, count));
+
+        assertThat(pool.getHitCount() - hits).isLessThanOrEqualTo(pool.getCapacity());
+        assertThat(pool.getHitCount() + pool.getMissCount()).isEqualTo(count * 2L);
+    }
+
+    @Test
+    public void getHitCountShouldCountBuffersReused() {
+        ClassicJsonProvider provider = new ClassicJsonProvider();
+        JsonGeneratorFactory factory = provider.createGeneratorFactory(null);
+        BufferPool pool = provider.getCharBufferPool();
+        assertThat(pool.getHitCount()).isZero();
+        assertThat(pool.getMissCount()).isZero();
+
+        List<JsonGenerator> generators = createGenerators(factory, 1);
+        assertThat(pool.getMissCount()).isEqualTo(1L);
+        // The buffer is taken while the first generator is open.
+        generators.addAll(createGenerators(factory, 1));
+        assertThat(pool.getMissCount()).isEqualTo(2L);
+        closeAll(generators);
+
+        for (int i = 0; i < 100; i++) {
+            factory.createGenerator(new StringWriter()).writeStartArray().writeEnd().close();
+        }
+
+        assertThat(pool.getHitCount()).isPositive();
+        assertThat(pool.getHitCount() + pool.getMissCount()).isEqualTo(102L);
+    }
+
+    @Test
+    public void getBufferSizeShouldReturnConfiguredSize() {
+        ClassicJsonProvider provider = createProvider(BufferPool.CHAR_BUFFER_SIZE, 100);
+
+        assertThat(provider.getCharBufferPool().getBufferSize()).isEqualTo(100);
+        assertThat(provider.getByteBufferPool().getBufferSize()).isEqualTo(8192);
+    }
+
+    @Test
+    public void poolShouldNotKeepBufferGrownBeyondSize() {
+        ClassicJsonProvider provider = createProvider(BufferPool.CHAR_BUFFER_SIZE, 1024);
+        JsonParserFactory factory = (JsonParserFactory) provider.createParserFactory(null);
+        BufferPool pool = factory.getCharBufferPool();
+        assertThat(pool).isSameAs(provider.getCharBufferPool());
+
+        parse(factory, longString(5000));
+        long hits = pool.getHitCount();
+        parse(factory, "[]");
+
+        // The grown buffer was dropped.
+        assertThat(pool.getHitCount()).isEqualTo(hits);
+        assertThat(pool.getBufferSize()).isEqualTo(1024);
+    }
+
+    @Test
+    public void adaptivePoolShouldGrowWithLongTokens() {
+        JsonParserFactory factory = createAdaptiveFactory(1024, 65536);
+        BufferPool pool = factory.getCharBufferPool();
+        assertThat(pool.getBufferSize()).isEqualTo(1024);
+
+        parse(factory, "[]");
+        assertThat(pool.getBufferSize()).isEqualTo(1024);
+
+        parse(factory, longString(5000));
+        int grown = pool.getBufferSize();
+        assertThat(grown).isGreaterThan(5000).isLessThanOrEqualTo(65536);
+
+        // The parsers created afterwards hold the token without growing.
+        parse(factory, longString(5000));
+        assertThat(pool.getBufferSize()).isEqualTo(grown);
+    }
+
+    @Test
+    public void adaptivePoolShouldNotKeepBufferShorterThanSize() {
+        JsonParserFactory factory = createAdaptiveFactory(1024, 65536);
+        BufferPool pool = factory.getCharBufferPool();
+
+        JsonParser small = factory.createParser(new StringReader("[]"));
+        parse(factory, longString(5000));
+        int grown = pool.getBufferSize();
+        small.close();
+
+        // Only the grown buffer may be kept, so the second request misses.
+        List<JsonParser> parsers = new ArrayList<>();
+        long misses = pool.getMissCount();
+        parsers.add(factory.createParser(new StringReader("[]")));
+        parsers.add(factory.createParser(new StringReader("[]")));
+        parsers.forEach(JsonParser::close);
+
+        assertThat(pool.getMissCount() - misses).isBetween(1L, 2L);
+        assertThat(pool.getBufferSize()).isEqualTo(grown);
+    }
+
+    @Test
+    public void adaptivePoolShouldNotKeepBufferLongerThanMaximum() {
+        JsonParserFactory factory = createAdaptiveFactory(1024, 4096);
+        BufferPool pool = factory.getCharBufferPool();
+
+        parse(factory, longString(10000));
+        long hits = pool.getHitCount();
+        parse(factory, "[]");
+
+        assertThat(pool.getBufferSize()).isEqualTo(1024);
+        assertThat(pool.getHitCount()).isEqualTo(hits);
+    }
+
+    @Test
+    public void adaptivePoolsShouldNotBeSharedBetweenFactories() {
+        JsonParserFactory first = createAdaptiveFactory(1024, 65536);
+        JsonParserFactory second = createAdaptiveFactory(1024, 65536);
+
+        parse(first, longString(5000));
+
+        assertThat(first.getCharBufferPool().getBufferSize()).isGreaterThan(5000);
+        assertThat(second.getCharBufferPool().getBufferSize()).isEqualTo(1024);
+    }
+
+    private static void parse(JsonParserFactory factory, String json) {
+        try (JsonParser parser = factory.createParser(new StringReader(json))) {
+            while (parser.hasNext()) {
+                parser.next();
+            }
+        }
+    }
+
+    private static String longString(int length) {
+        StringBuilder builder = new StringBuilder("[\"");
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + i % 26));
+        }
+        return builder.append("\"]").toString();
+    }
+
+    private static List<JsonGenerator> createGenerators(JsonGeneratorFactory factory, int count) {
+        List<JsonGenerator> generators = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            generators.add(factory.createGenerator(new StringWriter()));
+        }
+        return generators;
+    }
+
+    private static void closeAll(List<JsonGenerator> generators) {
+        for (JsonGenerator generator : generators) {
+            generator.writeStartArray().writeEnd().close();
+        }
+    }
+
+    private static JsonParserFactory createAdaptiveFactory(int bufferSize, int maxBufferSize) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(org.leadpony.joy.api.JsonParser.BUFFER_SIZE, bufferSize);
+        config.put(org.leadpony.joy.api.JsonParser.ADAPTIVE_BUFFER_SIZE, maxBufferSize);
+        return (JsonParserFactory) new ClassicJsonProvider().createParserFactory(config);
+    }
+
+    /**
+     * Creates a provider reading the specified system property.
+     */
+    private static ClassicJsonProvider createProvider(String name, int value) {
+        String oldValue = System.getProperty(name);
+        System.setProperty(name, String.valueOf(value));
+        try {
+            return new ClassicJsonProvider();
+        } finally {
+            if (oldValue != null) {
+                System.setProperty(name, oldValue);
+            } else {
+                System.clearProperty(name);
+            }
+        }
+    }
+}
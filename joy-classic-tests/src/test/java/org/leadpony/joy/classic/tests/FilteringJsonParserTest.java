@@ -0,0 +1,220 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import jakarta.json.Json;
+import jakarta.json.JsonException;
+import jakarta.json.stream.JsonParser.Event;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.leadpony.joy.api.FilteringJsonParser;
+import org.leadpony.joy.api.JsonParser;
+import org.leadpony.joy.api.JsonParserFactory;
+
+/**
+ * @author leadpony
+ */
+public class FilteringJsonParserTest {
+
+    private static final JsonParserFactory FACTORY = (JsonParserFactory) Json.createParserFactory(null);
+
+    private static final String DOCUMENT = "{"
+            + "\"a\":{\"b\":[1,2,{\"c\":true}],\"d\":null},"
+            + "\"x/y\":\"slash\","
+            + "\"~\":[[],{}],"
+            + "\"~1\":\"tilde one\","
+            + "\"\":-0.5e3,"
+            + "\"items\":[{\"price\":10,\"name\":\"p\"},{\"name\":\"q\"},{\"price\":30}]"
+            + "}";
+
+    public static Stream<Arguments> filteringParserShouldSelectValues() {
+        return Stream.of(
+            Arguments.of(Arrays.asList(""), Arrays.asList("=" + compact(DOCUMENT))),
+            Arguments.of(Arrays.asList("/a/b/0"), Arrays.asList("/a/b/0=1")),
+            Arguments.of(Arrays.asList("/a/*"), Arrays.asList(
+                    "/a/b=[1,2,{\"c\":true}]", "/a/d=null")),
+            Arguments.of(Arrays.asList("/a/b/*"), Arrays.asList(
+                    "/a/b/0=1", "/a/b/1=2", "/a/b/2={\"c\":true}")),
+            Arguments.of(Arrays.asList("/items/*/price"), Arrays.asList(
+                    "/items/0/price=10", "/items/2/price=30")),
+            Arguments.of(Arrays.asList("/*/*/price"), Arrays.asList(
+                    "/items/0/price=10", "/items/2/price=30")),
+            Arguments.of(Arrays.asList("/x~1y"), Arrays.asList("/x~1y=\"slash\"")),
+            Arguments.of(Arrays.asList("/~0"), Arrays.asList("/~0=[[],{}]")),
+            Arguments.of(Arrays.asList("/~01"), Arrays.asList("/~01=\"tilde one\"")),
+            Arguments.of(Arrays.asList("/"), Arrays.asList("/=-5E+2")),
+            Arguments.of(Arrays.asList("/~0/*"), Arrays.asList("/~0/0=[]", "/~0/1={}")),
+            Arguments.of(Arrays.asList("/items/1", "/a/d"), Arrays.asList(
+                    "/a/d=null", "/items/1={\"name\":\"q\"}")),
+            Arguments.of(Arrays.asList("/a", "/a/b/2"), Arrays.asList(
+                    "/a={\"b\":[1,2,{\"c\":true}],\"d\":null}")),
+            Arguments.of(Arrays.asList("/a/b/3", "/missing", "/items/-"), Collections.emptyList())
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void filteringParserShouldSelectValues(List<String> pointers, List<String> expected) {
+        List<String> actual = new ArrayList<>();
+        try (FilteringJsonParser parser = createFilteringParser(DOCUMENT, pointers)) {
+            while (parser.hasNext()) {
+                parser.next();
+                actual.add(parser.getPointer() + "=" + parser.getValue());
+            }
+        }
+
+        assertThat(actual).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    public void filteringParserShouldProduceEventsOfSelectedValues() {
+        List<String> actual = new ArrayList<>();
+        try (FilteringJsonParser parser = createFilteringParser(DOCUMENT, Arrays.asList("/a/b", "/items/*/name"))) {
+            while (parser.hasNext()) {
+                Event event = parser.next();
+                actual.add(parser.getPointer() + " " + event);
+            }
+        }
+
+        assertThat(actual).containsExactly(
+            "/a/b START_ARRAY",
+            "/a/b VALUE_NUMBER",
+            "/a/b VALUE_NUMBER",
+            "/a/b START_OBJECT",
+            "/a/b KEY_NAME",
+            "/a/b VALUE_TRUE",
+            "/a/b END_OBJECT",
+            "/a/b END_ARRAY",
+            "/items/0/name VALUE_STRING",
+            "/items/1/name VALUE_STRING");
+    }
+
+    @Test
+    public void skipArrayShouldSkipArrayInsideSelectedValue() {
+        String json = "{\"a\":[1,[2,[3]],{\"q\":[4]},5],\"b\":6}";
+        try (FilteringJsonParser parser = createFilteringParser(json, Arrays.asList("/a"))) {
+            assertThat(parser.next()).isEqualTo(Event.START_ARRAY);
+            assertThat(parser.next()).isEqualTo(Event.VALUE_NUMBER);
+            assertThat(parser.next()).isEqualTo(Event.START_ARRAY);
+            parser.skipArray();
+            assertThat(parser.next()).isEqualTo(Event.START_OBJECT);
+            assertThat(parser.next()).isEqualTo(Event.KEY_NAME);
+            assertThat(parser.next()).isEqualTo(Event.START_ARRAY);
+            parser.skipArray();
+            assertThat(parser.next()).isEqualTo(Event.END_OBJECT);
+            assertThat(parser.next()).isEqualTo(Event.VALUE_NUMBER);
+            assertThat(parser.getInt()).isEqualTo(5);
+            assertThat(parser.next()).isEqualTo(Event.END_ARRAY);
+            assertThat(parser.hasNext()).isFalse();
+        }
+    }
+
+    @Test
+    public void skipObjectShouldSkipObjectInsideSelectedValue() {
+        String json = "[{\"a\":{\"b\":{\"c\":1}},\"d\":2},{\"e\":3}]";
+        try (FilteringJsonParser parser = createFilteringParser(json, Arrays.asList("/*"))) {
+            assertThat(parser.next()).isEqualTo(Event.START_OBJECT);
+            assertThat(parser.next()).isEqualTo(Event.KEY_NAME);
+            assertThat(parser.next()).isEqualTo(Event.START_OBJECT);
+            parser.skipObject();
+            assertThat(parser.next()).isEqualTo(Event.KEY_NAME);
+            assertThat(parser.getString()).isEqualTo("d");
+            assertThat(parser.next()).isEqualTo(Event.VALUE_NUMBER);
+            assertThat(parser.next()).isEqualTo(Event.END_OBJECT);
+            assertThat(parser.getPointer()).isEqualTo("/0");
+            assertThat(parser.next()).isEqualTo(Event.START_OBJECT);
+            assertThat(parser.getPointer()).isEqualTo("/1");
+            parser.skipObject();
+            assertThat(parser.hasNext()).isFalse();
+        }
+    }
+
+    @Test
+    public void skipObjectShouldSkipWholeSelectedValue() {
+        String json = "[{\"a\":[1,2]},{\"b\":3}]";
+        try (FilteringJsonParser parser = createFilteringParser(json, Arrays.asList("/*"))) {
+            assertThat(parser.next()).isEqualTo(Event.START_OBJECT);
+            parser.skipObject();
+            assertThat(parser.next()).isEqualTo(Event.START_OBJECT);
+            assertThat(parser.getPointer()).isEqualTo("/1");
+            assertThat(parser.getObject().toString()).isEqualTo("{\"b\":3}");
+            assertThat(parser.hasNext()).isFalse();
+        }
+    }
+
+    @Test
+    public void getValueStreamShouldReturnSelectedValues() {
+        List<String> actual;
+        try (FilteringJsonParser parser = createFilteringParser(DOCUMENT, Arrays.asList("/items/*/price"))) {
+            actual = parser.getValueStream().map(Object::toString).collect(Collectors.toList());
+        }
+
+        assertThat(actual).containsExactly("10", "30");
+    }
+
+    @Test
+    public void filteringParserShouldSkipInvalidValuesLeniently() {
+        jakarta.json.stream.JsonParserFactory lenientFactory = Json.createParserFactory(
+                Collections.singletonMap(JsonParser.LENIENT_SKIPPING, Boolean.TRUE));
+        String json = "{\"skip\":[1,2,x],\"k\":3}";
+        try (FilteringJsonParser parser = FACTORY.createFilteringParser(
+                lenientFactory.createParser(new StringReader(json)), Arrays.asList("/k"))) {
+            assertThat(parser.next()).isEqualTo(Event.VALUE_NUMBER);
+            assertThat(parser.getInt()).isEqualTo(3);
+            assertThat(parser.hasNext()).isFalse();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"a", "a/b", "*/price"})
+    public void createFilteringParserShouldThrowIfPointerIsInvalid(String pointer) {
+        Throwable thrown = catchThrowable(() -> createFilteringParser(DOCUMENT, Arrays.asList(pointer)));
+
+        assertThat(thrown).isInstanceOf(JsonException.class);
+    }
+
+    @Test
+    public void getPointerShouldThrowBeforeFirstEvent() {
+        try (FilteringJsonParser parser = createFilteringParser(DOCUMENT, Arrays.asList("/a"))) {
+            Throwable thrown = catchThrowable(parser::getPointer);
+
+            assertThat(thrown).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    private static FilteringJsonParser createFilteringParser(String json, List<String> pointers) {
+        return FACTORY.createFilteringParser(FACTORY.createParser(new StringReader(json)), pointers);
+    }
+
+    private static String compact(String json) {
+        return Json.createReader(new StringReader(json)).readValue().toString();
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import jakarta.json.Json;
+import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+import jakarta.json.stream.JsonParsingException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.leadpony.joy.api.JsonEventTape;
+import org.leadpony.joy.api.JsonParserFactory;
+
+/**
+ * @author leadpony
+ */
+public class JsonEventTapeTest {
+
+    private static final JsonParserFactory FACTORY = (JsonParserFactory) Json.createParserFactory(null);
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "0",
+        "-0",
+        "42",
+        "-2147483648",
+        "2147483647",
+        "2147483648",
+        "-9223372036854775808",
+        "9223372036854775807",
+        "9223372036854775808",
+        "123456789012345678901234567890",
+        "1.0",
+        "-0.5",
+        "3.14159",
+        "1e10",
+        "1E+2",
+        "2.5e-3",
+        "-1.7976931348623157e308",
+        "4.9e-324",
+    })
+    public void replayedNumberShouldBeSameAsParsed(String json) {
+        String expected = describeNumber(FACTORY.createParser(new StringReader(json)));
+
+        JsonEventTape tape = FACTORY.recordTape(FACTORY.createParser(new StringReader(json)));
+
+        assertThat(describeNumber(tape.createParser())).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "{\"a\":[1,2,[3]],\"b\":{\"c\":\"d\"},\"e\":null,\"f\":true,\"g\":false}",
+        "[\"\u00e9\u3042\ud83d\ude00\", \"\\\"\\\\\\n\\u0000\", \"\"]",
+        "  \r\n[ {\"k\" : 1.5e3 } ,\n [ ] , { } ]  ",
+        "\"abc\"",
+    })
+    public void replayedEventsShouldBeSameAsParsed(String json) {
+        String expected = describeEvents(FACTORY.createParser(new StringReader(json)));
+
+        JsonEventTape tape = FACTORY.recordTape(FACTORY.createParser(new StringReader(json)));
+
+        assertThat(describeEvents(tape.createParser())).isEqualTo(expected);
+        // The tape can be replayed any number of times.
+        assertThat(describeEvents(tape.createParser())).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "{\"a\":[1,2,[3]],\"b\":{\"c\":\"d\"},\"e\":null,\"f\":true,\"g\":false}",
+        "[\"\u00e9\u3042\ud83d\ude00\", -1.5e-3, [], {}]",
+        "\"abc\"",
+        "12345678901234567890",
+    })
+    public void getValueShouldReturnSameValueAsParsed(String json) {
+        JsonValue expected = Json.createReader(new StringReader(json)).readValue();
+
+        JsonEventTape tape = FACTORY.recordTape(FACTORY.createParser(new StringReader(json)));
+        JsonParser parser = tape.createParser();
+        parser.next();
+
+        assertThat(parser.getValue()).isEqualTo(expected);
+        assertThat(parser.hasNext()).isFalse();
+    }
+
+    @Test
+    public void replayedLocationShouldHaveStreamOffset() {
+        String json = "{\n  \"a\": [1, \"\u00e9\"],\n  \"b\": null\n}";
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+        JsonEventTape tape = FACTORY.recordTape(FACTORY.createParser(bytes));
+
+        assertThat(describeOffsets(tape.createParser())).isEqualTo(describeOffsets(FACTORY.createParser(bytes)));
+        JsonParser parser = tape.createParser();
+        assertThat(parser.next()).isEqualTo(Event.START_OBJECT);
+        assertThat(parser.getLocation().getStreamOffset()).isEqualTo(1L);
+        assertThat(parser.getLocation().getLineNumber()).isEqualTo(-1L);
+        assertThat(parser.getLocation().getColumnNumber()).isEqualTo(-1L);
+    }
+
+    @Test
+    public void skipArrayShouldSkipReplayedArray() {
+        String json = "{\"a\":[1,2,[3]],\"b\":{\"c\":\"d\"}}";
+        JsonEventTape tape = FACTORY.recordTape(FACTORY.createParser(new StringReader(json)));
+
+        JsonParser parser = tape.createParser();
+        assertThat(parser.next()).isEqualTo(Event.START_OBJECT);
+        assertThat(parser.next()).isEqualTo(Event.KEY_NAME);
+        assertThat(parser.next()).isEqualTo(Event.START_ARRAY);
+        parser.skipArray();
+        assertThat(parser.next()).isEqualTo(Event.KEY_NAME);
+        assertThat(parser.getString()).isEqualTo("b");
+        assertThat(parser.next()).isEqualTo(Event.START_OBJECT);
+        assertThat(parser.getObject().toString()).isEqualTo("{\"c\":\"d\"}");
+        assertThat(parser.next()).isEqualTo(Event.END_OBJECT);
+        assertThat(parser.hasNext()).isFalse();
+    }
+
+    @Test
+    public void getIntShouldThrowIfEventIsNotNumber() {
+        JsonEventTape tape = FACTORY.recordTape(FACTORY.createParser(new StringReader("[\"1\"]")));
+        JsonParser parser = tape.createParser();
+        parser.next();
+        parser.next();
+
+        Throwable thrown = catchThrowable(parser::getInt);
+
+        assertThat(thrown).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void recordTapeShouldThrowIfInputIsInvalid() {
+        Throwable thrown = catchThrowable(() -> FACTORY.recordTape(FACTORY.createParser(new StringReader("[1,"))));
+
+        assertThat(thrown).isInstanceOf(JsonParsingException.class);
+    }
+
+    private static String describeNumber(JsonParser parser) {
+        assertThat(parser.next()).isEqualTo(Event.VALUE_NUMBER);
+        StringBuilder builder = new StringBuilder();
+        builder.append(parser.getString())
+            .append(' ').append(parser.isIntegralNumber())
+            .append(' ').append(parser.getInt())
+            .append(' ').append(parser.getLong())
+            .append(' ').append(parser.getBigDecimal())
+            .append(' ').append(parser.getValue());
+        if (parser instanceof org.leadpony.joy.api.JsonParser) {
+            builder.append(' ').append(((org.leadpony.joy.api.JsonParser) parser).getDouble());
+        }
+        return builder.toString();
+    }
+
+    private static String describeEvents(JsonParser parser) {
+        StringBuilder builder = new StringBuilder();
+        while (parser.hasNext()) {
+            Event event = parser.next();
+            builder.append(event);
+            if (event == Event.KEY_NAME || event == Event.VALUE_STRING || event == Event.VALUE_NUMBER) {
+                builder.append('(').append(parser.getString()).append(')');
+            }
+            builder.append(' ');
+        }
+        return builder.toString();
+    }
+
+    private static String describeOffsets(JsonParser parser) {
+        StringBuilder builder = new StringBuilder();
+        while (parser.hasNext()) {
+            builder.append(parser.next()).append('@').append(parser.getLocation().getStreamOffset()).append(' ');
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import jakarta.json.Json;
+import jakarta.json.stream.JsonGenerationException;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+import jakarta.json.stream.JsonParsingException;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.leadpony.joy.api.JsonParserFactory;
+
+/**
+ * Tests the arrays and objects nested deeper than the words of the scope
+ * stack, and the limit of the nesting depth.
+ *
+ * @author leadpony
+ */
+public class JsonNestingTest {
+
+    private static final JsonParserFactory FACTORY = createParserFactory(new HashMap<>());
+
+    private static final int[] DEPTHS = {1, 2, 63, 64, 65, 127, 128, 129, 130, 200, 1000};
+
+    /**
+     * The types of the parsers tracking the scopes.
+     *
+     * @author leadpony
+     */
+    enum ParserType {
+        READER,
+        BYTES,
+        STREAM,
+        TAPE;
+
+        JsonParser createParser(JsonParserFactory factory, String json) {
+            switch (this) {
+            case BYTES:
+                return factory.createParser(json.getBytes(StandardCharsets.UTF_8));
+            case STREAM:
+                return factory.createParser(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+            case TAPE:
+                return factory.recordTape(factory.createParser(new StringReader(json))).createParser();
+            default:
+                return factory.createParser(new StringReader(json));
+            }
+        }
+    }
+
+    public static Stream<Arguments> nextShouldTrackScopesAcrossWords() {
+        return Stream.of(ParserType.values()).flatMap(type -> IntStream.of(DEPTHS)
+                .boxed()
+                .flatMap(depth -> Stream.of(0L, 1L, 2L).map(seed -> Arguments.of(type, depth, seed))));
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void nextShouldTrackScopesAcrossWords(ParserType type, int depth, long seed) {
+        boolean[] arrays = createPattern(depth, seed);
+
+        List<Event> actual = new ArrayList<>();
+        try (JsonParser parser = type.createParser(FACTORY, createJson(arrays))) {
+            while (parser.hasNext()) {
+                actual.add(parser.next());
+            }
+        }
+
+        assertThat(actual).containsExactlyElementsOf(createEvents(arrays));
+    }
+
+    public static Stream<Arguments> nextShouldDetectMismatchedEndAcrossWords() {
+        return Stream.of(ParserType.READER, ParserType.BYTES, ParserType.STREAM)
+                .flatMap(type -> IntStream.of(DEPTHS).filter(depth -> depth > 1)
+                .boxed()
+                .flatMap(depth -> IntStream.of(0, 62, 63, 64, 65, 127, 128, 129)
+                        .filter(level -> level < depth)
+                        .mapToObj(level -> Arguments.of(type, depth, level))));
+    }
+
+    /**
+     * Replaces the end of the scope at the specified level with the wrong one.
+     */
+    @ParameterizedTest
+    @MethodSource
+    public void nextShouldDetectMismatchedEndAcrossWords(ParserType type, int depth, int level) {
+        boolean[] arrays = createPattern(depth, 1);
+        String json = createJson(arrays);
+        int end = json.length() - 1 - level;
+        char wrong = (json.charAt(end) == ']') ? '}' : ']';
+        String broken = json.substring(0, end) + wrong + json.substring(end + 1);
+
+        JsonParsingException thrown = catchThrowableOfType(() -> {
+            try (JsonParser parser = type.createParser(FACTORY, broken)) {
+                while (parser.hasNext()) {
+                    parser.next();
+                }
+            }
+        }, JsonParsingException.class);
+
+        assertThat(thrown).isNotNull();
+        // The error is reported at the wrong bracket.
+        assertThat(thrown.getLocation().getStreamOffset()).isEqualTo(end);
+    }
+
+    public static Stream<Arguments> nextShouldThrowAtMaxNestingDepth() {
+        return Stream.of(ParserType.READER, ParserType.BYTES, ParserType.STREAM)
+                .flatMap(type -> IntStream.of(1, 2, 63, 64, 65, 128, 129)
+                .mapToObj(limit -> Arguments.of(type, limit)));
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void nextShouldThrowAtMaxNestingDepth(ParserType type, int limit) {
+        JsonParserFactory factory = createLimitedFactory(limit);
+        boolean[] arrays = createPattern(limit + 1, 2);
+        String json = createJson(arrays);
+        // The offset of the bracket exceeding the limit.
+        int offset = createJson(createPattern(limit, 2)).indexOf('1');
+        assertThat(json.charAt(offset)).isEqualTo(arrays[limit] ? '[' : '{');
+
+        JsonParsingException thrown = catchThrowableOfType(() -> {
+            try (JsonParser parser = type.createParser(factory, json)) {
+                while (parser.hasNext()) {
+                    parser.next();
+                }
+            }
+        }, JsonParsingException.class);
+
+        assertThat(thrown).isNotNull();
+        assertThat(thrown.getMessage()).contains("[line=1,column=" + (offset + 1) + ",offset=" + offset + "]")
+                .contains(String.valueOf(limit));
+        assertThat(thrown.getLocation().getStreamOffset()).isEqualTo(offset);
+    }
+
+    @ParameterizedTest
+    @MethodSource("nextShouldThrowAtMaxNestingDepth")
+    public void nextShouldAcceptDepthWithinMaxNestingDepth(ParserType type, int limit) {
+        JsonParserFactory factory = createLimitedFactory(limit);
+        boolean[] arrays = createPattern(limit, 2);
+
+        List<Event> actual = new ArrayList<>();
+        try (JsonParser parser = type.createParser(factory, createJson(arrays))) {
+            while (parser.hasNext()) {
+                actual.add(parser.next());
+            }
+        }
+
+        assertThat(actual).containsExactlyElementsOf(createEvents(arrays));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ParserType.class, names = {"READER", "BYTES", "STREAM"})
+    public void skipShouldReturnToScopeBelowWordBoundary(ParserType type) {
+        boolean[] arrays = new boolean[130];
+        for (int i = 0; i < arrays.length; i++) {
+            arrays[i] = (i % 3 != 0);
+        }
+        try (JsonParser parser = type.createParser(FACTORY, createJson(arrays))) {
+            for (int i = 0; i <= 63; i++) {
+                parser.next();
+                if (!arrays[i]) {
+                    parser.next();
+                }
+            }
+            // Skips the scopes from the level 63 up to the innermost one.
+            if (arrays[63]) {
+                parser.skipArray();
+            } else {
+                parser.skipObject();
+            }
+
+            for (int i = 62; i >= 0; i--) {
+                assertThat(parser.next()).isEqualTo(arrays[i] ? Event.END_ARRAY : Event.END_OBJECT);
+            }
+            assertThat(parser.hasNext()).isFalse();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 63, 64, 65, 128, 129, 1000})
+    public void generatorShouldWriteScopesAcrossWords(int depth) {
+        boolean[] arrays = createPattern(depth, 1);
+        StringWriter writer = new StringWriter();
+
+        try (JsonGenerator generator = Json.createGenerator(writer)) {
+            for (int i = 0; i < depth; i++) {
+                boolean inObject = i > 0 && !arrays[i - 1];
+                if (arrays[i]) {
+                    if (inObject) {
+                        generator.writeStartArray("k");
+                    } else {
+                        generator.writeStartArray();
+                    }
+                } else {
+                    if (inObject) {
+                        generator.writeStartObject("k");
+                    } else {
+                        generator.writeStartObject();
+                    }
+                }
+            }
+            if (arrays[depth - 1]) {
+                generator.write(1);
+            } else {
+                generator.write("k", 1);
+            }
+            for (int i = 0; i < depth; i++) {
+                generator.writeEnd();
+            }
+        }
+
+        assertThat(writer.toString()).isEqualTo(createJson(arrays).replace(" ", ""));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {63, 64, 65, 128, 129})
+    public void generatorShouldRejectValueWithoutNameBelowWordBoundary(int depth) {
+        JsonGenerator generator = Json.createGenerator(new StringWriter());
+        for (int i = 0; i < depth - 1; i++) {
+            generator.writeStartArray();
+        }
+        generator.writeStartObject();
+        // Goes deeper and returns to the object.
+        for (int i = 0; i < 100; i++) {
+            generator.writeStartArray("k" + i).writeEnd();
+            generator.writeStartObject("o" + i).writeStartArray("a").writeEnd().writeEnd();
+        }
+
+        JsonGenerationException thrown = catchThrowableOfType(() -> generator.write(1),
+                JsonGenerationException.class);
+
+        assertThat(thrown).isNotNull();
+    }
+
+    /**
+     * Creates the random types of the scopes.
+     *
+     * @return {@code true} for an array, {@code false} for an object.
+     */
+    private static boolean[] createPattern(int depth, long seed) {
+        Random random = new Random(seed);
+        boolean[] arrays = new boolean[depth];
+        for (int i = 0; i < depth; i++) {
+            arrays[i] = random.nextBoolean();
+        }
+        return arrays;
+    }
+
+    private static String createJson(boolean[] arrays) {
+        StringBuilder builder = new StringBuilder();
+        for (boolean array : arrays) {
+            builder.append(array ? "[" : "{\"k\": ");
+        }
+        builder.append('1');
+        for (int i = arrays.length - 1; i >= 0; i--) {
+            builder.append(arrays[i] ? ']' : '}');
+        }
+        return builder.toString();
+    }
+
+    private static List<Event> createEvents(boolean[] arrays) {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < arrays.length; i++) {
+            if (i > 0 && !arrays[i - 1]) {
+                events.add(Event.KEY_NAME);
+            }
+            events.add(arrays[i] ? Event.START_ARRAY : Event.START_OBJECT);
+        }
+        if (!arrays[arrays.length - 1]) {
+            events.add(Event.KEY_NAME);
+        }
+        events.add(Event.VALUE_NUMBER);
+        for (int i = arrays.length - 1; i >= 0; i--) {
+            events.add(arrays[i] ? Event.END_ARRAY : Event.END_OBJECT);
+        }
+        return events;
+    }
+
+    private static JsonParserFactory createLimitedFactory(int limit) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(org.leadpony.joy.api.JsonParser.MAX_NESTING_DEPTH, limit);
+        return createParserFactory(config);
+    }
+
+    private static JsonParserFactory createParserFactory(Map<String, Object> config) {
+        return (JsonParserFactory) Json.createParserFactory(config);
+    }
+}
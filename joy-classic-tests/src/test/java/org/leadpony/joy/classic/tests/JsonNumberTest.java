@@ -0,0 +1,302 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.json.Json;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonParser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests the numbers created in various ways against {@link BigDecimal}.
+ *
+ * @author leadpony
+ */
+public class JsonNumberTest {
+
+    private static final String[] NUMBERS = {
+        "0",
+        "-0",
+        "0.0",
+        "-0.0",
+        "0E+3",
+        "1",
+        "1.0",
+        "1.00",
+        "10",
+        "100",
+        "1E+2",
+        "1e2",
+        "10E+1",
+        "0.1",
+        "1e-1",
+        "-1",
+        "-1.0",
+        "1.5",
+        "0.5",
+        "5E-1",
+        "3.14159",
+        "-0.000001",
+        "1e-7",
+        "0.00000012",
+        "2147483647",
+        "2147483648",
+        "-2147483648",
+        "-2147483649",
+        "9223372036854775807",
+        "9223372036854775808",
+        "-9223372036854775808",
+        "-9223372036854775809",
+        "922337203685477580.7",
+        "92233720368547758.08",
+        "9.223372036854775807E+18",
+        "12345678901234567890",
+        "123456789012345678.9",
+        "1e400",
+        "1e-400",
+    };
+
+    private static final double[] DOUBLES = {
+        0.0,
+        -0.0,
+        1.0,
+        -1.0,
+        0.1,
+        0.5,
+        1.5,
+        100.0,
+        1e-7,
+        1e22,
+        9.223372036854775807E18,
+        Double.MIN_VALUE,
+        Double.MAX_VALUE,
+    };
+
+    @Test
+    public void equalsShouldBeSameAsBigDecimal() {
+        List<JsonNumber> numbers = createAllNumbers();
+        assertThat(numbers).extracting(number -> number.getClass().getSimpleName()).contains(
+                "IntJsonNumber", "LongJsonNumber", "BigIntegerJsonNumber", "BigDecimalJsonNumber",
+                "DoubleJsonNumber", "LazyJsonNumber");
+
+        for (JsonNumber a : numbers) {
+            for (JsonNumber b : numbers) {
+                assertThat(a.equals(b))
+                    .as("%s(%s) equals %s(%s)", a.getClass().getSimpleName(), a, b.getClass().getSimpleName(), b)
+                    .isEqualTo(a.bigDecimalValue().equals(b.bigDecimalValue()));
+            }
+        }
+    }
+
+    @Test
+    public void hashCodeShouldBeSameAsBigDecimal() {
+        for (JsonNumber number : createAllNumbers()) {
+            assertThat(number.hashCode())
+                .as("%s(%s)", number.getClass().getSimpleName(), number)
+                .isEqualTo(number.bigDecimalValue().hashCode());
+        }
+    }
+
+    @Test
+    public void toStringShouldBeSameAsBigDecimal() {
+        for (JsonNumber number : createAllNumbers()) {
+            assertThat(number.toString())
+                .as("%s(%s)", number.getClass().getSimpleName(), number)
+                .isEqualTo(number.bigDecimalValue().toString());
+        }
+    }
+
+    @Test
+    public void toStringShouldBeReadAsEqualNumber() {
+        for (JsonNumber number : createAllNumbers()) {
+            JsonValue read = Json.createReader(new StringReader(number.toString())).readValue();
+
+            assertThat(read).as("%s(%s)", number.getClass().getSimpleName(), number).isEqualTo(number);
+            assertThat(read.hashCode()).isEqualTo(number.hashCode());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"1", "1.0", "-0.0", "1E+2", "9223372036854775808", "0.1"})
+    public void equalsShouldAcceptOtherImplementation(String text) {
+        JsonNumber other = new OtherJsonNumber(new BigDecimal(text));
+
+        for (JsonNumber number : createNumbers(text)) {
+            assertThat(number.equals(other)).isTrue();
+            assertThat(number.hashCode()).isEqualTo(other.hashCode());
+        }
+    }
+
+    @Test
+    public void doubleValueShouldReturnOriginalDouble() {
+        for (double value : DOUBLES) {
+            JsonNumber number = Json.createValue(value);
+
+            assertThat(number.doubleValue()).isEqualTo(value);
+            assertThat(number.bigDecimalValue()).isEqualTo(BigDecimal.valueOf(value));
+        }
+    }
+
+    @Test
+    public void equalsShouldCompareDoublesAsBigDecimal() {
+        JsonNumber zero = Json.createValue(0.0);
+        JsonNumber negativeZero = Json.createValue(-0.0);
+
+        assertThat(zero).isEqualTo(negativeZero);
+        assertThat(zero.hashCode()).isEqualTo(negativeZero.hashCode());
+        assertThat(Json.createValue(1.0)).isNotEqualTo(Json.createValue(1));
+        assertThat(Json.createValue(1.0)).isEqualTo(Json.createValue(new BigDecimal("1.0")));
+        assertThat(Json.createValue(100.0)).isEqualTo(parse("100.0"));
+        assertThat(Json.createValue(100.0)).isNotEqualTo(parse("1E+2"));
+    }
+
+    /**
+     * Creates the numbers of all the texts in all the ways.
+     */
+    private static List<JsonNumber> createAllNumbers() {
+        List<JsonNumber> numbers = new ArrayList<>();
+        for (String text : NUMBERS) {
+            numbers.addAll(createNumbers(text));
+        }
+        for (double value : DOUBLES) {
+            numbers.add(Json.createValue(value));
+        }
+        return numbers;
+    }
+
+    /**
+     * Creates the numbers of the specified text in all the possible ways.
+     */
+    private static List<JsonNumber> createNumbers(String text) {
+        List<JsonNumber> numbers = new ArrayList<>();
+        BigDecimal decimal = new BigDecimal(text);
+        numbers.add(Json.createValue(decimal));
+        numbers.add(parse(text));
+        numbers.add((JsonNumber) Json.createReader(
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))).readValue());
+        if (decimal.scale() == 0) {
+            BigInteger integer = decimal.toBigInteger();
+            numbers.add(Json.createValue(integer));
+            if (integer.bitLength() < 64) {
+                numbers.add(Json.createValue(integer.longValue()));
+            }
+            if (integer.bitLength() < 32) {
+                numbers.add(Json.createValue(integer.intValue()));
+            }
+        }
+        return numbers;
+    }
+
+    private static JsonNumber parse(String text) {
+        try (JsonParser parser = Json.createParser(new StringReader(text))) {
+            parser.next();
+            return (JsonNumber) parser.getValue();
+        }
+    }
+
+    /**
+     * A number implemented by others.
+     *
+     * @author leadpony
+     */
+    private static class OtherJsonNumber implements JsonNumber {
+
+        private final BigDecimal value;
+
+        OtherJsonNumber(BigDecimal value) {
+            this.value = value;
+        }
+
+        @Override
+        public ValueType getValueType() {
+            return ValueType.NUMBER;
+        }
+
+        @Override
+        public boolean isIntegral() {
+            return value.scale() == 0;
+        }
+
+        @Override
+        public int intValue() {
+            return value.intValue();
+        }
+
+        @Override
+        public int intValueExact() {
+            return value.intValueExact();
+        }
+
+        @Override
+        public long longValue() {
+            return value.longValue();
+        }
+
+        @Override
+        public long longValueExact() {
+            return value.longValueExact();
+        }
+
+        @Override
+        public BigInteger bigIntegerValue() {
+            return value.toBigInteger();
+        }
+
+        @Override
+        public BigInteger bigIntegerValueExact() {
+            return value.toBigIntegerExact();
+        }
+
+        @Override
+        public double doubleValue() {
+            return value.doubleValue();
+        }
+
+        @Override
+        public BigDecimal bigDecimalValue() {
+            return value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof JsonNumber && value.equals(((JsonNumber) obj).bigDecimalValue());
+        }
+
+        @Override
+        public String toString() {
+            return value.toString();
+        }
+    }
+}
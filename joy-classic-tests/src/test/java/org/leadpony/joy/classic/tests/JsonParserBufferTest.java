@@ -0,0 +1,274 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import jakarta.json.Json;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+import jakarta.json.stream.JsonParsingException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.leadpony.joy.api.BufferPool;
+import org.leadpony.joy.api.JsonParserFactory;
+
+/**
+ * Tests the parsers configured with {@link org.leadpony.joy.api.JsonParser#BUFFER_SIZE},
+ * {@link org.leadpony.joy.api.JsonParser#ADAPTIVE_BUFFER_SIZE} and
+ * {@link org.leadpony.joy.api.JsonParser#MAX_TOKEN_LENGTH}.
+ *
+ * @author leadpony
+ */
+public class JsonParserBufferTest {
+
+    private static final JsonParserFactory FACTORY = createParserFactory(new HashMap<>());
+
+    /**
+     * The types of the parsers using the buffers.
+     *
+     * @author leadpony
+     */
+    enum ParserType {
+        // reads characters
+        READER,
+        // reads UTF-8 bytes
+        STREAM,
+        // reads characters decoded from UTF-16
+        STREAM_UTF16;
+
+        JsonParser createParser(JsonParserFactory factory, String json) {
+            switch (this) {
+            case STREAM:
+                return factory.createParser(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+            case STREAM_UTF16:
+                return factory.createParser(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_16BE)));
+            default:
+                return factory.createParser(new StringReader(json));
+            }
+        }
+
+        BufferPool getBufferPool(JsonParserFactory factory) {
+            return (this == STREAM) ? factory.getByteBufferPool() : factory.getCharBufferPool();
+        }
+    }
+
+    /**
+     * The kinds of the tokens held in the buffer.
+     *
+     * @author leadpony
+     */
+    enum TokenKind {
+        STRING,
+        KEY,
+        NUMBER,
+        ESCAPED_STRING,
+        NON_ASCII_STRING;
+
+        String createJson(int length) {
+            switch (this) {
+            case KEY:
+                return "{\"" + repeat('k', length) + "\": 1}";
+            case NUMBER:
+                return "[1" + repeat('2', length - 1) + "]";
+            case ESCAPED_STRING:
+                return "[\"" + repeat("\\n", length / 2) + "\"]";
+            case NON_ASCII_STRING:
+                // Two bytes in UTF-8.
+                return "[\"" + repeat("\u00e9", length / 2) + "\"]";
+            default:
+                return "[\"" + repeat('a', length) + "\"]";
+            }
+        }
+    }
+
+    public static Stream<Arguments> nextShouldReadTokenLongerThanBuffer() {
+        return Stream.of(ParserType.values()).flatMap(type -> Stream.of(TokenKind.values())
+                .flatMap(kind -> IntStream.of(15, 16, 17, 31, 32, 33, 100, 1023, 1024, 1025, 5000)
+                .mapToObj(length -> Arguments.of(type, kind, length))));
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void nextShouldReadTokenLongerThanBuffer(ParserType type, TokenKind kind, int length) {
+        String json = kind.createJson(length);
+        String expected = describe(type.createParser(FACTORY, json));
+
+        assertThat(describe(type.createParser(createBufferedFactory(16), json))).isEqualTo(expected);
+        assertThat(describe(type.createParser(createAdaptiveFactory(16, 64), json))).isEqualTo(expected);
+    }
+
+    public static Stream<Arguments> nextShouldThrowAtMaxTokenLength() {
+        return Stream.of(ParserType.values()).flatMap(type -> Stream.of(TokenKind.values())
+                .map(kind -> Arguments.of(type, kind)));
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void nextShouldThrowAtMaxTokenLength(ParserType type, TokenKind kind) {
+        int limit = 100;
+        JsonParserFactory factory = createLimitedFactory(16, limit);
+
+        JsonParsingException thrown = catchThrowableOfType(
+                () -> describe(type.createParser(factory, kind.createJson(limit * 4))),
+                JsonParsingException.class);
+
+        assertThat(thrown).isNotNull();
+        assertThat(thrown.getMessage()).contains(String.valueOf(limit));
+        assertThat(thrown.getLocation().getStreamOffset()).isGreaterThan((long) limit);
+        assertThat(thrown.getLocation().getLineNumber()).isEqualTo(1L);
+    }
+
+    @ParameterizedTest
+    @MethodSource("nextShouldThrowAtMaxTokenLength")
+    public void nextShouldAcceptTokenWithinMaxTokenLength(ParserType type, TokenKind kind) {
+        int limit = 100;
+        JsonParserFactory factory = createLimitedFactory(16, limit);
+        for (int length = limit - 2; length <= limit; length++) {
+            String json = kind.createJson(length);
+
+            assertThat(describe(type.createParser(factory, json))).isEqualTo(describe(type.createParser(FACTORY, json)));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ParserType.class)
+    public void nextShouldNotCheckTokenFittingInBuffer(ParserType type) {
+        JsonParserFactory factory = createLimitedFactory(1024, 100);
+        String json = TokenKind.STRING.createJson(500);
+
+        assertThat(describe(type.createParser(factory, json))).isEqualTo(describe(type.createParser(FACTORY, json)));
+    }
+
+    @ParameterizedTest
+    @EnumSource(ParserType.class)
+    public void adaptiveBufferSizeShouldGrowWithinFactory(ParserType type) {
+        JsonParserFactory factory = createAdaptiveFactory(16, 65536);
+        BufferPool pool = type.getBufferPool(factory);
+        assertThat(pool.getBufferSize()).isEqualTo(16);
+
+        int previous = pool.getBufferSize();
+        for (int length : new int[] {10, 100, 1000, 10000}) {
+            describe(type.createParser(factory, TokenKind.STRING.createJson(length)));
+            int current = pool.getBufferSize();
+            assertThat(current).isGreaterThanOrEqualTo(previous);
+            if (length > previous) {
+                assertThat(current).isGreaterThan(length);
+            }
+            previous = current;
+        }
+
+        // The buffer does not shrink with short tokens.
+        describe(type.createParser(factory, "[]"));
+        assertThat(pool.getBufferSize()).isEqualTo(previous);
+        // The other factory starts with the initial size.
+        assertThat(type.getBufferPool(createAdaptiveFactory(16, 65536)).getBufferSize()).isEqualTo(16);
+    }
+
+    @Test
+    public void adaptiveBufferSizeShouldBeSharedByThreads() throws InterruptedException, ExecutionException {
+        JsonParserFactory factory = createAdaptiveFactory(16, 65536);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                ParserType type = ParserType.values()[i % ParserType.values().length];
+                String json = TokenKind.values()[i % TokenKind.values().length].createJson(i * 100 + 1);
+                futures.add(executor.submit(() -> describe(type.createParser(factory, json))));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                ParserType type = ParserType.values()[i % ParserType.values().length];
+                String json = TokenKind.values()[i % TokenKind.values().length].createJson(i * 100 + 1);
+                assertThat(futures.get(i).get()).isEqualTo(describe(type.createParser(FACTORY, json)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(factory.getCharBufferPool().getBufferSize()).isGreaterThan(16);
+        assertThat(factory.getByteBufferPool().getBufferSize()).isGreaterThan(16);
+    }
+
+    private static String describe(JsonParser parser) {
+        StringBuilder builder = new StringBuilder();
+        try (JsonParser p = parser) {
+            while (p.hasNext()) {
+                Event event = p.next();
+                builder.append(event);
+                if (event == Event.KEY_NAME || event == Event.VALUE_STRING || event == Event.VALUE_NUMBER) {
+                    builder.append('(').append(p.getString()).append(')');
+                }
+                builder.append(' ');
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String repeat(char c, int count) {
+        return repeat(String.valueOf(c), count);
+    }
+
+    private static String repeat(String s, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(s);
+        }
+        return builder.toString();
+    }
+
+    private static JsonParserFactory createBufferedFactory(int bufferSize) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(org.leadpony.joy.api.JsonParser.BUFFER_SIZE, bufferSize);
+        return createParserFactory(config);
+    }
+
+    private static JsonParserFactory createAdaptiveFactory(int bufferSize, int maxBufferSize) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(org.leadpony.joy.api.JsonParser.BUFFER_SIZE, bufferSize);
+        config.put(org.leadpony.joy.api.JsonParser.ADAPTIVE_BUFFER_SIZE, maxBufferSize);
+        return createParserFactory(config);
+    }
+
+    private static JsonParserFactory createLimitedFactory(int bufferSize, int maxTokenLength) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(org.leadpony.joy.api.JsonParser.BUFFER_SIZE, bufferSize);
+        config.put(org.leadpony.joy.api.JsonParser.MAX_TOKEN_LENGTH, maxTokenLength);
+        return createParserFactory(config);
+    }
+
+    private static JsonParserFactory createParserFactory(Map<String, Object> config) {
+        return (JsonParserFactory) Json.createParserFactory(config);
+    }
+}
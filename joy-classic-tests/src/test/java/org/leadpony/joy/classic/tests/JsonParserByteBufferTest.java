@@ -0,0 +1,244 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import jakarta.json.Json;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+import jakarta.json.stream.JsonParsingException;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.leadpony.joy.api.JsonParserFactory;
+
+/**
+ * Tests the parsers created from byte arrays and byte buffers.
+ *
+ * @author leadpony
+ */
+public class JsonParserByteBufferTest {
+
+    private static final JsonParserFactory FACTORY = (JsonParserFactory) Json.createParserFactory(null);
+
+    private static final String[] DOCUMENTS = {
+        "[1, -2.5e3, true, false, null, \"a\"]",
+        "{\"key\": \"The quick brown fox jumps over the lazy dog.\", \"\\u00e9\": [\"\\n\\\"\"]}",
+        "{\"\u00e9\u3042\": \"\ud83d\ude00 which is long enough to be read in words\"}",
+        "  [ [], {}, \"\" ]  ",
+        "\uFEFF{\"bom\": 1}",
+        "42",
+        "[1, 2",
+    };
+
+    // The bytes around the input, which must not be read.
+    private static final String PREFIX = "]}\"";
+    private static final String SUFFIX = "\"}]";
+
+    /**
+     * The types of the buffers containing the input.
+     *
+     * @author leadpony
+     */
+    enum BufferType {
+        HEAP,
+        HEAP_LITTLE_ENDIAN,
+        HEAP_SLICE,
+        READ_ONLY,
+        DIRECT,
+        DIRECT_LITTLE_ENDIAN,
+        DIRECT_SLICE;
+
+        /**
+         * Creates a buffer whose remaining bytes are the specified bytes.
+         */
+        ByteBuffer createBuffer(byte[] bytes) {
+            byte[] prefix = PREFIX.getBytes(StandardCharsets.US_ASCII);
+            byte[] suffix = SUFFIX.getBytes(StandardCharsets.US_ASCII);
+            int capacity = prefix.length + bytes.length + suffix.length;
+            ByteBuffer buffer;
+            switch (this) {
+            case DIRECT:
+            case DIRECT_LITTLE_ENDIAN:
+            case DIRECT_SLICE:
+                buffer = ByteBuffer.allocateDirect(capacity);
+                break;
+            default:
+                buffer = ByteBuffer.allocate(capacity);
+                break;
+            }
+            buffer.put(prefix).put(bytes).put(suffix);
+            buffer.position(prefix.length);
+            buffer.limit(prefix.length + bytes.length);
+            switch (this) {
+            case HEAP_LITTLE_ENDIAN:
+            case DIRECT_LITTLE_ENDIAN:
+                return buffer.order(ByteOrder.LITTLE_ENDIAN);
+            case HEAP_SLICE:
+            case DIRECT_SLICE:
+                return buffer.slice();
+            case READ_ONLY:
+                return buffer.asReadOnlyBuffer();
+            default:
+                return buffer;
+            }
+        }
+    }
+
+    public static Stream<Arguments> createParserShouldParseRemainingBytes() {
+        return Stream.of(BufferType.values())
+                .flatMap(type -> Stream.of(DOCUMENTS).map(json -> Arguments.of(type, json)));
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void createParserShouldParseRemainingBytes(BufferType type, String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        String expected = describe(FACTORY.createParser(new ByteArrayInputStream(bytes)));
+
+        String actual = describe(FACTORY.createParser(type.createBuffer(bytes)));
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @EnumSource(BufferType.class)
+    public void createParserShouldNotModifyBuffer(BufferType type) {
+        byte[] bytes = DOCUMENTS[1].getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = type.createBuffer(bytes);
+        int position = buffer.position();
+        int limit = buffer.limit();
+        ByteOrder order = buffer.order();
+        ByteBuffer copy = ByteBuffer.allocate(buffer.capacity()).put(wholeOf(buffer));
+        copy.flip();
+
+        try (JsonParser parser = FACTORY.createParser(buffer)) {
+            parser.next();
+            assertThat(parser.getObject()).isNotNull();
+            assertThat(buffer.position()).isEqualTo(position);
+        }
+
+        assertThat(buffer.position()).isEqualTo(position);
+        assertThat(buffer.limit()).isEqualTo(limit);
+        assertThat(buffer.order()).isEqualTo(order);
+        assertThat(wholeOf(buffer)).isEqualTo(copy);
+    }
+
+    public static Stream<Arguments> createParserShouldParseRangeOfArray() {
+        return Stream.of(DOCUMENTS).flatMap(json -> Stream.of(
+                Arguments.of(json, 0, 0),
+                Arguments.of(json, 3, 0),
+                Arguments.of(json, 0, 3),
+                Arguments.of(json, 5, 11)));
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void createParserShouldParseRangeOfArray(String json, int before, int after) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        byte[] array = new byte[before + bytes.length + after];
+        Arrays.fill(array, (byte) '[');
+        System.arraycopy(bytes, 0, array, before, bytes.length);
+        byte[] copy = array.clone();
+        String expected = describe(FACTORY.createParser(new ByteArrayInputStream(bytes)));
+
+        String actual = describe(FACTORY.createParser(array, before, bytes.length));
+
+        assertThat(actual).isEqualTo(expected);
+        assertThat(array).isEqualTo(copy);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"-1 4", "0 9", "4 5", "2 -1"})
+    public void createParserShouldThrowIfRangeIsOutOfArray(String range) {
+        String[] values = range.split(" ");
+        byte[] array = "[1,2,3]".getBytes(StandardCharsets.US_ASCII);
+
+        Throwable thrown = catchThrowable(() -> FACTORY.createParser(
+                array, Integer.parseInt(values[0]), Integer.parseInt(values[1])));
+
+        assertThat(thrown).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    public static Stream<Arguments> createParserShouldDetectEncodingOfRemainingBytes() {
+        return Stream.of(BufferType.HEAP_SLICE, BufferType.DIRECT)
+                .flatMap(type -> Stream.of("UTF-16BE", "UTF-16LE", "UTF-32BE", "UTF-32LE")
+                        .map(charsetName -> Arguments.of(type, charsetName)));
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void createParserShouldDetectEncodingOfRemainingBytes(BufferType type, String charsetName) {
+        String json = DOCUMENTS[2];
+        String expected = describeEvents(FACTORY.createParser(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+
+        byte[] bytes = json.getBytes(Charset.forName(charsetName));
+        String actual = describeEvents(FACTORY.createParser(type.createBuffer(bytes)));
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    private static ByteBuffer wholeOf(ByteBuffer buffer) {
+        ByteBuffer whole = buffer.duplicate();
+        whole.clear();
+        return whole;
+    }
+
+    private static String describe(JsonParser parser) {
+        return describe(parser, true);
+    }
+
+    private static String describeEvents(JsonParser parser) {
+        return describe(parser, false);
+    }
+
+    private static String describe(JsonParser parser, boolean withOffsets) {
+        StringBuilder builder = new StringBuilder();
+        try (JsonParser p = parser) {
+            while (p.hasNext()) {
+                Event event = p.next();
+                builder.append(event);
+                if (event == Event.KEY_NAME || event == Event.VALUE_STRING || event == Event.VALUE_NUMBER) {
+                    builder.append('(').append(p.getString()).append(')');
+                }
+                if (withOffsets) {
+                    builder.append('@').append(p.getLocation().getStreamOffset());
+                }
+                builder.append(' ');
+            }
+        } catch (JsonParsingException e) {
+            builder.append('!');
+            if (withOffsets) {
+                builder.append(e.getLocation().getStreamOffset());
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import jakarta.json.Json;
+import jakarta.json.stream.JsonParser.Event;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.leadpony.joy.api.JsonParser;
+import org.leadpony.joy.api.JsonParserFactory;
+
+/**
+ * Tests {@link JsonParser#getDouble()} against
+ * {@link java.math.BigDecimal#doubleValue()}.
+ *
+ * @author leadpony
+ */
+public class JsonParserDoubleTest {
+
+    private static final JsonParserFactory FACTORY = (JsonParserFactory) Json.createParserFactory(null);
+
+    private static final String[] NUMBERS = {
+        "0",
+        "-0",
+        "0.0",
+        "-0.0",
+        "0e400",
+        "1",
+        "-1",
+        "1E+2",
+        "123.456E-2",
+        // halfway between two doubles, rounded to even
+        "9007199254740993",
+        "9007199254740995",
+        "9007199254740993.0000000000000001",
+        "1.00000000000000011102230246251565404236316680908203125",
+        "1.00000000000000011102230246251565404236316680908203124",
+        "1.00000000000000011102230246251565404236316680908203126",
+        "2.2250738585072011e-308",
+        "2.2250738585072012e-308",
+        // subnormal numbers
+        "4.9e-324",
+        "-4.9e-324",
+        "5e-324",
+        "1e-323",
+        "4.9406564584124654e-324",
+        "2.4703282292062327e-324",
+        "2.4703282292062328e-324",
+        "2.2250738585072009e-308",
+        "1e-320",
+        // the largest numbers and overflow to infinity
+        "1.7976931348623157e308",
+        "-1.7976931348623157e308",
+        "1.7976931348623158e308",
+        "1.7976931348623159e308",
+        "1e308",
+        "10e308",
+        "1e309",
+        "-1e400",
+        "1e999999999",
+        // underflow to zero
+        "1e-342",
+        "1e-343",
+        "1e-400",
+        "1e-999999999",
+        "0.0001e-340",
+        // more than 19 significant digits
+        "1234567890123456789",
+        "12345678901234567890",
+        "18446744073709551615",
+        "18446744073709551616",
+        "12345678901234567890123",
+        "0.12345678901234567890123",
+        "99999999999999999999e-20",
+        "1000000000000000000000e-360",
+        "0.000000000000000000000000000001234",
+        "3.141592653589793238462643383279502884197169399375105820974944",
+        // the boundaries of Clinger's fast path
+        "9007199254740992",
+        "9007199254740992e22",
+        "9007199254740993e22",
+        "9007199254740992e-22",
+        "1e22",
+        "1e23",
+        "1e-22",
+        "1e-23",
+        "123456789e-22",
+        // the cases which the Eisel-Lemire algorithm may leave undecided
+        "7.3177701707893310e+15",
+        "9.9999999999999999e22",
+        "1.9156918820264798e-56",
+        "6.6438661891272950e-105",
+        "8.988465674311579e307",
+        "2.2250738585072014e-308",
+    };
+
+    /**
+     * The types of the parsers converting numbers.
+     *
+     * @author leadpony
+     */
+    enum ParserType {
+        // converts characters
+        READER,
+        // converts bytes
+        BYTES,
+        STREAM,
+        // converts characters replayed
+        TAPE;
+
+        JsonParser createParser(String json) {
+            switch (this) {
+            case BYTES:
+                return (JsonParser) FACTORY.createParser(json.getBytes(StandardCharsets.UTF_8));
+            case STREAM:
+                return (JsonParser) FACTORY.createParser(
+                        new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+            case TAPE:
+                return (JsonParser) FACTORY.recordTape(FACTORY.createParser(new StringReader(json)))
+                        .createParser();
+            default:
+                return (JsonParser) FACTORY.createParser(new StringReader(json));
+            }
+        }
+    }
+
+    public static Stream<Arguments> getDoubleShouldReturnClosestDouble() {
+        return Stream.of(ParserType.values())
+                .flatMap(type -> Stream.of(NUMBERS).map(number -> Arguments.of(type, number)));
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void getDoubleShouldReturnClosestDouble(ParserType type, String number) {
+        assertThat(parseArray(type, number)).containsExactly(expected(number));
+    }
+
+    @ParameterizedTest
+    @EnumSource(ParserType.class)
+    public void getDoubleShouldReturnSameAsToStringOfRandomDoubles(ParserType type) {
+        Random random = new Random(42);
+        String[] numbers = IntStream.range(0, 2000)
+                .mapToObj(i -> Double.toString(Double.longBitsToDouble(random.nextLong())))
+                .filter(number -> !number.contains("N") && !number.contains("I"))
+                .toArray(String[]::new);
+
+        assertThat(parseArray(type, numbers)).containsExactly(expected(numbers));
+    }
+
+    @ParameterizedTest
+    @EnumSource(ParserType.class)
+    public void getDoubleShouldReturnClosestDoubleOfRandomDigits(ParserType type) {
+        Random random = new Random(42);
+        String[] numbers = IntStream.range(0, 2000)
+                .mapToObj(i -> randomNumber(random))
+                .toArray(String[]::new);
+
+        assertThat(parseArray(type, numbers)).containsExactly(expected(numbers));
+    }
+
+    /**
+     * Returns the bits of the numbers, which tell negative zero from zero.
+     */
+    private static long[] parseArray(ParserType type, String... numbers) {
+        String json = "[" + String.join(",", numbers) + "]";
+        long[] values = new long[numbers.length];
+        try (JsonParser parser = type.createParser(json)) {
+            parser.next();
+            for (int i = 0; i < numbers.length; i++) {
+                assertThat(parser.next()).isEqualTo(Event.VALUE_NUMBER);
+                values[i] = Double.doubleToLongBits(parser.getDouble());
+            }
+        }
+        return values;
+    }
+
+    private static long[] expected(String... numbers) {
+        return Stream.of(numbers)
+                .mapToLong(number -> Double.doubleToLongBits(new BigDecimal(number).doubleValue()))
+                .toArray();
+    }
+
+    /**
+     * Generates a number of up to 25 digits with a random exponent.
+     */
+    private static String randomNumber(Random random) {
+        StringBuilder builder = new StringBuilder();
+        if (random.nextBoolean()) {
+            builder.append('-');
+        }
+        builder.append(1 + random.nextInt(9));
+        int digits = random.nextInt(25);
+        if (digits > 0) {
+            builder.append('.');
+            for (int i = 0; i < digits; i++) {
+                builder.append(random.nextInt(10));
+            }
+        }
+        return builder.append('e').append(random.nextInt(660) - 330).toString();
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import jakarta.json.Json;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+import jakarta.json.stream.JsonParsingException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.leadpony.joy.api.JsonParserFactory;
+import org.leadpony.joy.api.JsonRecord;
+
+/**
+ * Tests the parsers reading memory-mapped files.
+ *
+ * @author leadpony
+ */
+public class JsonParserFileTest {
+
+    private static final JsonParserFactory FACTORY = createParserFactory(new HashMap<>());
+
+    private static final String[] DOCUMENTS = {
+        "{\"key\": \"The quick brown fox jumps over the lazy dog.\", \"\\u00e9\\n\": [\"\\\"\\\\\"]}",
+        "[12345678901234567890.5e-10, -0.000001, true, false, null, \"\u00e9\u3042\ud83d\ude00\"]",
+        "\uFEFF  [ [], {}, \"\" ]  ",
+        "{\"a\": [1, 2, 3], \"b\": tru}",
+        "1234567890",
+    };
+
+    @TempDir
+    Path dir;
+
+    public static Stream<Arguments> createParserShouldReadTokensAcrossWindows() {
+        return IntStream.of(1, 2, 3, 7, 16, 1024).boxed()
+                .flatMap(size -> Stream.of(DOCUMENTS).map(json -> Arguments.of(size, json)));
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void createParserShouldReadTokensAcrossWindows(int windowSize, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        Path path = Files.write(dir.resolve("test.json"), bytes);
+        String expected = describe(FACTORY.createParser(new ByteArrayInputStream(bytes)));
+
+        String actual = describe(createWindowedFactory(windowSize).createParser(path));
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 16, 1024})
+    public void createParserShouldReadChannelFromItsPosition(int windowSize) throws IOException {
+        byte[] bytes = ("[\"skipped\"] " + DOCUMENTS[0]).getBytes(StandardCharsets.UTF_8);
+        Path path = Files.write(dir.resolve("test.json"), bytes);
+        String expected = describeEvents(FACTORY.createParser(bytes, 12, bytes.length - 12));
+
+        String actual;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.position(12);
+            actual = describeEvents(createWindowedFactory(windowSize).createParser(channel));
+        }
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"UTF-16BE", "UTF-16LE", "UTF-32LE"})
+    public void createParserShouldDetectEncodingOfFile(String charsetName) throws IOException {
+        String json = DOCUMENTS[1];
+        Path path = Files.write(dir.resolve("test.json"), json.getBytes(charsetName));
+        String expected = describeEvents(
+                FACTORY.createParser(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+
+        String actual = describeEvents(createWindowedFactory(16).createParser(path));
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    public void closeShouldCloseChannel() throws IOException {
+        Path path = Files.write(dir.resolve("test.json"), DOCUMENTS[0].getBytes(StandardCharsets.UTF_8));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        JsonParser parser = createWindowedFactory(16).createParser(channel);
+        parser.next();
+        assertThat(channel.isOpen()).isTrue();
+        parser.close();
+
+        assertThat(channel.isOpen()).isFalse();
+    }
+
+    @Test
+    public void closeShouldCloseChannelAfterError() throws IOException {
+        Path path = Files.write(dir.resolve("test.json"), DOCUMENTS[3].getBytes(StandardCharsets.UTF_8));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        JsonParser parser = createWindowedFactory(16).createParser(channel);
+        assertThat(catchThrowableOfType(() -> {
+            while (parser.hasNext()) {
+                parser.next();
+            }
+        }, JsonParsingException.class)).isNotNull();
+        parser.close();
+
+        assertThat(channel.isOpen()).isFalse();
+    }
+
+    @Test
+    public void createParserShouldThrowAtMaxTokenLengthAcrossWindows() throws IOException {
+        StringBuilder builder = new StringBuilder("[\"");
+        for (int i = 0; i < 100; i++) {
+            builder.append('a');
+        }
+        Path path = Files.write(dir.resolve("test.json"),
+                builder.append("\"]").toString().getBytes(StandardCharsets.UTF_8));
+        Map<String, Object> config = new HashMap<>();
+        config.put(org.leadpony.joy.api.JsonParser.WINDOW_SIZE, 16);
+        config.put(org.leadpony.joy.api.JsonParser.MAX_TOKEN_LENGTH, 50);
+
+        JsonParsingException thrown;
+        try (JsonParser parser = createParserFactory(config).createParser(path)) {
+            parser.next();
+            thrown = catchThrowableOfType(parser::next, JsonParsingException.class);
+        }
+
+        assertThat(thrown).isNotNull();
+        assertThat(thrown.getLocation().getStreamOffset()).isGreaterThan(50L);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 16, 1024})
+    public void createRecordStreamShouldReadRecordsAcrossWindows(int windowSize) throws IOException {
+        String[] records = {DOCUMENTS[0], DOCUMENTS[1], "\"short\"", "[]"};
+        Path path = Files.write(dir.resolve("test.jsonl"),
+                String.join("\n", records).getBytes(StandardCharsets.UTF_8));
+
+        List<String> actual;
+        try (Stream<JsonRecord> stream = createWindowedFactory(windowSize)
+                .createRecordStream(path, JsonRecord.Format.LINES)) {
+            actual = stream.map(record -> record.getValue().toString()).collect(Collectors.toList());
+        }
+
+        assertThat(actual).containsExactlyElementsOf(Stream.of(records)
+                .map(json -> Json.createReader(new StringReader(json)).readValue().toString())
+                .collect(Collectors.toList()));
+    }
+
+    private static String describe(JsonParser parser) {
+        StringBuilder builder = new StringBuilder();
+        try (JsonParser p = parser) {
+            while (p.hasNext()) {
+                Event event = p.next();
+                builder.append(event);
+                if (event == Event.KEY_NAME || event == Event.VALUE_STRING || event == Event.VALUE_NUMBER) {
+                    builder.append('(').append(p.getString()).append(')');
+                }
+                builder.append('@').append(p.getLocation().getStreamOffset()).append(' ');
+            }
+        } catch (JsonParsingException e) {
+            builder.append('!').append(e.getLocation().getStreamOffset());
+        }
+        return builder.toString();
+    }
+
+    private static String describeEvents(JsonParser parser) {
+        return describeEvents(describe(parser));
+    }
+
+    /**
+     * Removes the offsets from the description.
+     */
+    private static String describeEvents(String description) {
+        return description.replaceAll("@-?\\d+ ", " ").replaceAll("!-?\\d+$", "!");
+    }
+
+    private static JsonParserFactory createWindowedFactory(int windowSize) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(org.leadpony.joy.api.JsonParser.WINDOW_SIZE, windowSize);
+        return createParserFactory(config);
+    }
+
+    private static JsonParserFactory createParserFactory(Map<String, Object> config) {
+        return (JsonParserFactory) Json.createParserFactory(config);
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jakarta.json.Json;
+import jakarta.json.JsonReaderFactory;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.leadpony.joy.api.JsonParserFactory;
+
+/**
+ * Tests the parsers configured with
+ * {@link org.leadpony.joy.api.JsonParser#INTERN_KEY_NAMES}.
+ *
+ * @author leadpony
+ */
+public class JsonParserInternTest {
+
+    private static final JsonParserFactory FACTORY = createInterningFactory(null);
+
+    private static final String[] KEYS = {
+        "",
+        "id",
+        "name",
+        "\u00e9t\u00e9",
+        "\u3042\u3044\u3046",
+        "\ud83d\ude00",
+        "a\"b\\c\n",
+        repeat('k', 63),
+        repeat('k', 64),
+        repeat('k', 65),
+        repeat('k', 64) + "\u00e9",
+        repeat('\u00e9', 64),
+        repeat('x', 10000),
+    };
+
+    /**
+     * The types of the parsers interning key names.
+     *
+     * @author leadpony
+     */
+    enum ParserType {
+        // reads characters
+        READER,
+        // reads UTF-8 bytes
+        BYTES,
+        STREAM,
+        // reads characters decoded from UTF-16
+        STREAM_UTF16;
+
+        JsonParser createParser(JsonParserFactory factory, String json) {
+            switch (this) {
+            case BYTES:
+                return factory.createParser(json.getBytes(StandardCharsets.UTF_8));
+            case STREAM:
+                return factory.createParser(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+            case STREAM_UTF16:
+                return factory.createParser(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_16LE)));
+            default:
+                return factory.createParser(new StringReader(json));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ParserType.class)
+    public void getStringShouldDecodeAllKeys(ParserType type) {
+        String json = createJson(KEYS, false);
+
+        assertThat(readKeys(type.createParser(FACTORY, json))).containsExactly(KEYS);
+        assertThat(readKeys(type.createParser(createInterningFactory(1), json))).containsExactly(KEYS);
+        assertThat(readKeys(type.createParser(FACTORY, createJson(KEYS, true)))).containsExactly(KEYS);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ParserType.class)
+    public void getStringShouldShareIdenticalKeys(ParserType type) {
+        String[] keys = {"id", "name", "\u00e9t\u00e9", "\ud83d\ude00", repeat('k', 64)};
+        JsonParserFactory factory = createInterningFactory(null);
+
+        List<String> first = readKeys(type.createParser(factory, createJson(keys, false)));
+        List<String> second = readKeys(type.createParser(factory, createJson(keys, false)));
+        List<String> escaped = readKeys(type.createParser(factory, createJson(keys, true)));
+
+        assertThat(first).containsExactly(keys);
+        for (int i = 0; i < keys.length; i++) {
+            assertThat(second.get(i)).isSameAs(first.get(i));
+            assertThat(escaped.get(i)).isSameAs(first.get(i));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ParserType.class)
+    public void getStringShouldShareKeysInOneDocument(ParserType type) {
+        List<String> keys = readKeys(type.createParser(FACTORY, "[{\"id\": 1}, {\"id\": 2}, {\"\\u0069d\": 3}]"));
+
+        assertThat(keys).containsExactly("id", "id", "id");
+        assertThat(keys.get(1)).isSameAs(keys.get(0));
+        assertThat(keys.get(2)).isSameAs(keys.get(0));
+    }
+
+    @ParameterizedTest
+    @EnumSource(ParserType.class)
+    public void getStringShouldNotShareKeysWithoutProperty(ParserType type) {
+        JsonParserFactory factory = (JsonParserFactory) Json.createParserFactory(null);
+
+        List<String> keys = readKeys(type.createParser(factory, "[{\"id\": 1}, {\"id\": 2}]"));
+
+        assertThat(keys).containsExactly("id", "id");
+        assertThat(keys.get(1)).isNotSameAs(keys.get(0));
+    }
+
+    @ParameterizedTest
+    @EnumSource(ParserType.class)
+    public void getStringShouldNotShareKeysIfDisabled(ParserType type) {
+        List<String> keys = readKeys(type.createParser(createInterningFactory(0),
+                "[{\"id\": 1}, {\"id\": 2}]"));
+
+        assertThat(keys).containsExactly("id", "id");
+        assertThat(keys.get(1)).isNotSameAs(keys.get(0));
+    }
+
+    @ParameterizedTest
+    @EnumSource(ParserType.class)
+    public void getStringShouldEvictKeysFromFullTable(ParserType type) {
+        // The table of a single key name.
+        JsonParserFactory factory = createInterningFactory(1);
+
+        List<String> keys = readKeys(type.createParser(factory,
+                "[{\"a\": 1}, {\"a\": 2}, {\"b\": 3}, {\"a\": 4}, {\"a\": 5}]"));
+
+        assertThat(keys).containsExactly("a", "a", "b", "a", "a");
+        assertThat(keys.get(1)).isSameAs(keys.get(0));
+        assertThat(keys.get(3)).isNotSameAs(keys.get(0));
+        assertThat(keys.get(4)).isSameAs(keys.get(3));
+    }
+
+    @Test
+    public void getStringShouldNotShareKeysBetweenFactories() {
+        String first = readKeys(createInterningFactory(null).createParser(new StringReader("{\"id\": 1}"))).get(0);
+        String second = readKeys(createInterningFactory(null).createParser(new StringReader("{\"id\": 1}"))).get(0);
+
+        assertThat(second).isEqualTo(first).isNotSameAs(first);
+    }
+
+    @Test
+    public void readObjectShouldShareKeys() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(org.leadpony.joy.api.JsonParser.INTERN_KEY_NAMES, 256);
+        JsonReaderFactory factory = Json.createReaderFactory(config);
+
+        String first = factory.createReader(new StringReader("{\"id\": 1}")).readObject().keySet().iterator().next();
+        String second = factory.createReader(new ByteArrayInputStream("{\"id\": 2}".getBytes(StandardCharsets.UTF_8)))
+                .readObject().keySet().iterator().next();
+
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    public void getStringShouldDecodeKeysInThreadsSharingTable() throws InterruptedException, ExecutionException {
+        JsonParserFactory factory = createInterningFactory(16);
+        String[] keys = new String[200];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = ((i % 2 == 0) ? "key" : "\u00e9") + i;
+        }
+        String json = createJson(keys, false);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                ParserType type = ParserType.values()[i % ParserType.values().length];
+                futures.add(executor.submit(() -> readKeys(type.createParser(factory, json))));
+            }
+            for (Future<List<String>> future : futures) {
+                assertThat(future.get()).containsExactly(keys);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static List<String> readKeys(JsonParser parser) {
+        List<String> keys = new ArrayList<>();
+        try (JsonParser p = parser) {
+            while (p.hasNext()) {
+                if (p.next() == Event.KEY_NAME) {
+                    keys.add(p.getString());
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Creates an object of the specified keys, optionally escaping all of the
+     * characters in the keys.
+     */
+    private static String createJson(String[] keys, boolean escaping) {
+        StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append('"');
+            for (char c : keys[i].toCharArray()) {
+                if (escaping || c == '"' || c == '\\' || c < 0x20) {
+                    builder.append(String.format("\\u%04x", (int) c));
+                } else {
+                    builder.append(c);
+                }
+            }
+            builder.append("\": ").append(i);
+        }
+        return builder.append('}').toString();
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    private static JsonParserFactory createInterningFactory(Integer size) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(org.leadpony.joy.api.JsonParser.INTERN_KEY_NAMES, (size != null) ? size : Boolean.TRUE);
+        return (JsonParserFactory) Json.createParserFactory(config);
+    }
+}
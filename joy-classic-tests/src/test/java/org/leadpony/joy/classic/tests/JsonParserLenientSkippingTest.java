@@ -0,0 +1,229 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import jakarta.json.Json;
+import jakarta.json.stream.JsonLocation;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+import jakarta.json.stream.JsonParsingException;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.leadpony.joy.api.JsonParserFactory;
+
+/**
+ * Tests the parsers configured with
+ * {@link org.leadpony.joy.api.JsonParser#LENIENT_SKIPPING} against the
+ * parsers skipping strictly.
+ *
+ * @author leadpony
+ */
+public class JsonParserLenientSkippingTest {
+
+    private static final JsonParserFactory STRICT_FACTORY = createParserFactory(new HashMap<>());
+
+    private static final String[] DOCUMENTS = {
+        "[\"[{]}\", {\"a]\": \"}\", \"{\": [\"]\"]}, \"[[\"]",
+        "[\"\\\"]\", \"\\\\\", [\"\\\\\\\"]\"], {\"\\\"}\": \"\\\\\"}]",
+        "{\"a\": [1, [2, [3]], {\"b\": {\"c\": []}}], \"d\": {\"e\": [{}]}, \"f\": 4}",
+        "[\r\n  1,\r\n  [\"x\\r\\ny\",\r\n   {\"a\":\r\n\r\n 2}],\r\n  \"\u00e9\u3042\ud83d\ude00\"\r\n]\r\n",
+        "{\n\"a\": [\r\r\n\n],\r\"b\": {\"c\": \"\\r\\n\"}\n}",
+        "[[[[[[[[[[\"deep\"]]]]]]]]], [], {}]",
+        "[\"\\u005d\", \"\\u0022]\", \"\\\\u0022\"]",
+    };
+
+    /**
+     * The types of the parsers skipping the input.
+     *
+     * @author leadpony
+     */
+    enum ParserType {
+        READER,
+        BYTES,
+        STREAM,
+        STREAM_UTF16,
+        // reads through the smallest buffer
+        SMALL_READER,
+        SMALL_STREAM;
+
+        JsonParser createParser(boolean lenient, String json) {
+            Map<String, Object> config = new HashMap<>();
+            if (lenient) {
+                config.put(org.leadpony.joy.api.JsonParser.LENIENT_SKIPPING, Boolean.TRUE);
+            }
+            if (this == SMALL_READER || this == SMALL_STREAM) {
+                config.put(org.leadpony.joy.api.JsonParser.BUFFER_SIZE, 16);
+            }
+            return createParser(createParserFactory(config), json);
+        }
+
+        JsonParser createParser(JsonParserFactory factory, String json) {
+            switch (this) {
+            case BYTES:
+                return factory.createParser(json.getBytes(StandardCharsets.UTF_8));
+            case STREAM:
+            case SMALL_STREAM:
+                return factory.createParser(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+            case STREAM_UTF16:
+                return factory.createParser(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_16BE)));
+            default:
+                return factory.createParser(new StringReader(json));
+            }
+        }
+    }
+
+    public static Stream<Arguments> skipShouldEndAtSameLocationAsStrictSkip() {
+        return Stream.of(ParserType.values()).flatMap(type -> Stream.of(DOCUMENTS)
+                .flatMap(json -> Stream.of(true, false).map(array -> Arguments.of(type, json, array))));
+    }
+
+    /**
+     * Skips at every event in the document.
+     */
+    @ParameterizedTest
+    @MethodSource
+    public void skipShouldEndAtSameLocationAsStrictSkip(ParserType type, String json, boolean array) {
+        int events = countEvents(json);
+        for (int i = 1; i < events; i++) {
+            String expected = skipAndDescribe(type.createParser(false, json), i, array);
+
+            String actual = skipAndDescribe(type.createParser(true, json), i, array);
+
+            assertThat(actual).as("skipping at %d", i).isEqualTo(expected);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ParserType.class)
+    public void skipShouldNotValidateSkippedInput(ParserType type) {
+        String json = "[[1,, tru, \"a\" : x], {\"b\" 2 : , :}, \"c\"]";
+        try (JsonParser parser = type.createParser(true, json)) {
+            assertThat(parser.next()).isEqualTo(Event.START_ARRAY);
+            assertThat(parser.next()).isEqualTo(Event.START_ARRAY);
+            parser.skipArray();
+            assertThat(parser.next()).isEqualTo(Event.START_OBJECT);
+            parser.skipObject();
+            assertThat(parser.next()).isEqualTo(Event.VALUE_STRING);
+            assertThat(parser.getString()).isEqualTo("c");
+            assertThat(parser.next()).isEqualTo(Event.END_ARRAY);
+        }
+
+        try (JsonParser parser = type.createParser(false, json)) {
+            parser.next();
+            parser.next();
+            assertThat(catchThrowableOfType(parser::skipArray, JsonParsingException.class)).isNotNull();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ParserType.class)
+    public void skipShouldThrowAtUnexpectedEnd(ParserType type) {
+        for (String json : new String[] {"[[1, [2]", "[\"]", "[\"\\\"]", "{\"a\": {\"b\": [}"}) {
+            try (JsonParser parser = type.createParser(true, json)) {
+                parser.next();
+
+                JsonParsingException thrown = catchThrowableOfType(
+                        json.startsWith("[") ? parser::skipArray : parser::skipObject,
+                        JsonParsingException.class);
+
+                assertThat(thrown).as(json).isNotNull();
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ParserType.class)
+    public void skipShouldCountLinesSeparatedByCrlf(ParserType type) {
+        String json = "[\r\n[\r\n\"\\r\\n\\\"\",\r\n[\"]\"]\r\n\r\n],\r\n\"after\"\r\n]";
+        try (JsonParser parser = type.createParser(true, json)) {
+            parser.next();
+            parser.next();
+            parser.skipArray();
+            assertLocation(parser.getLocation(), 6, 2, json.indexOf("],") + 1);
+            assertThat(parser.next()).isEqualTo(Event.VALUE_STRING);
+            assertLocation(parser.getLocation(), 7, 8, json.indexOf("\"after\"") + 7);
+        }
+    }
+
+    private static void assertLocation(JsonLocation location, long line, long column, long offset) {
+        assertThat(location.getLineNumber()).isEqualTo(line);
+        assertThat(location.getColumnNumber()).isEqualTo(column);
+        assertThat(location.getStreamOffset()).isEqualTo(offset);
+    }
+
+    private static int countEvents(String json) {
+        int count = 0;
+        try (JsonParser parser = STRICT_FACTORY.createParser(new StringReader(json))) {
+            while (parser.hasNext()) {
+                parser.next();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Skips the array or object after the specified number of events, and
+     * describes the events and the locations after that.
+     */
+    private static String skipAndDescribe(JsonParser parser, int events, boolean array) {
+        StringBuilder builder = new StringBuilder();
+        try (JsonParser p = parser) {
+            for (int i = 0; i < events; i++) {
+                p.next();
+            }
+            if (array) {
+                p.skipArray();
+            } else {
+                p.skipObject();
+            }
+            appendLocation(builder, p.getLocation());
+            while (p.hasNext()) {
+                Event event = p.next();
+                builder.append(event);
+                if (event == Event.KEY_NAME || event == Event.VALUE_STRING || event == Event.VALUE_NUMBER) {
+                    builder.append('(').append(p.getString()).append(')');
+                }
+                appendLocation(builder, p.getLocation());
+            }
+        }
+        return builder.toString();
+    }
+
+    private static void appendLocation(StringBuilder builder, JsonLocation location) {
+        builder.append('@')
+            .append(location.getLineNumber()).append(':')
+            .append(location.getColumnNumber()).append(':')
+            .append(location.getStreamOffset()).append(' ');
+    }
+
+    private static JsonParserFactory createParserFactory(Map<String, Object> config) {
+        return (JsonParserFactory) Json.createParserFactory(config);
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import jakarta.json.Json;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonReaderFactory;
+import jakarta.json.stream.JsonParser.Event;
+import jakarta.json.stream.JsonParsingException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.leadpony.joy.api.JsonParser;
+import org.leadpony.joy.api.JsonParserFactory;
+import org.leadpony.joy.api.NonBlockingJsonParser;
+
+/**
+ * @author leadpony
+ */
+public class JsonParserLimitTest {
+
+    /**
+     * The kinds of the input given to the parser.
+     */
+    enum InputType {
+        READER,
+        STREAM,
+        BYTES,
+        NON_BLOCKING;
+
+        jakarta.json.stream.JsonParser createParser(JsonParserFactory factory, String json) {
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            switch (this) {
+            case READER:
+                return factory.createParser(new StringReader(json));
+            case STREAM:
+                return factory.createParser(new ByteArrayInputStream(bytes));
+            case BYTES:
+                return factory.createParser(bytes);
+            default:
+                NonBlockingJsonParser parser = factory.createNonBlockingParser();
+                parser.feed(ByteBuffer.wrap(bytes));
+                parser.endOfInput();
+                return parser;
+            }
+        }
+    }
+
+    public static Stream<Arguments> provideExceedingArguments() {
+        return Stream.of(
+                Arguments.of(JsonParser.MAX_STRING_LENGTH, 5, "[\"abcdefgh\"]", 7L),
+                Arguments.of(JsonParser.MAX_STRING_LENGTH, 5, "{\"abcdef\":1}", 7L),
+                Arguments.of(JsonParser.MAX_STRING_LENGTH, 5, "[\"ab\\ncdef\"]", 8L),
+                Arguments.of(JsonParser.MAX_STRING_LENGTH, 5, "[\"abcd\\u0065\\u0066\"]", 12L),
+                Arguments.of(JsonParser.MAX_STRING_LENGTH, 0, "[\"a\"]", 2L),
+                Arguments.of(JsonParser.MAX_NUMBER_DIGITS, 5, "[1, -123.456]", 11L),
+                Arguments.of(JsonParser.MAX_NUMBER_DIGITS, 5, "[1234567]", 6L),
+                Arguments.of(JsonParser.MAX_NUMBER_DIGITS, 5, "[0.00001]", 7L),
+                Arguments.of(JsonParser.MAX_NUMBER_EXPONENT, 400, "[1e-401]", 6L),
+                Arguments.of(JsonParser.MAX_NUMBER_EXPONENT, 400, "[1E+99999999999999999999]", 6L),
+                Arguments.of(JsonParser.MAX_ENTRIES, 3, "[1,2,3,4]", 7L),
+                Arguments.of(JsonParser.MAX_ENTRIES, 3, "[[],{},[[]],{}]", 12L),
+                Arguments.of(JsonParser.MAX_ENTRIES, 3, "{\"a\":1,\"b\":2,\"c\":3,\"d\":4}", 19L),
+                Arguments.of(JsonParser.MAX_DOCUMENT_LENGTH, 10, "[1,2,3,4,5,6]", 10L),
+                Arguments.of(JsonParser.MAX_DOCUMENT_LENGTH, 10, "[1,2,3,4]      ", 10L),
+                Arguments.of(JsonParser.MAX_DOCUMENT_LENGTH, 10, "[\"abcdefghijklmn\"]", 10L))
+            .flatMap(args -> Stream.of(InputType.values())
+                    .map(type -> {
+                        Object[] values = args.get();
+                        return Arguments.of(type, values[0], values[1], values[2], values[3]);
+                    }));
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideExceedingArguments")
+    public void nextShouldThrowAtFirstUnitOverLimit(InputType type, String name, int limit, String json,
+            long offset) {
+        JsonParserFactory factory = createParserFactory(name, limit);
+        JsonParsingException thrown;
+        try (jakarta.json.stream.JsonParser parser = type.createParser(factory, json)) {
+            thrown = catchThrowableOfType(() -> {
+                while (parser.hasNext()) {
+                    parser.next();
+                }
+            }, JsonParsingException.class);
+        }
+
+        assertThat(thrown).isNotNull();
+        assertThat(thrown.getLocation().getStreamOffset()).isEqualTo(offset);
+        assertThat(thrown.getLocation().getColumnNumber()).isEqualTo(offset + 1);
+        assertThat(thrown.getMessage()).contains("limit of " + limit);
+    }
+
+    public static Stream<Arguments> provideWithinArguments() {
+        return Stream.of(
+                Arguments.of(JsonParser.MAX_STRING_LENGTH, 5, "{\"abcde\":\"a\\u0062cde\"}"),
+                Arguments.of(JsonParser.MAX_NUMBER_DIGITS, 5, "[-123.45e99999, 12345]"),
+                Arguments.of(JsonParser.MAX_NUMBER_EXPONENT, 400, "[1e400, 1E-400, 1e+00400, 1.5]"),
+                Arguments.of(JsonParser.MAX_ENTRIES, 3, "[1,[1,2,3],{\"a\":[1,2,3],\"b\":{\"x\":1,\"y\":2,\"z\":[]}}]"),
+                Arguments.of(JsonParser.MAX_DOCUMENT_LENGTH, 10, "[1,2,3,4] "))
+            .flatMap(args -> Stream.of(InputType.values())
+                    .map(type -> {
+                        Object[] values = args.get();
+                        return Arguments.of(type, values[0], values[1], values[2]);
+                    }));
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideWithinArguments")
+    public void nextShouldAcceptInputWithinLimit(InputType type, String name, int limit, String json) {
+        JsonParserFactory factory = createParserFactory(name, limit);
+        int events = 0;
+        try (jakarta.json.stream.JsonParser parser = type.createParser(factory, json)) {
+            while (parser.hasNext()) {
+                parser.next();
+                events++;
+            }
+        }
+
+        assertThat(events).isPositive();
+    }
+
+    @Test
+    public void nextShouldStopReadingEndlessStringInStream() {
+        JsonParserFactory factory = createParserFactory(JsonParser.MAX_STRING_LENGTH, 100);
+        EndlessInputStream in = new EndlessInputStream("[\"", 'a');
+        JsonParsingException thrown;
+        try (jakarta.json.stream.JsonParser parser = factory.createParser(in)) {
+            assertThat(parser.next()).isEqualTo(Event.START_ARRAY);
+            thrown = catchThrowableOfType(parser::next, JsonParsingException.class);
+        }
+
+        assertThat(thrown).isNotNull();
+        assertThat(thrown.getLocation().getStreamOffset()).isEqualTo(102L);
+        assertThat(in.getBytesRead()).isLessThan(1024 * 1024);
+    }
+
+    @Test
+    public void nextShouldStopReadingEndlessStringInReader() {
+        JsonParserFactory factory = createParserFactory(JsonParser.MAX_STRING_LENGTH, 100);
+        EndlessReader reader = new EndlessReader("[\"", 'a');
+        JsonParsingException thrown;
+        try (jakarta.json.stream.JsonParser parser = factory.createParser(reader)) {
+            assertThat(parser.next()).isEqualTo(Event.START_ARRAY);
+            thrown = catchThrowableOfType(parser::next, JsonParsingException.class);
+        }
+
+        assertThat(thrown).isNotNull();
+        assertThat(thrown.getLocation().getStreamOffset()).isEqualTo(102L);
+        assertThat(reader.getCharsRead()).isLessThan(1024 * 1024);
+    }
+
+    @Test
+    public void nextShouldStopReadingEndlessWhitespace() {
+        JsonParserFactory factory = createParserFactory(JsonParser.MAX_DOCUMENT_LENGTH, 1000);
+        EndlessInputStream in = new EndlessInputStream("[1,", ' ');
+        JsonParsingException thrown;
+        try (jakarta.json.stream.JsonParser parser = factory.createParser(in)) {
+            parser.next();
+            parser.next();
+            thrown = catchThrowableOfType(parser::next, JsonParsingException.class);
+        }
+
+        assertThat(thrown).isNotNull();
+        assertThat(thrown.getLocation().getStreamOffset()).isEqualTo(1000L);
+        assertThat(in.getBytesRead()).isLessThan(1024 * 1024);
+    }
+
+    @Test
+    public void readShouldStopReadingEndlessWhitespace() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(JsonParser.MAX_DOCUMENT_LENGTH, 1000L);
+        JsonReaderFactory factory = Json.createReaderFactory(config);
+        EndlessInputStream in = new EndlessInputStream("[1,", ' ');
+        JsonParsingException thrown;
+        try (JsonReader reader = factory.createReader(in)) {
+            thrown = catchThrowableOfType(reader::read, JsonParsingException.class);
+        }
+
+        assertThat(thrown).isNotNull();
+        assertThat(thrown.getMessage()).contains("limit of 1000");
+        assertThat(in.getBytesRead()).isLessThan(1024 * 1024);
+    }
+
+    @Test
+    public void readShouldThrowAtEntryOverLimit() {
+        JsonReaderFactory factory = Json.createReaderFactory(
+                Collections.singletonMap(JsonParser.MAX_ENTRIES, 2));
+        JsonParsingException thrown;
+        try (JsonReader reader = factory.createReader(new StringReader("{\"a\":1,\"b\":2,\"c\":3}"))) {
+            thrown = catchThrowableOfType(reader::readObject, JsonParsingException.class);
+        }
+
+        assertThat(thrown).isNotNull();
+        assertThat(thrown.getLocation().getStreamOffset()).isEqualTo(13L);
+    }
+
+    private static JsonParserFactory createParserFactory(String name, Object limit) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(name, limit);
+        return (JsonParserFactory) Json.createParserFactory(config);
+    }
+
+    /**
+     * An input stream which repeats a byte forever after a prefix.
+     *
+     * @author leadpony
+     */
+    private static class EndlessInputStream extends InputStream {
+
+        private final byte[] prefix;
+        private final byte filler;
+        private long bytesRead;
+
+        EndlessInputStream(String prefix, char filler) {
+            this.prefix = prefix.getBytes(StandardCharsets.US_ASCII);
+            this.filler = (byte) filler;
+        }
+
+        long getBytesRead() {
+            return bytesRead;
+        }
+
+        @Override
+        public int read() {
+            int b = (bytesRead < prefix.length) ? prefix[(int) bytesRead] : filler;
+            bytesRead++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            for (int i = 0; i < len; i++) {
+                b[off + i] = (bytesRead < prefix.length) ? prefix[(int) bytesRead] : filler;
+                bytesRead++;
+            }
+            return len;
+        }
+    }
+
+    /**
+     * A reader which repeats a character forever after a prefix.
+     *
+     * @author leadpony
+     */
+    private static class EndlessReader extends Reader {
+
+        private final String prefix;
+        private final char filler;
+        private long charsRead;
+
+        EndlessReader(String prefix, char filler) {
+            this.prefix = prefix;
+            this.filler = filler;
+        }
+
+        long getCharsRead() {
+            return charsRead;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            for (int i = 0; i < len; i++) {
+                cbuf[off + i] = (charsRead < prefix.length()) ? prefix.charAt((int) charsRead) : filler;
+                charsRead++;
+            }
+            return len;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
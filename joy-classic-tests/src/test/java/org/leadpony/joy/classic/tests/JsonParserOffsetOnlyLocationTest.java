@@ -0,0 +1,216 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import jakarta.json.Json;
+import jakarta.json.stream.JsonLocation;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParsingException;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.leadpony.joy.api.JsonParserFactory;
+
+/**
+ * Tests the parsers configured with
+ * {@link org.leadpony.joy.api.JsonParser#OFFSET_ONLY_LOCATION} against the
+ * parsers counting lines.
+ *
+ * @author leadpony
+ */
+public class JsonParserOffsetOnlyLocationTest {
+
+    private static final JsonParserFactory TRACKING_FACTORY = createParserFactory(new HashMap<>());
+
+    private static final JsonParserFactory OFFSET_ONLY_FACTORY = createOffsetOnlyFactory(new HashMap<>());
+
+    private static final String[] DOCUMENTS = {
+        "[]",
+        "[\n  1,\n  \"a\",\n  true\n]\n",
+        "{\r\n\"a\": [1, 2],\r\n\"b\": {\"c\": null}\r\n}",
+        "[\r1,\r\r\"\u00e9\u3042\ud83d\ude00\",\r\n\n-1.5e3]",
+        "\n\n\n  {\"\\n\": \"\\r\\n\"}  \n",
+    };
+
+    private static final String[] ILL_FORMED_DOCUMENTS = {
+        "[\n  1,\n  x\n]",
+        "{\r\n\"a\": [1, 2],\r\n\"b\" 1}",
+        "[\r1,\r\r\"\u00e9\u3042\",\r\n\n-]",
+        "\n\n\n  [1, 2}",
+        "[\n\"unclosed",
+    };
+
+    /**
+     * The types of the parsers reporting the locations.
+     *
+     * @author leadpony
+     */
+    enum ParserType {
+        // reads characters
+        READER,
+        // reads UTF-8 bytes
+        BYTES,
+        STREAM,
+        // reads characters decoded from UTF-16
+        STREAM_UTF16;
+
+        JsonParser createParser(JsonParserFactory factory, String json) {
+            switch (this) {
+            case BYTES:
+                return factory.createParser(json.getBytes(StandardCharsets.UTF_8));
+            case STREAM:
+                return factory.createParser(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+            case STREAM_UTF16:
+                return factory.createParser(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_16BE)));
+            default:
+                return factory.createParser(new StringReader(json));
+            }
+        }
+    }
+
+    public static Stream<Arguments> getLocationShouldReturnOnlyOffset() {
+        return Stream.of(ParserType.values()).flatMap(type -> Stream.of(DOCUMENTS)
+                .map(json -> Arguments.of(type, json)));
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void getLocationShouldReturnOnlyOffset(ParserType type, String json) {
+        List<JsonLocation> expected = readLocations(type.createParser(TRACKING_FACTORY, json));
+        List<JsonLocation> actual = readLocations(type.createParser(OFFSET_ONLY_FACTORY, json));
+
+        assertThat(actual).hasSameSizeAs(expected);
+        for (int i = 0; i < actual.size(); i++) {
+            assertThat(expected.get(i).getLineNumber()).isPositive();
+            assertOffsetOnly(actual.get(i), expected.get(i).getStreamOffset());
+        }
+    }
+
+    public static Stream<Arguments> nextShouldThrowExceptionWithOnlyOffset() {
+        return Stream.of(ParserType.values()).flatMap(type -> Stream.of(ILL_FORMED_DOCUMENTS)
+                .map(json -> Arguments.of(type, json)));
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void nextShouldThrowExceptionWithOnlyOffset(ParserType type, String json) {
+        JsonParsingException expected = catchThrowableOfType(
+                () -> readLocations(type.createParser(TRACKING_FACTORY, json)), JsonParsingException.class);
+        JsonParsingException actual = catchThrowableOfType(
+                () -> readLocations(type.createParser(OFFSET_ONLY_FACTORY, json)), JsonParsingException.class);
+
+        assertThat(expected).isNotNull();
+        assertThat(actual).isNotNull();
+        assertThat(expected.getLocation().getLineNumber()).isGreaterThan(1L);
+        assertExceptionWithOnlyOffset(actual, expected.getLocation().getStreamOffset());
+    }
+
+    @ParameterizedTest
+    @EnumSource(ParserType.class)
+    public void nextShouldThrowExceptionWithOnlyOffsetAtLimits(ParserType type) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(org.leadpony.joy.api.JsonParser.MAX_NESTING_DEPTH, 2);
+        config.put(org.leadpony.joy.api.JsonParser.BUFFER_SIZE, 16);
+        config.put(org.leadpony.joy.api.JsonParser.MAX_TOKEN_LENGTH, 20);
+
+        String deep = "[\n[\n[1]]]";
+        JsonParsingException thrown = catchThrowableOfType(
+                () -> readLocations(type.createParser(createOffsetOnlyFactory(config), deep)),
+                JsonParsingException.class);
+        assertExceptionWithOnlyOffset(thrown, deep.lastIndexOf('['));
+
+        if (type == ParserType.BYTES) {
+            // The tokens in the whole input are not checked.
+            return;
+        }
+        String longString = "[\n\"0123456789012345678901234567890123456789\"]";
+        thrown = catchThrowableOfType(
+                () -> readLocations(type.createParser(createOffsetOnlyFactory(config), longString)),
+                JsonParsingException.class);
+        assertThat(thrown).isNotNull();
+        assertThat(thrown.getLocation().getLineNumber()).isEqualTo(-1L);
+        assertThat(thrown.getLocation().getColumnNumber()).isEqualTo(-1L);
+        assertThat(thrown.getLocation().getStreamOffset()).isGreaterThan(20L);
+        assertThat(thrown.getMessage()).contains("[line=-1,column=-1,offset=");
+    }
+
+    @ParameterizedTest
+    @EnumSource(ParserType.class)
+    public void skipArrayShouldEndAtSameOffset(ParserType type) {
+        String json = "[\n[\r\n1,\r\n{\"a\": [2]}\n],\n3\n]";
+        try (JsonParser expected = type.createParser(TRACKING_FACTORY, json);
+             JsonParser actual = type.createParser(OFFSET_ONLY_FACTORY, json)) {
+            for (JsonParser parser : new JsonParser[] {expected, actual}) {
+                parser.next();
+                parser.next();
+                parser.skipArray();
+            }
+            assertOffsetOnly(actual.getLocation(), expected.getLocation().getStreamOffset());
+
+            expected.next();
+            actual.next();
+            assertThat(expected.getLocation().getLineNumber()).isEqualTo(6L);
+            assertOffsetOnly(actual.getLocation(), expected.getLocation().getStreamOffset());
+        }
+    }
+
+    private static void assertOffsetOnly(JsonLocation location, long offset) {
+        assertThat(location.getLineNumber()).isEqualTo(-1L);
+        assertThat(location.getColumnNumber()).isEqualTo(-1L);
+        assertThat(location.getStreamOffset()).isEqualTo(offset);
+    }
+
+    private static void assertExceptionWithOnlyOffset(JsonParsingException thrown, long offset) {
+        assertThat(thrown).isNotNull();
+        assertOffsetOnly(thrown.getLocation(), offset);
+        assertThat(thrown.getMessage()).contains("[line=-1,column=-1,offset=" + offset + "]");
+    }
+
+    private static List<JsonLocation> readLocations(JsonParser parser) {
+        List<JsonLocation> locations = new ArrayList<>();
+        try (JsonParser p = parser) {
+            locations.add(p.getLocation());
+            while (p.hasNext()) {
+                p.next();
+                locations.add(p.getLocation());
+            }
+        }
+        return locations;
+    }
+
+    private static JsonParserFactory createOffsetOnlyFactory(Map<String, Object> config) {
+        config.put(org.leadpony.joy.api.JsonParser.OFFSET_ONLY_LOCATION, Boolean.TRUE);
+        return createParserFactory(config);
+    }
+
+    private static JsonParserFactory createParserFactory(Map<String, Object> config) {
+        return (JsonParserFactory) Json.createParserFactory(config);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import jakarta.json.Json;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.leadpony.joy.api.JsonParserFactory;
+
+/**
+ * Tests the streams of the values returned by the parsers, including the
+ * parallel ones.
+ *
+ * @author leadpony
+ */
+public class JsonParserStreamTest {
+
+    private static final JsonParserFactory FACTORY = (JsonParserFactory) Json.createParserFactory(null);
+
+    // The sizes around the first batch read ahead by the spliterator.
+    private static final int[] SIZES = {0, 1, 1023, 1024, 1025, 3072, 5000, 100000};
+
+    /**
+     * The types of the parsers generating the streams.
+     *
+     * @author leadpony
+     */
+    enum ParserType {
+        READER,
+        BYTES,
+        STREAM,
+        TAPE;
+
+        JsonParser createParser(String json) {
+            switch (this) {
+            case BYTES:
+                return FACTORY.createParser(json.getBytes(StandardCharsets.UTF_8));
+            case STREAM:
+                return FACTORY.createParser(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+            case TAPE:
+                return FACTORY.recordTape(FACTORY.createParser(new StringReader(json))).createParser();
+            default:
+                return FACTORY.createParser(new StringReader(json));
+            }
+        }
+    }
+
+    public static Stream<Arguments> getArrayStreamShouldKeepOrderInParallel() {
+        return Stream.of(ParserType.values()).flatMap(type -> IntStream.of(SIZES)
+                .mapToObj(size -> Arguments.of(type, size)));
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void getArrayStreamShouldKeepOrderInParallel(ParserType type, int size) {
+        String json = IntStream.range(0, size)
+                .mapToObj(i -> (i % 2 == 0) ? String.valueOf(i) : "\"" + i + "\"")
+                .collect(Collectors.joining(",", "[", "]"));
+
+        List<Integer> actual;
+        try (JsonParser parser = type.createParser(json)) {
+            parser.next();
+            actual = parser.getArrayStream().parallel()
+                    .map(JsonParserStreamTest::toInt)
+                    .collect(Collectors.toList());
+            assertThat(parser.hasNext()).isFalse();
+        }
+
+        assertThat(actual).hasSize(size);
+        assertThat(actual).containsExactlyElementsOf(
+                IntStream.range(0, size).boxed().collect(Collectors.toList()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getArrayStreamShouldKeepOrderInParallel")
+    public void getObjectStreamShouldKeepOrderInParallel(ParserType type, int size) {
+        String json = IntStream.range(0, size)
+                .mapToObj(i -> "\"k" + i + "\":" + i)
+                .collect(Collectors.joining(",", "{", "}"));
+
+        List<Map.Entry<String, JsonValue>> actual;
+        try (JsonParser parser = type.createParser(json)) {
+            parser.next();
+            actual = parser.getObjectStream().parallel().collect(Collectors.toList());
+            assertThat(parser.hasNext()).isFalse();
+        }
+
+        assertThat(actual).hasSize(size);
+        for (int i = 0; i < size; i++) {
+            assertThat(actual.get(i).getKey()).isEqualTo("k" + i);
+            assertThat(toInt(actual.get(i).getValue())).isEqualTo(i);
+        }
+    }
+
+    public static Stream<Arguments> getArrayStreamShouldStopAtEndOfNestedArray() {
+        return Stream.of(ParserType.values()).flatMap(type -> Stream.of(true, false)
+                .flatMap(parallel -> IntStream.of(0, 1, 1024, 1025, 5000)
+                .mapToObj(size -> Arguments.of(type, parallel, size))));
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void getArrayStreamShouldStopAtEndOfNestedArray(ParserType type, boolean parallel, int size) {
+        String inner = IntStream.range(0, size).mapToObj(String::valueOf)
+                .collect(Collectors.joining(",", "[", "]"));
+        String json = "[" + inner + ", [\"next\"], {\"a\": 1}]";
+
+        try (JsonParser parser = type.createParser(json)) {
+            assertThat(parser.next()).isEqualTo(Event.START_ARRAY);
+            assertThat(parser.next()).isEqualTo(Event.START_ARRAY);
+
+            Stream<JsonValue> stream = parser.getArrayStream();
+            if (parallel) {
+                stream = stream.parallel();
+            }
+            assertThat(stream.count()).isEqualTo(size);
+
+            // The parser is right after the end of the nested array.
+            assertThat(parser.next()).isEqualTo(Event.START_ARRAY);
+            assertThat(parser.next()).isEqualTo(Event.VALUE_STRING);
+            assertThat(parser.getString()).isEqualTo("next");
+            assertThat(parser.next()).isEqualTo(Event.END_ARRAY);
+            assertThat(parser.next()).isEqualTo(Event.START_OBJECT);
+            assertThat(parser.getObject()).containsOnlyKeys("a");
+            assertThat(parser.next()).isEqualTo(Event.END_ARRAY);
+            assertThat(parser.hasNext()).isFalse();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ParserType.class)
+    public void tryAdvanceShouldNotReadPastEndOfNestedArray(ParserType type) {
+        try (JsonParser parser = type.createParser("[[1, 2], [3], {\"a\": [4]}, 5]")) {
+            parser.next();
+            parser.next();
+            Spliterator<JsonValue> spliterator = parser.getArrayStream().spliterator();
+
+            assertThat(spliterator.tryAdvance(value -> assertThat(toInt(value)).isEqualTo(1))).isTrue();
+            assertThat(spliterator.tryAdvance(value -> assertThat(toInt(value)).isEqualTo(2))).isTrue();
+            // Calling again after the end must not consume the following values.
+            for (int i = 0; i < 3; i++) {
+                assertThat(spliterator.tryAdvance(value -> { })).isFalse();
+            }
+
+            assertThat(parser.next()).isEqualTo(Event.START_ARRAY);
+            parser.skipArray();
+            assertThat(parser.next()).isEqualTo(Event.START_OBJECT);
+            Spliterator<Map.Entry<String, JsonValue>> objectSpliterator = parser.getObjectStream().spliterator();
+            assertThat(objectSpliterator.tryAdvance(entry -> assertThat(entry.getKey()).isEqualTo("a"))).isTrue();
+            assertThat(objectSpliterator.tryAdvance(entry -> { })).isFalse();
+            assertThat(objectSpliterator.tryAdvance(entry -> { })).isFalse();
+
+            assertThat(parser.next()).isEqualTo(Event.VALUE_NUMBER);
+            assertThat(parser.getInt()).isEqualTo(5);
+            assertThat(parser.next()).isEqualTo(Event.END_ARRAY);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ParserType.class)
+    public void getValueStreamShouldKeepOrderInParallel(ParserType type) {
+        try (JsonParser parser = type.createParser("[1, \"2\", 3]")) {
+            List<JsonValue> actual = parser.getValueStream().parallel().collect(Collectors.toList());
+
+            assertThat(actual).hasSize(1);
+            assertThat(actual.get(0).asJsonArray().stream().map(JsonParserStreamTest::toInt))
+                    .containsExactly(1, 2, 3);
+        }
+    }
+
+    private static int toInt(JsonValue value) {
+        if (value instanceof JsonString) {
+            return Integer.parseInt(((JsonString) value).getString());
+        }
+        return ((JsonNumber) value).intValue();
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import jakarta.json.Json;
+import jakarta.json.stream.JsonParser.Event;
+import jakarta.json.stream.JsonParsingException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.leadpony.joy.api.JsonParserFactory;
+import org.leadpony.joy.api.JsonParserSubscriber;
+import org.leadpony.joy.api.NonBlockingJsonParser;
+
+/**
+ * @author leadpony
+ */
+public class JsonParserSubscriberTest {
+
+    private static final JsonParserFactory FACTORY = (JsonParserFactory) Json.createParserFactory(null);
+
+    private static final String JSON =
+            "{\"name\": \"joy\", \"tags\": [\"json\", \"\u00e9\u3042\ud83d\ude00\"], \"stars\": -1.5e3, \"ok\": true}";
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 7, 1000})
+    public void subscriberShouldHandleEventsPublished(int chunkSize) throws Exception {
+        byte[] bytes = JSON.getBytes(StandardCharsets.UTF_8);
+        List<String> events = new ArrayList<>();
+        JsonParserSubscriber subscriber = new JsonParserSubscriber(FACTORY.createNonBlockingParser(),
+                (event, parser) -> events.add(describe(event, parser)));
+
+        try (SubmissionPublisher<ByteBuffer> publisher = new SubmissionPublisher<>()) {
+            publisher.subscribe(subscriber);
+            for (int i = 0; i < bytes.length; i += chunkSize) {
+                publisher.submit(ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i)));
+            }
+        }
+        subscriber.completion().get(30, TimeUnit.SECONDS);
+
+        assertThat(events).containsExactlyElementsOf(parseWhole(bytes));
+    }
+
+    @Test
+    public void subscriberShouldRequestOneChunkAtTime() {
+        RecordingSubscription subscription = new RecordingSubscription();
+        List<Event> events = new ArrayList<>();
+        JsonParserSubscriber subscriber = new JsonParserSubscriber(FACTORY.createNonBlockingParser(),
+                (event, parser) -> events.add(event));
+
+        subscriber.onSubscribe(subscription);
+        assertThat(subscription.requested).isEqualTo(1);
+
+        subscriber.onNext(chunk("[1, "));
+        assertThat(subscription.requested).isEqualTo(2);
+        assertThat(events).containsExactly(Event.START_ARRAY, Event.VALUE_NUMBER);
+
+        subscriber.onNext(chunk("2]"));
+        assertThat(subscription.requested).isEqualTo(3);
+        assertThat(subscriber.completion()).isNotDone();
+
+        subscriber.onComplete();
+        assertThat(events).containsExactly(Event.START_ARRAY, Event.VALUE_NUMBER, Event.VALUE_NUMBER, Event.END_ARRAY);
+        assertThat(subscriber.completion()).isCompleted();
+        assertThat(subscription.cancelled).isFalse();
+    }
+
+    @Test
+    public void subscriberShouldCancelSecondSubscription() {
+        RecordingSubscription first = new RecordingSubscription();
+        RecordingSubscription second = new RecordingSubscription();
+        JsonParserSubscriber subscriber = new JsonParserSubscriber(FACTORY.createNonBlockingParser(),
+                (event, parser) -> { });
+
+        subscriber.onSubscribe(first);
+        subscriber.onSubscribe(second);
+
+        assertThat(first.cancelled).isFalse();
+        assertThat(second.cancelled).isTrue();
+        assertThat(second.requested).isZero();
+    }
+
+    @Test
+    public void subscriberShouldFailAndCancelAtIllFormedChunk() {
+        RecordingSubscription subscription = new RecordingSubscription();
+        JsonParserSubscriber subscriber = new JsonParserSubscriber(FACTORY.createNonBlockingParser(),
+                (event, parser) -> { });
+
+        subscriber.onSubscribe(subscription);
+        subscriber.onNext(chunk("[1, 2}"));
+
+        assertThat(subscription.cancelled).isTrue();
+        assertThat(subscription.requested).isEqualTo(1);
+        assertThat(causeOf(subscriber.completion())).isInstanceOf(JsonParsingException.class);
+
+        // The chunks after the failure are ignored.
+        subscriber.onNext(chunk("3]"));
+        subscriber.onComplete();
+        assertThat(subscription.requested).isEqualTo(1);
+    }
+
+    @Test
+    public void subscriberShouldFailAtIncompleteInput() {
+        JsonParserSubscriber subscriber = new JsonParserSubscriber(FACTORY.createNonBlockingParser(),
+                (event, parser) -> { });
+
+        subscriber.onSubscribe(new RecordingSubscription());
+        subscriber.onNext(chunk("[1, \"abc"));
+        subscriber.onComplete();
+
+        assertThat(causeOf(subscriber.completion())).isInstanceOf(JsonParsingException.class);
+    }
+
+    @Test
+    public void subscriberShouldFailIfHandlerThrows() {
+        RecordingSubscription subscription = new RecordingSubscription();
+        IllegalStateException exception = new IllegalStateException();
+        JsonParserSubscriber subscriber = new JsonParserSubscriber(FACTORY.createNonBlockingParser(),
+                (event, parser) -> {
+                    if (event == Event.VALUE_NUMBER) {
+                        throw exception;
+                    }
+                });
+
+        subscriber.onSubscribe(subscription);
+        subscriber.onNext(chunk("[1]"));
+
+        assertThat(subscription.cancelled).isTrue();
+        assertThat(causeOf(subscriber.completion())).isSameAs(exception);
+    }
+
+    @Test
+    public void subscriberShouldFailWithErrorOfPublisher() {
+        RuntimeException exception = new RuntimeException();
+        JsonParserSubscriber subscriber = new JsonParserSubscriber(FACTORY.createNonBlockingParser(),
+                (event, parser) -> { });
+
+        subscriber.onSubscribe(new RecordingSubscription());
+        subscriber.onNext(chunk("[1, "));
+        subscriber.onError(exception);
+
+        assertThat(causeOf(subscriber.completion())).isSameAs(exception);
+    }
+
+    @Test
+    public void constructorShouldRejectNullArguments() {
+        BiConsumer<Event, NonBlockingJsonParser> handler = (event, parser) -> { };
+
+        assertThat(catchThrowable(() -> new JsonParserSubscriber(null, handler)))
+                .isInstanceOf(NullPointerException.class);
+        assertThat(catchThrowable(() -> new JsonParserSubscriber(FACTORY.createNonBlockingParser(), null)))
+                .isInstanceOf(NullPointerException.class);
+    }
+
+    /**
+     * A subscription recording the requests from the subscriber.
+     *
+     * @author leadpony
+     */
+    private static class RecordingSubscription implements Flow.Subscription {
+
+        private long requested;
+        private boolean cancelled;
+
+        @Override
+        public void request(long n) {
+            requested += n;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private static List<String> parseWhole(byte[] bytes) {
+        List<String> events = new ArrayList<>();
+        try (jakarta.json.stream.JsonParser parser = FACTORY.createParser(bytes)) {
+            while (parser.hasNext()) {
+                events.add(describe(parser.next(), parser));
+            }
+        }
+        return events;
+    }
+
+    private static String describe(Event event, jakarta.json.stream.JsonParser parser) {
+        if (event == Event.KEY_NAME || event == Event.VALUE_STRING || event == Event.VALUE_NUMBER) {
+            return event + "(" + parser.getString() + ")";
+        }
+        return event.toString();
+    }
+
+    private static ByteBuffer chunk(String json) {
+        return ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Throwable causeOf(CompletableFuture<Void> completion) {
+        assertThat(completion).isCompletedExceptionally();
+        Throwable thrown = catchThrowable(completion::get);
+        assertThat(thrown).isInstanceOf(ExecutionException.class);
+        return thrown.getCause();
+    }
+}
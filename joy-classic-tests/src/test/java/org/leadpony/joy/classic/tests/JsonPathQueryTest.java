@@ -0,0 +1,157 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import jakarta.json.Json;
+import jakarta.json.JsonException;
+import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonParser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.leadpony.joy.api.JsonParserFactory;
+import org.leadpony.joy.api.JsonPathQuery;
+
+/**
+ * @author leadpony
+ */
+public class JsonPathQueryTest {
+
+    private static final JsonParserFactory FACTORY = (JsonParserFactory) Json.createParserFactory(null);
+
+    private static final String DOCUMENT = "{"
+            + "\"store\":{"
+            + "\"book\":["
+            + "{\"title\":\"A\",\"price\":8.95},"
+            + "{\"title\":\"B\",\"price\":12.99},"
+            + "{\"title\":\"C\",\"price\":8.99,\"isbn\":\"0-553-21311-3\"},"
+            + "{\"title\":\"D\",\"price\":22.99}"
+            + "],"
+            + "\"bicycle\":{\"color\":\"red\",\"price\":19.95}"
+            + "},"
+            + "\"x/y\":[0,1,2,3,4,5,6,7,8,9]"
+            + "}";
+
+    public static Stream<Arguments> selectShouldReturnMatchedValues() {
+        return Stream.of(
+            Arguments.of("$.store.bicycle.color", "[\"red\"]"),
+            Arguments.of("$['store']['bicycle']['price']", "[19.95]"),
+            Arguments.of("$.store.book[*].title", "[\"A\", \"B\", \"C\", \"D\"]"),
+            Arguments.of("$.store.*.price", "[19.95]"),
+            Arguments.of("$.store.book[2].isbn", "[\"0-553-21311-3\"]"),
+            Arguments.of("$.store.book[4]", "[]"),
+            Arguments.of("$..price", "[8.95, 12.99, 8.99, 22.99, 19.95]"),
+            Arguments.of("$..book[0].title", "[\"A\"]"),
+            Arguments.of("$..[1]", "[{\"title\":\"B\",\"price\":12.99}, 1]"),
+            Arguments.of("$.store..title", "[\"A\", \"B\", \"C\", \"D\"]"),
+            Arguments.of("$['x/y'][2:5]", "[2, 3, 4]"),
+            Arguments.of("$['x/y'][:3]", "[0, 1, 2]"),
+            Arguments.of("$['x/y'][7:]", "[7, 8, 9]"),
+            Arguments.of("$['x/y'][::3]", "[0, 3, 6, 9]"),
+            Arguments.of("$['x/y'][1:8:2]", "[1, 3, 5, 7]"),
+            Arguments.of("$['x/y'][5:5]", "[]"),
+            Arguments.of("$..book[1:3].price", "[12.99, 8.99]"),
+            Arguments.of("$..*[::2].title", "[\"A\", \"C\"]")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void selectShouldReturnMatchedValues(String jsonPath, String expected) {
+        JsonPathQuery query = FACTORY.compileQuery(jsonPath);
+
+        List<JsonValue> actual;
+        try (JsonParser parser = FACTORY.createParser(new StringReader(DOCUMENT))) {
+            actual = query.select(parser).collect(Collectors.toList());
+        }
+
+        assertThat(actual.toString()).isEqualTo(expected);
+    }
+
+    @Test
+    public void selectShouldReturnNestedMatchesOnce() {
+        String json = "{\"a\":{\"a\":{\"b\":1}},\"b\":2}";
+        JsonPathQuery query = FACTORY.compileQuery("$..a..b");
+
+        List<JsonValue> actual;
+        try (JsonParser parser = FACTORY.createParser(new StringReader(json))) {
+            actual = query.select(parser).collect(Collectors.toList());
+        }
+
+        assertThat(actual.toString()).isEqualTo("[1]");
+    }
+
+    @Test
+    public void selectShouldReturnMatchesInsideMatchesInDocumentOrder() {
+        String json = "{\"a\":{\"x\":{\"a\":1}},\"y\":{\"a\":2}}";
+        JsonPathQuery query = FACTORY.compileQuery("$..a");
+
+        List<JsonValue> actual;
+        try (JsonParser parser = FACTORY.createParser(new StringReader(json))) {
+            actual = query.select(parser).collect(Collectors.toList());
+        }
+
+        assertThat(actual.toString()).isEqualTo("[{\"x\":{\"a\":1}}, 1, 2]");
+    }
+
+    @Test
+    public void selectShouldSkipInvalidValuesLeniently() {
+        jakarta.json.stream.JsonParserFactory lenientFactory = Json.createParserFactory(
+                Collections.singletonMap(org.leadpony.joy.api.JsonParser.LENIENT_SKIPPING, Boolean.TRUE));
+        JsonPathQuery query = FACTORY.compileQuery("$.k");
+
+        List<JsonValue> actual;
+        try (JsonParser parser = lenientFactory.createParser(new StringReader("{\"skip\":[1,2,x],\"k\":3}"))) {
+            actual = query.select(parser).collect(Collectors.toList());
+        }
+
+        assertThat(actual.toString()).isEqualTo("[3]");
+    }
+
+    public static Stream<Arguments> compileQueryShouldThrowIfJsonPathIsInvalid() {
+        return Stream.of(
+            Arguments.of("store", "The JSONPath \"store\" is invalid at index 0."),
+            Arguments.of("$.", "The JSONPath \"$.\" is invalid at index 2."),
+            Arguments.of("$..", "The JSONPath \"$..\" is invalid at index 3."),
+            Arguments.of("$[-1]", "The JSONPath \"$[-1]\" is invalid at index 2."),
+            Arguments.of("$[::0]", "The JSONPath \"$[::0]\" is invalid at index 4."),
+            Arguments.of("$[::-1]",
+                    "The JSONPath \"$[::-1]\" has a negative step at index 4, which is not supported."),
+            Arguments.of("$[?(@.price < 10)]", "The JSONPath \"$[?(@.price < 10)]\" is invalid at index 2."),
+            Arguments.of("$..book[?(@.isbn)]", "The JSONPath \"$..book[?(@.isbn)]\" is invalid at index 8.")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void compileQueryShouldThrowIfJsonPathIsInvalid(String jsonPath, String message) {
+        JsonException thrown = catchThrowableOfType(() -> FACTORY.compileQuery(jsonPath), JsonException.class);
+
+        assertThat(thrown).isNotNull();
+        assertThat(thrown.getMessage()).isEqualTo(message);
+    }
+}
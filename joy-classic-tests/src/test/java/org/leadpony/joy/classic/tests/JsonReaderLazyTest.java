@@ -0,0 +1,264 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonReaderFactory;
+import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonLocation;
+import jakarta.json.stream.JsonParsingException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.leadpony.joy.api.JsonParser;
+
+/**
+ * @author leadpony
+ */
+public class JsonReaderLazyTest {
+
+    private static final JsonReaderFactory EAGER_FACTORY = Json.createReaderFactory(null);
+    private static final JsonReaderFactory LAZY_FACTORY = createLazyFactory(new HashMap<>());
+
+    // The size of the chunks of the input indexed in parallel.
+    private static final int CHUNK_SIZE = 1 << 20;
+    // The number of chunks in the input, which must be at least 4MB long to be indexed in parallel.
+    private static final int CHUNKS = 5;
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "[]",
+        "{}",
+        "[1, -2.5, 3e10, 12345678901234567890, 0.1e-2, true, false, null, \"a\"]",
+        "{\"a\": [1, {\"b\": [2, 3]}], \"c\": {\"d\": {}}, \"e\": \"f\\u00e9\\n\"}",
+        "{\"a\": 1, \"b\": 2, \"a\": 3}",
+        "[[[[\"deep\"]]], {\"x\": [{}, []]}]",
+        "\uFEFF {\"bom\": [\"\\ud83d\\ude00\"]} ",
+    })
+    public void readValueShouldBeEqualToEagerValue(String json) {
+        JsonValue eager = read(EAGER_FACTORY, json);
+        JsonValue lazy = read(LAZY_FACTORY, json);
+
+        assertEquivalent(eager, lazy);
+    }
+
+    public static Stream<Arguments> readValueShouldIndexChunkBoundariesAsWhole() {
+        String[] snippets = {
+            "\"a\\\"b\\\\\\\"c\\\\\"",
+            "\"\\\\\\\\\\\\\\\\\"",
+            "-12345.678e-9",
+            " {\"k\" : [\"v\", true, null]} ",
+            "[[],{},\"\"]",
+        };
+        return Stream.of(snippets).flatMap(snippet -> IntStream.rangeClosed(0, snippet.length())
+                .mapToObj(shift -> Arguments.of(snippet, shift)));
+    }
+
+    /**
+     * Places the snippet at each boundary of the chunks, so that the boundary
+     * falls {@code shift} bytes after the beginning of the snippet.
+     */
+    @ParameterizedTest
+    @MethodSource
+    public void readValueShouldIndexChunkBoundariesAsWhole(String snippet, int shift) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int chunk = 1; chunk < CHUNKS; chunk++) {
+            appendPadding(builder, chunk * CHUNK_SIZE - shift - builder.length() - 1);
+            builder.append(',').append(snippet).append(',');
+        }
+        appendPadding(builder, CHUNKS * CHUNK_SIZE - builder.length() - 1);
+        String json = builder.append(']').toString();
+
+        assertEquivalent(read(EAGER_FACTORY, json), read(LAZY_FACTORY, json));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1})
+    public void readValueShouldIndexStringSpanningChunks(int shift) {
+        // The chunks after the first one contain no unescaped quotation marks.
+        StringBuilder builder = new StringBuilder("[{\"");
+        for (int i = 0; i < shift; i++) {
+            builder.append('a');
+        }
+        while (builder.length() < CHUNKS * CHUNK_SIZE) {
+            builder.append("\\\"");
+        }
+        String json = builder.append("\":[\"}\"]},\"]\"]").toString();
+
+        assertEquivalent(read(EAGER_FACTORY, json), read(LAZY_FACTORY, json));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"[1,", "{\"a\":1,}", "{\"a\" 1}", ""})
+    public void readValueShouldFailAsEagerReader(String json) {
+        JsonParsingException eager = catchThrowableOfType(() -> read(EAGER_FACTORY, json),
+                JsonParsingException.class);
+        JsonParsingException lazy = catchThrowableOfType(() -> read(LAZY_FACTORY, json),
+                JsonParsingException.class);
+
+        assertThat(lazy).isNotNull();
+        assertThat(lazy.getLocation().getStreamOffset()).isEqualTo(eager.getLocation().getStreamOffset());
+    }
+
+    @Test
+    public void readValueShouldStopReadingAtMaxDocumentLength() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(JsonParser.MAX_DOCUMENT_LENGTH, 1000);
+        CountingInputStream in = new CountingInputStream("[1", ",1");
+
+        JsonParsingException thrown;
+        try (JsonReader reader = createLazyFactory(config).createReader(in)) {
+            thrown = catchThrowableOfType(reader::readValue, JsonParsingException.class);
+        }
+
+        assertThat(thrown).isNotNull();
+        assertThat(thrown.getLocation().getStreamOffset()).isEqualTo(1000L);
+        assertThat(in.getBytesRead()).isEqualTo(1001L);
+    }
+
+    @Test
+    public void readValueShouldStopReadingAtMaxTokenLength() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(JsonParser.MAX_TOKEN_LENGTH, 100);
+        CountingInputStream in = new CountingInputStream("[\n \"", "a");
+
+        JsonParsingException thrown = catchThrowableOfType(() -> createLazyFactory(config).createReader(in),
+                JsonParsingException.class);
+
+        assertThat(thrown).isNotNull();
+        JsonLocation location = thrown.getLocation();
+        assertThat(location.getStreamOffset()).isEqualTo(103L);
+        assertThat(location.getLineNumber()).isEqualTo(2L);
+        assertThat(location.getColumnNumber()).isEqualTo(102L);
+        assertThat(in.getBytesRead()).isLessThan(1024 * 1024);
+    }
+
+    @Test
+    public void readValueShouldAcceptUtf16Input() {
+        byte[] bytes = "{\"a\":[1]}".getBytes(StandardCharsets.UTF_16LE);
+        try (JsonReader reader = LAZY_FACTORY.createReader(new ByteArrayInputStream(bytes))) {
+            assertThat(reader.readValue().toString()).isEqualTo("{\"a\":[1]}");
+        }
+    }
+
+    private static JsonValue read(JsonReaderFactory factory, String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        try (JsonReader reader = factory.createReader(new ByteArrayInputStream(bytes))) {
+            return reader.readValue();
+        }
+    }
+
+    /**
+     * Appends a string of the specified length in bytes.
+     */
+    private static void appendPadding(StringBuilder builder, int length) {
+        builder.append('"');
+        for (int i = 2; i < length; i++) {
+            builder.append((char) ('a' + i % 26));
+        }
+        builder.append('"');
+    }
+
+    private static void assertEquivalent(JsonValue expected, JsonValue actual) {
+        assertThat(actual.getValueType()).isEqualTo(expected.getValueType());
+        assertThat(actual).isEqualTo(expected);
+        assertThat(expected).isEqualTo(actual);
+        assertThat(actual.hashCode()).isEqualTo(expected.hashCode());
+        assertThat(actual.toString()).isEqualTo(expected.toString());
+        if (expected instanceof JsonArray) {
+            JsonArray expectedArray = (JsonArray) expected;
+            JsonArray actualArray = (JsonArray) actual;
+            assertThat(actualArray).hasSameSizeAs(expectedArray);
+            // Accesses the items in reverse order to decode them out of order.
+            for (int i = expectedArray.size() - 1; i >= 0; i--) {
+                assertEquivalent(expectedArray.get(i), actualArray.get(i));
+            }
+        } else if (expected instanceof JsonObject) {
+            JsonObject expectedObject = (JsonObject) expected;
+            JsonObject actualObject = (JsonObject) actual;
+            assertThat(new ArrayList<>(actualObject.keySet()))
+                .isEqualTo(new ArrayList<>(expectedObject.keySet()));
+            for (String key : expectedObject.keySet()) {
+                assertEquivalent(expectedObject.get(key), actualObject.get(key));
+            }
+            assertThat(actualObject.containsKey("missing")).isFalse();
+        }
+    }
+
+    private static JsonReaderFactory createLazyFactory(Map<String, Object> config) {
+        config.put(JsonParser.LAZY_STRUCTURES, Boolean.TRUE);
+        return Json.createReaderFactory(config);
+    }
+
+    /**
+     * An input stream which repeats the same bytes forever after a prefix.
+     *
+     * @author leadpony
+     */
+    private static class CountingInputStream extends InputStream {
+
+        private final byte[] prefix;
+        private final byte[] filler;
+        private long bytesRead;
+
+        CountingInputStream(String prefix, String filler) {
+            this.prefix = prefix.getBytes(StandardCharsets.US_ASCII);
+            this.filler = filler.getBytes(StandardCharsets.US_ASCII);
+        }
+
+        long getBytesRead() {
+            return bytesRead;
+        }
+
+        @Override
+        public int read() {
+            int b;
+            if (bytesRead < prefix.length) {
+                b = prefix[(int) bytesRead];
+            } else {
+                b = filler[(int) ((bytesRead - prefix.length) % filler.length)];
+            }
+            bytesRead++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            for (int i = 0; i < len; i++) {
+                b[off + i] = (byte) read();
+            }
+            return len;
+        }
+    }
+}
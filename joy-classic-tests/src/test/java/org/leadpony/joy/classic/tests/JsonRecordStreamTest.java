@@ -0,0 +1,209 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import jakarta.json.Json;
+import jakarta.json.stream.JsonParsingException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.leadpony.joy.api.JsonParserFactory;
+import org.leadpony.joy.api.JsonRecord;
+
+/**
+ * @author leadpony
+ */
+public class JsonRecordStreamTest {
+
+    private static final JsonParserFactory FACTORY = (JsonParserFactory) Json.createParserFactory(null);
+
+    private static final String LINES = "\uFEFF{\"a\":1}\n"
+            + "  \r\n"
+            + "[\"\u00e9\u3042\"]\r\n"
+            + "\n"
+            + " \"b\" \n"
+            + "null";
+
+    private static final String TEXT_SEQUENCE = "\u001e{\"a\":1}\n"
+            + "\u001e \n"
+            + "\u001e[\"\u00e9\u3042\"]\n"
+            + "\u001e \"b\" \n"
+            + "\u001enull\n";
+
+    @ParameterizedTest
+    @EnumSource(JsonRecord.Format.class)
+    public void createRecordStreamShouldReadRecordsWithOffsets(JsonRecord.Format format) {
+        byte[] bytes = getBytes(format);
+
+        List<String> actual;
+        try (Stream<JsonRecord> records = FACTORY.createRecordStream(ByteBuffer.wrap(bytes), format)) {
+            actual = records.map(JsonRecordStreamTest::describe).collect(Collectors.toList());
+        }
+
+        assertThat(actual).containsExactlyElementsOf(getExpected(format));
+    }
+
+    @ParameterizedTest
+    @EnumSource(JsonRecord.Format.class)
+    public void createRecordStreamShouldReadRecordsInFile(JsonRecord.Format format, @TempDir Path dir)
+            throws IOException {
+        Path path = dir.resolve("records");
+        Files.write(path, getBytes(format));
+
+        List<String> actual;
+        try (Stream<JsonRecord> records = FACTORY.createRecordStream(path, format)) {
+            actual = records.map(JsonRecordStreamTest::describe).collect(Collectors.toList());
+        }
+
+        assertThat(actual).containsExactlyElementsOf(getExpected(format));
+    }
+
+    @ParameterizedTest
+    @EnumSource(JsonRecord.Format.class)
+    public void parallelStreamShouldKeepRecordsInOrder(JsonRecord.Format format) {
+        StringBuilder builder = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            if (format == JsonRecord.Format.TEXT_SEQUENCE) {
+                builder.append('\u001e');
+            }
+            expected.add(builder.length() + ":{\"i\":" + i + "}");
+            builder.append("{\"i\":").append(i).append("}\n");
+        }
+        byte[] bytes = builder.toString().getBytes(StandardCharsets.US_ASCII);
+
+        List<String> actual;
+        try (Stream<JsonRecord> records = FACTORY.createRecordStream(ByteBuffer.wrap(bytes), format)) {
+            actual = records.parallel().map(JsonRecordStreamTest::describe).collect(Collectors.toList());
+        }
+
+        assertThat(actual).containsExactlyElementsOf(expected);
+    }
+
+    @ParameterizedTest
+    @EnumSource(JsonRecord.Format.class)
+    public void createRecordStreamShouldNotCarryStateBetweenRecords(JsonRecord.Format format) {
+        String[] texts = {
+            "1.5e3", "1", "\"a\\u00e9\\n\"", "\"x\"", "[[[[{\"k\":[]}]]]]", "{}",
+            "-0", "12345678901234567890", "\"\u00e9\u3042\ud83d\ude00\"", "true",
+        };
+        StringBuilder builder = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String text = texts[i % texts.length];
+            if (format == JsonRecord.Format.TEXT_SEQUENCE) {
+                builder.append('\u001e');
+            }
+            int offset = builder.toString().getBytes(StandardCharsets.UTF_8).length;
+            expected.add(offset + ":" + Json.createReader(new StringReader(text)).readValue());
+            builder.append(text).append('\n');
+        }
+        byte[] bytes = builder.toString().getBytes(StandardCharsets.UTF_8);
+
+        List<String> actual;
+        try (Stream<JsonRecord> records = FACTORY.createRecordStream(ByteBuffer.wrap(bytes), format)) {
+            actual = records.map(JsonRecordStreamTest::describe).collect(Collectors.toList());
+        }
+
+        assertThat(actual).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    public void createRecordStreamShouldReadRemainingBytesOfBuffer() {
+        ByteBuffer buffer = ByteBuffer.wrap("xx1\n2".getBytes(StandardCharsets.US_ASCII));
+        buffer.position(2);
+
+        List<String> actual;
+        try (Stream<JsonRecord> records = FACTORY.createRecordStream(buffer, JsonRecord.Format.LINES)) {
+            actual = records.map(JsonRecordStreamTest::describe).collect(Collectors.toList());
+        }
+
+        assertThat(actual).containsExactly("0:1", "2:2");
+        assertThat(buffer.position()).isEqualTo(2);
+    }
+
+    @ParameterizedTest
+    @EnumSource(JsonRecord.Format.class)
+    public void createRecordStreamShouldThrowIfRecordIsMalformed(JsonRecord.Format format) {
+        String text = (format == JsonRecord.Format.LINES)
+                ? "{\"a\":1}\n[1,2\n3\n"
+                : "\u001e{\"a\":1}\n\u001e[1,2\n\u001e3\n";
+        ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+
+        JsonParsingException thrown;
+        try (Stream<JsonRecord> records = FACTORY.createRecordStream(buffer, format)) {
+            thrown = catchThrowableOfType(() -> records.forEach(record -> { }), JsonParsingException.class);
+        }
+
+        assertThat(thrown).isNotNull();
+        long offset = (format == JsonRecord.Format.LINES) ? 8 : 10;
+        assertThat(thrown.getMessage()).startsWith("The record at offset " + offset + " is invalid.");
+    }
+
+    @Test
+    public void createRecordStreamShouldThrowIfRecordHasTrailingValue() {
+        ByteBuffer buffer = ByteBuffer.wrap("1\n2 3\n".getBytes(StandardCharsets.US_ASCII));
+
+        JsonParsingException thrown;
+        try (Stream<JsonRecord> records = FACTORY.createRecordStream(buffer, JsonRecord.Format.LINES)) {
+            thrown = catchThrowableOfType(() -> records.forEach(record -> { }), JsonParsingException.class);
+        }
+
+        assertThat(thrown).isNotNull();
+        assertThat(thrown.getMessage()).startsWith("The record at offset 2 is invalid.");
+    }
+
+    private static byte[] getBytes(JsonRecord.Format format) {
+        String text = (format == JsonRecord.Format.LINES) ? LINES : TEXT_SEQUENCE;
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> getExpected(JsonRecord.Format format) {
+        List<String> expected = new ArrayList<>();
+        if (format == JsonRecord.Format.LINES) {
+            expected.add("3:{\"a\":1}");
+            expected.add("15:[\"\u00e9\u3042\"]");
+            expected.add("27:\"b\"");
+            expected.add("33:null");
+        } else {
+            expected.add("1:{\"a\":1}");
+            expected.add("13:[\"\u00e9\u3042\"]");
+            expected.add("24:\"b\"");
+            expected.add("31:null");
+        }
+        return expected;
+    }
+
+    private static String describe(JsonRecord record) {
+        return record.getOffset() + ":" + record.getValue();
+    }
+}
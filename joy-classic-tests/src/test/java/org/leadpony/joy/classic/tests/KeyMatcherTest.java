@@ -0,0 +1,240 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import jakarta.json.Json;
+import jakarta.json.stream.JsonParser.Event;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.leadpony.joy.api.JsonParser;
+import org.leadpony.joy.api.JsonParserFactory;
+import org.leadpony.joy.api.KeyMatcher;
+
+/**
+ * @author leadpony
+ */
+public class KeyMatcherTest {
+
+    private static final JsonParserFactory FACTORY = (JsonParserFactory) Json.createParserFactory(null);
+
+    // "Aa" and "BB" have the same hash code, and so do their concatenations.
+    private static final String[] COLLIDING_KEYS = {"AaAa", "AaBB", "BBAa", "BBBB"};
+
+    private static final KeyMatcher KEYS = KeyMatcher.of(
+            "id", "name", "\u00e9t\u00e9", "\u3042\u3044", "\ud83d\ude00", "a\"b\\c", "", "AaAa", "BBBB");
+
+    /**
+     * The types of the parsers matching the key names.
+     *
+     * @author leadpony
+     */
+    enum ParserType {
+        READER,
+        BYTES,
+        STREAM,
+        RESETTABLE,
+        TAPE;
+
+        JsonParser createParser(String json) {
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            switch (this) {
+            case BYTES:
+                return (JsonParser) FACTORY.createParser(bytes);
+            case STREAM:
+                return (JsonParser) FACTORY.createParser(new ByteArrayInputStream(bytes));
+            case RESETTABLE:
+                JsonParser parser = FACTORY.createResettableParser();
+                ((org.leadpony.joy.api.ResettableJsonParser) parser).reset(bytes, 0, bytes.length);
+                return parser;
+            case TAPE:
+                return (JsonParser) FACTORY.recordTape(FACTORY.createParser(new StringReader(json))).createParser();
+            default:
+                return (JsonParser) FACTORY.createParser(new StringReader(json));
+            }
+        }
+    }
+
+    @Test
+    public void indexOfShouldFindKeysOfSameHash() {
+        assertThat(Arrays.stream(COLLIDING_KEYS).mapToInt(String::hashCode).distinct().count()).isEqualTo(1);
+        KeyMatcher matcher = KeyMatcher.of(COLLIDING_KEYS[0], COLLIDING_KEYS[2], COLLIDING_KEYS[3]);
+
+        assertThat(matcher.indexOf(COLLIDING_KEYS[0])).isEqualTo(0);
+        assertThat(matcher.indexOf(COLLIDING_KEYS[2])).isEqualTo(1);
+        assertThat(matcher.indexOf(COLLIDING_KEYS[3])).isEqualTo(2);
+        assertThat(matcher.indexOf(COLLIDING_KEYS[1])).isEqualTo(KeyMatcher.UNKNOWN_KEY);
+    }
+
+    @Test
+    public void indexOfShouldFindManyKeys() {
+        List<String> keys = IntStream.range(0, 1000).mapToObj(i -> "key" + i).collect(Collectors.toList());
+        KeyMatcher matcher = KeyMatcher.of(keys);
+
+        assertThat(matcher.size()).isEqualTo(1000);
+        for (int i = 0; i < keys.size(); i++) {
+            assertThat(matcher.indexOf(keys.get(i))).isEqualTo(i);
+            assertThat(matcher.indexOf(new StringBuilder(keys.get(i)))).isEqualTo(i);
+            assertThat(matcher.getKey(i)).isEqualTo(keys.get(i));
+        }
+        assertThat(matcher.indexOf("key1000")).isEqualTo(KeyMatcher.UNKNOWN_KEY);
+        assertThat(matcher.indexOf("key")).isEqualTo(KeyMatcher.UNKNOWN_KEY);
+        assertThat(matcher.indexOf("kex1")).isEqualTo(KeyMatcher.UNKNOWN_KEY);
+    }
+
+    @Test
+    public void indexOfShouldReturnUnknownKeyForEmptyMatcher() {
+        KeyMatcher matcher = KeyMatcher.of();
+
+        assertThat(matcher.size()).isZero();
+        assertThat(matcher.indexOf("")).isEqualTo(KeyMatcher.UNKNOWN_KEY);
+        assertThat(matcher.indexOf("id")).isEqualTo(KeyMatcher.UNKNOWN_KEY);
+    }
+
+    @Test
+    public void ofShouldRejectDuplicateKeys() {
+        assertThat(catchThrowable(() -> KeyMatcher.of("a", "b", "a")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> KeyMatcher.of(Arrays.asList("AaAa", "BBBB", "AaAa"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void ofShouldRejectNullKeys() {
+        assertThat(catchThrowable(() -> KeyMatcher.of("a", null)))
+                .isInstanceOf(NullPointerException.class);
+        assertThat(catchThrowable(() -> KeyMatcher.of(Arrays.asList("a", null))))
+                .isInstanceOf(NullPointerException.class);
+        assertThat(catchThrowable(() -> KeyMatcher.of((String[]) null)))
+                .isInstanceOf(NullPointerException.class);
+        assertThat(catchThrowable(() -> KeyMatcher.of((List<String>) null)))
+                .isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    public void ofShouldCopyKeys() {
+        String[] keys = {"a", "b"};
+        KeyMatcher matcher = KeyMatcher.of(keys);
+        keys[0] = "c";
+
+        assertThat(matcher.indexOf("a")).isEqualTo(0);
+        assertThat(matcher.indexOf("c")).isEqualTo(KeyMatcher.UNKNOWN_KEY);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ParserType.class)
+    public void nextKeyIndexShouldMatchKeysInAnyForm(ParserType type) {
+        String json = "{"
+                + "\"id\": 1, "
+                + "\"\\u0069\\u0064\": 2, "
+                + "\"na\\u006de\": [\"id\", {\"id\": 3}], "
+                + "\"\u00e9t\u00e9\": 4, "
+                + "\"\\u00e9t\\u00E9\": 5, "
+                + "\"\u3042\u3044\": 6, "
+                + "\"\ud83d\ude00\": 7, "
+                + "\"\\uD83D\\uDE00\": 8, "
+                + "\"a\\\"b\\\\c\": 9, "
+                + "\"\": 10, "
+                + "\"AaBB\": 11, "
+                + "\"BBBB\": 12, "
+                + "\"\u00e9t\": 13, "
+                + "\"identifier\": 14"
+                + "}";
+
+        List<Integer> actual = new ArrayList<>();
+        try (JsonParser parser = type.createParser(json)) {
+            assertThat(parser.next()).isEqualTo(Event.START_OBJECT);
+            int index;
+            while ((index = parser.nextKeyIndex(KEYS)) != KeyMatcher.NO_KEY) {
+                assertThat(parser.getKeyIndex(KEYS)).isEqualTo(index);
+                actual.add(index);
+                if (parser.next() == Event.START_ARRAY) {
+                    parser.skipArray();
+                }
+            }
+            assertThat(parser.hasNext()).isFalse();
+        }
+
+        assertThat(actual).containsExactly(0, 0, 1, 2, 2, 3, 4, 4, 5, 6,
+                KeyMatcher.UNKNOWN_KEY, 8, KeyMatcher.UNKNOWN_KEY, KeyMatcher.UNKNOWN_KEY);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ParserType.class)
+    public void nextKeyIndexShouldReturnNoKeyForOtherEvents(ParserType type) {
+        try (JsonParser parser = type.createParser("[{\"id\": {}}, \"id\"]")) {
+            // START_ARRAY, START_OBJECT
+            assertThat(parser.nextKeyIndex(KEYS)).isEqualTo(KeyMatcher.NO_KEY);
+            assertThat(parser.nextKeyIndex(KEYS)).isEqualTo(KeyMatcher.NO_KEY);
+            assertThat(parser.nextKeyIndex(KEYS)).isEqualTo(0);
+            // START_OBJECT, END_OBJECT, END_OBJECT
+            assertThat(parser.nextKeyIndex(KEYS)).isEqualTo(KeyMatcher.NO_KEY);
+            assertThat(parser.nextKeyIndex(KEYS)).isEqualTo(KeyMatcher.NO_KEY);
+            assertThat(parser.nextKeyIndex(KEYS)).isEqualTo(KeyMatcher.NO_KEY);
+            // A string value equal to a key is not a key.
+            assertThat(parser.nextKeyIndex(KEYS)).isEqualTo(KeyMatcher.NO_KEY);
+            assertThat(parser.getString()).isEqualTo("id");
+            assertThat(parser.nextKeyIndex(KEYS)).isEqualTo(KeyMatcher.NO_KEY);
+            assertThat(parser.hasNext()).isFalse();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ParserType.class)
+    public void getKeyIndexShouldThrowIfNotKeyName(ParserType type) {
+        try (JsonParser parser = type.createParser("{\"id\": \"id\"}")) {
+            parser.next();
+            assertThat(catchThrowable(() -> parser.getKeyIndex(KEYS))).isInstanceOf(IllegalStateException.class);
+            parser.next();
+            parser.next();
+            assertThat(catchThrowable(() -> parser.getKeyIndex(KEYS))).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ParserType.class)
+    public void nextKeyIndexShouldMatchKeysLongerThanBuffer(ParserType type) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            builder.append((char) ('a' + i % 26));
+        }
+        String longKey = builder.toString();
+        KeyMatcher matcher = KeyMatcher.of("short", longKey, longKey + "\u00e9");
+
+        try (JsonParser parser = type.createParser(
+                "{\"" + longKey + "\": 1, \"" + longKey + "\\u00e9\": 2, \"" + longKey + "x\": 3}")) {
+            parser.next();
+            assertThat(parser.nextKeyIndex(matcher)).isEqualTo(1);
+            parser.next();
+            assertThat(parser.nextKeyIndex(matcher)).isEqualTo(2);
+            parser.next();
+            assertThat(parser.nextKeyIndex(matcher)).isEqualTo(KeyMatcher.UNKNOWN_KEY);
+        }
+    }
+}
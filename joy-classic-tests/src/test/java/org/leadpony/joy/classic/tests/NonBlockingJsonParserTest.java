@@ -0,0 +1,273 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import jakarta.json.Json;
+import jakarta.json.stream.JsonLocation;
+import jakarta.json.stream.JsonParser.Event;
+import jakarta.json.stream.JsonParsingException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.leadpony.joy.api.JsonParser;
+import org.leadpony.joy.api.JsonParserFactory;
+import org.leadpony.joy.api.NonBlockingJsonParser;
+
+/**
+ * @author leadpony
+ */
+public class NonBlockingJsonParserTest {
+
+    private static final JsonParserFactory FACTORY = createParserFactory(new HashMap<>());
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "{\"name\":\"joy\",\"tags\":[\"json\",\"parser\"],\"stars\":12345,\"ok\":true}",
+        "[true, false, null, -0, 3.14, -1.5e+10, 2E-3, 12345678901234567890]",
+        "[\"a\\\"b\\\\c\\/d\\be\\ff\\ng\\rh\\ti\", \"\\u0041\\u00e9\\u3042\\ud83d\\ude00\"]",
+        "[\"\u00e9\u3042\ud83d\ude00\", {\"\u3042\": \"\u3044\"}]",
+        "\r\n  {\r\n  \"a\" :\r [ 1 ,\n 2 ] ,\t\"b\" : { } }\n\r",
+        "12345",
+        "\"abc\"",
+        "[[[[]]],{\"a\":{\"b\":{}}}]",
+        "[1, 2,]",
+        "{\"a\" 1}",
+        "[\"abc",
+        "[12a]",
+        "[tru]",
+        "[\"a\u0001\"]",
+    })
+    public void pollShouldParseInputSplitAtEveryPosition(String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        String expected = parseWhole(bytes);
+        for (int i = 0; i <= bytes.length; i++) {
+            String actual = feedAndPoll(FACTORY, bytes, i, bytes.length);
+            assertThat(actual).as("split at %d", i).isEqualTo(expected);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 7})
+    public void pollShouldParseInputFedInSmallChunks(int chunkSize) {
+        String json = "{\"key\\u0041\": [\"value\", -12.5e-3, true, null, {\"x\": false}], \"b\": \"\\ud83d\\ude00\"}";
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+        String actual = feedInChunks(FACTORY, bytes, chunkSize);
+
+        assertThat(actual).isEqualTo(parseWhole(bytes));
+    }
+
+    @Test
+    public void pollShouldScanLongStringFedInSmallChunksOnlyOnce() {
+        char[] chars = new char[4 * 1024 * 1024];
+        Arrays.fill(chars, 'a');
+        byte[] bytes = ("[\"" + new String(chars) + "\", 1]").getBytes(StandardCharsets.US_ASCII);
+
+        String actual = assertTimeoutPreemptively(Duration.ofSeconds(30),
+                () -> feedInChunks(FACTORY, bytes, 16));
+
+        assertThat(actual).startsWith("START_ARRAY@1:2:1 VALUE_STRING(" + chars.length + ")")
+            .endsWith("VALUE_NUMBER(1)@1:" + (chars.length + 7) + ":" + (chars.length + 6)
+                    + " END_ARRAY@1:" + (chars.length + 8) + ":" + (chars.length + 7) + " ");
+    }
+
+    @Test
+    public void feedShouldThrowIfTokenExceedsMaxTokenLength() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(JsonParser.MAX_TOKEN_LENGTH, 100);
+        NonBlockingJsonParser parser = createParserFactory(config).createNonBlockingParser();
+        byte[] chunk = "aaaaaaaaaaaaaaaaaaaa".getBytes(StandardCharsets.US_ASCII);
+
+        parser.feed(ByteBuffer.wrap("[\n  \"".getBytes(StandardCharsets.US_ASCII)));
+        assertThat(parser.poll()).isEqualTo(Event.START_ARRAY);
+        JsonParsingException thrown = catchThrowableOfType(() -> {
+            for (int i = 0; i < 100; i++) {
+                parser.feed(ByteBuffer.wrap(chunk));
+                assertThat(parser.poll()).isNull();
+            }
+        }, JsonParsingException.class);
+
+        assertThat(thrown).isNotNull();
+        JsonLocation location = thrown.getLocation();
+        assertThat(location.getStreamOffset()).isEqualTo(104L);
+        assertThat(location.getLineNumber()).isEqualTo(2L);
+        assertThat(location.getColumnNumber()).isEqualTo(103L);
+    }
+
+    @Test
+    public void feedShouldDropBytesBeyondMaxDocumentLength() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(JsonParser.MAX_DOCUMENT_LENGTH, 1000L);
+        NonBlockingJsonParser parser = createParserFactory(config).createNonBlockingParser();
+        byte[] chunk = "1,".getBytes(StandardCharsets.US_ASCII);
+
+        parser.feed(ByteBuffer.wrap("[".getBytes(StandardCharsets.US_ASCII)));
+        JsonParsingException thrown = catchThrowableOfType(() -> {
+            for (;;) {
+                ByteBuffer bytes = ByteBuffer.wrap(chunk);
+                parser.feed(bytes);
+                assertThat(bytes.hasRemaining()).isFalse();
+                while (parser.poll() != null) {
+                    continue;
+                }
+            }
+        }, JsonParsingException.class);
+
+        assertThat(thrown).isNotNull();
+        assertThat(thrown.getLocation().getStreamOffset()).isEqualTo(1000L);
+    }
+
+    @Test
+    public void pollShouldThrowInPartialStringExceedingMaxStringLength() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(JsonParser.MAX_STRING_LENGTH, 10);
+        NonBlockingJsonParser parser = createParserFactory(config).createNonBlockingParser();
+
+        parser.feed(ByteBuffer.wrap("[\"abcde\\u0066".getBytes(StandardCharsets.US_ASCII)));
+        assertThat(parser.poll()).isEqualTo(Event.START_ARRAY);
+        assertThat(parser.poll()).isNull();
+        parser.feed(ByteBuffer.wrap("ghijkl".getBytes(StandardCharsets.US_ASCII)));
+        JsonParsingException thrown = catchThrowableOfType(parser::poll, JsonParsingException.class);
+
+        assertThat(thrown).isNotNull();
+        assertThat(thrown.getLocation().getStreamOffset()).isEqualTo(17L);
+    }
+
+    @Test
+    public void pollShouldThrowInPartialNumberExceedingMaxNumberDigits() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(JsonParser.MAX_NUMBER_DIGITS, 5);
+        NonBlockingJsonParser parser = createParserFactory(config).createNonBlockingParser();
+
+        parser.feed(ByteBuffer.wrap("[-123".getBytes(StandardCharsets.US_ASCII)));
+        assertThat(parser.poll()).isEqualTo(Event.START_ARRAY);
+        assertThat(parser.poll()).isNull();
+        parser.feed(ByteBuffer.wrap(".4567".getBytes(StandardCharsets.US_ASCII)));
+        JsonParsingException thrown = catchThrowableOfType(parser::poll, JsonParsingException.class);
+
+        assertThat(thrown).isNotNull();
+        assertThat(thrown.getLocation().getStreamOffset()).isEqualTo(8L);
+    }
+
+    @Test
+    public void hasNextShouldReturnTrueWhileOnlyWhitespaceIsFed() {
+        NonBlockingJsonParser parser = FACTORY.createNonBlockingParser();
+
+        parser.feed(ByteBuffer.wrap("[1]  \r\n".getBytes(StandardCharsets.US_ASCII)));
+        assertThat(parser.poll()).isEqualTo(Event.START_ARRAY);
+        assertThat(parser.poll()).isEqualTo(Event.VALUE_NUMBER);
+        assertThat(parser.poll()).isEqualTo(Event.END_ARRAY);
+        assertThat(parser.hasNext()).isTrue();
+        assertThat(parser.poll()).isNull();
+        parser.endOfInput();
+        assertThat(parser.hasNext()).isFalse();
+    }
+
+    private static String parseWhole(byte[] bytes) {
+        StringBuilder builder = new StringBuilder();
+        try (jakarta.json.stream.JsonParser whole = FACTORY.createParser(bytes)) {
+            while (whole.hasNext()) {
+                appendEvent(builder, whole, whole.next());
+            }
+        } catch (JsonParsingException e) {
+            appendException(builder, e);
+        }
+        return builder.toString();
+    }
+
+    private static String feedAndPoll(JsonParserFactory factory, byte[] bytes, int split, int end) {
+        StringBuilder builder = new StringBuilder();
+        try (NonBlockingJsonParser parser = factory.createNonBlockingParser()) {
+            try {
+                parser.feed(ByteBuffer.wrap(bytes, 0, split));
+                pollAvailable(parser, builder);
+                parser.feed(ByteBuffer.wrap(bytes, split, end - split));
+                pollAvailable(parser, builder);
+                parser.endOfInput();
+                pollAvailable(parser, builder);
+            } catch (JsonParsingException e) {
+                appendException(builder, e);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String feedInChunks(JsonParserFactory factory, byte[] bytes, int chunkSize) {
+        StringBuilder builder = new StringBuilder();
+        try (NonBlockingJsonParser parser = factory.createNonBlockingParser()) {
+            try {
+                for (int i = 0; i < bytes.length; i += chunkSize) {
+                    parser.feed(ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i)));
+                    pollAvailable(parser, builder);
+                }
+                parser.endOfInput();
+                pollAvailable(parser, builder);
+            } catch (JsonParsingException e) {
+                appendException(builder, e);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static void pollAvailable(NonBlockingJsonParser parser, StringBuilder builder) {
+        while (parser.hasNext()) {
+            Event event = parser.poll();
+            if (event == NonBlockingJsonParser.NOT_AVAILABLE) {
+                break;
+            }
+            appendEvent(builder, parser, event);
+        }
+    }
+
+    private static void appendEvent(StringBuilder builder, jakarta.json.stream.JsonParser parser, Event event) {
+        builder.append(event);
+        if (event == Event.KEY_NAME || event == Event.VALUE_STRING) {
+            String value = parser.getString();
+            builder.append('(').append(value.length() > 100 ? String.valueOf(value.length()) : value).append(')');
+        } else if (event == Event.VALUE_NUMBER) {
+            builder.append('(').append(parser.getBigDecimal()).append(')');
+        }
+        appendLocation(builder, parser.getLocation());
+        builder.append(' ');
+    }
+
+    private static void appendException(StringBuilder builder, JsonParsingException e) {
+        builder.append('!');
+        appendLocation(builder, e.getLocation());
+    }
+
+    private static void appendLocation(StringBuilder builder, JsonLocation location) {
+        builder.append('@').append(location.getLineNumber())
+            .append(':').append(location.getColumnNumber())
+            .append(':').append(location.getStreamOffset());
+    }
+
+    private static JsonParserFactory createParserFactory(Map<String, Object> config) {
+        return (JsonParserFactory) Json.createParserFactory(config);
+    }
+}
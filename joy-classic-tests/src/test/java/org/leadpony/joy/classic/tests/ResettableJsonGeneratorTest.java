@@ -0,0 +1,185 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import java.io.CharArrayWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+import jakarta.json.stream.JsonGenerationException;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonGeneratorFactory;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.leadpony.joy.api.BufferPool;
+import org.leadpony.joy.api.ResettableJsonGenerator;
+import org.leadpony.joy.classic.ClassicJsonProvider;
+
+/**
+ * @author leadpony
+ */
+public class ResettableJsonGeneratorTest {
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void resetShouldWriteToNewWriterAfterClose(boolean pretty) {
+        StringWriter first = new StringWriter();
+        ResettableJsonGenerator generator = createGenerator(createFactory(pretty), first);
+        writeDocument(generator, 1).close();
+        String firstOutput = first.toString();
+
+        CharArrayWriter second = new CharArrayWriter();
+        generator.reset(second);
+        writeDocument(generator, 2).close();
+
+        assertThat(first.toString()).isEqualTo(firstOutput).isEqualTo(expected(pretty, 1));
+        assertThat(second.toString()).isEqualTo(expected(pretty, 2));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void resetShouldCloseCompleteDocumentBeforeClose(boolean pretty) {
+        ClosingWriter first = new ClosingWriter();
+        ResettableJsonGenerator generator = createGenerator(createFactory(pretty), first);
+        writeDocument(generator, 1);
+
+        StringWriter second = new StringWriter();
+        generator.reset(second);
+
+        assertThat(first.closed).isTrue();
+        assertThat(first.toString()).isEqualTo(expected(pretty, 1));
+
+        writeDocument(generator, 2).close();
+        assertThat(second.toString()).isEqualTo(expected(pretty, 2));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void resetShouldThrowIfDocumentIsIncomplete(boolean pretty) {
+        ResettableJsonGenerator generator = createGenerator(createFactory(pretty), new StringWriter());
+        generator.writeStartArray().write(1);
+
+        JsonGenerationException thrown = catchThrowableOfType(
+                () -> generator.reset(new StringWriter()), JsonGenerationException.class);
+
+        assertThat(thrown).isNotNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void closeShouldNotReleaseBufferKeptForReset(boolean pretty) {
+        ClassicJsonProvider provider = new ClassicJsonProvider();
+        JsonGeneratorFactory factory = provider.createGeneratorFactory(createConfig(pretty));
+        BufferPool pool = provider.getCharBufferPool();
+
+        StringWriter a1 = new StringWriter();
+        ResettableJsonGenerator a = createGenerator(factory, a1);
+        writeDocument(a, 1).close();
+        // The buffer of the first output was released and is taken again.
+        StringWriter a2 = new StringWriter();
+        a.reset(a2);
+        writeDocument(a, 2).close();
+
+        long hits = pool.getHitCount();
+        StringWriter b1 = new StringWriter();
+        ResettableJsonGenerator b = createGenerator(factory, b1);
+
+        // The buffer kept by the closed generator must not be shared.
+        assertThat(pool.getHitCount()).isEqualTo(hits);
+
+        StringWriter a3 = new StringWriter();
+        a.reset(a3);
+        b.writeStartArray();
+        a.writeStartArray();
+        for (int i = 0; i < 1000; i++) {
+            b.write("b" + i);
+            a.write("a" + i);
+        }
+        b.writeEnd().close();
+        a.writeEnd().close();
+
+        assertThat(a1.toString()).isEqualTo(expected(pretty, 1));
+        assertThat(a2.toString()).isEqualTo(expected(pretty, 2));
+        assertThat(a3.toString()).isEqualTo(expectedArray(pretty, "a"));
+        assertThat(b1.toString()).isEqualTo(expectedArray(pretty, "b"));
+    }
+
+    private static JsonGenerator writeDocument(JsonGenerator generator, int number) {
+        return generator.writeStartObject()
+                .write("number", number)
+                .writeStartArray("items")
+                .write("item" + number)
+                .writeNull()
+                .writeEnd()
+                .writeEnd();
+    }
+
+    /**
+     * Returns the document written by another generator.
+     */
+    private static String expected(boolean pretty, int number) {
+        StringWriter writer = new StringWriter();
+        writeDocument(createFactory(pretty).createGenerator(writer), number).close();
+        return writer.toString();
+    }
+
+    private static String expectedArray(boolean pretty, String prefix) {
+        StringWriter writer = new StringWriter();
+        JsonGenerator generator = createFactory(pretty).createGenerator(writer).writeStartArray();
+        for (int i = 0; i < 1000; i++) {
+            generator.write(prefix + i);
+        }
+        generator.writeEnd().close();
+        return writer.toString();
+    }
+
+    private static ResettableJsonGenerator createGenerator(JsonGeneratorFactory factory, Writer writer) {
+        return (ResettableJsonGenerator) factory.createGenerator(writer);
+    }
+
+    private static JsonGeneratorFactory createFactory(boolean pretty) {
+        return new ClassicJsonProvider().createGeneratorFactory(createConfig(pretty));
+    }
+
+    private static Map<String, Object> createConfig(boolean pretty) {
+        Map<String, Object> config = new HashMap<>();
+        if (pretty) {
+            config.put(JsonGenerator.PRETTY_PRINTING, Boolean.TRUE);
+        }
+        return config;
+    }
+
+    /**
+     * A writer which remembers whether it was closed.
+     *
+     * @author leadpony
+     */
+    private static class ClosingWriter extends StringWriter {
+
+        boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
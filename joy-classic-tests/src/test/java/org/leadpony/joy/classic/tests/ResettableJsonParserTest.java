@@ -0,0 +1,257 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import jakarta.json.Json;
+import jakarta.json.stream.JsonParser.Event;
+import jakarta.json.stream.JsonParsingException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.leadpony.joy.api.JsonParser;
+import org.leadpony.joy.api.JsonParserFactory;
+import org.leadpony.joy.api.ResettableJsonParser;
+
+/**
+ * @author leadpony
+ */
+public class ResettableJsonParserTest {
+
+    private static final JsonParserFactory FACTORY = (JsonParserFactory) Json.createParserFactory(null);
+
+    private static final String[] DOCUMENTS = {
+        "{\"a\": [1, -2.5e3, true, false, null], \"b\": \"\\u00e9\\n\"}",
+        "[\"" + repeat("\u00e9\u3042\ud83d\ude00 long string ", 1000) + "\", 12345678901234567890]",
+        "\"short\"",
+    };
+
+    /**
+     * The types of the input given to the parser.
+     *
+     * @author leadpony
+     */
+    enum InputType {
+        STREAM(StandardCharsets.UTF_8),
+        STREAM_UTF16(StandardCharsets.UTF_16LE),
+        READER(StandardCharsets.UTF_8),
+        BYTES(StandardCharsets.UTF_8),
+        BYTES_UTF16(StandardCharsets.UTF_16BE);
+
+        private final Charset charset;
+
+        InputType(Charset charset) {
+            this.charset = charset;
+        }
+
+        /**
+         * Resets the parser to parse the specified JSON.
+         *
+         * @return the bytes given to the parser, or {@code null}.
+         */
+        byte[] reset(ResettableJsonParser parser, String json) {
+            byte[] bytes = json.getBytes(charset);
+            switch (this) {
+            case READER:
+                parser.reset(new StringReader(json));
+                return null;
+            case BYTES:
+            case BYTES_UTF16:
+                // The input is surrounded by the bytes not to be parsed.
+                byte[] array = new byte[bytes.length + 6];
+                Arrays.fill(array, (byte) '[');
+                System.arraycopy(bytes, 0, array, 3, bytes.length);
+                parser.reset(array, 3, bytes.length);
+                return array;
+            default:
+                parser.reset(new ByteArrayInputStream(bytes));
+                return null;
+            }
+        }
+    }
+
+    public static Stream<Arguments> resetShouldSwitchInputInAnyOrder() {
+        return Stream.of(InputType.values())
+                .flatMap(first -> Stream.of(InputType.values()).map(second -> Arguments.of(first, second)));
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void resetShouldSwitchInputInAnyOrder(InputType first, InputType second) {
+        InputType[] types = {first, second, first, second, first, second};
+        try (ResettableJsonParser parser = FACTORY.createResettableParser()) {
+            for (int i = 0; i < types.length; i++) {
+                String json = DOCUMENTS[i % DOCUMENTS.length];
+                types[i].reset(parser, json);
+
+                assertThat(describe(parser)).as("%s at %d", types[i], i).isEqualTo(describe(json));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("resetShouldSwitchInputInAnyOrder")
+    public void resetShouldDiscardPartiallyParsedInput(InputType first, InputType second) {
+        try (ResettableJsonParser parser = FACTORY.createResettableParser()) {
+            first.reset(parser, DOCUMENTS[1]);
+            assertThat(parser.next()).isEqualTo(Event.START_ARRAY);
+            assertThat(parser.next()).isEqualTo(Event.VALUE_STRING);
+
+            second.reset(parser, DOCUMENTS[0]);
+
+            assertThat(describe(parser)).isEqualTo(describe(DOCUMENTS[0]));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("resetShouldSwitchInputInAnyOrder")
+    public void resetShouldRecoverFromError(InputType first, InputType second) {
+        try (ResettableJsonParser parser = FACTORY.createResettableParser()) {
+            first.reset(parser, "{\"a\": [1, 2,, 3]}");
+            Throwable thrown = catchThrowable(() -> {
+                while (parser.hasNext()) {
+                    parser.next();
+                }
+            });
+            assertThat(thrown).isInstanceOf(JsonParsingException.class);
+
+            second.reset(parser, DOCUMENTS[0]);
+
+            assertThat(describe(parser)).isEqualTo(describe(DOCUMENTS[0]));
+            assertThat(parser.getLocation().getLineNumber()).isEqualTo(1L);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = InputType.class, names = {"STREAM", "STREAM_UTF16", "READER"})
+    public void resetShouldNotUseBytesOfPreviousInput(InputType type) {
+        try (ResettableJsonParser parser = FACTORY.createResettableParser()) {
+            byte[] bytes = InputType.BYTES.reset(parser, DOCUMENTS[0]);
+            byte[] copy = bytes.clone();
+            assertThat(describe(parser)).isEqualTo(describe(DOCUMENTS[0]));
+
+            // The long string would overwrite the bytes if they were reused.
+            type.reset(parser, DOCUMENTS[1]);
+            assertThat(describe(parser)).isEqualTo(describe(DOCUMENTS[1]));
+            type.reset(parser, DOCUMENTS[2]);
+            assertThat(describe(parser)).isEqualTo(describe(DOCUMENTS[2]));
+
+            assertThat(bytes).isEqualTo(copy);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(InputType.class)
+    public void resetShouldCloseCurrentInput(InputType type) {
+        try (ResettableJsonParser parser = FACTORY.createResettableParser()) {
+            ClosingInputStream in = new ClosingInputStream(DOCUMENTS[0].getBytes(StandardCharsets.UTF_8));
+            parser.reset(in);
+            parser.next();
+
+            type.reset(parser, DOCUMENTS[2]);
+            assertThat(in.closed).isTrue();
+
+            assertThat(describe(parser)).isEqualTo(describe(DOCUMENTS[2]));
+        }
+    }
+
+    @Test
+    public void closeShouldCloseInputAndAllowReset() {
+        ResettableJsonParser parser = FACTORY.createResettableParser();
+        ClosingInputStream in = new ClosingInputStream(DOCUMENTS[0].getBytes(StandardCharsets.UTF_8));
+        parser.reset(in);
+        parser.next();
+
+        parser.close();
+        assertThat(in.closed).isTrue();
+
+        InputType.STREAM.reset(parser, DOCUMENTS[1]);
+        assertThat(describe(parser)).isEqualTo(describe(DOCUMENTS[1]));
+        parser.close();
+    }
+
+    @Test
+    public void nextShouldThrowBeforeFirstReset() {
+        ResettableJsonParser parser = FACTORY.createResettableParser();
+
+        IllegalStateException thrown = catchThrowableOfType(parser::next, IllegalStateException.class);
+
+        assertThat(thrown).isNotNull();
+    }
+
+    private static String describe(String json) {
+        return describe(FACTORY.createParser(new StringReader(json)));
+    }
+
+    /**
+     * Describes the events of the parser without closing it.
+     */
+    private static String describe(jakarta.json.stream.JsonParser parser) {
+        StringBuilder builder = new StringBuilder();
+        while (parser.hasNext()) {
+            Event event = parser.next();
+            builder.append(event);
+            if (event == Event.KEY_NAME || event == Event.VALUE_STRING || event == Event.VALUE_NUMBER) {
+                builder.append('(').append(parser.getString()).append(')');
+            }
+            if (event == Event.VALUE_NUMBER && parser instanceof JsonParser) {
+                builder.append('(').append(((JsonParser) parser).getDouble()).append(')');
+            }
+            builder.append(' ');
+        }
+        return builder.toString();
+    }
+
+    private static String repeat(String s, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(s);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * An input stream which remembers whether it was closed.
+     *
+     * @author leadpony
+     */
+    private static class ClosingInputStream extends ByteArrayInputStream {
+
+        boolean closed;
+
+        ClosingInputStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
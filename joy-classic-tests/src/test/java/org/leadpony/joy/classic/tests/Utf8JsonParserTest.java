@@ -0,0 +1,416 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.classic.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import jakarta.json.Json;
+import jakarta.json.stream.JsonLocation;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+import jakarta.json.stream.JsonParsingException;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.leadpony.joy.api.JsonParserFactory;
+import org.leadpony.joy.api.NonBlockingJsonParser;
+
+/**
+ * Tests the parser reading UTF-8 bytes against the parser reading characters.
+ *
+ * @author leadpony
+ */
+public class Utf8JsonParserTest {
+
+    private static final JsonParserFactory FACTORY = createParserFactory(new HashMap<>());
+
+    /**
+     * The types of the input given as bytes.
+     *
+     * @author leadpony
+     */
+    enum InputType {
+        STREAM,
+        BYTES,
+        NON_BLOCKING
+    }
+
+    private static final String[] SEQUENCES = {
+        // well-formed
+        "c3 a9",
+        "e3 81 82",
+        "f0 9f 98 80",
+        "ef bf bd",
+        "f4 8f bf bf",
+        // overlong forms
+        "c0 af",
+        "c1 bf",
+        "e0 80 af",
+        "e0 9f bf",
+        "f0 80 80 af",
+        "f0 8f bf bf",
+        // surrogates
+        "ed a0 80",
+        "ed bf bf",
+        "ed a0 bd ed b8 80",
+        // above U+10FFFF
+        "f4 90 80 80",
+        "f5 80 80 80",
+        "f8 88 80 80 80",
+        "fe",
+        "ff",
+        // continuation bytes without lead
+        "80",
+        "bf 80",
+        // truncated
+        "c3",
+        "e3 81",
+        "f0 9f 98",
+        "e3 41",
+        "f0 9f 41 42",
+    };
+
+    public static Stream<Arguments> stringsWithRawBytes() {
+        String[] templates = {
+            "[\"a%sb\"]",
+            "[\"\\n%s\"]",
+            "[\"%s\\n\"]",
+            "[\"\\t%s\\u0041%s\\\\\"]",
+            "[\"\\ud800%s\"]",
+            "[\"%s\\udc00\"]",
+            "[\"\\ud83d%s\\ude00\"]",
+            "{\"%s\\/\": \"%s\"}",
+        };
+        List<Arguments> arguments = new ArrayList<>();
+        for (InputType type : InputType.values()) {
+            for (String template : templates) {
+                for (String sequence : SEQUENCES) {
+                    arguments.add(Arguments.of(type, template, sequence));
+                }
+            }
+        }
+        return arguments.stream();
+    }
+
+    @ParameterizedTest(name = "[{index}] {0} {1} {2}")
+    @MethodSource("stringsWithRawBytes")
+    public void getStringShouldDecodeRawBytesAsReader(InputType type, String template, String sequence) {
+        byte[] bytes = format(template, hex(sequence));
+
+        String expected = describe(createReaderParser(bytes));
+        String actual = describe(type, bytes);
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    public static Stream<Arguments> escapedLoneSurrogates() {
+        return Stream.of(
+            Arguments.of("[\"\\ud800\"]", "\ud800"),
+            Arguments.of("[\"\\udc00\"]", "\udc00"),
+            Arguments.of("[\"\\ud800%s\"]", "\ud800\ufffd"),
+            Arguments.of("[\"%s\\ud800\"]", "\ufffd\ud800"),
+            Arguments.of("[\"\\n%s\\ud800\\udc00\"]", "\n\ufffd\ud800\udc00")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("escapedLoneSurrogates")
+    public void getStringShouldKeepEscapedLoneSurrogates(String template, String expected) {
+        byte[] bytes = format(template, hex("ed a0 80"));
+        for (InputType type : InputType.values()) {
+            assertThat(describe(type, bytes)).isEqualTo("START_ARRAY VALUE_STRING(" + expected + ") END_ARRAY ");
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "c0 af",
+        "e0 80 af",
+        "ed a0 80",
+    })
+    public void getStringShouldNotDecodeIllFormedBytesDependingOnEscapes(String sequence) {
+        byte[] withoutEscape = format("[\"..%s\"]", hex(sequence));
+        byte[] withEscape = format("[\"\\n..%s\"]", hex(sequence));
+
+        String expected = describe(InputType.STREAM, withoutEscape).replace("(", "(\n");
+
+        assertThat(describe(InputType.STREAM, withEscape)).isEqualTo(expected).doesNotContain("../");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 5, 7, 16})
+    public void parserShouldReadInputSplitAtBufferBoundaries(int chunkSize) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(org.leadpony.joy.api.JsonParser.BUFFER_SIZE, 16);
+        JsonParserFactory factory = createParserFactory(config);
+        String json = "{\"\u00e9\u3042\ud83d\ude00\": [\"0123456789abcdef\\u00e9\\ud83d\\ude00\u3042\u3044\", "
+                + "-12345.678e-9, true, false, null, \"\\\"\\\\\\/\\b\\f\\n\\r\\t\"],\n"
+                + "\"long\": \"" + repeat("\u00e9\u3042\ud83d\ude00", 20) + "\", "
+                + "\"number\": 123456789012345678901234567890}";
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+        String expected = describe(createReaderParser(bytes));
+        String actual = describe(factory.createParser(new ChunkedInputStream(bytes, chunkSize)));
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"UTF-8", "UTF-16BE", "UTF-16LE", "UTF-32BE", "UTF-32LE"})
+    public void createParserShouldDetectEncoding(String charsetName) {
+        Charset charset = Charset.forName(charsetName);
+        String json = "[\"\u00e9\u3042\ud83d\ude00\", 1]";
+
+        String expected = describe(FACTORY.createParser(new StringReader(json)));
+
+        for (boolean bom : new boolean[] {false, true}) {
+            String text = bom ? "\ufeff" + json : json;
+            byte[] bytes = text.getBytes(charset);
+            JsonParser parser = FACTORY.createParser(new ByteArrayInputStream(bytes));
+            assertThat(describe(parser)).as("BOM: %s", bom).isEqualTo(expected);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = InputType.class, names = {"STREAM", "BYTES"})
+    public void parserShouldSkipUtf8ByteOrderMark(InputType type) {
+        byte[] bytes = "\ufeff[\"\u00e9\"]".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(describe(type, bytes)).isEqualTo("START_ARRAY VALUE_STRING(\u00e9) END_ARRAY ");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "{\n  \"\u00e9\": [1, \"\u3042\"],\r\n  \"\ud83d\ude00\" : {\"k\": null}\n}",
+        "[\"\u00e9\", 1, \n\"\u3042\u3044\", true,\r\"\ud83d\ude00\",\r\n false]",
+    })
+    public void getLocationShouldReportBytes(String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+        List<String> expected = new ArrayList<>();
+        try (JsonParser parser = FACTORY.createParser(new StringReader(json))) {
+            while (parser.hasNext()) {
+                Event event = parser.next();
+                expected.add(event + toByteLocation(json, parser.getLocation()));
+            }
+        }
+
+        for (InputType type : InputType.values()) {
+            List<String> actual = new ArrayList<>();
+            try (JsonParser parser = createParser(type, bytes)) {
+                while (parser.hasNext()) {
+                    Event event = parser.next();
+                    actual.add(event + describe(parser.getLocation()));
+                }
+            }
+            assertThat(actual).as("%s", type).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "[\"\u00e9\u3042\" x]",
+        "{\"\ud83d\ude00\":\n \"\u3042\" \u3044}",
+        "[\"\u00e9\",\r\n \"\u0001\"]",
+    })
+    public void getLocationOfExceptionShouldReportBytes(String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+        String expected = toByteLocation(json, parseToError(FACTORY.createParser(new StringReader(json))));
+
+        for (InputType type : InputType.values()) {
+            JsonParser parser = createParser(type, bytes);
+            assertThat(describe(parseToError(parser))).as("%s", type).isEqualTo(expected);
+        }
+    }
+
+    private static JsonLocation parseToError(JsonParser parser) {
+        try {
+            while (parser.hasNext()) {
+                parser.next();
+            }
+        } catch (JsonParsingException e) {
+            return e.getLocation();
+        }
+        throw new AssertionError("no error");
+    }
+
+    private static String toByteLocation(String json, JsonLocation location) {
+        int offset = (int) location.getStreamOffset();
+        String before = json.substring(0, offset);
+        int lineStart = Math.max(before.lastIndexOf('\n'), before.lastIndexOf('\r')) + 1;
+        long byteOffset = utf8Length(before);
+        long byteColumn = utf8Length(before.substring(lineStart)) + 1;
+        return "@" + location.getLineNumber() + ":" + byteColumn + ":" + byteOffset;
+    }
+
+    private static String describe(JsonLocation location) {
+        return "@" + location.getLineNumber() + ":" + location.getColumnNumber() + ":" + location.getStreamOffset();
+    }
+
+    private static int utf8Length(String s) {
+        return s.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static JsonParser createReaderParser(byte[] bytes) {
+        return FACTORY.createParser(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8));
+    }
+
+    private static JsonParser createParser(InputType type, byte[] bytes) {
+        switch (type) {
+        case STREAM:
+            return FACTORY.createParser(new ByteArrayInputStream(bytes));
+        case BYTES:
+            return FACTORY.createParser(bytes);
+        default:
+            NonBlockingJsonParser parser = FACTORY.createNonBlockingParser();
+            parser.feed(ByteBuffer.wrap(bytes));
+            parser.endOfInput();
+            return parser;
+        }
+    }
+
+    private static String describe(InputType type, byte[] bytes) {
+        if (type != InputType.NON_BLOCKING) {
+            return describe(createParser(type, bytes));
+        }
+        // Feeds the bytes one by one.
+        StringBuilder builder = new StringBuilder();
+        try (NonBlockingJsonParser parser = FACTORY.createNonBlockingParser()) {
+            for (int i = 0; i <= bytes.length; i++) {
+                if (i < bytes.length) {
+                    parser.feed(ByteBuffer.wrap(bytes, i, 1));
+                } else {
+                    parser.endOfInput();
+                }
+                while (parser.hasNext()) {
+                    Event event = parser.poll();
+                    if (event == NonBlockingJsonParser.NOT_AVAILABLE) {
+                        break;
+                    }
+                    appendEvent(builder, parser, event);
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String describe(JsonParser parser) {
+        StringBuilder builder = new StringBuilder();
+        try {
+            while (parser.hasNext()) {
+                appendEvent(builder, parser, parser.next());
+            }
+        } catch (JsonParsingException e) {
+            builder.append('!');
+        } finally {
+            parser.close();
+        }
+        return builder.toString();
+    }
+
+    private static void appendEvent(StringBuilder builder, JsonParser parser, Event event) {
+        builder.append(event);
+        if (event == Event.KEY_NAME || event == Event.VALUE_STRING || event == Event.VALUE_NUMBER) {
+            builder.append('(').append(parser.getString()).append(')');
+        }
+        builder.append(' ');
+    }
+
+    private static byte[] format(String template, byte[] sequence) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String[] parts = template.split("%s", -1);
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                out.write(sequence, 0, sequence.length);
+            }
+            byte[] part = parts[i].getBytes(StandardCharsets.US_ASCII);
+            out.write(part, 0, part.length);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] hex(String sequence) {
+        String[] digits = sequence.split(" ");
+        byte[] bytes = new byte[digits.length];
+        for (int i = 0; i < digits.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(digits[i], 16);
+        }
+        return bytes;
+    }
+
+    private static String repeat(String s, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(s);
+        }
+        return builder.toString();
+    }
+
+    private static JsonParserFactory createParserFactory(Map<String, Object> config) {
+        return (JsonParserFactory) Json.createParserFactory(config);
+    }
+
+    /**
+     * An input stream which returns the bytes in small chunks.
+     *
+     * @author leadpony
+     */
+    private static class ChunkedInputStream extends InputStream {
+
+        private final byte[] bytes;
+        private final int chunkSize;
+        private int position;
+
+        ChunkedInputStream(byte[] bytes, int chunkSize) {
+            this.bytes = bytes;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int read() {
+            return (position < bytes.length) ? bytes[position++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (position >= bytes.length) {
+                return -1;
+            }
+            int length = Math.min(Math.min(len, chunkSize), bytes.length - position);
+            System.arraycopy(bytes, position, b, off, length);
+            position += length;
+            return length;
+        }
+    }
+}
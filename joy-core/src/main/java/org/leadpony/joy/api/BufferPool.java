@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.api;
+
+/**
+ * A pool of the buffers shared by the parsers and the generators created by
+ * the provider.
+ *
+ * <p>
+ * The provider has a pool of character buffers and a pool of byte buffers.
+ * Each pool is divided into stripes, and each thread takes and releases
+ * buffers in the stripe selected by the thread without locking. The pool
+ * keeps only a bounded number of buffers and holds them through weak
+ * references, so that the garbage collector can reclaim them.
+ * </p>
+ *
+ * <p>
+ * The capacity of the pools and the size of the buffers can be changed by the
+ * system properties below, which are read when the provider is instantiated.
+ * </p>
+ *
+ * <pre>
+ * <code>
+ * java -Dorg.leadpony.joy.bufferPool.capacity=256 ...
+ * </code>
+ * </pre>
+ *
+ * <p>
+ * The pools of the provider are available from
+ * {@link org.leadpony.joy.core.AbstractJsonProvider#getCharBufferPool()} and
+ * {@link org.leadpony.joy.core.AbstractJsonProvider#getByteBufferPool()}, and
+ * the pools used by the parsers created by a factory are available from
+ * {@link JsonParserFactory#getCharBufferPool()} and
+ * {@link JsonParserFactory#getByteBufferPool()}.
+ * </p>
+ *
+ * @author leadpony
+ * @since 2.2
+ */
+public interface BufferPool {
+
+    /**
+     * System property to specify the maximum number of buffers kept by each
+     * pool. The value must be a positive integer, which may be rounded down to
+     * a multiple of the number of the stripes, but never below half of the
+     * value. By default the capacity is four times the number of the available
+     * processors.
+     */
+    String CAPACITY = "org.leadpony.joy.bufferPool.capacity";
+
+    /**
+     * System property to specify the number of characters in a character
+     * buffer. The value must be a positive integer. By default the size is
+     * 4096.
+     */
+    String CHAR_BUFFER_SIZE = "org.leadpony.joy.bufferPool.charBufferSize";
+
+    /**
+     * System property to specify the number of bytes in a byte buffer. The
+     * value must be a positive integer. By default the size is 8192.
+     */
+    String BYTE_BUFFER_SIZE = "org.leadpony.joy.bufferPool.byteBufferSize";
+
+    /**
+     * Returns the maximum number of buffers kept by this pool.
+     *
+     * @return the capacity of this pool.
+     */
+    int getCapacity();
+
+    /**
+     * Returns the size of the buffers created by this pool.
+     *
+     * @return the number of elements in a buffer.
+     */
+    int getBufferSize();
+
+    /**
+     * Returns the number of the requests for a buffer which were served by a
+     * buffer kept in this pool.
+     *
+     * @return the number of hits.
+     */
+    long getHitCount();
+
+    /**
+     * Returns the number of the requests for a buffer which were served by a
+     * newly created buffer.
+     *
+     * @return the number of misses.
+     */
+    long getMissCount();
+}
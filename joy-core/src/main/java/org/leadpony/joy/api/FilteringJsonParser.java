@@ -0,0 +1,66 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.api;
+
+/**
+ * A JSON parser which produces the events only for the values selected by
+ * JSON pointers, skipping all the other parts of the input.
+ *
+ * <p>
+ * A parser of this type is created by
+ * {@link JsonParserFactory#createFilteringParser(jakarta.json.stream.JsonParser, java.util.Collection)}
+ * wrapping another parser. Each selected value is produced as if it were a
+ * value at the top level, in the order found in the input. The arrays and
+ * objects which cannot contain any selected value are skipped by
+ * {@link #skipArray()} or {@link #skipObject()} of the wrapped parser without
+ * creating any events. Combined with
+ * {@link JsonParser#LENIENT_SKIPPING}, they are skipped without validation.
+ * </p>
+ *
+ * <pre>
+ * <code>
+ * FilteringJsonParser parser = factory.createFilteringParser(
+ *     factory.createParser(in), Arrays.asList("/id", "/items/&#42;/price"));
+ * while (parser.hasNext()) {
+ *     parser.next();
+ *     String pointer = parser.getPointer();
+ *     JsonValue value = parser.getValue();
+ * }
+ * </code>
+ * </pre>
+ *
+ * <p>
+ * The selected values can also be read by {@link #getValueStream()}. Only the
+ * selected arrays and objects are built by {@link #getValue()},
+ * {@link #getArray()} and {@link #getObject()}.
+ * </p>
+ *
+ * @author leadpony
+ * @since 2.2
+ */
+public interface FilteringJsonParser extends JsonParser {
+
+    /**
+     * Returns the JSON pointer of the selected value which the current event
+     * belongs to. The pointer contains the actual keys and indices even when
+     * the value is selected by a wildcard.
+     *
+     * @return the JSON pointer of the selected value.
+     * @throws IllegalStateException if the parser has not produced any event
+     *                               yet.
+     */
+    String getPointer();
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.api;
+
+/**
+ * The events of a JSON parser recorded in a compact form, which can be
+ * replayed any number of times.
+ *
+ * <p>
+ * A tape is recorded by
+ * {@link JsonParserFactory#recordTape(jakarta.json.stream.JsonParser)}. The
+ * events are held in arrays of primitives, and the key names, strings and
+ * numbers share a single array of characters. Replaying the tape does not
+ * parse the input again, and does not create any objects except the values
+ * requested by the methods of the parser such as {@link JsonParser#getString()}
+ * and {@link JsonParser#getValue()}.
+ * </p>
+ *
+ * <pre>
+ * <code>
+ * JsonEventTape tape = factory.recordTape(factory.createParser(in));
+ * validate(tape.createParser());
+ * transform(tape.createParser());
+ * </code>
+ * </pre>
+ *
+ * <p>
+ * A tape is immutable and its parsers can be used by multiple threads
+ * concurrently, each parser by a single thread.
+ * </p>
+ *
+ * @author leadpony
+ * @since 2.2
+ */
+public interface JsonEventTape {
+
+    /**
+     * Returns the number of the events recorded in this tape.
+     *
+     * @return the number of the events.
+     */
+    int size();
+
+    /**
+     * Creates a parser which replays the events recorded in this tape from the
+     * beginning. The locations returned by the parser have only the stream
+     * offsets of the events recorded.
+     *
+     * @return newly created JSON parser.
+     */
+    JsonParser createParser();
+}
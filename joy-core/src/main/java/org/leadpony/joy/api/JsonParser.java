@@ -0,0 +1,440 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.api;
+
+/**
+ * An extended {@link jakarta.json.stream.JsonParser}.
+ *
+ * <p>
+ * All parsers created by the provider can be cast to this type. The parsers
+ * created by {@link JsonParserFactory} are returned as this type.
+ * </p>
+ *
+ * @author leadpony
+ * @since 2.2
+ */
+public interface JsonParser extends jakarta.json.stream.JsonParser {
+
+    /**
+     * Configuration property to make the parsers created by the same factory
+     * share the {@code String} instances of key names. The key names are kept
+     * in a table of bounded size, in which a newly found key name may evict
+     * another one. The value of the property should be an integer specifying
+     * the maximum number of key names to keep, and any other value uses the
+     * default size of 1024. A value not greater than zero disables the
+     * sharing.
+     *
+     * <pre>
+     * <code>
+     * Map&lt;String, Object&gt; config = new HashMap&lt;&gt;();
+     * config.put(JsonParser.INTERN_KEY_NAMES, 256);
+     * JsonParserFactory factory = Json.createParserFactory(config);
+     * </code>
+     * </pre>
+     *
+     * <p>
+     * The property is also effective for the readers created by
+     * {@link jakarta.json.Json#createReaderFactory(java.util.Map)}.
+     * </p>
+     */
+    String INTERN_KEY_NAMES = "org.leadpony.joy.api.JsonParser.internKeyNames";
+
+    /**
+     * Configuration property to make {@link #skipArray()} and
+     * {@link #skipObject()} skip the input without validating it. The value
+     * of the property could be anything.
+     *
+     * <p>
+     * By default, the skipped arrays and objects are validated as strictly as
+     * other parts of the input, without creating any values. With this
+     * property, the parser tracks only the nesting of brackets and the
+     * boundaries of strings while skipping, which is much faster but does not
+     * detect most of the errors in the skipped input.
+     * </p>
+     *
+     * <pre>
+     * <code>
+     * Map&lt;String, Object&gt; config = new HashMap&lt;&gt;();
+     * config.put(JsonParser.LENIENT_SKIPPING, Boolean.TRUE);
+     * JsonParserFactory factory = Json.createParserFactory(config);
+     * </code>
+     * </pre>
+     */
+    String LENIENT_SKIPPING = "org.leadpony.joy.api.JsonParser.lenientSkipping";
+
+    /**
+     * Configuration property to specify the maximum depth of nested arrays and
+     * objects. The value of the property must be an integer. The parser throws
+     * {@link jakarta.json.stream.JsonParsingException} as soon as the input
+     * exceeds the depth. By default the depth is not limited.
+     *
+     * <pre>
+     * <code>
+     * Map&lt;String, Object&gt; config = new HashMap&lt;&gt;();
+     * config.put(JsonParser.MAX_NESTING_DEPTH, 1000);
+     * JsonParserFactory factory = Json.createParserFactory(config);
+     * </code>
+     * </pre>
+     */
+    String MAX_NESTING_DEPTH = "org.leadpony.joy.api.JsonParser.maxNestingDepth";
+
+    /**
+     * Configuration property to make the parsers stop counting lines. The
+     * value of the property could be anything.
+     *
+     * <p>
+     * With this property, the parsers skip line breaks as any other
+     * whitespace, and the locations returned by {@link #getLocation()} and
+     * those in the messages of {@link jakarta.json.stream.JsonParsingException}
+     * have only the stream offsets. Their line and column numbers are
+     * {@code -1}.
+     * </p>
+     *
+     * <pre>
+     * <code>
+     * Map&lt;String, Object&gt; config = new HashMap&lt;&gt;();
+     * config.put(JsonParser.OFFSET_ONLY_LOCATION, Boolean.TRUE);
+     * JsonParserFactory factory = Json.createParserFactory(config);
+     * </code>
+     * </pre>
+     */
+    String OFFSET_ONLY_LOCATION = "org.leadpony.joy.api.JsonParser.offsetOnlyLocation";
+
+    /**
+     * Configuration property to specify the initial size of the buffers of
+     * the parsers. The value of the property must be an integer, which is the
+     * number of characters for the input read as characters and the number of
+     * bytes for UTF-8 input. By default the parsers use the buffers of the
+     * pools shared by the provider.
+     *
+     * <p>
+     * The buffer of a parser grows when it is too short to hold a key name,
+     * string or number. The parsers created by the factory with this property
+     * share their own pools of buffers.
+     * </p>
+     *
+     * <pre>
+     * <code>
+     * Map&lt;String, Object&gt; config = new HashMap&lt;&gt;();
+     * config.put(JsonParser.BUFFER_SIZE, 1024);
+     * JsonParserFactory factory = Json.createParserFactory(config);
+     * </code>
+     * </pre>
+     */
+    String BUFFER_SIZE = "org.leadpony.joy.api.JsonParser.bufferSize";
+
+    /**
+     * Configuration property to make the buffers of the parsers start small and
+     * grow with the input which the parsers created by the same factory have
+     * read. The value of the property should be an integer specifying the
+     * maximum size of the buffers to keep, and any other value uses the
+     * default size of 1048576.
+     *
+     * <p>
+     * The buffers start with the size given by {@link #BUFFER_SIZE}, or 1024 if
+     * it is not specified. When a parser closes after growing its buffer to
+     * hold a long token, the following parsers created by the same factory
+     * start with a buffer of that size, as long as it does not exceed the
+     * maximum size.
+     * </p>
+     *
+     * <pre>
+     * <code>
+     * Map&lt;String, Object&gt; config = new HashMap&lt;&gt;();
+     * config.put(JsonParser.ADAPTIVE_BUFFER_SIZE, 65536);
+     * JsonParserFactory factory = Json.createParserFactory(config);
+     * </code>
+     * </pre>
+     */
+    String ADAPTIVE_BUFFER_SIZE = "org.leadpony.joy.api.JsonParser.adaptiveBufferSize";
+
+    /**
+     * Configuration property to specify the maximum length of a key name,
+     * string or number. The value of the property must be an integer, which is
+     * the number of characters for the input read as characters and the number
+     * of bytes for UTF-8 input, including escape sequences. The parser throws
+     * {@link jakarta.json.stream.JsonParsingException} when its buffer has to
+     * grow to hold a token longer than the length, instead of growing the
+     * buffer without limit. By default the length is not limited.
+     *
+     * <p>
+     * The limit bounds the memory taken by the buffer, and is checked only when
+     * the buffer grows. A token which fits in the buffer, or in the input given
+     * as a whole such as a byte array, is not checked.
+     * </p>
+     *
+     * <pre>
+     * <code>
+     * Map&lt;String, Object&gt; config = new HashMap&lt;&gt;();
+     * config.put(JsonParser.MAX_TOKEN_LENGTH, 1024 * 1024);
+     * JsonParserFactory factory = Json.createParserFactory(config);
+     * </code>
+     * </pre>
+     */
+    String MAX_TOKEN_LENGTH = "org.leadpony.joy.api.JsonParser.maxTokenLength";
+
+    /**
+     * Configuration property to specify the size of the windows in which the
+     * files given to {@link JsonParserFactory#createParser(java.nio.file.Path)}
+     * and {@link JsonParserFactory#createParser(java.nio.channels.FileChannel)}
+     * are mapped into memory. The value of the property must be a positive
+     * integer, which is the number of bytes. By default the size is 1073741824.
+     *
+     * <p>
+     * Smaller windows take less address space at a time, but are mapped more
+     * often. A window grows when it is too small to hold a token crossing its
+     * end. The record streams of files are also read through windows of this
+     * size.
+     * </p>
+     *
+     * <pre>
+     * <code>
+     * Map&lt;String, Object&gt; config = new HashMap&lt;&gt;();
+     * config.put(JsonParser.WINDOW_SIZE, 64 * 1024 * 1024);
+     * JsonParserFactory factory = Json.createParserFactory(config);
+     * </code>
+     * </pre>
+     */
+    String WINDOW_SIZE = "org.leadpony.joy.api.JsonParser.windowSize";
+
+    /**
+     * Configuration property to specify the maximum length of a key name or
+     * string value after unescaping it. The value of the property must be an
+     * integer, which is the number of characters for the input read as
+     * characters and the number of bytes for UTF-8 input. The parser throws
+     * {@link jakarta.json.stream.JsonParsingException} at the first character
+     * or byte beyond the length while scanning the string, without buffering
+     * the rest of it. By default the length is not limited.
+     *
+     * <p>
+     * This property and the following ones are intended to parse untrusted
+     * input with predictable costs, and are also effective for the readers
+     * created by {@link jakarta.json.Json#createReaderFactory(java.util.Map)}.
+     * Combine them with {@link #MAX_NESTING_DEPTH} and
+     * {@link #MAX_TOKEN_LENGTH}.
+     * </p>
+     *
+     * <pre>
+     * <code>
+     * Map&lt;String, Object&gt; config = new HashMap&lt;&gt;();
+     * config.put(JsonParser.MAX_STRING_LENGTH, 65536);
+     * JsonParserFactory factory = Json.createParserFactory(config);
+     * </code>
+     * </pre>
+     */
+    String MAX_STRING_LENGTH = "org.leadpony.joy.api.JsonParser.maxStringLength";
+
+    /**
+     * Configuration property to specify the maximum number of digits in the
+     * integral and fractional parts of a number. The value of the property
+     * must be an integer. The parser throws
+     * {@link jakarta.json.stream.JsonParsingException} at the first digit
+     * beyond the limit while scanning the number. By default the number of
+     * digits is not limited.
+     *
+     * <pre>
+     * <code>
+     * Map&lt;String, Object&gt; config = new HashMap&lt;&gt;();
+     * config.put(JsonParser.MAX_NUMBER_DIGITS, 100);
+     * JsonParserFactory factory = Json.createParserFactory(config);
+     * </code>
+     * </pre>
+     */
+    String MAX_NUMBER_DIGITS = "org.leadpony.joy.api.JsonParser.maxNumberDigits";
+
+    /**
+     * Configuration property to specify the maximum absolute value of the
+     * exponent of a number. The value of the property must be an integer. The
+     * parser throws {@link jakarta.json.stream.JsonParsingException} at the
+     * digit of the exponent which makes it larger or smaller than the value,
+     * such as the last digit of {@code 1e999999999}. By default the exponent
+     * is not limited.
+     *
+     * <pre>
+     * <code>
+     * Map&lt;String, Object&gt; config = new HashMap&lt;&gt;();
+     * config.put(JsonParser.MAX_NUMBER_EXPONENT, 400);
+     * JsonParserFactory factory = Json.createParserFactory(config);
+     * </code>
+     * </pre>
+     */
+    String MAX_NUMBER_EXPONENT = "org.leadpony.joy.api.JsonParser.maxNumberExponent";
+
+    /**
+     * Configuration property to specify the maximum number of the items in an
+     * array or the properties in an object. The value of the property must be
+     * an integer. The parser throws
+     * {@link jakarta.json.stream.JsonParsingException} at the first character
+     * or byte of the entry exceeding the number. By default the number of
+     * entries is not limited.
+     *
+     * <pre>
+     * <code>
+     * Map&lt;String, Object&gt; config = new HashMap&lt;&gt;();
+     * config.put(JsonParser.MAX_ENTRIES, 10000);
+     * JsonParserFactory factory = Json.createParserFactory(config);
+     * </code>
+     * </pre>
+     */
+    String MAX_ENTRIES = "org.leadpony.joy.api.JsonParser.maxEntries";
+
+    /**
+     * Configuration property to specify the maximum length of the whole input.
+     * The value of the property must be an integer or a long, which is the
+     * number of characters for the input read as characters and the number of
+     * bytes for UTF-8 input. The parser throws
+     * {@link jakarta.json.stream.JsonParsingException} at the first character
+     * or byte beyond the length as soon as it has to read it, whether in a
+     * token or in whitespace, and never reads further input. By default the
+     * length is not limited.
+     *
+     * <pre>
+     * <code>
+     * Map&lt;String, Object&gt; config = new HashMap&lt;&gt;();
+     * config.put(JsonParser.MAX_DOCUMENT_LENGTH, 10 * 1024 * 1024);
+     * JsonParserFactory factory = Json.createParserFactory(config);
+     * </code>
+     * </pre>
+     */
+    String MAX_DOCUMENT_LENGTH = "org.leadpony.joy.api.JsonParser.maxDocumentLength";
+
+    /**
+     * Configuration property to make the readers return the arrays and objects
+     * decoded lazily from the input. The value of the property could be
+     * anything.
+     *
+     * <p>
+     * The reader reads the whole input into memory, builds the index of the
+     * structural characters and validates the input, but does not build the
+     * arrays and objects. Their items and properties are decoded only when
+     * accessed, and each value is decoded at most once. The arrays and objects
+     * are immutable and equal to the ones built eagerly, but keep the whole
+     * input and its index in memory as long as any of them is reachable. This
+     * property is effective only for the readers created by
+     * {@link jakarta.json.Json#createReaderFactory(java.util.Map)} reading UTF-8
+     * input from an {@link java.io.InputStream}. The other readers build the
+     * values eagerly as usual.
+     * </p>
+     *
+     * <pre>
+     * <code>
+     * Map&lt;String, Object&gt; config = new HashMap&lt;&gt;();
+     * config.put(JsonParser.LAZY_STRUCTURES, Boolean.TRUE);
+     * JsonReaderFactory factory = Json.createReaderFactory(config);
+     * </code>
+     * </pre>
+     */
+    String LAZY_STRUCTURES = "org.leadpony.joy.api.JsonParser.lazyStructures";
+
+    /**
+     * Returns a JSON number as a {@code double}. The result is the same as
+     * {@code getBigDecimal().doubleValue()}, that is, the closest
+     * {@code double} value to the number, but the number is converted
+     * directly from the input without creating a {@code BigDecimal}.
+     *
+     * @return the {@code double} value of the JSON number.
+     * @throws IllegalStateException when the parser state is not
+     *                               {@code VALUE_NUMBER}.
+     */
+    double getDouble();
+
+    /**
+     * Returns the current key name, string value or number as a
+     * {@code CharSequence} without creating a {@code String}.
+     *
+     * <p>
+     * The returned sequence is a transient view over the internal buffer of
+     * this parser. It is valid only until the next call of {@link #next()} or
+     * {@link #close()}, and must not be retained or modified. Use
+     * {@code toString()} of the sequence to obtain a {@code String} to keep.
+     * </p>
+     *
+     * @return the view of the current string or number.
+     * @throws IllegalStateException when the parser state is not
+     *                               {@code KEY_NAME}, {@code VALUE_STRING},
+     *                               or {@code VALUE_NUMBER}.
+     */
+    CharSequence getCharSequence();
+
+    /**
+     * Checks if the current key name, string value or number is equal to the
+     * specified characters. The result is the same as
+     * {@code getString().contentEquals(chars)} but no {@code String} is
+     * created.
+     *
+     * @param chars the characters to compare with, cannot be {@code null}.
+     * @return {@code true} if the characters are equal, {@code false}
+     *         otherwise.
+     * @throws IllegalStateException when the parser state is not
+     *                               {@code KEY_NAME}, {@code VALUE_STRING},
+     *                               or {@code VALUE_NUMBER}.
+     * @throws NullPointerException  if the specified {@code chars} is
+     *                               {@code null}.
+     */
+    boolean contentEquals(CharSequence chars);
+
+    /**
+     * Checks if the current key name, string value or number starts with the
+     * specified prefix. The result is the same as
+     * {@code getString().startsWith(prefix.toString())} but no {@code String}
+     * is created.
+     *
+     * @param prefix the prefix to test, cannot be {@code null}.
+     * @return {@code true} if the current string starts with the prefix,
+     *         {@code false} otherwise.
+     * @throws IllegalStateException when the parser state is not
+     *                               {@code KEY_NAME}, {@code VALUE_STRING},
+     *                               or {@code VALUE_NUMBER}.
+     * @throws NullPointerException  if the specified {@code prefix} is
+     *                               {@code null}.
+     */
+    boolean startsWith(CharSequence prefix);
+
+    /**
+     * Returns the index of the current key name in the specified matcher,
+     * without creating a {@code String}.
+     *
+     * @param matcher the matcher of the expected key names.
+     * @return the index of the key name in the matcher, or
+     *         {@link KeyMatcher#UNKNOWN_KEY} if the key name matched none.
+     * @throws IllegalStateException when the parser state is not
+     *                               {@code KEY_NAME}.
+     * @throws NullPointerException  if the specified {@code matcher} is
+     *                               {@code null}.
+     */
+    int getKeyIndex(KeyMatcher matcher);
+
+    /**
+     * Advances the parser to the next event and returns the index of the key
+     * name found there in the specified matcher. This is a shortcut of
+     * {@link #next()} followed by {@link #getKeyIndex(KeyMatcher)}.
+     *
+     * @param matcher the matcher of the expected key names.
+     * @return the index of the key name in the matcher,
+     *         {@link KeyMatcher#UNKNOWN_KEY} if the key name matched none, or
+     *         {@link KeyMatcher#NO_KEY} if the next event is not
+     *         {@code KEY_NAME}, such as {@code END_OBJECT}.
+     * @throws java.util.NoSuchElementException if there are no more parsing
+     *                                          states.
+     * @throws jakarta.json.JsonException       if an I/O error occurs.
+     * @throws jakarta.json.stream.JsonParsingException if the parser
+     *                                          encounters invalid JSON.
+     * @throws NullPointerException             if the specified
+     *                                          {@code matcher} is
+     *                                          {@code null}.
+     */
+    int nextKeyIndex(KeyMatcher matcher);
+}
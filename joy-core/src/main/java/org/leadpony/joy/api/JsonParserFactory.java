@@ -0,0 +1,284 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.api;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+
+/**
+ * An extended {@link jakarta.json.stream.JsonParserFactory}.
+ *
+ * <p>
+ * The parser factory created by the provider can be cast to this type as
+ * follows:
+ * </p>
+ *
+ * <pre>
+ * <code>
+ * JsonParserFactory factory = (JsonParserFactory) Json.createParserFactory(null);
+ * JsonParser parser = factory.createParser(buffer);
+ * </code>
+ * </pre>
+ *
+ * <p>
+ * The character encoding of the input given as bytes or as a file is detected
+ * automatically in the same way as {@link #createParser(java.io.InputStream)}.
+ * UTF-8 input is parsed in place without copying it.
+ * </p>
+ *
+ * <p>
+ * All parsers created by this factory are returned as the extended
+ * {@link JsonParser}.
+ * </p>
+ *
+ * @author leadpony
+ * @since 2.2
+ */
+public interface JsonParserFactory extends jakarta.json.stream.JsonParserFactory {
+
+    @Override
+    JsonParser createParser(Reader reader);
+
+    @Override
+    JsonParser createParser(InputStream in);
+
+    @Override
+    JsonParser createParser(InputStream in, Charset charset);
+
+    @Override
+    JsonParser createParser(JsonObject obj);
+
+    @Override
+    JsonParser createParser(JsonArray array);
+
+    /**
+     * Creates a JSON parser from the specified byte array.
+     *
+     * @param bytes the byte array containing the whole JSON input.
+     * @return newly created JSON parser.
+     * @throws jakarta.json.JsonException if the character encoding cannot be
+     *                                    detected.
+     * @throws NullPointerException       if the specified array is
+     *                                    {@code null}.
+     */
+    JsonParser createParser(byte[] bytes);
+
+    /**
+     * Creates a JSON parser from the specified range of the byte array.
+     *
+     * @param bytes  the byte array containing the JSON input.
+     * @param offset the index of the first byte to parse.
+     * @param length the number of bytes to parse.
+     * @return newly created JSON parser.
+     * @throws jakarta.json.JsonException if the character encoding cannot be
+     *                                    detected.
+     * @throws NullPointerException       if the specified array is
+     *                                    {@code null}.
+     * @throws IndexOutOfBoundsException  if the specified range is out of the
+     *                                    array.
+     */
+    JsonParser createParser(byte[] bytes, int offset, int length);
+
+    /**
+     * Creates a JSON parser from the remaining bytes of the specified buffer.
+     * The buffer may be a direct buffer. Neither the content nor the position
+     * of the buffer is modified by the parser, and the buffer must not be
+     * modified while the parser is in use.
+     *
+     * @param buffer the buffer containing the whole JSON input.
+     * @return newly created JSON parser.
+     * @throws jakarta.json.JsonException if the character encoding cannot be
+     *                                    detected.
+     * @throws NullPointerException       if the specified buffer is
+     *                                    {@code null}.
+     */
+    JsonParser createParser(ByteBuffer buffer);
+
+    /**
+     * Creates a JSON parser from the specified file. UTF-8 input is parsed
+     * directly from the file mapped into memory. Files larger than 2 GB are
+     * mapped in multiple windows one after another. The file is closed when
+     * the parser is closed.
+     *
+     * <p>
+     * The file must not be modified while the parser is in use.
+     * </p>
+     *
+     * @param path the path to the file containing the JSON input.
+     * @return newly created JSON parser.
+     * @throws jakarta.json.JsonException if an I/O error occurred or the
+     *                                    character encoding cannot be
+     *                                    detected.
+     * @throws NullPointerException       if the specified path is
+     *                                    {@code null}.
+     */
+    JsonParser createParser(Path path);
+
+    /**
+     * Creates a JSON parser from the specified file channel. The parser reads
+     * the file from the current position of the channel to the end of the file
+     * in the same way as {@link #createParser(Path)}. The channel is closed
+     * when the parser is closed.
+     *
+     * @param channel the file channel to read.
+     * @return newly created JSON parser.
+     * @throws jakarta.json.JsonException if an I/O error occurred or the
+     *                                    character encoding cannot be
+     *                                    detected.
+     * @throws NullPointerException       if the specified channel is
+     *                                    {@code null}.
+     */
+    JsonParser createParser(FileChannel channel);
+
+    /**
+     * Creates a JSON parser which parses UTF-8 input fed to it chunk by chunk,
+     * without blocking for more input.
+     *
+     * @return newly created JSON parser.
+     */
+    NonBlockingJsonParser createNonBlockingParser();
+
+    /**
+     * Creates a JSON parser which has no input until it is reset. The parser
+     * can be reset to parse new input any number of times, reusing the
+     * buffers allocated for the previous input.
+     *
+     * @return newly created JSON parser.
+     */
+    ResettableJsonParser createResettableParser();
+
+    /**
+     * Creates a JSON parser which produces the events only for the values
+     * selected by the specified JSON pointers, reading the input from the
+     * specified parser. The reference token {@code "*"} in the pointers
+     * matches any key of an object and any index of an array. A pointer which
+     * is the prefix of another pointer selects the whole value, including the
+     * values selected by the other.
+     *
+     * <p>
+     * The specified parser must not have produced any event yet, and must not
+     * be used directly after this call. It is closed when the returned parser
+     * is closed.
+     * </p>
+     *
+     * @param parser   the parser to read the input from.
+     * @param pointers the JSON pointers selecting the values.
+     * @return newly created JSON parser.
+     * @throws jakarta.json.JsonException if any of the pointers is invalid.
+     * @throws NullPointerException       if any of the arguments is
+     *                                    {@code null}.
+     */
+    FilteringJsonParser createFilteringParser(jakarta.json.stream.JsonParser parser, Collection<String> pointers);
+
+    /**
+     * Compiles a query written in a subset of JSONPath. The query selects
+     * values from any parser, building only the selected values.
+     *
+     * @param path the JSONPath to compile, starting with {@code $}.
+     * @return newly compiled query.
+     * @throws jakarta.json.JsonException if the path is invalid or not
+     *                                    supported.
+     * @throws NullPointerException       if the specified {@code path} is
+     *                                    {@code null}.
+     */
+    JsonPathQuery compileQuery(String path);
+
+    /**
+     * Records all the events of the specified parser in a tape, which can be
+     * replayed any number of times without parsing the input again. The
+     * parser must not have produced any event yet, and is read to the end but
+     * not closed.
+     *
+     * @param parser the parser to record.
+     * @return newly recorded tape.
+     * @throws jakarta.json.stream.JsonParsingException if the input is not a
+     *                                                  valid JSON.
+     * @throws NullPointerException                     if the specified
+     *                                                  {@code parser} is
+     *                                                  {@code null}.
+     */
+    JsonEventTape recordTape(jakarta.json.stream.JsonParser parser);
+
+    /**
+     * Creates a stream of the records in the specified file. The file must be
+     * encoded in UTF-8 and is mapped into memory. The file is closed when the
+     * stream is closed.
+     *
+     * <p>
+     * The stream is sequential and ordered. When it is made parallel, the
+     * file is split at the boundaries of records and the records are parsed
+     * in parallel on the fork-join pool. Making it also unordered lets the
+     * records be handled in any order.
+     * </p>
+     *
+     * <pre>
+     * <code>
+     * try (Stream&lt;JsonRecord&gt; records = factory.createRecordStream(path, JsonRecord.Format.LINES)) {
+     *     records.parallel().unordered().forEach(...);
+     * }
+     * </code>
+     * </pre>
+     *
+     * @param path   the path to the file containing the records.
+     * @param format the format of the file.
+     * @return newly created stream of the records.
+     * @throws jakarta.json.JsonException if an I/O error occurred.
+     * @throws NullPointerException       if any of the arguments is
+     *                                    {@code null}.
+     */
+    Stream<JsonRecord> createRecordStream(Path path, JsonRecord.Format format);
+
+    /**
+     * Creates a stream of the records in the remaining bytes of the specified
+     * buffer in the same way as {@link #createRecordStream(Path, JsonRecord.Format)}.
+     * The bytes must be encoded in UTF-8. Neither the content nor the position
+     * of the buffer is modified.
+     *
+     * @param buffer the buffer containing the records.
+     * @param format the format of the bytes.
+     * @return newly created stream of the records.
+     * @throws NullPointerException if any of the arguments is {@code null}.
+     */
+    Stream<JsonRecord> createRecordStream(ByteBuffer buffer, JsonRecord.Format format);
+
+    /**
+     * Returns the pool of the character buffers used by the parsers created by
+     * this factory. The pool is shared with the provider unless
+     * {@link JsonParser#BUFFER_SIZE} or {@link JsonParser#ADAPTIVE_BUFFER_SIZE}
+     * is configured, in which case the factory has its own pool.
+     *
+     * @return the pool of character buffers.
+     */
+    BufferPool getCharBufferPool();
+
+    /**
+     * Returns the pool of the byte buffers used by the parsers created by this
+     * factory. The pool is shared with the provider in the same way as
+     * {@link #getCharBufferPool()}.
+     *
+     * @return the pool of byte buffers.
+     */
+    BufferPool getByteBufferPool();
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.api;
+
+import java.util.stream.Stream;
+
+import jakarta.json.JsonValue;
+
+/**
+ * A compiled query written in a subset of JSONPath, which selects values
+ * from the events of a JSON parser without building the whole document.
+ *
+ * <p>
+ * A query is created by {@link JsonParserFactory#compileQuery(String)}. It
+ * starts with {@code $} denoting the root value, followed by any number of
+ * the following selectors.
+ * </p>
+ * <ul>
+ * <li>{@code .name} or {@code ['name']} selects the property of an object.</li>
+ * <li>{@code .*} or {@code [*]} selects all the properties of an object and
+ * all the items of an array.</li>
+ * <li>{@code [index]} selects the item of an array.</li>
+ * <li>{@code [start:end:step]} selects the items of an array from
+ * {@code start} inclusive to {@code end} exclusive, every {@code step} items.
+ * Each part can be omitted, and the step must be positive.</li>
+ * <li>{@code ..} preceding any of the selectors above applies it to all the
+ * descendants, for example {@code $..name} or {@code $..[0]}.</li>
+ * </ul>
+ * <p>
+ * Negative indices and steps are not supported because the length of an array
+ * is not known until its end is read. Filter expressions such as
+ * {@code [?(@.price < 10)]} are not supported either.
+ * </p>
+ * <p>
+ * Unlike the original JSONPath by Stefan Goessner, which evaluates the
+ * selectors one after another on lists of values, a query matches all of its
+ * selectors at once while reading the events, and selects each value at most
+ * once. For example, {@code $..a..b} selects a value only once even if it is
+ * reachable through several ancestors named {@code a}, whereas the original
+ * one would select it once for each of the ancestors.
+ * </p>
+ *
+ * <pre>
+ * <code>
+ * JsonPathQuery query = factory.compileQuery("$.items[*].price");
+ * try (JsonParser parser = factory.createParser(path)) {
+ *     double total = query.select(parser)
+ *         .mapToDouble(value -&gt; ((JsonNumber) value).doubleValue())
+ *         .sum();
+ * }
+ * </code>
+ * </pre>
+ *
+ * <p>
+ * A query is immutable and can be used by multiple threads concurrently.
+ * </p>
+ *
+ * @author leadpony
+ * @since 2.2
+ */
+public interface JsonPathQuery {
+
+    /**
+     * Returns a stream of the values selected by this query, reading the
+     * events from the specified parser. The parser must not have produced any
+     * event yet. Only the selected values are built, and the arrays and
+     * objects which cannot contain any selected value are skipped with
+     * {@link jakarta.json.stream.JsonParser#skipArray()} and
+     * {@link jakarta.json.stream.JsonParser#skipObject()}.
+     *
+     * <p>
+     * The values are ordered as they appear in the input. A selected value
+     * precedes the values selected inside it. The stream does not close the
+     * parser.
+     * </p>
+     *
+     * @param parser the parser to read the events from.
+     * @return newly created stream of the selected values.
+     * @throws NullPointerException if the specified {@code parser} is
+     *                              {@code null}.
+     */
+    Stream<JsonValue> select(jakarta.json.stream.JsonParser parser);
+}
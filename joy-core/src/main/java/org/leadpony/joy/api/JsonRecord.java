@@ -0,0 +1,65 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.api;
+
+import jakarta.json.JsonValue;
+
+/**
+ * A record read from input containing a sequence of JSON values, such as
+ * JSON Lines.
+ *
+ * @author leadpony
+ * @since 2.2
+ * @see JsonParserFactory#createRecordStream(java.nio.file.Path, Format)
+ */
+public interface JsonRecord {
+
+    /**
+     * Returns the offset of the first byte of this record in the input. The
+     * separator preceding the record is not included.
+     *
+     * @return the offset in bytes.
+     */
+    long getOffset();
+
+    /**
+     * Returns the JSON value of this record.
+     *
+     * @return the JSON value.
+     */
+    JsonValue getValue();
+
+    /**
+     * The formats of the input containing records.
+     *
+     * @author leadpony
+     */
+    enum Format {
+        /**
+         * JSON Lines, also known as newline-delimited JSON, in which each
+         * record is terminated by a line feed. Lines containing only
+         * whitespace are skipped.
+         */
+        LINES,
+
+        /**
+         * JSON text sequences defined by RFC 7464, in which each record is
+         * preceded by a record separator (U+001E). Records containing only
+         * whitespace are skipped.
+         */
+        TEXT_SEQUENCE
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.api;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A precompiled set of key names, which finds the index of a key name without
+ * creating a {@code String}.
+ *
+ * <p>
+ * The instances of this class are immutable and can be shared between
+ * threads. A matcher is typically created once and used with
+ * {@link JsonParser#nextKeyIndex(KeyMatcher)} as follows:
+ * </p>
+ *
+ * <pre>
+ * <code>
+ * static final KeyMatcher KEYS = KeyMatcher.of("id", "name", "tags");
+ *
+ * int index;
+ * while ((index = parser.nextKeyIndex(KEYS)) != KeyMatcher.NO_KEY) {
+ *     switch (index) {
+ *     case 0:
+ *         // "id"
+ *         break;
+ *     ...
+ *     default:
+ *         // unknown key
+ *         break;
+ *     }
+ * }
+ * </code>
+ * </pre>
+ *
+ * @author leadpony
+ * @since 2.2
+ */
+public final class KeyMatcher {
+
+    /**
+     * The index returned when the key name matched none of the keys.
+     */
+    public static final int UNKNOWN_KEY = -1;
+
+    /**
+     * The index returned when the parser did not find a key name.
+     */
+    public static final int NO_KEY = -2;
+
+    private final String[] keys;
+    private final int[] hashes;
+    // Indices of the keys in the open addressing table, or -1 for empty slots.
+    private final int[] table;
+    private final int mask;
+    private final int minLength;
+    private final int maxLength;
+
+    /**
+     * Creates a matcher of the specified keys. The index of each key is its
+     * position in the arguments.
+     *
+     * @param keys the key names to match.
+     * @return the newly created matcher.
+     * @throws NullPointerException     if the specified {@code keys} or any of
+     *                                  them is {@code null}.
+     * @throws IllegalArgumentException if the keys contain any duplicates.
+     */
+    public static KeyMatcher of(String... keys) {
+        return new KeyMatcher(keys.clone());
+    }
+
+    /**
+     * Creates a matcher of the specified keys. The index of each key is its
+     * position in the list.
+     *
+     * @param keys the key names to match.
+     * @return the newly created matcher.
+     * @throws NullPointerException     if the specified {@code keys} or any of
+     *                                  them is {@code null}.
+     * @throws IllegalArgumentException if the keys contain any duplicates.
+     */
+    public static KeyMatcher of(List<String> keys) {
+        return new KeyMatcher(keys.toArray(new String[0]));
+    }
+
+    private KeyMatcher(String[] keys) {
+        this.keys = keys;
+        this.hashes = new int[keys.length];
+
+        int tableSize = Integer.highestOneBit(Math.max(keys.length, 1) * 2) * 2;
+        this.table = new int[tableSize];
+        this.mask = tableSize - 1;
+        Arrays.fill(this.table, -1);
+
+        int minLength = Integer.MAX_VALUE;
+        int maxLength = 0;
+        for (int i = 0; i < keys.length; i++) {
+            String key = keys[i];
+            if (key == null) {
+                throw new NullPointerException("keys must not contain null.");
+            }
+            int hash = key.hashCode();
+            hashes[i] = hash;
+            int slot = slotOf(hash);
+            while (table[slot] >= 0) {
+                if (keys[table[slot]].equals(key)) {
+                    throw new IllegalArgumentException("keys must not contain duplicates: " + key);
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i;
+            minLength = Math.min(minLength, key.length());
+            maxLength = Math.max(maxLength, key.length());
+        }
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Returns the number of the keys in this matcher.
+     *
+     * @return the number of the keys.
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the key at the specified index.
+     *
+     * @param index the index of the key.
+     * @return the key name.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public String getKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Finds the index of the specified key name.
+     *
+     * @param key the key name to find.
+     * @return the index of the key name, or {@link #UNKNOWN_KEY} if no key
+     *         matches.
+     * @throws NullPointerException if the specified {@code key} is
+     *                              {@code null}.
+     */
+    public int indexOf(CharSequence key) {
+        final int length = key.length();
+        if (length < minLength || length > maxLength) {
+            return UNKNOWN_KEY;
+        }
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + key.charAt(i);
+        }
+        for (int slot = slotOf(hash);; slot = (slot + 1) & mask) {
+            final int index = table[slot];
+            if (index < 0) {
+                return UNKNOWN_KEY;
+            } else if (hashes[index] == hash && keys[index].contentEquals(key)) {
+                return index;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(keys);
+    }
+
+    private int slotOf(int hash) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.api;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A JSON parser which parses the input pushed to it chunk by chunk, without
+ * blocking for more input.
+ *
+ * <p>
+ * The input must be UTF-8 without a byte order mark. The bytes are given by
+ * {@link #feed(ByteBuffer)} as they arrive, and {@link #endOfInput()} tells
+ * the parser that no more bytes will arrive. {@link #poll()} returns the next
+ * event as far as the input fed so far allows, or {@link #NOT_AVAILABLE} if
+ * more input is needed. A key name, a string or a number split across chunks
+ * is kept by the parser until it is completed.
+ * </p>
+ *
+ * <pre>
+ * <code>
+ * NonBlockingJsonParser parser = factory.createNonBlockingParser();
+ * // for each chunk received
+ * parser.feed(chunk);
+ * while (parser.hasNext()) {
+ *     Event event = parser.poll();
+ *     if (event == NonBlockingJsonParser.NOT_AVAILABLE) {
+ *         break;
+ *     }
+ *     // handles the event
+ * }
+ * </code>
+ * </pre>
+ *
+ * <p>
+ * The other methods of {@link jakarta.json.stream.JsonParser} work as usual
+ * as long as the input they need has been fed. {@link #next()} and the
+ * methods reading or skipping a whole array or object throw
+ * {@link jakarta.json.stream.JsonParsingException} if the input fed so far
+ * ends before they complete. {@link #hasNext()} returns {@code true} if more
+ * events may follow, that is, unless the end of the whole JSON value and the
+ * end of input are reached.
+ * </p>
+ *
+ * @author leadpony
+ * @since 2.2
+ */
+public interface NonBlockingJsonParser extends JsonParser {
+
+    /**
+     * The value returned by {@link #poll()} when no event is available until
+     * more input is fed. As {@link jakarta.json.stream.JsonParser.Event}
+     * cannot be extended, this is {@code null}.
+     */
+    Event NOT_AVAILABLE = null;
+
+    /**
+     * Feeds the next chunk of the input. All the remaining bytes in the
+     * buffer are copied and the buffer may be reused after this method
+     * returns.
+     *
+     * @param bytes the buffer containing the next chunk of the input.
+     * @throws IllegalStateException if {@link #endOfInput()} has already been
+     *                               called.
+     * @throws NullPointerException  if the specified buffer is {@code null}.
+     */
+    void feed(ByteBuffer bytes);
+
+    /**
+     * Tells this parser that no more input will be fed.
+     */
+    void endOfInput();
+
+    /**
+     * Returns the next event if the input fed so far contains the whole of it.
+     * The parser does not move forward if {@link #NOT_AVAILABLE} is returned,
+     * and the current event is cleared.
+     *
+     * @return the next event, or {@link #NOT_AVAILABLE} if more input is
+     *         needed.
+     * @throws jakarta.json.stream.JsonParsingException if the parser
+     *                                                  encounters invalid
+     *                                                  JSON.
+     * @throws java.util.NoSuchElementException         if there are no more
+     *                                                  events.
+     */
+    Event poll();
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.api;
+
+import java.io.Writer;
+
+/**
+ * A JSON generator which can be reset to write to another writer, reusing
+ * its buffer and the other objects allocated for the previous output.
+ *
+ * <p>
+ * All generators created by {@link jakarta.json.stream.JsonGeneratorFactory}
+ * of the provider can be cast to this type.
+ * </p>
+ *
+ * <pre>
+ * <code>
+ * ResettableJsonGenerator generator = (ResettableJsonGenerator) factory.createGenerator(writer);
+ * // writes the first message and closes the generator
+ * generator.reset(anotherWriter);
+ * // writes the next message and closes the generator
+ * </code>
+ * </pre>
+ *
+ * @author leadpony
+ * @since 2.2
+ */
+public interface ResettableJsonGenerator extends JsonGenerator {
+
+    /**
+     * Resets this generator to write a new JSON text to the specified writer.
+     * The generator is closed first if it is not closed yet. The writer is
+     * written through the buffer of this generator and is not decorated with
+     * any other buffer.
+     *
+     * @param writer the writer to which the JSON text will be written.
+     * @throws jakarta.json.stream.JsonGenerationException if this generator is
+     *                                                     not closed yet and
+     *                                                     has not written a
+     *                                                     complete JSON text.
+     * @throws jakarta.json.JsonException                  if an I/O error
+     *                                                     occurred while
+     *                                                     closing this
+     *                                                     generator.
+     * @throws NullPointerException                        if the specified
+     *                                                     writer is
+     *                                                     {@code null}.
+     */
+    void reset(Writer writer);
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.api;
+
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * A JSON parser which can be reset to parse new input, reusing the buffers
+ * and the other objects allocated for the previous input.
+ *
+ * <p>
+ * A parser of this type is created by
+ * {@link JsonParserFactory#createResettableParser()} without any input, and
+ * parses the input given by one of the {@code reset} methods each time. This
+ * saves the cost of creating a parser for each of many small documents, such
+ * as the messages received one after another.
+ * </p>
+ *
+ * <pre>
+ * <code>
+ * ResettableJsonParser parser = factory.createResettableParser();
+ * // for each message received
+ * parser.reset(bytes, 0, length);
+ * while (parser.hasNext()) {
+ *     Event event = parser.next();
+ *     // handles the event
+ * }
+ * parser.close();
+ * </code>
+ * </pre>
+ *
+ * <p>
+ * Each {@code reset} method closes the current input if it is not closed yet,
+ * and detects the character encoding of the new input in the same way as
+ * {@link JsonParserFactory}. Closing this parser closes the current input but
+ * keeps the buffers for the next input. This parser must not be used by
+ * multiple threads at the same time.
+ * </p>
+ *
+ * @author leadpony
+ * @since 2.2
+ */
+public interface ResettableJsonParser extends JsonParser {
+
+    /**
+     * Resets this parser to parse the specified reader.
+     *
+     * @param reader the reader to parse.
+     * @throws jakarta.json.JsonException if an I/O error occurred while
+     *                                    closing the current input.
+     * @throws NullPointerException       if the specified reader is
+     *                                    {@code null}.
+     */
+    void reset(Reader reader);
+
+    /**
+     * Resets this parser to parse the specified input stream.
+     *
+     * @param in the input stream to parse.
+     * @throws jakarta.json.JsonException if an I/O error occurred or the
+     *                                    character encoding cannot be
+     *                                    detected.
+     * @throws NullPointerException       if the specified input stream is
+     *                                    {@code null}.
+     */
+    void reset(InputStream in);
+
+    /**
+     * Resets this parser to parse the specified range of the byte array. The
+     * bytes are parsed in place and must not be modified while this parser
+     * is parsing them.
+     *
+     * @param bytes  the byte array containing the JSON input.
+     * @param offset the index of the first byte to parse.
+     * @param length the number of bytes to parse.
+     * @throws jakarta.json.JsonException if an I/O error occurred while
+     *                                    closing the current input or the
+     *                                    character encoding cannot be
+     *                                    detected.
+     * @throws NullPointerException       if the specified array is
+     *                                    {@code null}.
+     * @throws IndexOutOfBoundsException  if the specified range is out of the
+     *                                    array.
+     */
+    void reset(byte[] bytes, int offset, int length);
+}
@@ -16,6 +16,10 @@
 
 package org.leadpony.joy.core;
 
+import static org.leadpony.joy.core.Preconditions.requireNonNull;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Set;
 import java.util.Map.Entry;
 import java.util.stream.Stream;
@@ -32,12 +36,14 @@ import jakarta.json.stream.JsonLocation;
 import jakarta.json.stream.JsonParser;
 import jakarta.json.stream.JsonParsingException;
 
+import org.leadpony.joy.api.KeyMatcher;
+
 /**
  * A skeletal implementation of {@link JsonParser} providing default implementation.
  *
  * @author leadpony
  */
-public abstract class AbstractJsonParser implements JsonParser {
+public abstract class AbstractJsonParser implements org.leadpony.joy.api.JsonParser {
 
     public static final String MAX_INT_AS_STRING = "2147483647";
     public static final String MIN_INT_AS_STRING = "-2147483648";
@@ -87,6 +93,59 @@ public abstract class AbstractJsonParser implements JsonParser {
             throw newIllegalStateException("getValue()");
         }
     }
+
+    @Override
+    public double getDouble() {
+        if (getCurrentEvent() != Event.VALUE_NUMBER) {
+            throw newIllegalStateException("getDouble()");
+        }
+        return getBigDecimal().doubleValue();
+    }
+
+    @Override
+    public CharSequence getCharSequence() {
+        if (!hasString()) {
+            throw newIllegalStateException("getCharSequence()");
+        }
+        return getString();
+    }
+
+    @Override
+    public boolean contentEquals(CharSequence chars) {
+        requireNonNull(chars, "chars");
+        if (!hasString()) {
+            throw newIllegalStateException("contentEquals()");
+        }
+        return getString().contentEquals(chars);
+    }
+
+    @Override
+    public boolean startsWith(CharSequence prefix) {
+        requireNonNull(prefix, "prefix");
+        if (!hasString()) {
+            throw newIllegalStateException("startsWith()");
+        }
+        return getString().startsWith(prefix.toString());
+    }
+
+    @Override
+    public int getKeyIndex(KeyMatcher matcher) {
+        requireNonNull(matcher, "matcher");
+        if (getCurrentEvent() != Event.KEY_NAME) {
+            throw newIllegalStateException("getKeyIndex()");
+        }
+        return matcher.indexOf(getCharSequence());
+    }
+
+    @Override
+    public int nextKeyIndex(KeyMatcher matcher) {
+        requireNonNull(matcher, "matcher");
+        if (next() != Event.KEY_NAME) {
+            return KeyMatcher.NO_KEY;
+        }
+        return matcher.indexOf(getCharSequence());
+    }
+
     @Override
     public JsonArray getArray() {
         if (getCurrentEvent() != Event.START_ARRAY) {
@@ -163,6 +222,19 @@ public abstract class AbstractJsonParser implements JsonParser {
 
     protected abstract Event getCurrentEvent();
 
+    /**
+     * Checks if the current event is a key name, a string value, or a number,
+     * all of which have a string.
+     *
+     * @return {@code true} if the current event has a string.
+     */
+    protected final boolean hasString() {
+        Event event = getCurrentEvent();
+        return event == Event.KEY_NAME
+                || event == Event.VALUE_STRING
+                || event == Event.VALUE_NUMBER;
+    }
+
     protected boolean isInCollection() {
         return isInArray() || isInObject();
     }
@@ -185,15 +257,7 @@ public abstract class AbstractJsonParser implements JsonParser {
      * @return the JSON array.
      */
     protected final JsonArray getValueAsArray() {
-        JsonArrayBuilder builder = new JsonArrayBuilderImpl();
-        while (hasNext()) {
-            Event event = next();
-            if (event == Event.END_ARRAY) {
-                return builder.build();
-            }
-            builder.add(getValue());
-        }
-        throw newUnexpectedEndException(ParserEventSet.VALUES_OR_END_ARRAY);
+        return (JsonArray) getValueAsStructure(new JsonArrayBuilderImpl());
     }
 
     /**
@@ -202,21 +266,78 @@ public abstract class AbstractJsonParser implements JsonParser {
      * @return the JSON object.
      */
     protected final JsonObject getValueAsObject() {
-        JsonObjectBuilder builder = new JsonObjectBuilderImpl();
+        return (JsonObject) getValueAsStructure(new JsonObjectBuilderImpl());
+    }
+
+    /**
+     * Returns the current array or object. The builders of the enclosing
+     * arrays and objects are kept in a stack on the heap instead of the call
+     * stack, so that deeply nested input cannot overflow the call stack.
+     *
+     * @param builder the builder of the current array or object, which is
+     *                either {@link JsonArrayBuilder} or
+     *                {@link JsonObjectBuilder}.
+     * @return the JSON array or object.
+     */
+    private JsonValue getValueAsStructure(Object builder) {
+        // The builders of the enclosing arrays and objects.
+        Deque<Object> builders = new ArrayDeque<>();
+        // The key names of the enclosing objects waiting for their values.
+        Deque<String> keyNames = new ArrayDeque<>();
+        String keyName = null;
         while (hasNext()) {
             Event event = next();
-            if (event == Event.END_OBJECT) {
-                return builder.build();
+            JsonValue value;
+            switch (event) {
+            case END_ARRAY:
+                value = ((JsonArrayBuilder) builder).build();
+                break;
+            case END_OBJECT:
+                value = ((JsonObjectBuilder) builder).build();
+                break;
+            case KEY_NAME:
+                keyName = getString();
+                if (!hasNext()) {
+                    throw newUnexpectedEndException(':');
+                }
+                continue;
+            case START_ARRAY:
+            case START_OBJECT:
+                builders.push(builder);
+                if (keyName != null) {
+                    keyNames.push(keyName);
+                    keyName = null;
+                }
+                builder = (event == Event.START_ARRAY) ? new JsonArrayBuilderImpl() : new JsonObjectBuilderImpl();
+                continue;
+            default:
+                addValue(builder, keyName, getValue());
+                keyName = null;
+                continue;
+            }
+            if (builders.isEmpty()) {
+                return value;
             }
-            String keyName = getString();
-            if (hasNext()) {
-                next();
-                builder.add(keyName, getValue());
-            } else {
-                throw newUnexpectedEndException(':');
+            builder = builders.pop();
+            if (builder instanceof JsonObjectBuilder) {
+                keyName = keyNames.pop();
             }
+            addValue(builder, keyName, value);
+            keyName = null;
+        }
+        if (builder instanceof JsonArrayBuilder) {
+            throw newUnexpectedEndException(ParserEventSet.VALUES_OR_END_ARRAY);
+        } else {
+            throw newUnexpectedEndException(ParserEventSet.KEY_NAME_OR_END_OBJECT);
+        }
+    }
+
+    private static void addValue(Object builder, String keyName, JsonValue value) {
+        if (builder instanceof JsonArrayBuilder) {
+            ((JsonArrayBuilder) builder).add(value);
+        } else {
+            ((JsonObjectBuilder) builder).add(keyName, value);
         }
-        throw newUnexpectedEndException(ParserEventSet.KEY_NAME_OR_END_OBJECT);
     }
 
     /* provides parsing exceptions */
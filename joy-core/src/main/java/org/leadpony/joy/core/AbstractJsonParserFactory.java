@@ -24,9 +24,10 @@ import java.util.Map;
 
 import jakarta.json.JsonArray;
 import jakarta.json.JsonObject;
-import jakarta.json.stream.JsonParser;
 import jakarta.json.stream.JsonParserFactory;
 
+import org.leadpony.joy.api.JsonParser;
+
 /**
  * A skeletal implementation of {@link JsonParserFactory}.
  *
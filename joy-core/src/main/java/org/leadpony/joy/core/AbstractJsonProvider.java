@@ -1,5 +1,5 @@
 /*
- * Copyright 2019-2020 the Joy Authors.
+ * Copyright 2019-2021 the Joy Authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -52,6 +52,8 @@ import jakarta.json.stream.JsonGeneratorFactory;
 import jakarta.json.stream.JsonParser;
 import jakarta.json.stream.JsonParserFactory;
 
+import org.leadpony.joy.api.BufferPool;
+
 /**
  * A skeletal implementation of {@link JsonProvider}.
  *
@@ -59,12 +61,41 @@ import jakarta.json.stream.JsonParserFactory;
  */
 public abstract class AbstractJsonProvider extends JsonProvider {
 
-    private final CharBufferFactory bufferFactory = new PooledCharBufferFactory();
+    private static final int DEFAULT_CHAR_BUFFER_SIZE = 4096;
+    private static final int DEFAULT_BYTE_BUFFER_SIZE = 8192;
+
+    private final PooledCharBufferFactory bufferFactory;
+    private final PooledByteBufferFactory byteBufferFactory;
 
     /**
      * Constructs this provider.
      */
     protected AbstractJsonProvider() {
+        int capacity = getPositiveInteger(BufferPool.CAPACITY, Runtime.getRuntime().availableProcessors() * 4);
+        this.bufferFactory = new PooledCharBufferFactory(capacity,
+                getPositiveInteger(BufferPool.CHAR_BUFFER_SIZE, DEFAULT_CHAR_BUFFER_SIZE));
+        this.byteBufferFactory = new PooledByteBufferFactory(capacity,
+                getPositiveInteger(BufferPool.BYTE_BUFFER_SIZE, DEFAULT_BYTE_BUFFER_SIZE));
+    }
+
+    /**
+     * Returns the pool of the character buffers shared by the parsers and the
+     * generators created by this provider.
+     *
+     * @return the pool of character buffers.
+     */
+    public BufferPool getCharBufferPool() {
+        return bufferFactory;
+    }
+
+    /**
+     * Returns the pool of the byte buffers shared by the parsers created by
+     * this provider.
+     *
+     * @return the pool of byte buffers.
+     */
+    public BufferPool getByteBufferPool() {
+        return byteBufferFactory;
     }
 
     @Override
@@ -76,13 +107,12 @@ public abstract class AbstractJsonProvider extends JsonProvider {
     @Override
     public JsonParser createParser(InputStream in) {
         requireNonNull(in, "in");
-        Reader reader = createStreamReader(in);
-        return new BasicJsonParser(reader, bufferFactory);
+        return JsonParserFactoryImpl.createStreamParser(in, bufferFactory, byteBufferFactory);
     }
 
     @Override
     public JsonParserFactory createParserFactory(Map<String, ?> config) {
-        return new JsonParserFactoryImpl(getConfigOrEmpty(config), bufferFactory);
+        return new JsonParserFactoryImpl(getConfigOrEmpty(config), bufferFactory, byteBufferFactory);
     }
 
     @Override
@@ -262,6 +292,11 @@ public abstract class AbstractJsonProvider extends JsonProvider {
         return JsonValues.valueOf(value);
     }
 
+    private static int getPositiveInteger(String name, int defaultValue) {
+        Integer value = Integer.getInteger(name);
+        return (value != null && value > 0) ? value : defaultValue;
+    }
+
     protected static Map<String, ?> getConfigOrEmpty(Map<String, ?> config) {
         if (config == null) {
             return Collections.emptyMap();
@@ -0,0 +1,827 @@
+/*
+ * Copyright 2019-2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import jakarta.json.stream.JsonLocation;
+import jakarta.json.stream.JsonParsingException;
+
+/**
+ * A skeletal implementation of {@link jakarta.json.stream.JsonParser}
+ * which reads JSON text sequentially.
+ *
+ * <p>
+ * This class owns the state machine of the parser. Subclasses are
+ * responsible for scanning the input.
+ * </p>
+ *
+ * @author leadpony
+ */
+abstract class AbstractStreamJsonParser extends AbstractJsonParser {
+
+    // The maximum length of arrays which the VM can allocate safely.
+    private static final int MAX_BUFFER_LENGTH = Integer.MAX_VALUE - 8;
+
+    private Event currentEvent;
+
+    // Current state. This never be {@code null}.
+    private State state;
+    // Stack of the arrays and objects enclosing the current position.
+    private final ScopeStack scopes = new ScopeStack();
+    private int maxNestingDepth = Integer.MAX_VALUE;
+    private int maxTokenLength = Integer.MAX_VALUE;
+
+    // Limits on the input checked while scanning it.
+    private int maxStringLength = Integer.MAX_VALUE;
+    private int maxNumberDigits = Integer.MAX_VALUE;
+    private int maxNumberExponent = Integer.MAX_VALUE;
+    private int maxEntries = Integer.MAX_VALUE;
+    private long maxDocumentLength = Long.MAX_VALUE;
+    // The numbers of entries in the enclosing arrays and objects, indexed by depth.
+    private int[] entries;
+    // The depth whose entry was counted by the current event, or -1.
+    private int countedDepth = -1;
+    // true if the input beyond the maximum document length was dropped.
+    private boolean inputTruncated;
+
+    private boolean readyToNext;
+
+    private JsonLocation location = BasicJsonLocation.INITIAL;
+
+    // The table sharing the instances of key names, which may be null.
+    private SymbolTable symbolTable;
+    private boolean lenientSkipping;
+    private boolean trackingLines = true;
+
+    protected AbstractStreamJsonParser() {
+        this.state = State.INITIAL;
+    }
+
+    /* As a JsonParser */
+
+    @Override
+    public boolean hasNext() {
+        if (readyToNext) {
+            return true;
+        }
+        this.location = null;
+        readyToNext = state.accepts(peekNonSpaceChar(), this);
+        return readyToNext;
+    }
+
+    @Override
+    public Event next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException(Message.thatNoMoreParserEventsWereFound());
+        }
+        this.readyToNext = false;
+        this.location = null;
+        this.countedDepth = -1;
+        int c = peekNonSpaceChar();
+        Event event = state.process(c, this);
+        this.currentEvent = event;
+        return event;
+    }
+
+    @Override
+    public void skipArray() {
+        if (!lenientSkipping || !skipLeniently(true)) {
+            super.skipArray();
+        }
+    }
+
+    @Override
+    public void skipObject() {
+        if (!lenientSkipping || !skipLeniently(false)) {
+            super.skipObject();
+        }
+    }
+
+    @Override
+    public JsonLocation getLocation() {
+        if (location == null) {
+            if (trackingLines) {
+                location = new BasicJsonLocation(getLineNumber(), getColumnNumber(), getStreamOffset());
+            } else {
+                location = new BasicJsonLocation(getStreamOffset());
+            }
+        }
+        return location;
+    }
+
+    /* As a AbstractJsonParser */
+
+    @Override
+    public final Event getCurrentEvent() {
+        return currentEvent;
+    }
+
+    @Override
+    public boolean isInCollection() {
+        return !this.scopes.isEmpty();
+    }
+
+    @Override
+    public boolean isInArray() {
+        Event event = getCurrentEvent();
+        if (event == Event.START_ARRAY || event == Event.END_ARRAY) {
+            return true;
+        }
+        return this.scopes.containsArray();
+    }
+
+    @Override
+    public boolean isInObject() {
+        Event event = getCurrentEvent();
+        if (event == Event.START_OBJECT || event == Event.END_OBJECT) {
+            return true;
+        }
+        return this.scopes.containsObject();
+    }
+
+    /* As a AbstractStreamJsonParser */
+
+    /**
+     * Makes this parser return the key names through the specified table.
+     *
+     * @param symbolTable the table of key names, may be {@code null}.
+     */
+    final void setSymbolTable(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+    }
+
+    final SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    /**
+     * Makes this parser skip arrays and objects without validating them.
+     *
+     * @param lenientSkipping {@code true} to skip without validation.
+     */
+    final void setLenientSkipping(boolean lenientSkipping) {
+        this.lenientSkipping = lenientSkipping;
+    }
+
+    /**
+     * Sets the maximum depth of nested arrays and objects.
+     *
+     * @param maxNestingDepth the maximum depth.
+     */
+    final void setMaxNestingDepth(int maxNestingDepth) {
+        this.maxNestingDepth = maxNestingDepth;
+    }
+
+    /**
+     * Sets the maximum length of a key name, string or number held in the
+     * buffer.
+     *
+     * @param maxTokenLength the maximum length in the units of the buffer.
+     */
+    final void setMaxTokenLength(int maxTokenLength) {
+        this.maxTokenLength = maxTokenLength;
+    }
+
+    final int getMaxTokenLength() {
+        return maxTokenLength;
+    }
+
+    /**
+     * Returns the new length of the buffer which is too short to hold the
+     * current token and more input following it. The buffer is doubled but
+     * never grows beyond twice the maximum length of a token.
+     *
+     * @param length the current length of the buffer.
+     * @return the new length of the buffer.
+     */
+    final int growBufferLength(int length) {
+        long newLength = Math.min(length * 2L, maxTokenLength * 2L);
+        return (int) Math.min(newLength, MAX_BUFFER_LENGTH);
+    }
+
+    /**
+     * Sets the maximum length of a key name or string value after unescaping.
+     *
+     * @param maxStringLength the maximum length in the units of the input.
+     */
+    final void setMaxStringLength(int maxStringLength) {
+        this.maxStringLength = maxStringLength;
+    }
+
+    final int getMaxStringLength() {
+        return maxStringLength;
+    }
+
+    /**
+     * Sets the maximum number of digits in the integral and fractional parts
+     * of a number.
+     *
+     * @param maxNumberDigits the maximum number of digits.
+     */
+    final void setMaxNumberDigits(int maxNumberDigits) {
+        this.maxNumberDigits = maxNumberDigits;
+    }
+
+    final int getMaxNumberDigits() {
+        return maxNumberDigits;
+    }
+
+    /**
+     * Sets the maximum absolute value of the exponent of a number.
+     *
+     * @param maxNumberExponent the maximum absolute value of the exponent.
+     */
+    final void setMaxNumberExponent(int maxNumberExponent) {
+        this.maxNumberExponent = maxNumberExponent;
+    }
+
+    final int getMaxNumberExponent() {
+        return maxNumberExponent;
+    }
+
+    /**
+     * Sets the maximum number of the items in an array or the properties in an
+     * object.
+     *
+     * @param maxEntries the maximum number of entries.
+     */
+    final void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+        if (maxEntries < Integer.MAX_VALUE && entries == null) {
+            this.entries = new int[16];
+        }
+    }
+
+    /**
+     * Sets the maximum length of the whole input.
+     *
+     * @param maxDocumentLength the maximum length in the units of the input.
+     */
+    final void setMaxDocumentLength(long maxDocumentLength) {
+        this.maxDocumentLength = maxDocumentLength;
+        truncateInput();
+    }
+
+    final long getMaxDocumentLength() {
+        return maxDocumentLength;
+    }
+
+    /**
+     * Limits the number of the units newly read so that the whole input does
+     * not exceed the maximum length. The units beyond the maximum length are
+     * dropped, and reading more input afterwards fails.
+     *
+     * @param offset the stream offset of the first unit newly read.
+     * @param length the number of the units newly read.
+     * @return the number of the units to keep.
+     */
+    final int limitReadLength(long offset, int length) {
+        final long remaining = maxDocumentLength - offset;
+        if (length > remaining) {
+            this.inputTruncated = true;
+            return (int) Math.max(remaining, 0);
+        }
+        return length;
+    }
+
+    /**
+     * Returns whether the input beyond the maximum length was dropped or not.
+     *
+     * @return {@code true} if the input was dropped.
+     */
+    final boolean isInputTruncated() {
+        return inputTruncated;
+    }
+
+    /**
+     * Drops the input already read beyond the maximum length of the whole
+     * input. This method is called when the maximum length is changed.
+     */
+    void truncateInput() {
+    }
+
+    /**
+     * Makes this parser count lines or not. If the lines are not counted, the
+     * locations reported by this parser have only the stream offsets.
+     *
+     * @param trackingLines {@code true} to count lines.
+     */
+    final void setTrackingLines(boolean trackingLines) {
+        this.trackingLines = trackingLines;
+        if (state == State.INITIAL) {
+            this.location = initialLocation();
+        }
+    }
+
+    final boolean isTrackingLines() {
+        return trackingLines;
+    }
+
+    private JsonLocation initialLocation() {
+        return trackingLines ? BasicJsonLocation.INITIAL : BasicJsonLocation.INITIAL_OFFSET_ONLY;
+    }
+
+    final State getState() {
+        return state;
+    }
+
+    /**
+     * Returns this parser to the initial state before parsing new input. The
+     * configuration of this parser is kept.
+     */
+    final void resetState() {
+        this.currentEvent = null;
+        this.state = State.INITIAL;
+        this.scopes.clear();
+        this.readyToNext = false;
+        this.location = initialLocation();
+        this.countedDepth = -1;
+        this.inputTruncated = false;
+    }
+
+    /**
+     * Restores the state saved before the event which could not be completed,
+     * discarding the current event.
+     *
+     * @param state the state to restore.
+     */
+    final void rewindState(State state) {
+        if (countedDepth >= 0) {
+            entries[countedDepth]--;
+            this.countedDepth = -1;
+        }
+        this.state = state;
+        this.currentEvent = null;
+        this.readyToNext = false;
+        this.location = null;
+    }
+
+    /**
+     * Skips the input until the closing bracket of the current array or
+     * object, without consuming the bracket. Only the nesting of brackets and
+     * the boundaries of strings are tracked, and the input is not validated.
+     *
+     * @return the closing bracket found, or -1 if the end of input was
+     *         reached.
+     */
+    abstract int skipToClosingBracket();
+
+    /**
+     * Returns the next character which is not a whitespace, without consuming
+     * it.
+     *
+     * @return the next character, or -1 if the end of input was reached.
+     */
+    abstract int peekNonSpaceChar();
+
+    /**
+     * Consumes the character peeked last.
+     */
+    abstract void consumeChar();
+
+    /**
+     * Parses a string starting with the quotation mark at the current
+     * position.
+     */
+    abstract void parseString();
+
+    /**
+     * Parses a number starting at the current position.
+     *
+     * @param c the first character of the number.
+     */
+    abstract void parseNumber(int c);
+
+    abstract void parseTrue();
+
+    abstract void parseFalse();
+
+    abstract void parseNull();
+
+    /**
+     * Closes the input without releasing the buffers of this parser.
+     */
+    abstract void closeInput();
+
+    /**
+     * Returns the current line number.
+     *
+     * @return the current line number.
+     */
+    abstract long getLineNumber();
+
+    /**
+     * Returns the current column number.
+     *
+     * @return the current column number.
+     */
+    abstract long getColumnNumber();
+
+    /**
+     * Returns the current stream offset.
+     *
+     * @return the current stream offset.
+     */
+    abstract long getStreamOffset();
+
+    Event processKey() {
+        consumeChar();
+        return processKey(peekNonSpaceChar());
+    }
+
+    Event processKey(int c) {
+        if (c == '"') {
+            if (maxEntries < Integer.MAX_VALUE) {
+                countEntry();
+            }
+            parseString();
+            return Event.KEY_NAME;
+        } else {
+            throw newUnexpectedCharException(c, '"');
+        }
+    }
+
+    Event processValue() {
+        consumeChar();
+        return processValue(peekNonSpaceChar());
+    }
+
+    Event processValue(int c) {
+        if (maxEntries < Integer.MAX_VALUE && state.isInArray()) {
+            countEntry();
+        }
+        switch (c) {
+        case '[':
+            pushState(State.ARRAY_FIRST_ITEM);
+            consumeChar();
+            return Event.START_ARRAY;
+        case '{':
+            pushState(State.OBJECT_FIRST_KEY);
+            consumeChar();
+            return Event.START_OBJECT;
+        case 't':
+            parseTrue();
+            return Event.VALUE_TRUE;
+        case 'f':
+            parseFalse();
+            return Event.VALUE_FALSE;
+        case 'n':
+            parseNull();
+            return Event.VALUE_NULL;
+        case '"':
+            parseString();
+            return Event.VALUE_STRING;
+        case '-':
+        case '0':
+        case '1':
+        case '2':
+        case '3':
+        case '4':
+        case '5':
+        case '6':
+        case '7':
+        case '8':
+        case '9':
+            parseNumber(c);
+            return Event.VALUE_NUMBER;
+        case -1:
+            throw newUnexpectedEndException(ParserEventSet.VALUES);
+        default:
+            throw newUnexpectedCharException(c);
+        }
+    }
+
+    /**
+     * Skips the innermost array or object without validating it.
+     *
+     * @param array {@code true} to skip an array, {@code false} to skip an
+     *              object.
+     * @return {@code true} if skipped, {@code false} if the parser is not in
+     *         an array or object to skip.
+     */
+    private boolean skipLeniently(boolean array) {
+        // The number of the arrays and objects to close.
+        final int levels = scopes.distanceTo(array);
+        if (levels == 0) {
+            return false;
+        }
+
+        this.readyToNext = false;
+        this.location = null;
+        for (int i = 0; i < levels; i++) {
+            if (skipToClosingBracket() < 0) {
+                throw newUnexpectedEndException();
+            }
+            popState();
+        }
+        this.currentEvent = array ? Event.END_ARRAY : Event.END_OBJECT;
+        return true;
+    }
+
+    /**
+     * Checks the number of the digits read so far in the current number. This
+     * method must be called before consuming the last digit.
+     *
+     * @param digits the number of the digits including the last one.
+     */
+    final void checkNumberDigits(int digits) {
+        if (digits > maxNumberDigits) {
+            throw newNumberDigitsException();
+        }
+    }
+
+    /**
+     * Checks the absolute value of the exponent read so far in the current
+     * number. This method must be called before consuming the last digit.
+     *
+     * @param exponent the exponent including the last digit.
+     */
+    final void checkNumberExponent(long exponent) {
+        if (exponent > maxNumberExponent && maxNumberExponent < Integer.MAX_VALUE) {
+            throw newNumberExponentException();
+        }
+    }
+
+    /**
+     * Counts the entry starting at the current position in the innermost array
+     * or object.
+     */
+    private void countEntry() {
+        final int depth = scopes.depth();
+        if (++entries[depth] > maxEntries) {
+            throw newEntriesException();
+        }
+        this.countedDepth = depth;
+    }
+
+    /**
+     * Enters a new array or object.
+     *
+     * @param state the first state in the array or object.
+     */
+    void pushState(State state) {
+        if (scopes.depth() >= maxNestingDepth) {
+            throw newNestingDepthException();
+        }
+        scopes.push(state.isInArray());
+        if (maxEntries < Integer.MAX_VALUE) {
+            final int depth = scopes.depth();
+            if (depth >= entries.length) {
+                this.entries = Arrays.copyOf(entries, Math.max(entries.length * 2, depth + 1));
+            }
+            entries[depth] = 0;
+        }
+        setState(state);
+    }
+
+    /**
+     * Leaves the current array or object.
+     */
+    void popState() {
+        // Consumes closing bracket which triggered this method.
+        consumeChar();
+        scopes.pop();
+        if (scopes.isEmpty()) {
+            setState(State.FINISHED);
+        } else {
+            setState(scopes.isInArray() ? State.ARRAY_ITEM : State.OBJECT_KEY);
+        }
+    }
+
+    void setState(State state) {
+        this.state = state;
+    }
+
+    JsonParsingException newUnexpectedCharException(int actual) {
+        if (actual < 0) {
+            return newUnexpectedEndException();
+        }
+        JsonLocation location = getLocation();
+        String message = Message.thatUnexpectedCharWasFound(location, (char) actual);
+        return new JsonParsingException(message, location);
+    }
+
+    JsonParsingException newUnexpectedCharException(int actual, Object expected) {
+        if (actual < 0) {
+            return newUnexpectedEndException(expected);
+        }
+        JsonLocation location = getLocation();
+        String message = Message.thatUnexpectedCharWasFoundFor(
+                location, (char) actual, expected);
+        return new JsonParsingException(message, location);
+    }
+
+    JsonParsingException newTokenLengthException() {
+        JsonLocation location = getLocation();
+        String message = Message.thatTokenLengthExceededLimit(location, maxTokenLength);
+        return new JsonParsingException(message, location);
+    }
+
+    JsonParsingException newStringLengthException() {
+        JsonLocation location = getLocation();
+        String message = Message.thatStringLengthExceededLimit(location, maxStringLength);
+        return new JsonParsingException(message, location);
+    }
+
+    JsonParsingException newNumberDigitsException() {
+        JsonLocation location = getLocation();
+        String message = Message.thatNumberDigitsExceededLimit(location, maxNumberDigits);
+        return new JsonParsingException(message, location);
+    }
+
+    JsonParsingException newNumberExponentException() {
+        JsonLocation location = getLocation();
+        String message = Message.thatNumberExponentExceededLimit(location, maxNumberExponent);
+        return new JsonParsingException(message, location);
+    }
+
+    JsonParsingException newEntriesException() {
+        JsonLocation location = getLocation();
+        String message = Message.thatEntriesExceededLimit(location, maxEntries);
+        return new JsonParsingException(message, location);
+    }
+
+    JsonParsingException newDocumentLengthException() {
+        JsonLocation location = getLocation();
+        String message = Message.thatDocumentLengthExceededLimit(location, maxDocumentLength);
+        return new JsonParsingException(message, location);
+    }
+
+    JsonParsingException newNestingDepthException() {
+        JsonLocation location = getLocation();
+        String message = Message.thatNestingDepthExceededLimit(location, maxNestingDepth);
+        return new JsonParsingException(message, location);
+    }
+
+    JsonParsingException newUnexpectedEndException() {
+        JsonLocation location = getLocation();
+        String message = Message.thatUnexpectedEndOfInputWasReached(location);
+        return new JsonParsingException(message, location);
+    }
+
+    /**
+     * Parser state.
+     *
+     * @author leadpony
+     */
+    enum State {
+        INITIAL() {
+            @Override
+            boolean accepts(int c, AbstractStreamJsonParser parser) {
+                return c >= 0;
+            }
+
+            @Override
+            Event process(int c, AbstractStreamJsonParser parser) {
+                parser.setState(FINISHED);
+                return parser.processValue(c);
+            }
+        },
+
+        FINISHED() {
+            @Override
+            boolean accepts(int c, AbstractStreamJsonParser parser) {
+                if (c >= 0) {
+                    throw parser.newUnexpectedCharException(c);
+                } else {
+                    return false;
+                }
+            }
+
+            @Override
+            Event process(int c, AbstractStreamJsonParser parser) {
+                throw parser.newUnexpectedCharException(c);
+            }
+        },
+
+        ARRAY_FIRST_ITEM() {
+            @Override
+            Event process(int c, AbstractStreamJsonParser parser) {
+                if (c == ']') {
+                    parser.popState();
+                    return Event.END_ARRAY;
+                }
+                parser.setState(ARRAY_ITEM);
+                return parser.processValue(c);
+            }
+
+            @Override
+            boolean isInArray() {
+                return true;
+            }
+        },
+
+        ARRAY_ITEM() {
+            @Override
+            Event process(int c, AbstractStreamJsonParser parser) {
+                if (c == ']') {
+                    parser.popState();
+                    return Event.END_ARRAY;
+                }
+                if (c == ',') {
+                    return parser.processValue();
+                } else {
+                    throw parser.newUnexpectedCharException(c, COMMA_OR_SQURE_BRACKET);
+                }
+            }
+
+            @Override
+            boolean isInArray() {
+                return true;
+            }
+        },
+
+        OBJECT_FIRST_KEY() {
+            @Override
+            Event process(int c, AbstractStreamJsonParser parser) {
+                if (c == '}') {
+                    parser.popState();
+                    return Event.END_OBJECT;
+                }
+                parser.setState(OBJECT_VALUE);
+                return parser.processKey(c);
+            }
+
+            @Override
+            boolean isInObject() {
+                return true;
+            }
+        },
+
+        OBJECT_KEY() {
+            @Override
+            Event process(int c, AbstractStreamJsonParser parser) {
+                if (c == '}') {
+                    parser.popState();
+                    return Event.END_OBJECT;
+                }
+                if (c != ',') {
+                    throw parser.newUnexpectedCharException(c, COLON_OR_CURLY_BRACKET);
+                }
+                parser.setState(OBJECT_VALUE);
+                return parser.processKey();
+            }
+
+            @Override
+            boolean isInObject() {
+                return true;
+            }
+        },
+
+        OBJECT_VALUE() {
+            @Override
+            Event process(int c, AbstractStreamJsonParser parser) {
+                if (c != ':') {
+                    throw parser.newUnexpectedCharException(c, JsonChar.COLON);
+                }
+                parser.setState(OBJECT_KEY);
+                return parser.processValue();
+            }
+
+            @Override
+            boolean isInObject() {
+                return true;
+            }
+        };
+
+        private static final Set<JsonChar> COLON_OR_CURLY_BRACKET = JsonChar.of(
+                JsonChar.COLON, JsonChar.CLOSING_CURLY_BRACKET);
+
+        private static final Set<JsonChar> COMMA_OR_SQURE_BRACKET = JsonChar.of(
+                JsonChar.COMMA, JsonChar.CLOSING_SQURE_BRACKET);
+
+        boolean accepts(int c, AbstractStreamJsonParser parser) {
+            if (c >= 0) {
+                return true;
+            } else {
+                throw parser.newUnexpectedEndException();
+            }
+        }
+
+        boolean isInArray() {
+            return false;
+        }
+
+        boolean isInObject() {
+            return false;
+        }
+
+        abstract Event process(int c, AbstractStreamJsonParser parser);
+    }
+}
@@ -28,6 +28,10 @@ public class BasicJsonLocation implements JsonLocation {
      * Initial location.
      */
     public static final JsonLocation INITIAL = new BasicJsonLocation(1, 1, 0);
+    /**
+     * Initial location without line and column numbers.
+     */
+    public static final JsonLocation INITIAL_OFFSET_ONLY = new BasicJsonLocation(0);
     /**
      * Unknown location.
      */
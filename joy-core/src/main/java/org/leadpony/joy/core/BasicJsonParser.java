@@ -15,41 +15,28 @@
  */
 package org.leadpony.joy.core;
 
+import static org.leadpony.joy.core.Preconditions.requireNonNull;
+
 import java.io.IOException;
 import java.io.Reader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.NoSuchElementException;
-import java.util.Set;
 
 import jakarta.json.JsonNumber;
 import jakarta.json.JsonString;
-import jakarta.json.stream.JsonLocation;
-import jakarta.json.stream.JsonParsingException;
 
 /**
  * An implementation of {@link JsonParser}.
  *
  * @author leadpony
  */
-class BasicJsonParser extends AbstractJsonParser {
+class BasicJsonParser extends AbstractStreamJsonParser {
 
-    private final Reader reader;
+    private Reader reader;
     private boolean alreadyClosed;
 
     private final CharBufferFactory bufferFactory;
 
-    private Event currentEvent;
-
-    // Current state. This never be {@code null}.
-    private State state;
-    // Stack of states except the current state.
-    private final Deque<State> stateStack = new ArrayDeque<>();
-
-    private boolean readyToNext;
-
     private boolean eoi;
 
     private char[] readBuffer;
@@ -74,7 +61,7 @@ class BasicJsonParser extends AbstractJsonParser {
 
     private boolean hasFracOrExp;
 
-    private JsonLocation location = BasicJsonLocation.INITIAL;
+    private CharArraySequence charSequence;
 
     BasicJsonParser(Reader reader, CharBufferFactory bufferFactory) {
         this.reader = reader;
@@ -82,44 +69,51 @@ class BasicJsonParser extends AbstractJsonParser {
 
         this.lineNumber = 1;
         this.readBuffer = bufferFactory.createBuffer();
-
-        this.state = State.INITIAL;
     }
 
     /* As a JsonParser */
 
     @Override
-    public boolean hasNext() {
-        if (readyToNext) {
-            return true;
+    public String getString() {
+        if (!hasString()) {
+            throw newIllegalStateException("getString()");
+        }
+        SymbolTable symbolTable = getSymbolTable();
+        if (symbolTable != null && getCurrentEvent() == Event.KEY_NAME) {
+            return symbolTable.intern(readBuffer, valueStart, valueEnd);
         }
-        this.location = null;
-        readyToNext = state.accepts(peekNonSpaceChar(), this);
-        return readyToNext;
+        return buildString();
     }
 
     @Override
-    public Event next() {
-        if (!hasNext()) {
-            throw new NoSuchElementException(Message.thatNoMoreParserEventsWereFound());
+    public CharSequence getCharSequence() {
+        if (!hasString()) {
+            throw newIllegalStateException("getCharSequence()");
+        }
+        CharArraySequence view = this.charSequence;
+        if (view == null) {
+            view = new CharArraySequence();
+            this.charSequence = view;
         }
-        this.readyToNext = false;
-        this.location = null;
-        int c = peekNonSpaceChar();
-        Event event = state.process(c, this);
-        this.currentEvent = event;
-        return event;
+        return view.reset(readBuffer, valueStart, valueEnd);
     }
 
     @Override
-    public String getString() {
-        Event event = getCurrentEvent();
-        if (event != Event.KEY_NAME
-                && event != Event.VALUE_STRING
-                && event != Event.VALUE_NUMBER) {
-            throw newIllegalStateException("getString()");
+    public boolean contentEquals(CharSequence chars) {
+        requireNonNull(chars, "chars");
+        if (!hasString()) {
+            throw newIllegalStateException("contentEquals()");
         }
-        return buildString();
+        return CharArraySequence.contentEquals(readBuffer, valueStart, valueEnd, chars);
+    }
+
+    @Override
+    public boolean startsWith(CharSequence prefix) {
+        requireNonNull(prefix, "prefix");
+        if (!hasString()) {
+            throw newIllegalStateException("startsWith()");
+        }
+        return CharArraySequence.startsWith(readBuffer, valueStart, valueEnd, prefix);
     }
 
     @Override
@@ -163,11 +157,15 @@ class BasicJsonParser extends AbstractJsonParser {
     }
 
     @Override
-    public JsonLocation getLocation() {
-        if (location == null) {
-            location = new BasicJsonLocation(lineNumber, getColumnNumber(), getStreamOffset());
+    public double getDouble() {
+        if (getCurrentEvent() != Event.VALUE_NUMBER) {
+            throw newIllegalStateException("getDouble()");
+        }
+        if (canGetLongStrictly()) {
+            return getStrictLong();
+        } else {
+            return DoubleParser.parse(readBuffer, valueStart, valueEnd);
         }
-        return location;
     }
 
     @Override
@@ -176,9 +174,21 @@ class BasicJsonParser extends AbstractJsonParser {
             return;
         }
 
-        alreadyClosed = true;
-
         bufferFactory.releaseBuffer(readBuffer);
+        closeInput();
+    }
+
+    /**
+     * Closes the reader, keeping the buffers of this parser for
+     * {@link #reset(Reader)}.
+     */
+    @Override
+    final void closeInput() {
+        if (alreadyClosed) {
+            return;
+        }
+
+        alreadyClosed = true;
 
         try {
             reader.close();
@@ -187,106 +197,35 @@ class BasicJsonParser extends AbstractJsonParser {
         }
     }
 
-    /* As a DefaultJsonParser */
-
-    @Override
-    public final Event getCurrentEvent() {
-        return currentEvent;
-    }
-
-    @Override
-    public boolean isInCollection() {
-        return !this.stateStack.isEmpty();
+    /**
+     * Resets this parser to parse the specified reader, reusing the buffers.
+     * This parser must have been closed by {@link #closeInput()}.
+     *
+     * @param reader the reader to parse.
+     */
+    final void reset(Reader reader) {
+        this.reader = reader;
+        this.alreadyClosed = false;
+        this.eoi = false;
+        this.readStart = 0;
+        this.readEnd = 0;
+        this.readPos = 0;
+        this.valueStart = 0;
+        this.valueEnd = 0;
+        this.lineNumber = 1;
+        this.bufferOffset = 0;
+        this.lineOffset = 0;
+        this.hasFracOrExp = false;
+        resetState();
     }
 
-    @Override
-    public boolean isInArray() {
-        Event event = getCurrentEvent();
-        if (event == Event.START_ARRAY || event == Event.END_ARRAY) {
-            return true;
-        }
-        if (this.state.isInArray()) {
-            return true;
-        }
-        return this.stateStack.stream().anyMatch(State::isInArray);
-    }
+    /* As a AbstractStreamJsonParser */
 
     @Override
-    public boolean isInObject() {
-        Event event = getCurrentEvent();
-        if (event == Event.START_OBJECT || event == Event.END_OBJECT) {
-            return true;
-        }
-        if (this.state.isInObject()) {
-            return true;
-        }
-        return this.stateStack.stream().anyMatch(State::isInObject);
-    }
-
-    /* As a BasicJsonParser */
-
-    Event processKey() {
-        consumeChar();
-        return processKey(peekNonSpaceChar());
-    }
-
-    Event processKey(int c) {
-        if (c == '"') {
-            parseString();
-            return Event.KEY_NAME;
-        } else {
-            throw newUnexpectedCharException(c, '"');
-        }
-    }
-
-    Event processValue() {
-        consumeChar();
-        return processValue(peekNonSpaceChar());
-    }
-
-    Event processValue(int c) {
-        switch (c) {
-        case '[':
-            consumeChar();
-            pushState(State.ARRAY_FIRST_ITEM);
-            return Event.START_ARRAY;
-        case '{':
-            consumeChar();
-            pushState(State.OBJECT_FIRST_KEY);
-            return Event.START_OBJECT;
-        case 't':
-            parseTrue();
-            return Event.VALUE_TRUE;
-        case 'f':
-            parseFalse();
-            return Event.VALUE_FALSE;
-        case 'n':
-            parseNull();
-            return Event.VALUE_NULL;
-        case '"':
-            parseString();
-            return Event.VALUE_STRING;
-        case '-':
-        case '0':
-        case '1':
-        case '2':
-        case '3':
-        case '4':
-        case '5':
-        case '6':
-        case '7':
-        case '8':
-        case '9':
-            parseNumber(c);
-            return Event.VALUE_NUMBER;
-        case -1:
-            throw newUnexpectedEndException(ParserEventSet.VALUES);
-        default:
-            throw newUnexpectedCharException(c);
+    int peekNonSpaceChar() {
+        if (!isTrackingLines()) {
+            return peekNonSpaceCharIgnoringLines();
         }
-    }
-
-    private int peekNonSpaceChar() {
         final char[] buffer = this.readBuffer;
         for (;;) {
             int readPos = this.readPos;
@@ -325,6 +264,55 @@ class BasicJsonParser extends AbstractJsonParser {
         }
     }
 
+    @Override
+    int skipToClosingBracket() {
+        int depth = 0;
+        boolean inString = false;
+        boolean escaping = false;
+        int last = 0;
+        for (;;) {
+            final char[] buffer = this.readBuffer;
+            final int readEnd = this.readEnd;
+            int readPos = this.readPos;
+            while (readPos < readEnd) {
+                char c = buffer[readPos++];
+                if (inString) {
+                    if (escaping) {
+                        escaping = false;
+                    } else if (c == '"') {
+                        inString = false;
+                    } else if (c == '\\') {
+                        escaping = true;
+                    }
+                } else if (c == '"') {
+                    inString = true;
+                } else if (c == '[' || c == '{') {
+                    depth++;
+                } else if (c == ']' || c == '}') {
+                    if (depth == 0) {
+                        this.readPos = readPos - 1;
+                        return c;
+                    }
+                    depth--;
+                } else if (c == '\n') {
+                    if (last == '\r') {
+                        this.readPos = readPos;
+                        this.lineOffset = getStreamOffset();
+                    } else {
+                        startNewLine(readPos);
+                    }
+                } else if (c == '\r') {
+                    startNewLine(readPos);
+                }
+                last = c;
+            }
+            this.readPos = readPos;
+            if (!fillReadBuffer(0)) {
+                return -1;
+            }
+        }
+    }
+
     private void startNewLine(int readPos) {
         this.readPos = readPos;
         this.lineNumber++;
@@ -349,7 +337,47 @@ class BasicJsonParser extends AbstractJsonParser {
         return this.readBuffer[this.readPos];
     }
 
-    private void consumeChar() {
+    private int peekNumberChar() {
+        if (this.readPos >= this.readEnd) {
+            if (!fillReadBufferRetainingValue(this.readPos)) {
+                return -1;
+            }
+        }
+        return this.readBuffer[this.readPos];
+    }
+
+    /**
+     * Skips whitespace without counting lines.
+     *
+     * @return the next non-whitespace character, or -1 if the end of input
+     *         was reached.
+     */
+    private int peekNonSpaceCharIgnoringLines() {
+        final char[] buffer = this.readBuffer;
+        for (;;) {
+            int readPos = this.readPos;
+            final int readEnd = this.readEnd;
+            while (readPos < readEnd) {
+                char c = buffer[readPos];
+                if (c > 0x20) {
+                    this.readPos = readPos;
+                    return c;
+                } else if (c == 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                    readPos++;
+                } else {
+                    this.readPos = readPos;
+                    throw newUnexpectedCharException(c);
+                }
+            }
+
+            if (!fillReadBuffer(0)) {
+                return -1;
+            }
+        }
+    }
+
+    @Override
+    void consumeChar() {
         readPos++;
     }
 
@@ -372,6 +400,11 @@ class BasicJsonParser extends AbstractJsonParser {
         if (eoi) {
             return false;
         }
+        if (isInputTruncated()) {
+            // Reports the first char beyond the maximum length.
+            this.readPos = this.readEnd;
+            throw newDocumentLengthException();
+        }
         try {
             int charsToRead = readBuffer.length - newStart;
             int charsRead = this.reader.read(readBuffer, newStart, charsToRead);
@@ -381,9 +414,13 @@ class BasicJsonParser extends AbstractJsonParser {
                 return false;
             }
             this.bufferOffset += readEnd - readStart;
+            charsRead = limitReadLength(this.bufferOffset, charsRead);
             this.readStart = newStart;
             this.readEnd = newStart + charsRead;
             this.readPos = newStart;
+            if (charsRead == 0 && isInputTruncated()) {
+                throw newDocumentLengthException();
+            }
             return true;
         } catch (IOException e) {
             throw newJsonException(Message.thatIOErrorOccurredWhileParserWasReading(), e);
@@ -397,40 +434,44 @@ class BasicJsonParser extends AbstractJsonParser {
         } else if (valueStart > 0) {
             System.arraycopy(readBuffer, this.valueStart, readBuffer, 0, valueLen);
         }
-        if (!fillReadBuffer(valueLen)) {
-            return false;
-        }
+        // The positions must follow the moved value even if no more chars remain.
+        this.readStart -= this.valueStart;
+        this.readEnd -= this.valueStart;
+        this.readPos -= this.valueStart;
         this.valueStart = 0;
         this.valueEnd = valueLen;
-        return true;
+        return fillReadBuffer(valueLen);
     }
 
     private void extendReadBuffer(int valueStart, int valueLen) {
-        int newLength = readBuffer.length * 2;
+        if (valueLen > getMaxTokenLength()) {
+            // Reports the end of the token read so far.
+            this.readPos = this.readEnd;
+            throw newTokenLengthException();
+        }
+        int newLength = growBufferLength(readBuffer.length);
         char[] newBuffer = new char[newLength];
         System.arraycopy(readBuffer, valueStart, newBuffer, 0, valueLen);
         this.readBuffer = newBuffer;
     }
 
-    /**
-     * Returns the current column number.
-     *
-     * @return the current column number.
-     */
-    private long getColumnNumber() {
+    @Override
+    long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    long getColumnNumber() {
         return 1L + getStreamOffset() - lineOffset;
     }
 
-    /**
-     * Returns the current stream offset.
-     *
-     * @return the current stream offset.
-     */
-    private long getStreamOffset() {
+    @Override
+    long getStreamOffset() {
         return bufferOffset + (readPos - readStart);
     }
 
-    private void parseTrue() {
+    @Override
+    void parseTrue() {
         // Consumes 't'
         consumeChar();
 
@@ -439,7 +480,8 @@ class BasicJsonParser extends AbstractJsonParser {
         consumeChar('e');
     }
 
-    private void parseFalse() {
+    @Override
+    void parseFalse() {
         // Consumes 'f'
         consumeChar();
 
@@ -449,7 +491,8 @@ class BasicJsonParser extends AbstractJsonParser {
         consumeChar('e');
     }
 
-    private void parseNull() {
+    @Override
+    void parseNull() {
         // Consumes 'n'
         consumeChar();
 
@@ -458,7 +501,8 @@ class BasicJsonParser extends AbstractJsonParser {
         consumeChar('l');
     }
 
-    private void parseString() {
+    @Override
+    void parseString() {
         // Consumes the opening quotation mark
         this.valueStart = ++this.readPos;
 
@@ -466,6 +510,8 @@ class BasicJsonParser extends AbstractJsonParser {
             char[] buffer = this.readBuffer;
             int readPos = this.readPos;
             int readEnd = this.readEnd;
+            // The position of the first char beyond the maximum length.
+            final long limit = (long) this.valueStart + getMaxStringLength();
 
             while (readPos < readEnd) {
                 char c = buffer[readPos];
@@ -480,6 +526,10 @@ class BasicJsonParser extends AbstractJsonParser {
                     parseEscapedString();
                     return;
                 } else if (c >= 0x20) {
+                    if (readPos >= limit) {
+                        this.readPos = readPos;
+                        throw newStringLengthException();
+                    }
                     readPos++;
                 } else {
                     this.readPos = readPos;
@@ -494,60 +544,100 @@ class BasicJsonParser extends AbstractJsonParser {
     }
 
     private void parseEscapedString() {
-        char unescaped = unescape();
-        this.readBuffer[this.valueEnd++] = unescaped;
-
-        int c;
-        while (((c = peekValueChar()) != '"')) {
-            if (c == '\\') {
-                unescaped = unescape();
-                this.readBuffer[this.valueEnd++] = unescaped;
-            } else if (c >= 0x20) {
-                this.readBuffer[this.valueEnd++] = (char) c;
-                consumeChar();
-            } else {
-                throw newUnexpectedCharException(c);
+        final int maxLength = getMaxStringLength();
+        for (;;) {
+            final char[] buffer = this.readBuffer;
+            int readPos = this.readPos;
+            final int readEnd = this.readEnd;
+            int valueEnd = this.valueEnd;
+
+            while (readPos < readEnd) {
+                char c = buffer[readPos];
+                if (c == '"') {
+                    // Consumes the last quotation mark.
+                    this.readPos = readPos + 1;
+                    this.valueEnd = valueEnd;
+                    return;
+                } else if (c == '\\') {
+                    if (valueEnd - this.valueStart >= maxLength) {
+                        this.readPos = readPos;
+                        throw newStringLengthException();
+                    }
+                    if (readPos + 6 <= readEnd) {
+                        // The whole escape sequence is in the buffer.
+                        char next = buffer[readPos + 1];
+                        if (next == 'u') {
+                            buffer[valueEnd++] = (char) unescapeUnicode(buffer, readPos + 2);
+                            readPos += 6;
+                        } else {
+                            int unescaped = JsonChar.unescape(next);
+                            if (unescaped < 0) {
+                                this.readPos = readPos + 1;
+                                throw newUnexpectedCharException(next);
+                            }
+                            buffer[valueEnd++] = (char) unescaped;
+                            readPos += 2;
+                        }
+                    } else {
+                        this.readPos = readPos;
+                        this.valueEnd = valueEnd;
+                        char unescaped = unescape();
+                        // The buffer may be replaced.
+                        this.readBuffer[this.valueEnd++] = unescaped;
+                        break;
+                    }
+                } else if (c >= 0x20) {
+                    // Copies the run of the chars which need no unescaping.
+                    int runEnd = readPos + 1;
+                    while (runEnd < readEnd) {
+                        c = buffer[runEnd];
+                        if (c == '"' || c == '\\' || c < 0x20) {
+                            break;
+                        }
+                        runEnd++;
+                    }
+                    int length = runEnd - readPos;
+                    final int remaining = maxLength - (valueEnd - this.valueStart);
+                    if (length > remaining) {
+                        this.readPos = readPos + remaining;
+                        throw newStringLengthException();
+                    }
+                    System.arraycopy(buffer, readPos, buffer, valueEnd, length);
+                    valueEnd += length;
+                    readPos = runEnd;
+                } else {
+                    this.readPos = readPos;
+                    throw newUnexpectedCharException(c);
+                }
             }
-        }
 
-        // Consumes the last quotation mark.
-        consumeChar();
+            if (readPos >= readEnd) {
+                this.readPos = readPos;
+                this.valueEnd = valueEnd;
+                if (!fillReadBufferRetainingValue(valueEnd)) {
+                    throw newUnexpectedEndException();
+                }
+            }
+        }
     }
 
     private char unescape() {
         // Consumes the reverse solidus
         consumeChar();
         int c = peekValueChar();
-        switch (c) {
-        case '"':
-        case '\\':
-        case '/':
-            consumeChar();
-            return (char) c;
-        case 'b':
-            consumeChar();
-            return '\b';
-        case 'f':
-            consumeChar();
-            return '\f';
-        case 'n':
-            consumeChar();
-            return '\n';
-        case 'r':
-            consumeChar();
-            return '\r';
-        case 't':
-            consumeChar();
-            return '\t';
-        case 'u':
+        if (c == 'u') {
             return unescapeUnicode();
-        default:
+        }
+        int unescaped = JsonChar.unescape(c);
+        if (unescaped < 0) {
             throw newUnexpectedCharException(c);
         }
+        consumeChar();
+        return (char) unescaped;
     }
 
     private char unescapeUnicode() {
-        // Consumes the reverse solidus
+        // Consumes 'u'
         consumeChar();
 
         int c = peekValueChar();
@@ -569,40 +659,59 @@ class BasicJsonParser extends AbstractJsonParser {
         return (char) codePoint;
     }
 
+    /**
+     * Unescapes the 4 hexadecimal digits in the buffer.
+     *
+     * @param buffer the buffer containing the digits.
+     * @param start  the position of the first digit.
+     * @return the UTF-16 code unit unescaped.
+     */
+    private int unescapeUnicode(char[] buffer, int start) {
+        int codeUnit = 0;
+        for (int i = start; i < start + 4; i++) {
+            int digit = JsonChar.hexadecimalToInt(buffer[i]);
+            if (digit < 0) {
+                this.readPos = i;
+                throw newUnexpectedCharException(buffer[i]);
+            }
+            codeUnit = (codeUnit << 4) + digit;
+        }
+        return codeUnit;
+    }
+
     private int hexadecimalToInt(int c) {
-        if ('0' <= c && c <= '9') {
-            return c - '0';
-        } else if ('A' <= c && c <= 'F') {
-            return c - 'A' + 10;
-        } else if ('a' <= c && c <= 'f') {
-            return c - 'a' + 10;
-        } else {
+        int value = JsonChar.hexadecimalToInt(c);
+        if (value < 0) {
             throw newUnexpectedCharException(c);
         }
+        return value;
     }
 
-    private void parseNumber(int c) {
+    @Override
+    void parseNumber(int c) {
         hasFracOrExp = false;
 
         resetValueBuffer(readPos);
+        // The digits in the int and frac parts.
+        int digits = 0;
 
         // minus (optional)
         if (c == '-') {
             consumeChar();
-            c = peekValueChar();
+            c = peekNumberChar();
         }
 
         // int
         if (c == '0') {
+            checkNumberDigits(++digits);
             consumeChar();
-            c = peekValueChar();
+            c = peekNumberChar();
         } else if ('1' <= c && c <= '9') {
-            consumeChar();
-            c = peekValueChar();
-            while ('0' <= c && c <= '9') {
+            do {
+                checkNumberDigits(++digits);
                 consumeChar();
-                c = peekValueChar();
-            }
+                c = peekNumberChar();
+            } while ('0' <= c && c <= '9');
         } else {
             throw newUnexpectedCharException(c);
         }
@@ -611,38 +720,36 @@ class BasicJsonParser extends AbstractJsonParser {
         if (c == '.') {
             hasFracOrExp = true;
             consumeChar();
-            c = peekValueChar();
-            if ('0' <= c && c <= '9') {
-                consumeChar();
-                c = peekValueChar();
-            } else {
+            c = peekNumberChar();
+            if (c < '0' || c > '9') {
                 throw newUnexpectedCharException(c);
             }
-            while ('0' <= c && c <= '9') {
+            do {
+                checkNumberDigits(++digits);
                 consumeChar();
-                c = peekValueChar();
-            }
+                c = peekNumberChar();
+            } while ('0' <= c && c <= '9');
         }
 
         // exp (optional)
         if (c == 'e' || c == 'E') {
             hasFracOrExp = true;
             consumeChar();
-            c = peekValueChar();
+            c = peekNumberChar();
             if (c == '-' || c == '+') {
                 consumeChar();
-                c = peekValueChar();
+                c = peekNumberChar();
             }
-            if ('0' <= c && c <= '9') {
-                consumeChar();
-                c = peekValueChar();
-            } else {
+            if (c < '0' || c > '9') {
                 throw newUnexpectedCharException(c);
             }
-            while ('0' <= c && c <= '9') {
+            long exponent = 0;
+            do {
+                exponent = exponent * 10 + (c - '0');
+                checkNumberExponent(exponent);
                 consumeChar();
-                c = peekValueChar();
-            }
+                c = peekNumberChar();
+            } while ('0' <= c && c <= '9');
         }
 
         valueEnd = readPos;
@@ -739,8 +846,12 @@ class BasicJsonParser extends AbstractJsonParser {
     @Override
     protected JsonNumber getValueAsNumber() {
         if (hasFracOrExp) {
-            BigDecimal value = buildBigDecimal();
-            return JsonValues.valueOf(value);
+            final char[] buffer = this.readBuffer;
+            byte[] text = new byte[valueEnd - valueStart];
+            for (int i = 0; i < text.length; i++) {
+                text[i] = (byte) buffer[valueStart + i];
+            }
+            return new LazyJsonNumber(text);
         } else if (canGetIntStrictly()) {
             return JsonValues.valueOf(getStrictInt());
         } else if (canGetLongStrictly()) {
@@ -750,197 +861,4 @@ class BasicJsonParser extends AbstractJsonParser {
             return JsonValues.valueOf(value);
         }
     }
-
-    void pushState(State state) {
-        stateStack.push(this.state);
-        setState(state);
-    }
-
-    /**
-     * Pops current state.
-     */
-    void popState() {
-        // Consumes closing bracket which triggered this method.
-        consumeChar();
-        setState(stateStack.pop());
-    }
-
-    void setState(State state) {
-        this.state = state;
-    }
-
-    JsonParsingException newUnexpectedCharException(int actual) {
-        if (actual < 0) {
-            return newUnexpectedEndException();
-        }
-        JsonLocation location = getLocation();
-        String message = Message.thatUnexpectedCharWasFound(location, (char) actual);
-        return new JsonParsingException(message, location);
-    }
-
-    JsonParsingException newUnexpectedCharException(int actual, Object expected) {
-        if (actual < 0) {
-            return newUnexpectedEndException(expected);
-        }
-        JsonLocation location = getLocation();
-        String message = Message.thatUnexpectedCharWasFoundFor(
-                location, (char) actual, expected);
-        return new JsonParsingException(message, location);
-    }
-
-    JsonParsingException newUnexpectedEndException() {
-        JsonLocation location = getLocation();
-        String message = Message.thatUnexpectedEndOfInputWasReached(location);
-        return new JsonParsingException(message, location);
-    }
-
-    /**
-     * Parser state.
-     *
-     * @author leadpony
-     */
-    private enum State {
-        INITIAL() {
-            @Override
-            boolean accepts(int c, BasicJsonParser parser) {
-                return c >= 0;
-            }
-
-            @Override
-            Event process(int c, BasicJsonParser parser) {
-                parser.setState(FINISHED);
-                return parser.processValue(c);
-            }
-        },
-
-        FINISHED() {
-            @Override
-            boolean accepts(int c, BasicJsonParser parser) {
-                if (c >= 0) {
-                    throw parser.newUnexpectedCharException(c);
-                } else {
-                    return false;
-                }
-            }
-
-            @Override
-            Event process(int c, BasicJsonParser parser) {
-                throw parser.newUnexpectedCharException(c);
-            }
-        },
-
-        ARRAY_FIRST_ITEM() {
-            @Override
-            Event process(int c, BasicJsonParser parser) {
-                if (c == ']') {
-                    parser.popState();
-                    return Event.END_ARRAY;
-                }
-                parser.setState(ARRAY_ITEM);
-                return parser.processValue(c);
-            }
-
-            @Override
-            boolean isInArray() {
-                return true;
-            }
-        },
-
-        ARRAY_ITEM() {
-            @Override
-            Event process(int c, BasicJsonParser parser) {
-                if (c == ']') {
-                    parser.popState();
-                    return Event.END_ARRAY;
-                }
-                if (c == ',') {
-                    return parser.processValue();
-                } else {
-                    throw parser.newUnexpectedCharException(c, COMMA_OR_SQURE_BRACKET);
-                }
-            }
-
-            @Override
-            boolean isInArray() {
-                return true;
-            }
-        },
-
-        OBJECT_FIRST_KEY() {
-            @Override
-            Event process(int c, BasicJsonParser parser) {
-                if (c == '}') {
-                    parser.popState();
-                    return Event.END_OBJECT;
-                }
-                parser.setState(OBJECT_VALUE);
-                return parser.processKey(c);
-            }
-
-            @Override
-            boolean isInObject() {
-                return true;
-            }
-        },
-
-        OBJECT_KEY() {
-            @Override
-            Event process(int c, BasicJsonParser parser) {
-                if (c == '}') {
-                    parser.popState();
-                    return Event.END_OBJECT;
-                }
-                if (c != ',') {
-                    throw parser.newUnexpectedCharException(c, COLON_OR_CURLY_BRACKET);
-                }
-                parser.setState(OBJECT_VALUE);
-                return parser.processKey();
-            }
-
-            @Override
-            boolean isInObject() {
-                return true;
-            }
-        },
-
-        OBJECT_VALUE() {
-            @Override
-            Event process(int c, BasicJsonParser parser) {
-                if (c != ':') {
-                    throw parser.newUnexpectedCharException(c, JsonChar.COLON);
-                }
-                parser.setState(OBJECT_KEY);
-                return parser.processValue();
-            }
-
-            @Override
-            boolean isInObject() {
-                return true;
-            }
-        };
-
-        private static final Set<JsonChar> COLON_OR_CURLY_BRACKET = JsonChar.of(
-                JsonChar.COLON, JsonChar.CLOSING_CURLY_BRACKET);
-
-        private static final Set<JsonChar> COMMA_OR_SQURE_BRACKET = JsonChar.of(
-                JsonChar.COMMA, JsonChar.CLOSING_SQURE_BRACKET);
-
-        boolean accepts(int c, BasicJsonParser parser) {
-            if (c >= 0) {
-                return true;
-            } else {
-                throw parser.newUnexpectedEndException();
-            }
-        }
-
-        boolean isInArray() {
-            return false;
-        }
-
-        boolean isInObject() {
-            return false;
-        }
-
-        abstract Event process(int c, BasicJsonParser parser);
-    }
 }
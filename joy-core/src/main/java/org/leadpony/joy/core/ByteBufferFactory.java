@@ -0,0 +1,46 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+/**
+ * A factory of byte buffers.
+ *
+ * @author leadpony
+ */
+interface ByteBufferFactory {
+
+    /**
+     * Creates a byte buffer.
+     *
+     * @return created byte buffer.
+     */
+    byte[] createBuffer();
+
+    /**
+     * Releases a byte buffer.
+     *
+     * @param buffer the buffer to release.
+     */
+    default void releaseBuffer(byte[] buffer) {
+    }
+
+    ByteBufferFactory DEFAULT = new ByteBufferFactory() {
+        @Override
+        public byte[] createBuffer() {
+            return new byte[8192];
+        }
+    };
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+/**
+ * A reusable {@link CharSequence} view over a range of a char array.
+ *
+ * <p>
+ * The view does not copy the characters, and is valid only while the
+ * underlying array is not modified by its owner.
+ * </p>
+ *
+ * @author leadpony
+ */
+final class CharArraySequence implements CharSequence {
+
+    private char[] array;
+    private int offset;
+    private int length;
+
+    /**
+     * Makes this view refer to the specified range of the array.
+     *
+     * @param array the array containing the characters.
+     * @param start the index of the first character.
+     * @param end   the index next to the last character.
+     * @return this view.
+     */
+    CharArraySequence reset(char[] array, int start, int end) {
+        this.array = array;
+        this.offset = start;
+        this.length = end - start;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        return array[offset + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException();
+        }
+        // The subsequence should survive the reuse of this view.
+        return new String(array, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(array, offset, length);
+    }
+
+    /**
+     * Checks if the characters in the specified range of an array are equal
+     * to the specified characters.
+     *
+     * @param array the array containing the characters.
+     * @param start the index of the first character.
+     * @param end   the index next to the last character.
+     * @param chars the characters to compare with.
+     * @return {@code true} if the characters are equal.
+     */
+    static boolean contentEquals(char[] array, int start, int end, CharSequence chars) {
+        return chars.length() == end - start && regionMatches(array, start, chars);
+    }
+
+    /**
+     * Checks if the characters in the specified range of an array start with
+     * the specified prefix.
+     *
+     * @param array  the array containing the characters.
+     * @param start  the index of the first character.
+     * @param end    the index next to the last character.
+     * @param prefix the prefix to test.
+     * @return {@code true} if the characters start with the prefix.
+     */
+    static boolean startsWith(char[] array, int start, int end, CharSequence prefix) {
+        return prefix.length() <= end - start && regionMatches(array, start, prefix);
+    }
+
+    private static boolean regionMatches(char[] array, int start, CharSequence chars) {
+        final int length = chars.length();
+        for (int i = 0; i < length; i++) {
+            if (array[start + i] != chars.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
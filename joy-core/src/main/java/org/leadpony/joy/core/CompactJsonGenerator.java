@@ -15,19 +15,25 @@
  */
 package org.leadpony.joy.core;
 
+import static org.leadpony.joy.core.Preconditions.requireNonNull;
+
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
 
+import org.leadpony.joy.api.ResettableJsonGenerator;
+
 /**
  * @author leadpony
  */
-class CompactJsonGenerator extends SimpleJsonGenerator {
+class CompactJsonGenerator extends SimpleJsonGenerator implements ResettableJsonGenerator {
 
-    private final Writer writer;
+    private Writer writer;
     private final CharBufferFactory bufferFactory;
     private boolean alreadyClosed;
+    // Whether the write buffer is kept on close for the next reset.
+    private boolean keepingBuffer;
 
     CompactJsonGenerator(Writer writer, CharBufferFactory bufferFactory) {
         super(bufferFactory.createBuffer());
@@ -46,7 +52,9 @@ class CompactJsonGenerator extends SimpleJsonGenerator {
         try {
             flush();
             writer.close();
-            bufferFactory.releaseBuffer(writeBuffer);
+            if (!keepingBuffer) {
+                bufferFactory.releaseBuffer(writeBuffer);
+            }
         } catch (IOException e) {
             throw newJsonException(Message.thatIOErrorOccurredWhileGeneratorWasClosing(), e);
         } finally {
@@ -54,6 +62,20 @@ class CompactJsonGenerator extends SimpleJsonGenerator {
         }
     }
 
+    @Override
+    public void reset(Writer writer) {
+        requireNonNull(writer, "writer");
+        close();
+        if (!keepingBuffer) {
+            // The buffer was released on close.
+            writeBuffer = bufferFactory.createBuffer();
+            keepingBuffer = true;
+        }
+        this.writer = writer;
+        this.alreadyClosed = false;
+        resetState();
+    }
+
     @Override
     public void flush() {
         try {
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+import java.math.BigDecimal;
+
+/**
+ * A JSON number which holds a finite {@code double} value.
+ *
+ * <p>
+ * The number is equivalent to {@code BigDecimal.valueOf(double)}, which is
+ * created only when it is requested.
+ * </p>
+ *
+ * @author leadpony
+ */
+class DoubleJsonNumber extends JsonNumberImpl {
+
+    private final double value;
+    private BigDecimal bigDecimal;
+
+    DoubleJsonNumber(double value) {
+        this.value = value;
+    }
+
+    @Override
+    public double doubleValue() {
+        return value;
+    }
+
+    @Override
+    public BigDecimal bigDecimalValue() {
+        if (bigDecimal == null) {
+            bigDecimal = BigDecimal.valueOf(value);
+        }
+        return bigDecimal;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof DoubleJsonNumber) {
+            // Distinct values never have the same decimal representation.
+            return value == ((DoubleJsonNumber) obj).value;
+        }
+        return super.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+}
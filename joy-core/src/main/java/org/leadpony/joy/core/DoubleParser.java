@@ -0,0 +1,388 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+/**
+ * A utility class for converting JSON numbers to correctly rounded
+ * {@code double} values without creating intermediate objects.
+ *
+ * <p>
+ * The conversion follows the algorithm by Daniel Lemire, "Number Parsing at a
+ * Gigabyte per Second", which is based on the work of Michael Eisel. The rare
+ * inputs which cannot be decided by the algorithm are passed to
+ * {@link Double#parseDouble(String)}.
+ * </p>
+ *
+ * <p>
+ * The input given to the methods of this class must be a valid JSON number.
+ * </p>
+ *
+ * @author leadpony
+ */
+final class DoubleParser {
+
+    private static final int MIN_EXPONENT = -342;
+    private static final int MAX_EXPONENT = 308;
+
+    /*
+     * The maximum number of significant digits which fit in an unsigned long.
+     */
+    private static final int MAX_DIGITS = 19;
+
+    /*
+     * The exponents which can be handled by Clinger's fast path.
+     */
+    private static final int MAX_EXACT_EXPONENT = 22;
+    private static final long MAX_EXACT_SIGNIFICAND = 1L << 53;
+
+    private static final int SIGNIFICAND_BITS = 52;
+    private static final int EXPONENT_BIAS = 1023;
+    private static final long INFINITY_BITS = 0x7ffL << SIGNIFICAND_BITS;
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /*
+     * The 128-bit approximations of the powers of five, from 5^-342 to 5^308.
+     * The upper and lower halves of each power are stored alternately.
+     */
+    private static final long[] POWERS_OF_FIVE = computePowersOfFive();
+
+    /**
+     * Converts a JSON number in the specified characters.
+     *
+     * @param chars the array containing the number.
+     * @param start the index of the first character of the number.
+     * @param end   the index next to the last character of the number.
+     * @return the closest {@code double} value.
+     */
+    static double parse(char[] chars, int start, int end) {
+        int i = start;
+        final boolean negative = chars[i] == '-';
+        if (negative) {
+            i++;
+        }
+
+        long significand = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean truncated = false;
+        int c = 0;
+
+        // integer part
+        for (; i < end; i++) {
+            c = chars[i];
+            if (!isDigit(c)) {
+                break;
+            }
+            if (digits < MAX_DIGITS) {
+                significand = significand * 10 + (c - '0');
+                if (significand != 0) {
+                    digits++;
+                }
+            } else {
+                exponent++;
+                truncated |= c != '0';
+            }
+        }
+
+        // fraction part
+        if (c == '.') {
+            for (i++; i < end; i++) {
+                c = chars[i];
+                if (!isDigit(c)) {
+                    break;
+                }
+                if (digits < MAX_DIGITS) {
+                    significand = significand * 10 + (c - '0');
+                    if (significand != 0) {
+                        digits++;
+                    }
+                    exponent--;
+                } else {
+                    truncated |= c != '0';
+                }
+            }
+        }
+
+        // exponent part
+        if (c == 'e' || c == 'E') {
+            c = chars[++i];
+            boolean negativeExponent = c == '-';
+            if (c == '-' || c == '+') {
+                i++;
+            }
+            int value = 0;
+            while (i < end) {
+                value = accumulateExponent(value, chars[i++]);
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+
+        if (significand == 0) {
+            // BigDecimal has no negative zero.
+            return 0.0;
+        }
+        long bits = toBits(significand, exponent, truncated);
+        if (bits < 0) {
+            return Double.parseDouble(new String(chars, start, end - start));
+        }
+        return toDouble(negative, bits);
+    }
+
+    /**
+     * Converts a JSON number in the specified bytes.
+     *
+     * @param buffer the buffer containing the number.
+     * @param start  the index of the first byte of the number.
+     * @param end    the index next to the last byte of the number.
+     * @return the closest {@code double} value.
+     */
+    static double parse(ByteBuffer buffer, int start, int end) {
+        int i = start;
+        final boolean negative = buffer.get(i) == '-';
+        if (negative) {
+            i++;
+        }
+
+        long significand = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean truncated = false;
+        int c = 0;
+
+        // integer part
+        for (; i < end; i++) {
+            c = buffer.get(i);
+            if (!isDigit(c)) {
+                break;
+            }
+            if (digits < MAX_DIGITS) {
+                significand = significand * 10 + (c - '0');
+                if (significand != 0) {
+                    digits++;
+                }
+            } else {
+                exponent++;
+                truncated |= c != '0';
+            }
+        }
+
+        // fraction part
+        if (c == '.') {
+            for (i++; i < end; i++) {
+                c = buffer.get(i);
+                if (!isDigit(c)) {
+                    break;
+                }
+                if (digits < MAX_DIGITS) {
+                    significand = significand * 10 + (c - '0');
+                    if (significand != 0) {
+                        digits++;
+                    }
+                    exponent--;
+                } else {
+                    truncated |= c != '0';
+                }
+            }
+        }
+
+        // exponent part
+        if (c == 'e' || c == 'E') {
+            c = buffer.get(++i);
+            boolean negativeExponent = c == '-';
+            if (c == '-' || c == '+') {
+                i++;
+            }
+            int value = 0;
+            while (i < end) {
+                value = accumulateExponent(value, buffer.get(i++));
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+
+        if (significand == 0) {
+            // BigDecimal has no negative zero.
+            return 0.0;
+        }
+        long bits = toBits(significand, exponent, truncated);
+        if (bits < 0) {
+            char[] chars = new char[end - start];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = (char) buffer.get(start + j);
+            }
+            return Double.parseDouble(new String(chars));
+        }
+        return toDouble(negative, bits);
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int accumulateExponent(int value, int c) {
+        // Saturates the exponent which is too large to be meaningful.
+        if (value < 100000) {
+            return value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static double toDouble(boolean negative, long bits) {
+        double value = Double.longBitsToDouble(bits);
+        return negative ? -value : value;
+    }
+
+    /**
+     * Converts the decimal number to the bits of a positive {@code double}.
+     *
+     * @param significand the unsigned decimal significand.
+     * @param exponent    the decimal exponent.
+     * @param truncated   {@code true} if some nonzero digits were dropped from
+     *                    the significand.
+     * @return the bits of the {@code double} value, or -1 if the value cannot
+     *         be decided.
+     */
+    private static long toBits(long significand, int exponent, boolean truncated) {
+        long bits = toBits(significand, exponent);
+        if (truncated && bits >= 0) {
+            // The exact value lies between the two.
+            if (bits != toBits(significand + 1, exponent)) {
+                return -1;
+            }
+        }
+        return bits;
+    }
+
+    private static long toBits(long w, int q) {
+        if (w == 0 || q < MIN_EXPONENT) {
+            return 0;
+        } else if (q > MAX_EXPONENT) {
+            return INFINITY_BITS;
+        }
+
+        if (q >= -MAX_EXACT_EXPONENT && q <= MAX_EXACT_EXPONENT
+                && w >= 0 && w <= MAX_EXACT_SIGNIFICAND) {
+            // Both the significand and the power of ten are exact.
+            double value = w;
+            if (q < 0) {
+                value /= POWERS_OF_TEN[-q];
+            } else {
+                value *= POWERS_OF_TEN[q];
+            }
+            return Double.doubleToRawLongBits(value);
+        }
+
+        final int leadingZeros = Long.numberOfLeadingZeros(w);
+        w <<= leadingZeros;
+
+        final int index = (q - MIN_EXPONENT) * 2;
+        final long powerHigh = POWERS_OF_FIVE[index];
+        long high = unsignedMultiplyHigh(w, powerHigh);
+        long low = w * powerHigh;
+        if ((high & 0x1ff) == 0x1ff) {
+            final long powerLow = POWERS_OF_FIVE[index + 1];
+            long carry = unsignedMultiplyHigh(w, powerLow);
+            low += carry;
+            if (Long.compareUnsigned(carry, low) > 0) {
+                high++;
+            }
+            if ((high & 0x1ff) == 0x1ff && low == -1L && (q < -27 || q > 55)) {
+                return -1;
+            }
+        }
+
+        final int upperBit = (int) (high >>> 63);
+        long mantissa = high >>> (upperBit + 64 - SIGNIFICAND_BITS - 3);
+        int power2 = ((217706 * q) >> 16) + 63 + upperBit - leadingZeros + EXPONENT_BIAS;
+
+        if (power2 <= 0) {
+            // subnormal
+            if (-power2 + 1 >= 64) {
+                return 0;
+            }
+            mantissa >>>= -power2 + 1;
+            mantissa += mantissa & 1;
+            mantissa >>>= 1;
+            power2 = (mantissa < (1L << SIGNIFICAND_BITS)) ? 0 : 1;
+            return mantissa | ((long) power2 << SIGNIFICAND_BITS);
+        }
+
+        // Rounds half to even if the value lies exactly in the middle.
+        if (Long.compareUnsigned(low, 1) <= 0 && q >= -4 && q <= 23 && (mantissa & 3) == 1
+                && (mantissa << (upperBit + 64 - SIGNIFICAND_BITS - 3)) == high) {
+            mantissa &= ~1L;
+        }
+
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if (mantissa >= (2L << SIGNIFICAND_BITS)) {
+            mantissa = 1L << SIGNIFICAND_BITS;
+            power2++;
+        }
+        mantissa &= ~(1L << SIGNIFICAND_BITS);
+        if (power2 >= 0x7ff) {
+            return INFINITY_BITS;
+        }
+        return mantissa | ((long) power2 << SIGNIFICAND_BITS);
+    }
+
+    private static long unsignedMultiplyHigh(long x, long y) {
+        final long x0 = x & 0xffffffffL;
+        final long x1 = x >>> 32;
+        final long y0 = y & 0xffffffffL;
+        final long y1 = y >>> 32;
+        final long p01 = x0 * y1;
+        final long p10 = x1 * y0;
+        final long middle = ((x0 * y0) >>> 32) + (p01 & 0xffffffffL) + (p10 & 0xffffffffL);
+        return x1 * y1 + (p01 >>> 32) + (p10 >>> 32) + (middle >>> 32);
+    }
+
+    private static long[] computePowersOfFive() {
+        final BigInteger five = BigInteger.valueOf(5);
+        long[] powers = new long[(MAX_EXPONENT - MIN_EXPONENT + 1) * 2];
+        int index = 0;
+        for (int q = MIN_EXPONENT; q <= MAX_EXPONENT; q++) {
+            BigInteger power = five.pow(Math.abs(q));
+            BigInteger value;
+            if (q >= 0) {
+                // Truncates the power to 128 bits.
+                int shift = power.bitLength() - 128;
+                value = shift > 0 ? power.shiftRight(shift) : power.shiftLeft(-shift);
+            } else {
+                // Rounds the reciprocal up.
+                int z = power.bitLength();
+                int b = (q >= -27) ? z + 127 : 2 * z + 128;
+                value = BigInteger.ONE.shiftLeft(b).divide(power).add(BigInteger.ONE);
+                int shift = value.bitLength() - 128;
+                if (shift > 0) {
+                    value = value.shiftRight(shift);
+                }
+            }
+            powers[index++] = value.shiftRight(64).longValue();
+            powers[index++] = value.longValue();
+        }
+        return powers;
+    }
+
+    private DoubleParser() {
+    }
+}
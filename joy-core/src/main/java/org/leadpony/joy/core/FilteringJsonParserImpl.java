@@ -0,0 +1,498 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonLocation;
+import jakarta.json.stream.JsonParser;
+
+import org.leadpony.joy.api.FilteringJsonParser;
+
+/**
+ * An implementation of {@link FilteringJsonParser}.
+ *
+ * <p>
+ * The JSON pointers are compiled into a tree of their reference tokens. While
+ * walking down the arrays and objects of the input, this parser keeps the
+ * nodes of the tree reachable from the current position. The arrays and
+ * objects reaching no node are skipped by the wrapped parser, and the events
+ * of a value reaching a selected node are forwarded as they are.
+ * </p>
+ *
+ * @author leadpony
+ */
+final class FilteringJsonParserImpl extends AbstractJsonParser implements FilteringJsonParser {
+
+    /**
+     * The reference token matching any key or index.
+     */
+    static final String WILDCARD = "*";
+
+    private final JsonParser parser;
+    private final List<Node> roots;
+
+    // The arrays and objects being walked down outside of the selected values.
+    private final Deque<Frame> frames = new ArrayDeque<>();
+    // The arrays and objects of the selected value enclosing the current event.
+    private final ScopeStack scopes = new ScopeStack();
+
+    private Event currentEvent;
+    // The event of the next selected value found by hasNext().
+    private Event pendingEvent;
+    private JsonValue pendingValue;
+    private String pendingString;
+    private String pendingPointer;
+    // The selected value if it is neither an array nor an object.
+    private JsonValue selectedValue;
+    // The string or number of the selected value as it appeared in the input.
+    private String selectedString;
+    private String pointer;
+
+    /**
+     * Constructs this parser.
+     *
+     * @param parser   the parser to wrap.
+     * @param pointers the JSON pointers selecting the values.
+     * @throws jakarta.json.JsonException if any of the pointers is invalid.
+     */
+    FilteringJsonParserImpl(JsonParser parser, Collection<String> pointers) {
+        this.parser = parser;
+        Node root = new Node();
+        for (String pointer : pointers) {
+            root.add(JsonPointerImpl.parseTokens(pointer));
+        }
+        this.roots = Collections.singletonList(root);
+    }
+
+    /* As a FilteringJsonParser */
+
+    @Override
+    public String getPointer() {
+        if (currentEvent == null) {
+            throw newIllegalStateException("getPointer()");
+        }
+        return pointer;
+    }
+
+    /* As a JsonParser */
+
+    @Override
+    public boolean hasNext() {
+        if (pendingEvent != null) {
+            return true;
+        } else if (!scopes.isEmpty()) {
+            return parser.hasNext();
+        }
+        this.pendingEvent = findNextValue();
+        return pendingEvent != null;
+    }
+
+    @Override
+    public Event next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException(Message.thatNoMoreParserEventsWereFound());
+        }
+        Event event = pendingEvent;
+        if (event != null) {
+            this.pendingEvent = null;
+            this.selectedValue = pendingValue;
+            this.selectedString = pendingString;
+            this.pointer = pendingPointer;
+        } else {
+            event = parser.next();
+        }
+        switch (event) {
+        case START_ARRAY:
+            scopes.push(true);
+            break;
+        case START_OBJECT:
+            scopes.push(false);
+            break;
+        case END_ARRAY:
+        case END_OBJECT:
+            scopes.pop();
+            break;
+        default:
+            break;
+        }
+        this.currentEvent = event;
+        return event;
+    }
+
+    @Override
+    public String getString() {
+        if (selectedValue != null) {
+            if (selectedString == null) {
+                throw newIllegalStateException("getString()");
+            }
+            return selectedString;
+        }
+        return parser.getString();
+    }
+
+    @Override
+    public boolean isIntegralNumber() {
+        if (selectedValue != null) {
+            return selectedNumber("isIntegralNumber()").isIntegral();
+        }
+        return parser.isIntegralNumber();
+    }
+
+    @Override
+    public int getInt() {
+        if (selectedValue != null) {
+            return selectedNumber("getInt()").intValue();
+        }
+        return parser.getInt();
+    }
+
+    @Override
+    public long getLong() {
+        if (selectedValue != null) {
+            return selectedNumber("getLong()").longValue();
+        }
+        return parser.getLong();
+    }
+
+    @Override
+    public BigDecimal getBigDecimal() {
+        if (selectedValue != null) {
+            return selectedNumber("getBigDecimal()").bigDecimalValue();
+        }
+        return parser.getBigDecimal();
+    }
+
+    @Override
+    public double getDouble() {
+        if (selectedValue != null) {
+            return selectedNumber("getDouble()").doubleValue();
+        } else if (parser instanceof org.leadpony.joy.api.JsonParser) {
+            return ((org.leadpony.joy.api.JsonParser) parser).getDouble();
+        }
+        return super.getDouble();
+    }
+
+    @Override
+    public JsonLocation getLocation() {
+        return parser.getLocation();
+    }
+
+    @Override
+    public JsonValue getValue() {
+        if (selectedValue != null) {
+            return selectedValue;
+        }
+        Event event = currentEvent;
+        if (event == null) {
+            throw newIllegalStateException("getValue()");
+        }
+        JsonValue value = parser.getValue();
+        if (event == Event.START_ARRAY) {
+            leave(Event.END_ARRAY, 1);
+        } else if (event == Event.START_OBJECT) {
+            leave(Event.END_OBJECT, 1);
+        }
+        return value;
+    }
+
+    @Override
+    public JsonArray getArray() {
+        if (currentEvent != Event.START_ARRAY) {
+            throw newIllegalStateException("getArray()");
+        }
+        JsonArray array = parser.getArray();
+        leave(Event.END_ARRAY, 1);
+        return array;
+    }
+
+    @Override
+    public JsonObject getObject() {
+        if (currentEvent != Event.START_OBJECT) {
+            throw newIllegalStateException("getObject()");
+        }
+        JsonObject object = parser.getObject();
+        leave(Event.END_OBJECT, 1);
+        return object;
+    }
+
+    @Override
+    public void skipArray() {
+        if (scopes.containsArray()) {
+            int levels = scopes.distanceTo(true);
+            parser.skipArray();
+            leave(Event.END_ARRAY, levels);
+        }
+    }
+
+    @Override
+    public void skipObject() {
+        if (scopes.containsObject()) {
+            int levels = scopes.distanceTo(false);
+            parser.skipObject();
+            leave(Event.END_OBJECT, levels);
+        }
+    }
+
+    @Override
+    public void close() {
+        parser.close();
+    }
+
+    /* As a AbstractJsonParser */
+
+    @Override
+    protected Event getCurrentEvent() {
+        return currentEvent;
+    }
+
+    @Override
+    protected boolean isInArray() {
+        return !scopes.isEmpty() && scopes.isInArray();
+    }
+
+    @Override
+    protected boolean isInObject() {
+        return !scopes.isEmpty() && !scopes.isInArray();
+    }
+
+    /**
+     * Finds the next selected value, skipping all the values which do not
+     * contain any selected value.
+     *
+     * @return the first event of the selected value, or {@code null} if the
+     *         end of input was reached.
+     */
+    private Event findNextValue() {
+        final JsonParser parser = this.parser;
+        while (parser.hasNext()) {
+            Event event = parser.next();
+            Frame frame = frames.peek();
+            switch (event) {
+            case KEY_NAME:
+                frame.key = parser.getString();
+                continue;
+            case END_ARRAY:
+            case END_OBJECT:
+                frames.pop();
+                continue;
+            default:
+                break;
+            }
+
+            String token = null;
+            List<Node> nodes = roots;
+            if (frame != null) {
+                token = frame.nextToken();
+                nodes = frame.childrenOf(token);
+            }
+
+            if (isSelected(nodes)) {
+                this.pendingPointer = buildPointer(token);
+                this.pendingValue = null;
+                this.pendingString = null;
+                if (event == Event.VALUE_STRING || event == Event.VALUE_NUMBER) {
+                    this.pendingString = parser.getString();
+                }
+                if (event != Event.START_ARRAY && event != Event.START_OBJECT) {
+                    this.pendingValue = parser.getValue();
+                }
+                return event;
+            }
+
+            if (event == Event.START_ARRAY) {
+                if (nodes.isEmpty()) {
+                    parser.skipArray();
+                } else {
+                    frames.push(new Frame(nodes, true, token));
+                }
+            } else if (event == Event.START_OBJECT) {
+                if (nodes.isEmpty()) {
+                    parser.skipObject();
+                } else {
+                    frames.push(new Frame(nodes, false, token));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Leaves the arrays and objects closed by the wrapped parser.
+     *
+     * @param event  the event at which the wrapped parser is.
+     * @param levels the number of the arrays and objects closed.
+     */
+    private void leave(Event event, int levels) {
+        for (int i = 0; i < levels; i++) {
+            scopes.pop();
+        }
+        this.currentEvent = event;
+    }
+
+    private JsonNumber selectedNumber(String method) {
+        if (currentEvent != Event.VALUE_NUMBER) {
+            throw newIllegalStateException(method);
+        }
+        return (JsonNumber) selectedValue;
+    }
+
+    private String buildPointer(String token) {
+        StringBuilder builder = new StringBuilder();
+        Iterator<Frame> it = frames.descendingIterator();
+        while (it.hasNext()) {
+            appendToken(builder, it.next().token);
+        }
+        appendToken(builder, token);
+        return builder.toString();
+    }
+
+    private static void appendToken(StringBuilder builder, String token) {
+        if (token == null) {
+            return;
+        }
+        builder.append('/');
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c == '~') {
+                builder.append("~0");
+            } else if (c == '/') {
+                builder.append("~1");
+            } else {
+                builder.append(c);
+            }
+        }
+    }
+
+    private static boolean isSelected(List<Node> nodes) {
+        for (Node node : nodes) {
+            if (node.selected) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A node in the tree of reference tokens.
+     *
+     * @author leadpony
+     */
+    private static final class Node {
+
+        private final Map<String, Node> children = new HashMap<>();
+        private Node wildcard;
+        // true if the value at this node is selected.
+        private boolean selected;
+
+        void add(List<String> tokens) {
+            Node node = this;
+            for (String token : tokens) {
+                node = node.childFor(token);
+            }
+            node.selected = true;
+        }
+
+        private Node childFor(String token) {
+            if (token.equals(WILDCARD)) {
+                if (wildcard == null) {
+                    wildcard = new Node();
+                }
+                return wildcard;
+            }
+            return children.computeIfAbsent(token, t -> new Node());
+        }
+    }
+
+    /**
+     * An array or object being walked down.
+     *
+     * @author leadpony
+     */
+    private static final class Frame {
+
+        // The nodes reachable from this array or object.
+        private final List<Node> nodes;
+        private final boolean array;
+        // The reference token of this array or object, or null at the top level.
+        private final String token;
+        private boolean keyed;
+        private int index = -1;
+        private String key;
+
+        Frame(List<Node> nodes, boolean array, String token) {
+            this.nodes = nodes;
+            this.array = array;
+            this.token = token;
+            for (Node node : nodes) {
+                if (!node.children.isEmpty()) {
+                    this.keyed = true;
+                }
+            }
+        }
+
+        String nextToken() {
+            if (array) {
+                return String.valueOf(++index);
+            }
+            return key;
+        }
+
+        /**
+         * Returns the nodes reachable from the child at the specified token.
+         *
+         * @param token the reference token of the child.
+         * @return the nodes reachable from the child, may be empty.
+         */
+        List<Node> childrenOf(String token) {
+            if (nodes.size() == 1) {
+                Node node = nodes.get(0);
+                Node child = keyed ? node.children.get(token) : null;
+                if (child == null) {
+                    return (node.wildcard != null) ? Collections.singletonList(node.wildcard)
+                            : Collections.emptyList();
+                } else if (node.wildcard == null) {
+                    return Collections.singletonList(child);
+                }
+            }
+            List<Node> children = new ArrayList<>();
+            for (Node node : nodes) {
+                Node child = node.children.get(token);
+                if (child != null) {
+                    children.add(child);
+                }
+                if (node.wildcard != null) {
+                    children.add(node.wildcard);
+                }
+            }
+            return children;
+        }
+    }
+}
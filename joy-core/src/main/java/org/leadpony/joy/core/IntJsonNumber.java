@@ -77,6 +77,11 @@ class IntJsonNumber extends JsonNumberImpl {
         return Integer.toString(value);
     }
 
+    @Override
+    long unscaledValue() {
+        return value;
+    }
+
     static final JsonNumber ZERO = new JsonNumberImpl() {
 
         @Override
@@ -118,6 +123,11 @@ class IntJsonNumber extends JsonNumberImpl {
         public String toString() {
             return "0";
         }
+
+        @Override
+        long unscaledValue() {
+            return 0;
+        }
     };
 
     static final JsonNumber ONE = new JsonNumberImpl() {
@@ -161,5 +171,10 @@ class IntJsonNumber extends JsonNumberImpl {
         public String toString() {
             return "1";
         }
+
+        @Override
+        long unscaledValue() {
+            return 1;
+        }
     };
 }
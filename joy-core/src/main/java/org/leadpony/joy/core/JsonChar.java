@@ -95,6 +95,52 @@ enum JsonChar {
         return b.append("'").toString();
     }
 
+    /**
+     * Unescapes the character following a reverse solidus, except 'u'.
+     *
+     * @param c the character following a reverse solidus.
+     * @return the unescaped character, or -1 if the character is invalid.
+     */
+    static int unescape(int c) {
+        switch (c) {
+        case '"':
+        case '\\':
+        case '/':
+            return c;
+        case 'b':
+            return '\b';
+        case 'f':
+            return '\f';
+        case 'n':
+            return '\n';
+        case 'r':
+            return '\r';
+        case 't':
+            return '\t';
+        default:
+            return -1;
+        }
+    }
+
+    /**
+     * Converts a hexadecimal digit to an integer.
+     *
+     * @param c the hexadecimal digit.
+     * @return the integer value, or -1 if the character is not a hexadecimal
+     *         digit.
+     */
+    static int hexadecimalToInt(int c) {
+        if ('0' <= c && c <= '9') {
+            return c - '0';
+        } else if ('A' <= c && c <= 'F') {
+            return c - 'A' + 10;
+        } else if ('a' <= c && c <= 'f') {
+            return c - 'a' + 10;
+        } else {
+            return -1;
+        }
+    }
+
     static Set<JsonChar> of(JsonChar... chars) {
         return new JsonCharSet(chars);
     }
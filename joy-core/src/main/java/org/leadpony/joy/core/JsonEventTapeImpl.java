@@ -0,0 +1,417 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+import static org.leadpony.joy.core.Preconditions.requireNonNull;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonString;
+import jakarta.json.stream.JsonLocation;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+
+import org.leadpony.joy.api.JsonEventTape;
+
+/**
+ * An implementation of {@link JsonEventTape}.
+ *
+ * <p>
+ * Each event takes two elements of {@code entries}: the code of the event
+ * and the end of its characters in {@code chars}. The characters of an event
+ * start at the end of the preceding event, so the events without characters
+ * repeat the end of the preceding event. The stream offsets of the events are
+ * held in {@code offsets}.
+ * </p>
+ *
+ * @author leadpony
+ */
+final class JsonEventTapeImpl implements JsonEventTape {
+
+    private static final Event[] EVENTS = Event.values();
+
+    // The lower bits of a code hold the ordinal of the event.
+    private static final int EVENT_MASK = 0xf;
+    // The flag of a number which has a fraction or an exponent.
+    private static final int FRAC_OR_EXP = 0x10;
+
+    private static final int INITIAL_EVENTS = 64;
+    private static final int INITIAL_CHARS = 256;
+
+    private final int size;
+    private final int[] entries;
+    private final long[] offsets;
+    private final char[] chars;
+
+    /**
+     * Records all the remaining events of the specified parser.
+     *
+     * @param parser the parser to record.
+     * @return newly recorded tape.
+     */
+    static JsonEventTapeImpl record(JsonParser parser) {
+        return new Recorder(parser).record();
+    }
+
+    private JsonEventTapeImpl(int size, int[] entries, long[] offsets, char[] chars) {
+        this.size = size;
+        this.entries = entries;
+        this.offsets = offsets;
+        this.chars = chars;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public org.leadpony.joy.api.JsonParser createParser() {
+        return new Player();
+    }
+
+    /**
+     * A recorder of the events.
+     *
+     * @author leadpony
+     */
+    private static final class Recorder {
+
+        private final JsonParser parser;
+        private int size;
+        private int[] entries = new int[INITIAL_EVENTS * 2];
+        private long[] offsets = new long[INITIAL_EVENTS];
+        private char[] chars = new char[INITIAL_CHARS];
+        private int charsLength;
+
+        Recorder(JsonParser parser) {
+            this.parser = parser;
+        }
+
+        JsonEventTapeImpl record() {
+            final JsonParser parser = this.parser;
+            while (parser.hasNext()) {
+                Event event = parser.next();
+                int code = event.ordinal();
+                if (event == Event.KEY_NAME || event == Event.VALUE_STRING || event == Event.VALUE_NUMBER) {
+                    int start = charsLength;
+                    appendChars();
+                    if (event == Event.VALUE_NUMBER && hasFracOrExp(start, charsLength)) {
+                        code |= FRAC_OR_EXP;
+                    }
+                }
+                append(code, getStreamOffset());
+            }
+            return new JsonEventTapeImpl(size,
+                    Arrays.copyOf(entries, size * 2),
+                    Arrays.copyOf(offsets, size),
+                    Arrays.copyOf(chars, charsLength));
+        }
+
+        private void append(int code, long offset) {
+            if (size == offsets.length) {
+                int length = size * 2;
+                entries = Arrays.copyOf(entries, length * 2);
+                offsets = Arrays.copyOf(offsets, length);
+            }
+            entries[size * 2] = code;
+            entries[size * 2 + 1] = charsLength;
+            offsets[size] = offset;
+            size++;
+        }
+
+        private void appendChars() {
+            if (parser instanceof org.leadpony.joy.api.JsonParser) {
+                appendChars(((org.leadpony.joy.api.JsonParser) parser).getCharSequence());
+            } else {
+                appendChars(parser.getString());
+            }
+        }
+
+        private void appendChars(CharSequence value) {
+            final int length = value.length();
+            if (length > chars.length - charsLength) {
+                long required = (long) charsLength + length;
+                if (required > Integer.MAX_VALUE - 8) {
+                    throw new OutOfMemoryError();
+                }
+                int capacity = (int) Math.min(Math.max(required, chars.length * 2L), Integer.MAX_VALUE - 8);
+                chars = Arrays.copyOf(chars, capacity);
+            }
+            if (value instanceof String) {
+                ((String) value).getChars(0, length, chars, charsLength);
+            } else {
+                for (int i = 0; i < length; i++) {
+                    chars[charsLength + i] = value.charAt(i);
+                }
+            }
+            charsLength += length;
+        }
+
+        private boolean hasFracOrExp(int start, int end) {
+            for (int i = start; i < end; i++) {
+                char c = chars[i];
+                if (c == '.' || c == 'e' || c == 'E') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private long getStreamOffset() {
+            if (parser instanceof AbstractStreamJsonParser) {
+                return ((AbstractStreamJsonParser) parser).getStreamOffset();
+            }
+            return parser.getLocation().getStreamOffset();
+        }
+    }
+
+    /**
+     * A parser replaying the events.
+     *
+     * @author leadpony
+     */
+    private final class Player extends AbstractJsonParser {
+
+        private final ScopeStack scopes = new ScopeStack();
+        // The index of the current event.
+        private int index = -1;
+        private Event currentEvent;
+        // The characters of the current event.
+        private int valueStart;
+        private int valueEnd;
+        private CharArraySequence charSequence;
+
+        @Override
+        public boolean hasNext() {
+            return index + 1 < size;
+        }
+
+        @Override
+        public Event next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException(Message.thatNoMoreParserEventsWereFound());
+            }
+            final int entry = ++index * 2;
+            Event event = EVENTS[entries[entry] & EVENT_MASK];
+            switch (event) {
+            case START_ARRAY:
+                scopes.push(true);
+                break;
+            case START_OBJECT:
+                scopes.push(false);
+                break;
+            case END_ARRAY:
+            case END_OBJECT:
+                scopes.pop();
+                break;
+            case KEY_NAME:
+            case VALUE_STRING:
+            case VALUE_NUMBER:
+                this.valueStart = (entry > 0) ? entries[entry - 1] : 0;
+                this.valueEnd = entries[entry + 1];
+                break;
+            default:
+                break;
+            }
+            this.currentEvent = event;
+            return event;
+        }
+
+        @Override
+        public String getString() {
+            if (!hasString()) {
+                throw newIllegalStateException("getString()");
+            }
+            return new String(chars, valueStart, valueEnd - valueStart);
+        }
+
+        @Override
+        public CharSequence getCharSequence() {
+            if (!hasString()) {
+                throw newIllegalStateException("getCharSequence()");
+            }
+            CharArraySequence view = this.charSequence;
+            if (view == null) {
+                view = new CharArraySequence();
+                this.charSequence = view;
+            }
+            return view.reset(chars, valueStart, valueEnd);
+        }
+
+        @Override
+        public boolean contentEquals(CharSequence chars) {
+            requireNonNull(chars, "chars");
+            if (!hasString()) {
+                throw newIllegalStateException("contentEquals()");
+            }
+            return CharArraySequence.contentEquals(JsonEventTapeImpl.this.chars, valueStart, valueEnd, chars);
+        }
+
+        @Override
+        public boolean startsWith(CharSequence prefix) {
+            requireNonNull(prefix, "prefix");
+            if (!hasString()) {
+                throw newIllegalStateException("startsWith()");
+            }
+            return CharArraySequence.startsWith(chars, valueStart, valueEnd, prefix);
+        }
+
+        @Override
+        public boolean isIntegralNumber() {
+            if (currentEvent != Event.VALUE_NUMBER) {
+                throw newIllegalStateException("isIntegralNumber()");
+            }
+            return !hasFracOrExp() || getBigDecimal().scale() == 0;
+        }
+
+        @Override
+        public int getInt() {
+            if (currentEvent != Event.VALUE_NUMBER) {
+                throw newIllegalStateException("getInt()");
+            }
+            if (canGetIntStrictly()) {
+                return (int) getStrictLong();
+            } else {
+                return getBigDecimal().intValue();
+            }
+        }
+
+        @Override
+        public long getLong() {
+            if (currentEvent != Event.VALUE_NUMBER) {
+                throw newIllegalStateException("getLong()");
+            }
+            if (canGetLongStrictly()) {
+                return getStrictLong();
+            } else {
+                return getBigDecimal().longValue();
+            }
+        }
+
+        @Override
+        public BigDecimal getBigDecimal() {
+            if (currentEvent != Event.VALUE_NUMBER) {
+                throw newIllegalStateException("getBigDecimal()");
+            }
+            return new BigDecimal(chars, valueStart, valueEnd - valueStart);
+        }
+
+        @Override
+        public double getDouble() {
+            if (currentEvent != Event.VALUE_NUMBER) {
+                throw newIllegalStateException("getDouble()");
+            }
+            if (canGetLongStrictly()) {
+                return getStrictLong();
+            } else {
+                return DoubleParser.parse(chars, valueStart, valueEnd);
+            }
+        }
+
+        @Override
+        public JsonLocation getLocation() {
+            if (index < 0) {
+                return BasicJsonLocation.INITIAL;
+            }
+            return new BasicJsonLocation(offsets[index]);
+        }
+
+        /* As a AbstractJsonParser */
+
+        @Override
+        protected Event getCurrentEvent() {
+            return currentEvent;
+        }
+
+        @Override
+        protected boolean isInArray() {
+            return !scopes.isEmpty() && scopes.isInArray();
+        }
+
+        @Override
+        protected boolean isInObject() {
+            return !scopes.isEmpty() && !scopes.isInArray();
+        }
+
+        @Override
+        protected JsonString getValueAsString() {
+            return JsonValues.valueOf(chars, valueStart, valueEnd - valueStart);
+        }
+
+        @Override
+        protected JsonNumber getValueAsNumber() {
+            if (hasFracOrExp()) {
+                byte[] text = new byte[valueEnd - valueStart];
+                for (int i = 0; i < text.length; i++) {
+                    text[i] = (byte) chars[valueStart + i];
+                }
+                return new LazyJsonNumber(text);
+            } else if (canGetIntStrictly()) {
+                return JsonValues.valueOf((int) getStrictLong());
+            } else if (canGetLongStrictly()) {
+                return JsonValues.valueOf(getStrictLong());
+            } else {
+                BigInteger value = new BigInteger(getString());
+                return JsonValues.valueOf(value);
+            }
+        }
+
+        private boolean hasFracOrExp() {
+            return (entries[index * 2] & FRAC_OR_EXP) != 0;
+        }
+
+        private boolean canGetIntStrictly() {
+            return canGetStrictly(MIN_INT_AS_STRING, MAX_INT_AS_STRING);
+        }
+
+        private boolean canGetLongStrictly() {
+            return canGetStrictly(MIN_LONG_AS_STRING, MAX_LONG_AS_STRING);
+        }
+
+        private boolean canGetStrictly(String min, String max) {
+            if (hasFracOrExp()) {
+                return false;
+            }
+            final int length = valueEnd - valueStart;
+            final String limit = (chars[valueStart] == '-') ? min : max;
+            if (length < limit.length()) {
+                return true;
+            } else if (length == limit.length()) {
+                return getString().compareTo(limit) <= 0;
+            }
+            return false;
+        }
+
+        private long getStrictLong() {
+            int i = valueStart;
+            final boolean minus = chars[i] == '-';
+            if (minus) {
+                i++;
+            }
+            long value = 0;
+            while (i < valueEnd) {
+                char c = chars[i++];
+                value = value * 10 + (c - '0');
+            }
+            return minus ? -value : value;
+        }
+    }
+}
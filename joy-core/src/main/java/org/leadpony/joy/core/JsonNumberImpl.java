@@ -22,10 +22,21 @@ import jakarta.json.JsonNumber;
 /**
  * The implementation of {@link JsonNumber}.
  *
+ * <p>
+ * Subclasses may provide the unscaled value and the scale of the number in
+ * the same way as {@link java.math.BigDecimal}, which allows the numbers to be
+ * compared and hashed without creating {@code BigDecimal}.
+ * </p>
+ *
  * @author leadpony
  */
 abstract class JsonNumberImpl implements JsonNumber {
 
+    /*
+     * The unscaled value meaning that the value does not fit in a long.
+     */
+    static final long INFLATED = Long.MIN_VALUE;
+
     @Override
     public ValueType getValueType() {
         return ValueType.NUMBER;
@@ -33,6 +44,9 @@ abstract class JsonNumberImpl implements JsonNumber {
 
     @Override
     public boolean isIntegral() {
+        if (unscaledValue() != INFLATED) {
+            return scale() == 0;
+        }
         return bigDecimalValue().scale() == 0;
     }
 
@@ -82,6 +96,13 @@ abstract class JsonNumberImpl implements JsonNumber {
 
     @Override
     public int hashCode() {
+        final long value = unscaledValue();
+        if (value != INFLATED) {
+            // Computes in the same way as BigDecimal.hashCode().
+            final long abs = Math.abs(value);
+            int temp = (int) ((int) (abs >>> 32) * 31 + (abs & 0xffffffffL));
+            return 31 * ((value < 0) ? -temp : temp) + scale();
+        }
         return bigDecimalValue().hashCode();
     }
 
@@ -93,7 +114,35 @@ abstract class JsonNumberImpl implements JsonNumber {
         if (!(obj instanceof JsonNumber)) {
             return false;
         }
+        if (obj instanceof JsonNumberImpl) {
+            JsonNumberImpl other = (JsonNumberImpl) obj;
+            final long value = unscaledValue();
+            final long otherValue = other.unscaledValue();
+            if (value != INFLATED && otherValue != INFLATED) {
+                return value == otherValue && scale() == other.scale();
+            }
+        }
         JsonNumber other = (JsonNumber) obj;
         return bigDecimalValue().equals(other.bigDecimalValue());
     }
+
+    /**
+     * Returns the unscaled value of this number as {@code BigDecimal} does.
+     *
+     * @return the unscaled value, or {@link #INFLATED} if the value does not
+     *         fit in a long or is unknown.
+     */
+    long unscaledValue() {
+        return INFLATED;
+    }
+
+    /**
+     * Returns the scale of this number as {@code BigDecimal} does. This is
+     * valid only if {@link #unscaledValue()} is not {@link #INFLATED}.
+     *
+     * @return the scale of this number.
+     */
+    int scale() {
+        return 0;
+    }
 }
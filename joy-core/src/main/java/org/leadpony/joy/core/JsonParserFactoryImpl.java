@@ -17,47 +17,587 @@ package org.leadpony.joy.core;
 
 import static org.leadpony.joy.core.Preconditions.requireNonNull;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Map;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import jakarta.json.stream.JsonParser;
-import jakarta.json.stream.JsonParserFactory;
+import jakarta.json.JsonException;
+import jakarta.json.stream.JsonLocation;
+import jakarta.json.stream.JsonParsingException;
+
+import org.leadpony.joy.api.BufferPool;
+import org.leadpony.joy.api.FilteringJsonParser;
+import org.leadpony.joy.api.JsonEventTape;
+import org.leadpony.joy.api.JsonParser;
+import org.leadpony.joy.api.JsonParserFactory;
+import org.leadpony.joy.api.JsonPathQuery;
+import org.leadpony.joy.api.JsonRecord;
+import org.leadpony.joy.api.NonBlockingJsonParser;
+import org.leadpony.joy.api.ResettableJsonParser;
 
 /**
  * An implementation of {@link JsonParserFactory}.
  *
  * @author leadpony
  */
-class JsonParserFactoryImpl extends AbstractJsonParserFactory {
+class JsonParserFactoryImpl extends AbstractJsonParserFactory implements JsonParserFactory {
+
+    /**
+     * The default size of the windows of memory-mapped files.
+     */
+    private static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+    /**
+     * The maximum length of the arrays holding the whole input.
+     */
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
 
-    private final CharBufferFactory bufferFactory;
+    private static final int MIN_BUFFER_SIZE = 16;
+    private static final int DEFAULT_ADAPTIVE_BUFFER_SIZE = 1024;
+    private static final int DEFAULT_MAX_ADAPTIVE_BUFFER_SIZE = 1 << 20;
 
-    JsonParserFactoryImpl(Map<String, ?> config, CharBufferFactory bufferFactory) {
-        super(config);
-        this.bufferFactory = bufferFactory;
+    private static final String[] SUPPORTED_PROPERTIES = {
+        JsonParser.INTERN_KEY_NAMES,
+        JsonParser.LENIENT_SKIPPING,
+        JsonParser.MAX_NESTING_DEPTH,
+        JsonParser.OFFSET_ONLY_LOCATION,
+        JsonParser.BUFFER_SIZE,
+        JsonParser.ADAPTIVE_BUFFER_SIZE,
+        JsonParser.MAX_TOKEN_LENGTH,
+        JsonParser.WINDOW_SIZE,
+        JsonParser.MAX_STRING_LENGTH,
+        JsonParser.MAX_NUMBER_DIGITS,
+        JsonParser.MAX_NUMBER_EXPONENT,
+        JsonParser.MAX_ENTRIES,
+        JsonParser.MAX_DOCUMENT_LENGTH
+    };
+
+    private final PooledCharBufferFactory bufferFactory;
+    private final PooledByteBufferFactory byteBufferFactory;
+    private final SymbolTable symbolTable;
+    private final boolean lenientSkipping;
+    private final int maxNestingDepth;
+    private final boolean offsetOnlyLocation;
+    private final int maxTokenLength;
+    private final int windowSize;
+    private final int maxStringLength;
+    private final int maxNumberDigits;
+    private final int maxNumberExponent;
+    private final int maxEntries;
+    private final long maxDocumentLength;
+
+    JsonParserFactoryImpl(Map<String, ?> config,
+            PooledCharBufferFactory bufferFactory,
+            PooledByteBufferFactory byteBufferFactory) {
+        super(config, SUPPORTED_PROPERTIES);
+        if (containsProperty(JsonParser.ADAPTIVE_BUFFER_SIZE)) {
+            int capacity = getCapacity(bufferFactory);
+            int maxSize = getMaxBufferSize();
+            this.bufferFactory = new PooledCharBufferFactory(capacity,
+                    getBufferSize(bufferFactory, maxSize), maxSize);
+            this.byteBufferFactory = new PooledByteBufferFactory(capacity,
+                    getBufferSize(byteBufferFactory, maxSize), maxSize);
+        } else if (containsProperty(JsonParser.BUFFER_SIZE)) {
+            int capacity = getCapacity(bufferFactory);
+            this.bufferFactory = new PooledCharBufferFactory(capacity,
+                    getBufferSize(bufferFactory, Integer.MAX_VALUE));
+            this.byteBufferFactory = new PooledByteBufferFactory(capacity,
+                    getBufferSize(byteBufferFactory, Integer.MAX_VALUE));
+        } else {
+            this.bufferFactory = bufferFactory;
+            this.byteBufferFactory = byteBufferFactory;
+        }
+        this.symbolTable = createSymbolTable();
+        this.lenientSkipping = containsProperty(JsonParser.LENIENT_SKIPPING);
+        this.maxNestingDepth = getPropertyValue(JsonParser.MAX_NESTING_DEPTH, Integer.MAX_VALUE);
+        this.offsetOnlyLocation = containsProperty(JsonParser.OFFSET_ONLY_LOCATION);
+        this.maxTokenLength = getPropertyValue(JsonParser.MAX_TOKEN_LENGTH, Integer.MAX_VALUE);
+        int window = getPropertyValue(JsonParser.WINDOW_SIZE, DEFAULT_WINDOW_SIZE);
+        this.windowSize = (window > 0) ? window : DEFAULT_WINDOW_SIZE;
+        this.maxStringLength = getPropertyValue(JsonParser.MAX_STRING_LENGTH, Integer.MAX_VALUE);
+        this.maxNumberDigits = getPropertyValue(JsonParser.MAX_NUMBER_DIGITS, Integer.MAX_VALUE);
+        this.maxNumberExponent = getPropertyValue(JsonParser.MAX_NUMBER_EXPONENT, Integer.MAX_VALUE);
+        this.maxEntries = getPropertyValue(JsonParser.MAX_ENTRIES, Integer.MAX_VALUE);
+        this.maxDocumentLength = getLongPropertyValue(JsonParser.MAX_DOCUMENT_LENGTH, Long.MAX_VALUE);
     }
 
     @Override
     public JsonParser createParser(Reader reader) {
         requireNonNull(reader, "reader");
-        return new BasicJsonParser(reader, bufferFactory);
+        return configure(new BasicJsonParser(reader, bufferFactory));
     }
 
     @Override
     public JsonParser createParser(InputStream in) {
         requireNonNull(in, "in");
-        Reader reader = createStreamReader(in);
-        return new BasicJsonParser(reader, bufferFactory);
+        return configure(createStreamParser(in, bufferFactory, byteBufferFactory));
     }
 
     @Override
     public JsonParser createParser(InputStream in, Charset charset) {
         requireNonNull(in, "in");
         requireNonNull(charset, "charset");
+        if (charset.equals(StandardCharsets.UTF_8)) {
+            byte[] buffer = byteBufferFactory.createBuffer();
+            return configure(new Utf8JsonParser(in, buffer, 0, 0, byteBufferFactory));
+        }
         Reader reader = new InputStreamReader(in, charset);
+        return configure(new BasicJsonParser(reader, bufferFactory));
+    }
+
+    @Override
+    public JsonParser createParser(byte[] bytes) {
+        requireNonNull(bytes, "bytes");
+        return configure(createBufferParser(ByteBuffer.wrap(bytes), bufferFactory));
+    }
+
+    @Override
+    public JsonParser createParser(byte[] bytes, int offset, int length) {
+        requireNonNull(bytes, "bytes");
+        return configure(createBufferParser(ByteBuffer.wrap(bytes, offset, length), bufferFactory));
+    }
+
+    @Override
+    public JsonParser createParser(ByteBuffer buffer) {
+        requireNonNull(buffer, "buffer");
+        return configure(createBufferParser(buffer, bufferFactory));
+    }
+
+    @Override
+    public JsonParser createParser(Path path) {
+        requireNonNull(path, "path");
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new JsonException(Message.thatIOErrorOccurredWhileParserWasReading(), e);
+        }
+        try {
+            return configure(createChannelParser(channel, bufferFactory, byteBufferFactory, windowSize));
+        } catch (JsonException e) {
+            try {
+                channel.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public JsonParser createParser(FileChannel channel) {
+        requireNonNull(channel, "channel");
+        return configure(createChannelParser(channel, bufferFactory, byteBufferFactory, windowSize));
+    }
+
+    @Override
+    public NonBlockingJsonParser createNonBlockingParser() {
+        return configure(new NonBlockingJsonParserImpl(byteBufferFactory));
+    }
+
+    @Override
+    public ResettableJsonParser createResettableParser() {
+        return new ResettableJsonParserImpl(this);
+    }
+
+    @Override
+    public FilteringJsonParser createFilteringParser(jakarta.json.stream.JsonParser parser,
+            Collection<String> pointers) {
+        requireNonNull(parser, "parser");
+        requireNonNull(pointers, "pointers");
+        return new FilteringJsonParserImpl(parser, pointers);
+    }
+
+    @Override
+    public JsonPathQuery compileQuery(String path) {
+        requireNonNull(path, "path");
+        return JsonPathQueryImpl.compile(path);
+    }
+
+    @Override
+    public JsonEventTape recordTape(jakarta.json.stream.JsonParser parser) {
+        requireNonNull(parser, "parser");
+        return JsonEventTapeImpl.record(parser);
+    }
+
+    @Override
+    public Stream<JsonRecord> createRecordStream(Path path, JsonRecord.Format format) {
+        requireNonNull(path, "path");
+        requireNonNull(format, "format");
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new JsonException(Message.thatIOErrorOccurredWhileParserWasReading(), e);
+        }
+        try {
+            long size = channel.size();
+            JsonRecordSpliterator.Source source = (position, length) ->
+                    Utf8JsonParser.mapWindow(channel, position, length);
+            return createRecordStream(source, size, format).onClose(() -> {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    throw new JsonException(Message.thatIOErrorOccurredWhileParserWasClosing(), e);
+                }
+            });
+        } catch (IOException e) {
+            JsonException thrown = new JsonException(Message.thatIOErrorOccurredWhileParserWasReading(), e);
+            try {
+                channel.close();
+            } catch (IOException suppressed) {
+                thrown.addSuppressed(suppressed);
+            }
+            throw thrown;
+        }
+    }
+
+    @Override
+    public Stream<JsonRecord> createRecordStream(ByteBuffer buffer, JsonRecord.Format format) {
+        requireNonNull(buffer, "buffer");
+        requireNonNull(format, "format");
+        final ByteBuffer input = buffer.slice();
+        JsonRecordSpliterator.Source source = (position, length) -> {
+            ByteBuffer region = input.duplicate();
+            region.position((int) position).limit((int) position + length);
+            return region.slice();
+        };
+        return createRecordStream(source, input.remaining(), format);
+    }
+
+    @Override
+    public BufferPool getCharBufferPool() {
+        return bufferFactory;
+    }
+
+    @Override
+    public BufferPool getByteBufferPool() {
+        return byteBufferFactory;
+    }
+
+    /**
+     * Creates a parser of UTF-8 input for {@link ResettableJsonParserImpl},
+     * which has no input until it is reset.
+     *
+     * @return newly created parser.
+     */
+    Utf8JsonParser createByteParser() {
+        return configure(new Utf8JsonParser(byteBufferFactory));
+    }
+
+    /**
+     * Creates a parser of the specified reader for
+     * {@link ResettableJsonParserImpl}.
+     *
+     * @param reader the reader to parse.
+     * @return newly created parser.
+     */
+    BasicJsonParser createCharParser(Reader reader) {
+        return configure(new BasicJsonParser(reader, bufferFactory));
+    }
+
+    /**
+     * Returns the preferred size of the windows of memory-mapped files.
+     *
+     * @return the size of the windows in bytes.
+     */
+    int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Creates a parser of a record in the specified buffer. The parser can be
+     * reset by {@link Utf8JsonParser#reset(ByteBuffer, int)} for the following
+     * records.
+     *
+     * @param buffer the buffer whose limit is the end of the record.
+     * @param start  the index of the first byte of the record.
+     * @return newly created parser.
+     */
+    Utf8JsonParser createRecordParser(ByteBuffer buffer, int start) {
+        return configure(new Utf8JsonParser(buffer, start));
+    }
+
+    private Stream<JsonRecord> createRecordStream(JsonRecordSpliterator.Source source, long size,
+            JsonRecord.Format format) {
+        byte[] head = new byte[(int) Math.min(size, StreamReaders.HEAD_LENGTH)];
+        try {
+            source.map(0, head.length).get(head);
+        } catch (IOException e) {
+            throw new JsonException(Message.thatIOErrorOccurredWhileParserWasReading(), e);
+        }
+        int start = StreamReaders.getBomLength(StandardCharsets.UTF_8, head, head.length);
+        return StreamSupport.stream(new JsonRecordSpliterator(source, format, this, start, size), false);
+    }
+
+    private SymbolTable createSymbolTable() {
+        if (!containsProperty(JsonParser.INTERN_KEY_NAMES)) {
+            return null;
+        }
+        int size = getPropertyValue(JsonParser.INTERN_KEY_NAMES, SymbolTable.DEFAULT_SIZE);
+        return (size > 0) ? new SymbolTable(size) : null;
+    }
+
+    /**
+     * Returns the maximum number of buffers to keep in the pools of this
+     * factory, which is the same as the pool shared by the provider.
+     *
+     * @param shared the pool shared by the provider.
+     * @return the maximum number of buffers to keep.
+     */
+    private static int getCapacity(BufferPool shared) {
+        return shared.getCapacity();
+    }
+
+    /**
+     * Returns the initial size of the buffers created by this factory.
+     *
+     * @param shared  the pool shared by the provider.
+     * @param maxSize the maximum size of the buffers.
+     * @return the initial size of the buffers.
+     */
+    private int getBufferSize(BufferPool shared, int maxSize) {
+        int defaultSize = DEFAULT_ADAPTIVE_BUFFER_SIZE;
+        if (!containsProperty(JsonParser.ADAPTIVE_BUFFER_SIZE)) {
+            defaultSize = shared.getBufferSize();
+        }
+        int size = getPropertyValue(JsonParser.BUFFER_SIZE, defaultSize);
+        if (size <= 0) {
+            size = defaultSize;
+        }
+        return Math.min(Math.max(size, MIN_BUFFER_SIZE), maxSize);
+    }
+
+    /**
+     * Returns the maximum size of the buffers created and kept by this factory
+     * adapting the size of buffers.
+     *
+     * @return the maximum size of the buffers.
+     */
+    private int getMaxBufferSize() {
+        int size = getPropertyValue(JsonParser.ADAPTIVE_BUFFER_SIZE, DEFAULT_MAX_ADAPTIVE_BUFFER_SIZE);
+        return (size > 0) ? Math.max(size, MIN_BUFFER_SIZE) : DEFAULT_MAX_ADAPTIVE_BUFFER_SIZE;
+    }
+
+    private long getLongPropertyValue(String key, long defaultValue) {
+        Object value = getConfigInUse().get(key);
+        if (value instanceof Integer || value instanceof Long) {
+            return ((Number) value).longValue();
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Creates a parser which returns the arrays and objects decoded lazily
+     * from the specified input stream. The whole input is read at once and the
+     * stream is closed when the parser is closed. The parser falls back to the
+     * usual one unless the input is encoded in UTF-8.
+     *
+     * @param in the input stream.
+     * @return newly created parser.
+     */
+    JsonParser createLazyParser(InputStream in) {
+        requireNonNull(in, "in");
+        byte[] head = new byte[StreamReaders.HEAD_LENGTH];
+        int length = StreamReaders.readHead(in, head);
+        Charset charset = StreamReaders.detectEncoding(head, length);
+        if (charset.equals(StandardCharsets.UTF_8)) {
+            int bomLength = StreamReaders.getBomLength(charset, head, length);
+            ByteBuffer buffer = readWholeInput(in, head, length, bomLength);
+            return configure(new LazyJsonParser(buffer, bomLength, in));
+        }
+        // The input stream at its end is closed along with the bytes read.
+        InputStream bytes = new ByteArrayInputStream(head, 0, length);
+        return configure(createStreamParser(new SequenceInputStream(bytes, in), bufferFactory, byteBufferFactory));
+    }
+
+    /**
+     * Reads the whole UTF-8 input for a lazy parser. The reading stops at the
+     * first byte beyond {@link JsonParser#MAX_DOCUMENT_LENGTH}, which the
+     * parser reports, and fails as soon as a token exceeds
+     * {@link JsonParser#MAX_TOKEN_LENGTH}.
+     *
+     * @param in         the input stream to read.
+     * @param head       the first bytes already read.
+     * @param headLength the number of the first bytes.
+     * @param bomLength  the length of the byte order mark.
+     * @return the buffer containing the bytes read, whose limit is the number
+     *         of the bytes.
+     * @throws JsonParsingException if a token exceeds the maximum length.
+     */
+    private ByteBuffer readWholeInput(InputStream in, byte[] head, int headLength, int bomLength) {
+        final long maxLength = (maxDocumentLength < MAX_ARRAY_LENGTH)
+                ? bomLength + maxDocumentLength + 1 : MAX_ARRAY_LENGTH;
+        byte[] buffer = Arrays.copyOf(head, (int) Math.min(8192, Math.max(maxLength, headLength)));
+        int length = headLength;
+        final TokenScanner scanner = (maxTokenLength < Integer.MAX_VALUE) ? new TokenScanner() : null;
+        int scanned = bomLength;
+        try {
+            while (length < maxLength) {
+                if (length == buffer.length) {
+                    if (length >= MAX_ARRAY_LENGTH) {
+                        throw new OutOfMemoryError();
+                    }
+                    buffer = Arrays.copyOf(buffer, (int) Math.min(length * 2L, maxLength));
+                }
+                int bytesRead = in.read(buffer, length, buffer.length - length);
+                if (bytesRead < 0) {
+                    break;
+                }
+                length += bytesRead;
+                if (scanner != null) {
+                    scanned = checkTokenLength(scanner, buffer, scanned, length);
+                }
+            }
+        } catch (IOException e) {
+            throw new JsonException(Message.thatIOErrorOccurredWhileParserWasReading(), e);
+        }
+        return ByteBuffer.wrap(buffer, 0, length);
+    }
+
+    /**
+     * Scans the tokens in the bytes newly read.
+     *
+     * @param scanner the scanner of the tokens.
+     * @param bytes   the bytes read.
+     * @param index   the index of the first byte to scan.
+     * @param end     the end of the bytes read.
+     * @return the index following the last byte scanned.
+     * @throws JsonParsingException if a token exceeds the maximum length.
+     */
+    private int checkTokenLength(TokenScanner scanner, byte[] bytes, int index, int end) {
+        while (index < end) {
+            index = scanner.scan(bytes, index, end);
+            if (scanner.getTokenLength() > maxTokenLength) {
+                // Reports the first byte beyond the maximum length.
+                long offset = scanner.getTokenStart() + maxTokenLength;
+                JsonLocation location = offsetOnlyLocation
+                        ? new BasicJsonLocation(offset)
+                        : new BasicJsonLocation(scanner.getLineNumber(), 1 + offset - scanner.getLineOffset(), offset);
+                String message = Message.thatTokenLengthExceededLimit(location, maxTokenLength);
+                throw new JsonParsingException(message, location);
+            }
+            if (scanner.hasEnded()) {
+                scanner.startNext();
+            }
+        }
+        return index;
+    }
+
+    private <T extends AbstractStreamJsonParser> T configure(T parser) {
+        parser.setSymbolTable(symbolTable);
+        parser.setLenientSkipping(lenientSkipping);
+        parser.setMaxNestingDepth(maxNestingDepth);
+        parser.setTrackingLines(!offsetOnlyLocation);
+        parser.setMaxTokenLength(maxTokenLength);
+        parser.setMaxStringLength(maxStringLength);
+        parser.setMaxNumberDigits(maxNumberDigits);
+        parser.setMaxNumberExponent(maxNumberExponent);
+        parser.setMaxEntries(maxEntries);
+        parser.setMaxDocumentLength(maxDocumentLength);
+        return parser;
+    }
+
+    /**
+     * Creates a parser reading the specified file channel from its current
+     * position to its end. The encoding of the input is detected automatically
+     * and UTF-8 input is parsed through the memory-mapped windows of the file.
+     *
+     * @param channel           the file channel to read.
+     * @param bufferFactory     the factory of char buffers.
+     * @param byteBufferFactory the factory of byte buffers.
+     * @param windowSize        the preferred size of the windows.
+     * @return newly created parser.
+     */
+    static AbstractStreamJsonParser createChannelParser(FileChannel channel,
+            CharBufferFactory bufferFactory,
+            ByteBufferFactory byteBufferFactory,
+            int windowSize) {
+        try {
+            final long position = channel.position();
+            final long end = channel.size();
+            final long size = Math.min(Math.max(end - position, 0),
+                    Math.max(windowSize, StreamReaders.HEAD_LENGTH));
+            ByteBuffer window = Utf8JsonParser.mapWindow(channel, position, size);
+            byte[] head = new byte[StreamReaders.HEAD_LENGTH];
+            int length = (int) Math.min(head.length, size);
+            for (int i = 0; i < length; i++) {
+                head[i] = window.get(i);
+            }
+            Charset charset = StreamReaders.detectEncoding(head, length);
+            if (charset.equals(StandardCharsets.UTF_8)) {
+                int bomLength = StreamReaders.getBomLength(charset, head, length);
+                return new Utf8JsonParser(channel, window, position, bomLength, end, windowSize);
+            }
+            InputStream in = Channels.newInputStream(channel);
+            return createStreamParser(in, bufferFactory, byteBufferFactory);
+        } catch (IOException e) {
+            throw new JsonException(Message.thatIOErrorOccurredWhileParserWasReading(), e);
+        }
+    }
+
+    /**
+     * Creates a parser reading the remaining bytes in the specified buffer. The
+     * encoding of the input is detected automatically and UTF-8 input is
+     * parsed in place.
+     *
+     * @param buffer        the buffer containing the whole input.
+     * @param bufferFactory the factory of char buffers.
+     * @return newly created parser.
+     */
+    static AbstractStreamJsonParser createBufferParser(ByteBuffer buffer, CharBufferFactory bufferFactory) {
+        final int start = buffer.position();
+        byte[] head = new byte[StreamReaders.HEAD_LENGTH];
+        int length = Math.min(head.length, buffer.remaining());
+        for (int i = 0; i < length; i++) {
+            head[i] = buffer.get(start + i);
+        }
+        Charset charset = StreamReaders.detectEncoding(head, length);
+        int bomLength = StreamReaders.getBomLength(charset, head, length);
+        if (charset.equals(StandardCharsets.UTF_8)) {
+            return new Utf8JsonParser(buffer, start + bomLength);
+        }
+        Reader reader = StreamReaders.createReader(buffer, charset, start + bomLength);
+        return new BasicJsonParser(reader, bufferFactory);
+    }
+
+    /**
+     * Creates a parser reading the specified input stream. The encoding of the
+     * input is detected automatically and UTF-8 input is parsed without
+     * decoding it into characters in advance.
+     *
+     * @param in                the input stream.
+     * @param bufferFactory     the factory of char buffers.
+     * @param byteBufferFactory the factory of byte buffers.
+     * @return newly created parser.
+     */
+    static AbstractStreamJsonParser createStreamParser(InputStream in,
+            CharBufferFactory bufferFactory,
+            ByteBufferFactory byteBufferFactory) {
+        byte[] buffer = byteBufferFactory.createBuffer();
+        int length = StreamReaders.readHead(in, buffer);
+        Charset charset = StreamReaders.detectEncoding(buffer, length);
+        int bomLength = StreamReaders.getBomLength(charset, buffer, length);
+        if (charset.equals(StandardCharsets.UTF_8)) {
+            return new Utf8JsonParser(in, buffer, bomLength, length, byteBufferFactory);
+        }
+        Reader reader = StreamReaders.createReader(in, charset, buffer, length);
+        byteBufferFactory.releaseBuffer(buffer);
         return new BasicJsonParser(reader, bufferFactory);
     }
 }
@@ -0,0 +1,506 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+import static org.leadpony.joy.core.Preconditions.requireNonNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import jakarta.json.JsonException;
+import jakarta.json.JsonValue;
+import jakarta.json.JsonValue.ValueType;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+
+import org.leadpony.joy.api.JsonPathQuery;
+
+/**
+ * An implementation of {@link JsonPathQuery}.
+ *
+ * <p>
+ * The selectors of the query are compiled into a nondeterministic automaton
+ * whose state {@code i} means that the first {@code i} selectors have been
+ * matched. The set of the active states is held in the bits of a
+ * {@code long}, which is computed for each value from the set of its parent.
+ * A recursive selector keeps its state active for all the descendants.
+ * </p>
+ *
+ * @author leadpony
+ */
+final class JsonPathQueryImpl implements JsonPathQuery {
+
+    /**
+     * The maximum number of the selectors, leaving a bit for the final state.
+     */
+    static final int MAX_SELECTORS = Long.SIZE - 1;
+
+    private static final long INITIAL_STATE = 1L;
+    private static final int INITIAL_DEPTH = 16;
+
+    private final String path;
+    private final Selector[] selectors;
+    private final long finalState;
+    // The states whose selectors need the key names.
+    private final long namedStates;
+
+    /**
+     * Compiles the specified JSONPath.
+     *
+     * @param path the JSONPath to compile.
+     * @return the compiled query.
+     * @throws JsonException if the path is invalid.
+     */
+    static JsonPathQueryImpl compile(String path) {
+        List<Selector> selectors = new PathParser(path).parse();
+        if (selectors.size() > MAX_SELECTORS) {
+            throw new JsonException(Message.thatJsonPathHasTooManySelectors(path, MAX_SELECTORS));
+        }
+        return new JsonPathQueryImpl(path, selectors.toArray(new Selector[0]));
+    }
+
+    private JsonPathQueryImpl(String path, Selector[] selectors) {
+        this.path = path;
+        this.selectors = selectors;
+        this.finalState = 1L << selectors.length;
+        long namedStates = 0;
+        for (int i = 0; i < selectors.length; i++) {
+            if (selectors[i].kind == Kind.NAME) {
+                namedStates |= 1L << i;
+            }
+        }
+        this.namedStates = namedStates;
+    }
+
+    @Override
+    public Stream<JsonValue> select(JsonParser parser) {
+        requireNonNull(parser, "parser");
+        return StreamSupport.stream(new Matcher(parser), false);
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+
+    /**
+     * Returns the states of a child from the states of its parent.
+     *
+     * @param states the states of the parent.
+     * @param key    the key of the child in an object, or {@code null}.
+     * @param index  the index of the child in an array, or -1.
+     * @return the states of the child, 0 if no selector can match.
+     */
+    private long transit(long states, String key, int index) {
+        long next = 0;
+        long remaining = states & ~finalState;
+        while (remaining != 0) {
+            int i = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            Selector selector = selectors[i];
+            if (selector.matches(key, index)) {
+                next |= 1L << (i + 1);
+            }
+            if (selector.recursive) {
+                next |= 1L << i;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * A spliterator selecting the values from the events of a parser.
+     *
+     * @author leadpony
+     */
+    private final class Matcher extends JsonStreams.AbstractSpliterator<JsonValue> {
+
+        private final JsonParser parser;
+        // The values selected but not consumed yet.
+        private final Deque<JsonValue> found = new ArrayDeque<>();
+
+        // The states, the kind and the last index of the enclosing arrays and objects.
+        private long[] states = new long[INITIAL_DEPTH];
+        private boolean[] arrays = new boolean[INITIAL_DEPTH];
+        private int[] indices = new int[INITIAL_DEPTH];
+        private int depth;
+        private String key;
+
+        Matcher(JsonParser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        boolean advance(Consumer<? super JsonValue> action) {
+            while (found.isEmpty()) {
+                if (!parser.hasNext()) {
+                    return false;
+                }
+                handleEvent(parser.next());
+            }
+            action.accept(found.poll());
+            return true;
+        }
+
+        private void handleEvent(Event event) {
+            switch (event) {
+            case KEY_NAME:
+                if ((states[depth - 1] & namedStates) != 0) {
+                    this.key = parser.getString();
+                }
+                return;
+            case END_ARRAY:
+            case END_OBJECT:
+                depth--;
+                return;
+            default:
+                break;
+            }
+
+            long next;
+            if (depth == 0) {
+                next = INITIAL_STATE;
+            } else if (arrays[depth - 1]) {
+                next = transit(states[depth - 1], null, ++indices[depth - 1]);
+            } else {
+                next = transit(states[depth - 1], key, -1);
+            }
+
+            if ((next & finalState) != 0) {
+                JsonValue value = parser.getValue();
+                found.add(value);
+                long live = next & ~finalState;
+                if (live != 0 && JsonValues.isStructure(value)) {
+                    collect(value, live);
+                }
+            } else if (event == Event.START_ARRAY) {
+                if (next == 0) {
+                    parser.skipArray();
+                } else {
+                    push(next, true);
+                }
+            } else if (event == Event.START_OBJECT) {
+                if (next == 0) {
+                    parser.skipObject();
+                } else {
+                    push(next, false);
+                }
+            }
+        }
+
+        private void push(long next, boolean array) {
+            if (depth == states.length) {
+                int length = depth * 2;
+                states = Arrays.copyOf(states, length);
+                arrays = Arrays.copyOf(arrays, length);
+                indices = Arrays.copyOf(indices, length);
+            }
+            states[depth] = next;
+            arrays[depth] = array;
+            indices[depth] = -1;
+            depth++;
+        }
+
+        /**
+         * Selects the values inside the value already selected and built.
+         *
+         * @param value  the array or object selected.
+         * @param states the states of the value except the final state.
+         */
+        private void collect(JsonValue value, long states) {
+            Deque<Cursor> cursors = new ArrayDeque<>();
+            cursors.push(new Cursor(value, states));
+            while (!cursors.isEmpty()) {
+                Cursor cursor = cursors.peek();
+                if (!cursor.hasNext()) {
+                    cursors.pop();
+                    continue;
+                }
+                JsonValue child = cursor.next();
+                long next = transit(cursor.states, cursor.key, cursor.index);
+                if ((next & finalState) != 0) {
+                    found.add(child);
+                }
+                long live = next & ~finalState;
+                if (live != 0 && JsonValues.isStructure(child)) {
+                    cursors.push(new Cursor(child, live));
+                }
+            }
+        }
+    }
+
+    /**
+     * A cursor over the items of an array or the properties of an object.
+     *
+     * @author leadpony
+     */
+    private static final class Cursor {
+
+        private final long states;
+        private final Iterator<JsonValue> items;
+        private final Iterator<Map.Entry<String, JsonValue>> properties;
+        private String key;
+        private int index = -1;
+
+        Cursor(JsonValue value, long states) {
+            this.states = states;
+            if (value.getValueType() == ValueType.ARRAY) {
+                this.items = value.asJsonArray().iterator();
+                this.properties = null;
+            } else {
+                this.items = null;
+                this.properties = value.asJsonObject().entrySet().iterator();
+            }
+        }
+
+        boolean hasNext() {
+            return (items != null) ? items.hasNext() : properties.hasNext();
+        }
+
+        JsonValue next() {
+            if (items != null) {
+                index++;
+                return items.next();
+            }
+            Map.Entry<String, JsonValue> entry = properties.next();
+            this.key = entry.getKey();
+            return entry.getValue();
+        }
+    }
+
+    /**
+     * The kinds of the selectors.
+     *
+     * @author leadpony
+     */
+    private enum Kind {
+        NAME,
+        WILDCARD,
+        SLICE
+    }
+
+    /**
+     * A selector in a query.
+     *
+     * @author leadpony
+     */
+    private static final class Selector {
+
+        private final Kind kind;
+        private final boolean recursive;
+        private final String name;
+        private final int start;
+        private final int end;
+        private final int step;
+
+        private Selector(Kind kind, boolean recursive, String name, int start, int end, int step) {
+            this.kind = kind;
+            this.recursive = recursive;
+            this.name = name;
+            this.start = start;
+            this.end = end;
+            this.step = step;
+        }
+
+        static Selector name(String name, boolean recursive) {
+            return new Selector(Kind.NAME, recursive, name, 0, 0, 0);
+        }
+
+        static Selector wildcard(boolean recursive) {
+            return new Selector(Kind.WILDCARD, recursive, null, 0, 0, 0);
+        }
+
+        static Selector slice(int start, int end, int step, boolean recursive) {
+            return new Selector(Kind.SLICE, recursive, null, start, end, step);
+        }
+
+        boolean matches(String key, int index) {
+            switch (kind) {
+            case NAME:
+                return name.equals(key);
+            case WILDCARD:
+                return true;
+            default:
+                return index >= start && index < end && (index - start) % step == 0;
+            }
+        }
+    }
+
+    /**
+     * A parser of JSONPath.
+     *
+     * @author leadpony
+     */
+    private static final class PathParser {
+
+        private static final int EOI = -1;
+
+        private final String path;
+        private int pos;
+
+        PathParser(String path) {
+            this.path = path;
+        }
+
+        List<Selector> parse() {
+            if (!path.startsWith("$")) {
+                throw newInvalidPathException(0);
+            }
+            this.pos = 1;
+            List<Selector> selectors = new ArrayList<>();
+            while (pos < path.length()) {
+                selectors.add(parseSelector());
+            }
+            return selectors;
+        }
+
+        private Selector parseSelector() {
+            if (peek() == '[') {
+                return parseBracket(false);
+            } else if (peek() != '.') {
+                throw newInvalidPathException(pos);
+            }
+            pos++;
+            boolean recursive = false;
+            if (peek() == '.') {
+                recursive = true;
+                pos++;
+                if (peek() == '[') {
+                    return parseBracket(true);
+                }
+            }
+            if (peek() == '*') {
+                pos++;
+                return Selector.wildcard(recursive);
+            }
+            final int start = pos;
+            while (peek() != EOI && peek() != '.' && peek() != '[') {
+                pos++;
+            }
+            if (pos == start) {
+                throw newInvalidPathException(pos);
+            }
+            return Selector.name(path.substring(start, pos), recursive);
+        }
+
+        private Selector parseBracket(boolean recursive) {
+            // skips '['
+            pos++;
+            Selector selector;
+            int c = peek();
+            if (c == '*') {
+                pos++;
+                selector = Selector.wildcard(recursive);
+            } else if (c == '\'' || c == '"') {
+                selector = Selector.name(parseQuotedName((char) c), recursive);
+            } else {
+                selector = parseSlice(recursive);
+            }
+            if (peek() != ']') {
+                throw newInvalidPathException(pos);
+            }
+            pos++;
+            return selector;
+        }
+
+        private String parseQuotedName(char quote) {
+            // skips the opening quote
+            pos++;
+            StringBuilder builder = new StringBuilder();
+            while (pos < path.length()) {
+                char c = path.charAt(pos++);
+                if (c == quote) {
+                    return builder.toString();
+                } else if (c == '\\') {
+                    if (pos >= path.length()) {
+                        break;
+                    }
+                    c = path.charAt(pos++);
+                }
+                builder.append(c);
+            }
+            throw newInvalidPathException(pos);
+        }
+
+        private Selector parseSlice(boolean recursive) {
+            int start = parseIndex();
+            if (peek() != ':') {
+                if (start < 0) {
+                    throw newInvalidPathException(pos);
+                }
+                return Selector.slice(start, start + 1, 1, recursive);
+            }
+            pos++;
+            int end = parseIndex();
+            int step = 1;
+            if (peek() == ':') {
+                pos++;
+                final int stepPos = pos;
+                if (peek() == '-') {
+                    // Selecting items backward requires the length of the array.
+                    throw new JsonException(Message.thatJsonPathHasNegativeStep(path, stepPos));
+                }
+                int parsed = parseIndex();
+                if (parsed == 0) {
+                    throw newInvalidPathException(stepPos);
+                } else if (parsed > 0) {
+                    step = parsed;
+                }
+            }
+            return Selector.slice(
+                    Math.max(start, 0),
+                    (end < 0) ? Integer.MAX_VALUE : end,
+                    step,
+                    recursive);
+        }
+
+        /**
+         * Parses a non-negative index.
+         *
+         * @return the index parsed, or -1 if no digits were found.
+         */
+        private int parseIndex() {
+            final int start = pos;
+            long value = 0;
+            int c = peek();
+            while ('0' <= c && c <= '9') {
+                value = value * 10 + (c - '0');
+                if (value >= Integer.MAX_VALUE) {
+                    throw newInvalidPathException(start);
+                }
+                pos++;
+                c = peek();
+            }
+            return (pos == start) ? -1 : (int) value;
+        }
+
+        private int peek() {
+            return (pos < path.length()) ? path.charAt(pos) : EOI;
+        }
+
+        private JsonException newInvalidPathException(int index) {
+            return new JsonException(Message.thatJsonPathIsInvalid(path, index));
+        }
+    }
+}
@@ -18,6 +18,7 @@ package org.leadpony.joy.core;
 import static org.leadpony.joy.core.Preconditions.requireNonNull;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -52,6 +53,30 @@ final class JsonPointerImpl implements ExtendedJsonPointer {
         return createPointer(jsonPointer);
     }
 
+    /**
+     * Parses the reference tokens of the specified JSON pointer.
+     *
+     * @param jsonPointer the JSON pointer to parse.
+     * @return the unescaped reference tokens, empty for the whole document.
+     * @throws JsonException if the JSON pointer is invalid.
+     */
+    static List<String> parseTokens(String jsonPointer) {
+        if (jsonPointer.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        if (jsonPointer.charAt(0) != '/') {
+            throw newInvalidPointerException(Message.thatJsonPointerMustStartWithSlash());
+        }
+
+        List<Token> tokens = parseReferenceTokens(jsonPointer);
+        List<String> result = new ArrayList<>(tokens.size());
+        for (Token token : tokens) {
+            result.add(token.toString());
+        }
+        return result;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public <T extends JsonStructure> T add(T target, JsonValue value) {
@@ -18,6 +18,7 @@ package org.leadpony.joy.core;
 import java.io.InputStream;
 import java.io.Reader;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 import jakarta.json.JsonReader;
@@ -32,11 +33,18 @@ import jakarta.json.stream.JsonParserFactory;
  */
 class JsonReaderFactoryImpl extends ConfigurableFactory implements JsonReaderFactory {
 
+    private static final String[] SUPPORTED_PROPERTIES = {
+        org.leadpony.joy.api.JsonParser.LAZY_STRUCTURES
+    };
+
     private final JsonParserFactory parserFactory;
+    private final boolean lazyStructures;
 
     JsonReaderFactoryImpl(Map<String, ?> config, JsonParserFactory parserFactory) {
-        super(config);
+        super(config, SUPPORTED_PROPERTIES);
         this.parserFactory = parserFactory;
+        this.lazyStructures = containsProperty(org.leadpony.joy.api.JsonParser.LAZY_STRUCTURES)
+                && parserFactory instanceof JsonParserFactoryImpl;
     }
 
     @Override
@@ -47,16 +55,27 @@ class JsonReaderFactoryImpl extends ConfigurableFactory implements JsonReaderFac
 
     @Override
     public JsonReader createReader(InputStream in) {
+        if (lazyStructures) {
+            return createLazyReader(in);
+        }
         JsonParser parser = getParserFactory().createParser(in);
         return new JsonReaderImpl(parser);
     }
 
     @Override
     public JsonReader createReader(InputStream in, Charset charset) {
+        if (lazyStructures && StandardCharsets.UTF_8.equals(charset)) {
+            return createLazyReader(in);
+        }
         JsonParser parser = getParserFactory().createParser(in, charset);
         return new JsonReaderImpl(parser);
     }
 
+    private JsonReader createLazyReader(InputStream in) {
+        JsonParser parser = ((JsonParserFactoryImpl) parserFactory).createLazyParser(in);
+        return new JsonReaderImpl(parser);
+    }
+
     private JsonParserFactory getParserFactory() {
         return parserFactory;
     }
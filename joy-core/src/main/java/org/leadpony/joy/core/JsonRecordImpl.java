@@ -0,0 +1,51 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+import jakarta.json.JsonValue;
+
+import org.leadpony.joy.api.JsonRecord;
+
+/**
+ * An implementation of {@link JsonRecord}.
+ *
+ * @author leadpony
+ */
+final class JsonRecordImpl implements JsonRecord {
+
+    private final long offset;
+    private final JsonValue value;
+
+    JsonRecordImpl(long offset, JsonValue value) {
+        this.offset = offset;
+        this.value = value;
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public JsonValue getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return offset + ":" + value;
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import jakarta.json.JsonException;
+import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonParsingException;
+
+import org.leadpony.joy.api.JsonRecord;
+
+/**
+ * A spliterator of the records in a range of UTF-8 input.
+ *
+ * <p>
+ * The records are the runs of bytes between separators, which are line feeds
+ * for JSON Lines or record separators for JSON text sequences. Neither of the
+ * separators can appear inside a JSON value except as whitespace between
+ * tokens in JSON Lines, which is not allowed by the format. Therefore the
+ * input can be split at any separator without parsing the preceding bytes.
+ * </p>
+ *
+ * <p>
+ * The input is read through windows, each of which is a region of the input
+ * mapped into memory or sliced from a buffer. Each record is parsed in place
+ * by a {@link Utf8JsonParser}, which is created once for each spliterator and
+ * reset for the following records.
+ * </p>
+ *
+ * @author leadpony
+ */
+final class JsonRecordSpliterator implements Spliterator<JsonRecord> {
+
+    // The minimum size in bytes of the ranges split off.
+    private static final int MIN_SPLIT_SIZE = 1 << 16;
+    // The size of the regions scanned for a separator at once.
+    private static final int SCAN_SIZE = 1 << 16;
+
+    private static final byte LINE_FEED = '\n';
+    private static final byte RECORD_SEPARATOR = 0x1e;
+
+    private final Source source;
+    private final byte separator;
+    private final JsonParserFactoryImpl factory;
+
+    // The position of the next record.
+    private long position;
+    private final long end;
+
+    private ByteBuffer window;
+    // The position in the input at which the current window starts.
+    private long windowPosition;
+
+    // The parser of the records, which is created for the first record.
+    private Utf8JsonParser parser;
+
+    /**
+     * Constructs this spliterator.
+     *
+     * @param source  the source of the input.
+     * @param format  the format of the input.
+     * @param factory the factory of the parsers.
+     * @param start   the position of the first byte in the input.
+     * @param end     the position of the end of the input.
+     */
+    JsonRecordSpliterator(Source source, JsonRecord.Format format, JsonParserFactoryImpl factory,
+            long start, long end) {
+        this(source, separatorOf(format), factory, start, end);
+    }
+
+    private JsonRecordSpliterator(Source source, byte separator, JsonParserFactoryImpl factory,
+            long start, long end) {
+        this.source = source;
+        this.separator = separator;
+        this.factory = factory;
+        this.position = start;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super JsonRecord> action) {
+        while (position < end) {
+            if (window == null || position >= windowPosition + window.limit()) {
+                mapWindow(Math.min(end - position, factory.getWindowSize()));
+            }
+            final int start = (int) (position - windowPosition);
+            int found = indexOf(window, separator, start, window.limit());
+            if (found < 0) {
+                long windowEnd = windowPosition + window.limit();
+                if (windowEnd < end) {
+                    // The record continues beyond the current window.
+                    if (start == 0 && window.limit() == Integer.MAX_VALUE) {
+                        throw new JsonException(Message.thatJsonRecordIsTooLarge(position));
+                    }
+                    mapWindow(Math.min(end - position, Math.max(factory.getWindowSize(), window.limit() * 2L)));
+                    continue;
+                }
+                found = window.limit();
+            }
+            final long offset = position;
+            position = windowPosition + found + 1;
+            if (!isBlank(window, start, found)) {
+                action.accept(readRecord(start, found, offset));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Spliterator<JsonRecord> trySplit() {
+        final long size = end - position;
+        if (size < MIN_SPLIT_SIZE * 2L) {
+            return null;
+        }
+        final long boundary = findBoundary(position + size / 2);
+        if (boundary < 0 || boundary >= end) {
+            return null;
+        }
+        Spliterator<JsonRecord> prefix = new JsonRecordSpliterator(
+                source, separator, factory, position, boundary);
+        this.position = boundary;
+        return prefix;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * This spliterator returns the number of bytes remaining, which is
+     * proportional to the number of records for most input.
+     * </p>
+     */
+    @Override
+    public long estimateSize() {
+        return end - position;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+
+    /**
+     * Finds the position next to the first separator at or after the
+     * specified position.
+     *
+     * @param from the position to start the scanning.
+     * @return the position found, or -1 if no separator was found.
+     */
+    private long findBoundary(long from) {
+        while (from < end) {
+            int size = (int) Math.min(end - from, SCAN_SIZE);
+            ByteBuffer region = map(from, size);
+            int found = indexOf(region, separator, 0, size);
+            if (found >= 0) {
+                return from + found + 1;
+            }
+            from += size;
+        }
+        return -1;
+    }
+
+    private void mapWindow(long size) {
+        this.window = map(position, (int) Math.min(size, Integer.MAX_VALUE));
+        this.windowPosition = position;
+    }
+
+    private ByteBuffer map(long position, int size) {
+        try {
+            return source.map(position, size).order(ByteOrder.LITTLE_ENDIAN);
+        } catch (IOException e) {
+            throw new JsonException(Message.thatIOErrorOccurredWhileParserWasReading(), e);
+        }
+    }
+
+    private JsonRecord readRecord(int start, int end, long offset) {
+        // The duplicate is in big-endian byte order.
+        ByteBuffer buffer = window.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        buffer.limit(end);
+        Utf8JsonParser parser = this.parser;
+        if (parser == null) {
+            parser = factory.createRecordParser(buffer, start);
+            this.parser = parser;
+        } else {
+            parser.reset(buffer, start);
+        }
+        try {
+            parser.next();
+            JsonValue value = parser.getValue();
+            // Rejects anything following the value.
+            parser.hasNext();
+            return new JsonRecordImpl(offset, value);
+        } catch (JsonParsingException e) {
+            String message = Message.thatJsonRecordIsInvalid(offset, e.getMessage());
+            throw new JsonParsingException(message, e, e.getLocation());
+        } finally {
+            parser.closeInput();
+        }
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte b, int from, int to) {
+        final long pattern = Swar.repeat(b);
+        final int lastWord = to - Swar.WORD_BYTES;
+        int i = from;
+        while (i <= lastWord) {
+            long mask = Swar.zeroBytes(buffer.getLong(i) ^ pattern);
+            if (mask != 0) {
+                return i + Swar.firstIndex(mask);
+            }
+            i += Swar.WORD_BYTES;
+        }
+        for (; i < to; i++) {
+            if (buffer.get(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isBlank(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b != 0x20 && b != '\t' && b != '\n' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte separatorOf(JsonRecord.Format format) {
+        return (format == JsonRecord.Format.LINES) ? LINE_FEED : RECORD_SEPARATOR;
+    }
+
+    /**
+     * A source of the input.
+     *
+     * @author leadpony
+     */
+    @FunctionalInterface
+    interface Source {
+
+        /**
+         * Returns a region of the input, whose first byte is at index 0.
+         *
+         * @param position the position in the input at which the region
+         *                 starts.
+         * @param size     the size of the region.
+         * @return the region of the input.
+         * @throws IOException if an I/O error occurred.
+         */
+        ByteBuffer map(long position, int size) throws IOException;
+    }
+}
@@ -41,7 +41,7 @@ final class JsonStreams {
     static Stream<JsonValue> arrayStream(JsonParser parser) {
         Spliterator<JsonValue> spliterator = new AbstractSpliterator<JsonValue>() {
             @Override
-            public boolean tryAdvance(Consumer<? super JsonValue> action) {
+            boolean advance(Consumer<? super JsonValue> action) {
                 if (parser.hasNext() && parser.next() != Event.END_ARRAY) {
                     action.accept(parser.getValue());
                     return true;
@@ -57,7 +57,7 @@ final class JsonStreams {
         Spliterator<Entry<String, JsonValue>> spliterator = new AbstractSpliterator<Entry<String, JsonValue>>() {
 
             @Override
-            public boolean tryAdvance(Consumer<? super Map.Entry<String, JsonValue>> action) {
+            boolean advance(Consumer<? super Map.Entry<String, JsonValue>> action) {
                 if (!parser.hasNext()) {
                     return false;
                 }
@@ -90,7 +90,7 @@ final class JsonStreams {
         Spliterator<JsonValue> spliterator = new AbstractSpliterator<JsonValue>() {
 
             @Override
-            public boolean tryAdvance(Consumer<? super JsonValue> action) {
+            boolean advance(Consumer<? super JsonValue> action) {
                 if (parser.hasNext()) {
                     parser.next();
                     action.accept(parser.getValue());
@@ -108,20 +108,48 @@ final class JsonStreams {
 
     /**
      * A skeletal implementation of {@link Spliterator}.
+     *
+     * <p>
+     * The parser can be read only sequentially. For parallel streams,
+     * {@link #trySplit()} inherited from the base class reads ahead a batch of
+     * elements on the calling thread and splits them off as an array, so that
+     * the following operations on the elements run on other threads. The size
+     * of the batches grows as the stream is split repeatedly. Sequential
+     * streams never split and read the parser one element at a time.
+     * </p>
+     *
      * @author leadpony
      *
      * @param <T> the type of stream element.
      */
-    private abstract static class AbstractSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+    abstract static class AbstractSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+        // Whether the last element has already been consumed or not.
+        private boolean finished;
 
         protected AbstractSpliterator() {
             super(Long.MAX_VALUE, Spliterator.ORDERED);
         }
 
         @Override
-        public Spliterator<T> trySplit() {
-            // this spliterator cannot be split
-            return null;
+        public final boolean tryAdvance(Consumer<? super T> action) {
+            if (finished) {
+                return false;
+            }
+            if (advance(action)) {
+                return true;
+            }
+            // The parser must not be read any more once the end was found.
+            finished = true;
+            return false;
         }
+
+        /**
+         * Reads the next element from the parser.
+         *
+         * @param action the action to perform on the element.
+         * @return {@code false} if no elements remain.
+         */
+        abstract boolean advance(Consumer<? super T> action);
     }
 }
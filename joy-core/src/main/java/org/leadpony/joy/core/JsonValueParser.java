@@ -129,6 +129,15 @@ class JsonValueParser extends AbstractJsonParser {
         return number.bigDecimalValue();
     }
 
+    @Override
+    public double getDouble() {
+        if (getCurrentEvent() != Event.VALUE_NUMBER) {
+            throw newIllegalStateException("getDouble");
+        }
+        JsonNumber number = (JsonNumber) scope.getValue();
+        return number.doubleValue();
+    }
+
     @Override
     public JsonLocation getLocation() {
         return BasicJsonLocation.UNKNOWN;
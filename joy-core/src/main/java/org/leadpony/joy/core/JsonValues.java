@@ -15,6 +15,8 @@
  */
 package org.leadpony.joy.core;
 
+import static org.leadpony.joy.core.Preconditions.requireFiniteNumber;
+
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.Collection;
@@ -71,9 +73,11 @@ public final class JsonValues {
      *
      * @param value the original value from which JSON value will be created.
      * @return the newly created JSON number.
+     * @throws NumberFormatException if the value is infinite or NaN.
      */
     public static JsonNumber valueOf(double value) {
-        return new BigDecimalJsonNumber(BigDecimal.valueOf(value));
+        requireFiniteNumber(value);
+        return new DoubleJsonNumber(value);
     }
 
     /**
@@ -0,0 +1,486 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonValue;
+
+/**
+ * Validated UTF-8 input from which the values are decoded lazily.
+ *
+ * <p>
+ * The values are located by the {@link StructuralIndex} of the input, which is
+ * called "slots" here. The slot of an opening bracket is paired with the slot
+ * of its closing bracket, so that an array or object can be skipped at once.
+ * The arrays and objects are {@link JsonArrayImpl} and {@link JsonObjectImpl}
+ * holding a list or map which finds its items or properties when first
+ * accessed, and decodes each value when first accessed. All the values keep
+ * the whole input reachable.
+ * </p>
+ *
+ * <p>
+ * The values decoded are cached without synchronization. Concurrent threads
+ * may decode the same value more than once, which only wastes some time.
+ * </p>
+ *
+ * @author leadpony
+ */
+final class LazyDocument {
+
+    private final ByteBuffer buffer;
+    private final int[] positions;
+    // The slots of the closing brackets, indexed by the slots of the opening ones.
+    private final int[] closings;
+
+    /**
+     * Constructs this document.
+     *
+     * @param buffer    the buffer containing the input validated.
+     * @param positions the structural index of the input.
+     */
+    LazyDocument(ByteBuffer buffer, int[] positions) {
+        this.buffer = buffer;
+        this.positions = positions;
+        this.closings = pairBrackets(buffer, positions);
+    }
+
+    /**
+     * Returns the value at the specified slot.
+     *
+     * @param slot the slot of the first byte of the value.
+     * @return the value, which is decoded lazily if it is an array or object.
+     */
+    JsonValue getValue(int slot) {
+        final int position = positions[slot];
+        switch (buffer.get(position)) {
+        case '[':
+            return new JsonArrayImpl(new LazyList(slot));
+        case '{':
+            return new JsonObjectImpl(new LazyMap(slot));
+        case '"':
+            return JsonValues.valueOf(decodeString(position));
+        case 't':
+            return JsonValue.TRUE;
+        case 'f':
+            return JsonValue.FALSE;
+        case 'n':
+            return JsonValue.NULL;
+        default:
+            return decodeNumber(position);
+        }
+    }
+
+    private byte byteAt(int slot) {
+        return buffer.get(positions[slot]);
+    }
+
+    /**
+     * Returns the slot following the value at the specified slot.
+     */
+    private int skipValue(int slot) {
+        byte b = byteAt(slot);
+        if (b == '[' || b == '{') {
+            return closings[slot] + 1;
+        }
+        return slot + 1;
+    }
+
+    private int[] findItems(int slot) {
+        int[] items = new int[8];
+        int size = 0;
+        int next = slot + 1;
+        if (byteAt(next) != ']') {
+            for (;;) {
+                if (size == items.length) {
+                    items = Arrays.copyOf(items, size * 2);
+                }
+                items[size++] = next;
+                next = skipValue(next);
+                if (byteAt(next) != ',') {
+                    break;
+                }
+                next++;
+            }
+        }
+        return Arrays.copyOf(items, size);
+    }
+
+    /**
+     * Decodes the string starting at the specified position.
+     *
+     * @param position the position of the opening quotation mark.
+     * @return the decoded string.
+     */
+    private String decodeString(int position) {
+        final ByteBuffer buffer = this.buffer;
+        final int start = position + 1;
+        int i = start;
+        byte b = buffer.get(i);
+        while (b != '"' && b != '\\') {
+            b = buffer.get(++i);
+        }
+        if (b == '"') {
+            return decodeUtf8(start, i);
+        }
+
+        StringBuilder builder = new StringBuilder();
+        int runStart = start;
+        for (;;) {
+            b = buffer.get(i);
+            if (b == '"') {
+                break;
+            } else if (b != '\\') {
+                i++;
+                continue;
+            }
+            builder.append(decodeUtf8(runStart, i));
+            b = buffer.get(i + 1);
+            i += 2;
+            switch (b) {
+            case 'b':
+                builder.append('\b');
+                break;
+            case 'f':
+                builder.append('\f');
+                break;
+            case 'n':
+                builder.append('\n');
+                break;
+            case 'r':
+                builder.append('\r');
+                break;
+            case 't':
+                builder.append('\t');
+                break;
+            case 'u':
+                builder.append((char) Integer.parseInt(decodeUtf8(i, i + 4), 16));
+                i += 4;
+                break;
+            default:
+                // '"', '\\' or '/'
+                builder.append((char) b);
+                break;
+            }
+            runStart = i;
+        }
+        return builder.append(decodeUtf8(runStart, i)).toString();
+    }
+
+    private String decodeUtf8(int start, int end) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = copyBytes(start, end);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private byte[] copyBytes(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return bytes;
+    }
+
+    /**
+     * Decodes the number starting at the specified position into the same type
+     * of number as the parsers create.
+     *
+     * @param position the position of the first byte of the number.
+     * @return the decoded number.
+     */
+    private JsonNumber decodeNumber(int position) {
+        final ByteBuffer buffer = this.buffer;
+        final int limit = buffer.limit();
+        boolean hasFracOrExp = false;
+        int end = position;
+        while (end < limit) {
+            byte b = buffer.get(end);
+            if (b == '.' || b == 'e' || b == 'E') {
+                hasFracOrExp = true;
+            } else if (b != '-' && b != '+' && (b < '0' || b > '9')) {
+                break;
+            }
+            end++;
+        }
+        if (hasFracOrExp) {
+            return new LazyJsonNumber(copyBytes(position, end));
+        }
+        final boolean minus = buffer.get(position) == '-';
+        final int digits = end - position - (minus ? 1 : 0);
+        if (digits <= 18) {
+            long value = 0;
+            for (int i = minus ? position + 1 : position; i < end; i++) {
+                value = value * 10 + (buffer.get(i) - '0');
+            }
+            if (minus) {
+                value = -value;
+            }
+            if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                return JsonValues.valueOf((int) value);
+            }
+            return JsonValues.valueOf(value);
+        }
+        BigInteger value = new BigInteger(decodeUtf8(position, end));
+        if (value.bitLength() < Long.SIZE) {
+            return JsonValues.valueOf(value.longValue());
+        }
+        return JsonValues.valueOf(value);
+    }
+
+    private static int[] pairBrackets(ByteBuffer buffer, int[] positions) {
+        final int[] closings = new int[positions.length];
+        int[] stack = new int[16];
+        int depth = 0;
+        // The last position is the end of input.
+        for (int slot = 0; slot < positions.length - 1; slot++) {
+            switch (buffer.get(positions[slot])) {
+            case '[':
+            case '{':
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = slot;
+                break;
+            case ']':
+            case '}':
+                if (depth > 0) {
+                    closings[stack[--depth]] = slot;
+                }
+                break;
+            default:
+                break;
+            }
+        }
+        return closings;
+    }
+
+    /**
+     * The items of an array.
+     *
+     * @author leadpony
+     */
+    private final class LazyList extends AbstractList<JsonValue> implements RandomAccess {
+
+        private final int slot;
+        private volatile int[] items;
+        private volatile JsonValue[] values;
+
+        LazyList(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public JsonValue get(int index) {
+            final int[] items = getItems();
+            if (index < 0 || index >= items.length) {
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+            }
+            final JsonValue[] values = this.values;
+            JsonValue value = values[index];
+            if (value == null) {
+                value = getValue(items[index]);
+                values[index] = value;
+            }
+            return value;
+        }
+
+        @Override
+        public int size() {
+            return getItems().length;
+        }
+
+        private int[] getItems() {
+            int[] items = this.items;
+            if (items == null) {
+                items = findItems(slot);
+                this.values = new JsonValue[items.length];
+                this.items = items;
+            }
+            return items;
+        }
+    }
+
+    /**
+     * The properties of an object.
+     *
+     * <p>
+     * As the map built by the parsers, the last value of a duplicate key
+     * replaces the previous one, keeping the order of the first key.
+     * </p>
+     *
+     * @author leadpony
+     */
+    private final class LazyMap extends AbstractMap<String, JsonValue> {
+
+        private final int slot;
+        private volatile Properties properties;
+        private Set<Map.Entry<String, JsonValue>> entrySet;
+
+        LazyMap(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public Set<Map.Entry<String, JsonValue>> entrySet() {
+            Set<Map.Entry<String, JsonValue>> entrySet = this.entrySet;
+            if (entrySet == null) {
+                entrySet = new EntrySet();
+                this.entrySet = entrySet;
+            }
+            return entrySet;
+        }
+
+        @Override
+        public int size() {
+            return getProperties().keys.length;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return getProperties().indices.containsKey(key);
+        }
+
+        @Override
+        public JsonValue get(Object key) {
+            Properties properties = getProperties();
+            Integer index = properties.indices.get(key);
+            if (index == null) {
+                return null;
+            }
+            return properties.getValue(index);
+        }
+
+        private Properties getProperties() {
+            Properties properties = this.properties;
+            if (properties == null) {
+                properties = new Properties(slot);
+                this.properties = properties;
+            }
+            return properties;
+        }
+
+        /**
+         * The entries of the map.
+         *
+         * @author leadpony
+         */
+        private final class EntrySet extends AbstractSet<Map.Entry<String, JsonValue>> {
+
+            @Override
+            public Iterator<Map.Entry<String, JsonValue>> iterator() {
+                final Properties properties = getProperties();
+                return new Iterator<Map.Entry<String, JsonValue>>() {
+
+                    private int index;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < properties.keys.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, JsonValue> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        int current = index++;
+                        return new AbstractMap.SimpleImmutableEntry<>(
+                                properties.keys[current], properties.getValue(current));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return LazyMap.this.size();
+            }
+        }
+    }
+
+    /**
+     * The keys and the slots of the values found in an object.
+     *
+     * @author leadpony
+     */
+    private final class Properties {
+
+        private final String[] keys;
+        private final int[] slots;
+        private final JsonValue[] values;
+        private final Map<String, Integer> indices;
+
+        Properties(int slot) {
+            String[] keys = new String[8];
+            int[] slots = new int[8];
+            int size = 0;
+            Map<String, Integer> indices = new HashMap<>();
+            int next = slot + 1;
+            if (byteAt(next) != '}') {
+                for (;;) {
+                    String key = decodeString(positions[next]);
+                    // skips the key and the colon
+                    final int valueSlot = next + 2;
+                    Integer index = indices.get(key);
+                    if (index != null) {
+                        slots[index] = valueSlot;
+                    } else {
+                        if (size == keys.length) {
+                            keys = Arrays.copyOf(keys, size * 2);
+                            slots = Arrays.copyOf(slots, size * 2);
+                        }
+                        indices.put(key, size);
+                        keys[size] = key;
+                        slots[size] = valueSlot;
+                        size++;
+                    }
+                    next = skipValue(valueSlot);
+                    if (byteAt(next) != ',') {
+                        break;
+                    }
+                    next++;
+                }
+            }
+            this.keys = Arrays.copyOf(keys, size);
+            this.slots = Arrays.copyOf(slots, size);
+            this.values = new JsonValue[size];
+            this.indices = indices;
+        }
+
+        JsonValue getValue(int index) {
+            JsonValue value = values[index];
+            if (value == null) {
+                value = LazyDocument.this.getValue(slots[index]);
+                values[index] = value;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A JSON number which keeps the digits of the original JSON text and decodes
+ * them only on demand.
+ *
+ * @author leadpony
+ */
+class LazyJsonNumber extends JsonNumberImpl {
+
+    /*
+     * The scale of the number whose exponent is out of the range of BigDecimal.
+     */
+    private static final int OVERFLOWED_SCALE = Integer.MIN_VALUE;
+
+    // The JSON text of the number, which consists of ASCII characters only.
+    private final byte[] text;
+
+    private boolean decoded;
+    private long unscaledValue;
+    private int scale;
+    // The number of significant digits, which is 0 if the number is zero.
+    private int precision;
+    private boolean hasExponent;
+
+    private BigDecimal bigDecimal;
+
+    /**
+     * Constructs this number.
+     *
+     * @param text the JSON text of the number, which must be valid.
+     */
+    LazyJsonNumber(byte[] text) {
+        this.text = text;
+    }
+
+    @Override
+    public double doubleValue() {
+        return DoubleParser.parse(ByteBuffer.wrap(text), 0, text.length);
+    }
+
+    @Override
+    public BigDecimal bigDecimalValue() {
+        if (bigDecimal == null) {
+            bigDecimal = new BigDecimal(new String(text, StandardCharsets.US_ASCII));
+        }
+        return bigDecimal;
+    }
+
+    @Override
+    public String toString() {
+        decode();
+        if (scale == OVERFLOWED_SCALE) {
+            // BigDecimal cannot represent the number.
+            return new String(text, StandardCharsets.US_ASCII);
+        } else if (!hasExponent && (precision > 0 || text[0] != '-')) {
+            int adjustedExponent = Math.max(precision, 1) - 1 - scale;
+            // BigDecimal uses the scientific notation for the smaller numbers.
+            if (adjustedExponent >= -6) {
+                return new String(text, StandardCharsets.US_ASCII);
+            }
+        }
+        return bigDecimalValue().toString();
+    }
+
+    @Override
+    long unscaledValue() {
+        decode();
+        return unscaledValue;
+    }
+
+    @Override
+    int scale() {
+        decode();
+        return scale;
+    }
+
+    private void decode() {
+        if (decoded) {
+            return;
+        }
+        final byte[] text = this.text;
+        int i = 0;
+        final boolean negative = text[0] == '-';
+        if (negative) {
+            i++;
+        }
+
+        long value = 0;
+        int precision = 0;
+        long scale = 0;
+        boolean fraction = false;
+        for (; i < text.length; i++) {
+            int c = text[i];
+            if (c == '.') {
+                fraction = true;
+                continue;
+            } else if (c == 'e' || c == 'E') {
+                break;
+            }
+            if (precision > 0 || c != '0') {
+                precision++;
+            }
+            value = value * 10 + (c - '0');
+            if (fraction) {
+                scale++;
+            }
+        }
+
+        if (i < text.length) {
+            this.hasExponent = true;
+            i++;
+            boolean negativeExponent = text[i] == '-';
+            if (text[i] == '-' || text[i] == '+') {
+                i++;
+            }
+            long exponent = 0;
+            for (; i < text.length && exponent <= Integer.MAX_VALUE; i++) {
+                exponent = exponent * 10 + (text[i] - '0');
+            }
+            scale += negativeExponent ? exponent : -exponent;
+        }
+
+        if (scale > Integer.MIN_VALUE && scale <= Integer.MAX_VALUE) {
+            this.scale = (int) scale;
+            // The unscaled value of up to 18 digits always fits in a long.
+            this.unscaledValue = (precision <= 18) ? (negative ? -value : value) : INFLATED;
+        } else {
+            this.unscaledValue = INFLATED;
+            this.scale = OVERFLOWED_SCALE;
+        }
+        this.precision = precision;
+        this.decoded = true;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonValue;
+
+/**
+ * A JSON parser which returns the arrays and objects decoded lazily from the
+ * input.
+ *
+ * <p>
+ * The arrays and objects returned by {@link #getValue()}, {@link #getArray()}
+ * and {@link #getObject()} are validated by walking through their events as
+ * usual, but are not built. They refer to the input and the structural index
+ * instead, and decode their items and properties only when accessed.
+ * </p>
+ *
+ * <p>
+ * The structural index of the whole input is built when this parser is
+ * constructed, but the events are produced by scanning the input as
+ * {@link Utf8JsonParser} does. The index is used only to find the values.
+ * </p>
+ *
+ * @author leadpony
+ */
+final class LazyJsonParser extends Utf8JsonParser {
+
+    // The buffer in little-endian order.
+    private final ByteBuffer buffer;
+    // The structural index terminated by the end of input.
+    private final int[] positions;
+    // The input source to close, may be null.
+    private final Closeable input;
+    private LazyDocument document;
+
+    /**
+     * Constructs this parser.
+     *
+     * @param buffer the buffer containing the whole input.
+     * @param start  the index of the first byte to parse in the buffer.
+     * @param input  the input source to close with this parser, may be
+     *               {@code null}.
+     */
+    LazyJsonParser(ByteBuffer buffer, int start, Closeable input) {
+        super(buffer, start);
+        this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.positions = StructuralIndex.build(this.buffer, start, buffer.limit(), true);
+        this.input = input;
+    }
+
+    @Override
+    public JsonValue getValue() {
+        Event event = getCurrentEvent();
+        if (event == Event.START_ARRAY || event == Event.START_OBJECT) {
+            int slot = findSlot();
+            if (slot >= 0) {
+                return getLazyStructure(slot);
+            }
+        }
+        return super.getValue();
+    }
+
+    @Override
+    public JsonArray getArray() {
+        if (getCurrentEvent() == Event.START_ARRAY) {
+            int slot = findSlot();
+            if (slot >= 0) {
+                return (JsonArray) getLazyStructure(slot);
+            }
+        }
+        return super.getArray();
+    }
+
+    @Override
+    public JsonObject getObject() {
+        if (getCurrentEvent() == Event.START_OBJECT) {
+            int slot = findSlot();
+            if (slot >= 0) {
+                return (JsonObject) getLazyStructure(slot);
+            }
+        }
+        return super.getObject();
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        if (input != null) {
+            try {
+                input.close();
+            } catch (IOException e) {
+                throw newJsonException(Message.thatIOErrorOccurredWhileParserWasClosing(), e);
+            }
+        }
+    }
+
+    /**
+     * Finds the slot of the current opening bracket in the structural index.
+     *
+     * @return the slot found, or a negative value if not found.
+     */
+    private int findSlot() {
+        // The opening bracket was the last byte read.
+        return Arrays.binarySearch(positions, getReadPosition() - 1);
+    }
+
+    /**
+     * Returns the current array or object, which is validated but not built.
+     *
+     * @param slot the slot of the opening bracket.
+     * @return the array or object decoded lazily.
+     */
+    private JsonValue getLazyStructure(int slot) {
+        int depth = 1;
+        while (depth > 0) {
+            switch (next()) {
+            case START_ARRAY:
+            case START_OBJECT:
+                depth++;
+                break;
+            case END_ARRAY:
+            case END_OBJECT:
+                depth--;
+                break;
+            default:
+                break;
+            }
+        }
+        LazyDocument document = this.document;
+        if (document == null) {
+            document = new LazyDocument(buffer, positions);
+            this.document = document;
+        }
+        return document.getValue(slot);
+    }
+}
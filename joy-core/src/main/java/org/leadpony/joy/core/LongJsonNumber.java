@@ -74,4 +74,9 @@ class LongJsonNumber extends JsonNumberImpl {
     public String toString() {
         return Long.toString(value);
     }
+
+    @Override
+    long unscaledValue() {
+        return value;
+    }
 }
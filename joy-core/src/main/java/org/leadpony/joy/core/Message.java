@@ -59,6 +59,41 @@ public final class Message {
         return format("UnexpectedCharWasFoundFor", at(location), encoded, expected);
     }
 
+    public static String thatNestingDepthExceededLimit(JsonLocation location, int limit) {
+        requireNonNull(location, "location");
+        return format("NestingDepthExceededLimit", at(location), String.valueOf(limit));
+    }
+
+    public static String thatTokenLengthExceededLimit(JsonLocation location, int limit) {
+        requireNonNull(location, "location");
+        return format("TokenLengthExceededLimit", at(location), String.valueOf(limit));
+    }
+
+    public static String thatStringLengthExceededLimit(JsonLocation location, int limit) {
+        requireNonNull(location, "location");
+        return format("StringLengthExceededLimit", at(location), String.valueOf(limit));
+    }
+
+    public static String thatNumberDigitsExceededLimit(JsonLocation location, int limit) {
+        requireNonNull(location, "location");
+        return format("NumberDigitsExceededLimit", at(location), String.valueOf(limit));
+    }
+
+    public static String thatNumberExponentExceededLimit(JsonLocation location, int limit) {
+        requireNonNull(location, "location");
+        return format("NumberExponentExceededLimit", at(location), String.valueOf(limit));
+    }
+
+    public static String thatEntriesExceededLimit(JsonLocation location, int limit) {
+        requireNonNull(location, "location");
+        return format("EntriesExceededLimit", at(location), String.valueOf(limit));
+    }
+
+    public static String thatDocumentLengthExceededLimit(JsonLocation location, long limit) {
+        requireNonNull(location, "location");
+        return format("DocumentLengthExceededLimit", at(location), String.valueOf(limit));
+    }
+
     public static String thatUnexpectedEndOfInputWasReached(JsonLocation location) {
         requireNonNull(location, "location");
         return format("UnexpectedEndOfInputWasReached", at(location));
@@ -86,6 +121,19 @@ public final class Message {
         return format("UnexpectedEndOfInputWasReachedBeforeEvents", at(location), expected);
     }
 
+    public static String thatFedInputWasExhausted(JsonLocation location) {
+        requireNonNull(location, "location");
+        return format("FedInputWasExhausted", at(location));
+    }
+
+    public static String thatJsonRecordIsInvalid(long offset, String cause) {
+        return format("JsonRecordIsInvalid", String.valueOf(offset), cause);
+    }
+
+    public static String thatJsonRecordIsTooLarge(long offset) {
+        return format("JsonRecordIsTooLarge", String.valueOf(offset));
+    }
+
     public static String thatNoMoreParserEventsWereFound() {
         return format("NoMoreParserEventsWereFound");
     }
@@ -98,6 +146,14 @@ public final class Message {
         return format("IOErrorOccurredWhileParserWasClosing");
     }
 
+    public static String thatParserHasNoInput() {
+        return format("ParserHasNoInput");
+    }
+
+    public static String thatEndOfInputHasBeenAlreadySignaled() {
+        return format("EndOfInputHasBeenAlreadySignaled");
+    }
+
     public static String thatParserHasBeenAlreadyClosed() {
         return format("ParserHasBeenAlreadyClosed");
     }
@@ -199,6 +255,25 @@ public final class Message {
         return format("JsonValueMustBeTheSameTypeAsTarget");
     }
 
+    /*
+     * Messages for JSONPath
+     */
+
+    public static String thatJsonPathIsInvalid(String path, int index) {
+        requireNonNull(path, "path");
+        return format("JsonPathIsInvalid", path, String.valueOf(index));
+    }
+
+    public static String thatJsonPathHasNegativeStep(String path, int index) {
+        requireNonNull(path, "path");
+        return format("JsonPathHasNegativeStep", path, String.valueOf(index));
+    }
+
+    public static String thatJsonPathHasTooManySelectors(String path, int limit) {
+        requireNonNull(path, "path");
+        return format("JsonPathHasTooManySelectors", path, String.valueOf(limit));
+    }
+
     /*
      * Messages for JSON patch
      */
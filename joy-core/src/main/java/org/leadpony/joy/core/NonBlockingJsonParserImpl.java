@@ -0,0 +1,216 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+import static org.leadpony.joy.core.Preconditions.requireNonNull;
+
+import java.nio.ByteBuffer;
+import java.util.NoSuchElementException;
+
+import jakarta.json.stream.JsonLocation;
+import jakarta.json.stream.JsonParsingException;
+
+import org.leadpony.joy.api.NonBlockingJsonParser;
+
+/**
+ * An implementation of {@link NonBlockingJsonParser}.
+ *
+ * <p>
+ * Each event is parsed by {@link Utf8JsonParser} from the bytes fed so far.
+ * Before parsing an event, {@link TokenScanner} finds the end of its token in
+ * the bytes fed so far, resuming inside a partial token where the previous
+ * chunk ended, so that the parser runs only when the event can be completed.
+ * If the bytes still run out in the middle of an event, the parser goes back
+ * to the position and the state saved before the event, and parses the event
+ * again when more bytes are fed.
+ * </p>
+ *
+ * @author leadpony
+ */
+class NonBlockingJsonParserImpl extends Utf8JsonParser implements NonBlockingJsonParser {
+
+    private boolean endOfInput;
+    // Whether the current attempt should be abandoned when the input runs out.
+    private boolean polling;
+
+    // The position saved before the current event.
+    private long markOffset;
+    private long markLineNumber = 1;
+    private long markLineOffset;
+
+    // The scanner of the token of the next event.
+    private final TokenScanner scanner = new TokenScanner();
+
+    NonBlockingJsonParserImpl(ByteBufferFactory bufferFactory) {
+        super(bufferFactory);
+    }
+
+    /* As a NonBlockingJsonParser */
+
+    @Override
+    public void feed(ByteBuffer bytes) {
+        requireNonNull(bytes, "bytes");
+        if (endOfInput) {
+            throw new IllegalStateException(Message.thatEndOfInputHasBeenAlreadySignaled());
+        }
+        appendInput(bytes, markOffset);
+        final TokenScanner scanner = advanceScanner();
+        final int maxTokenLength = getMaxTokenLength();
+        if (scanner.getTokenLength() > maxTokenLength) {
+            // Reports the first byte beyond the maximum length.
+            rewind(scanner.getTokenStart() + maxTokenLength, scanner.getLineNumber(), scanner.getLineOffset());
+            throw newTokenLengthException();
+        }
+    }
+
+    @Override
+    public void endOfInput() {
+        this.endOfInput = true;
+    }
+
+    @Override
+    public Event poll() {
+        if (!isReady()) {
+            return NOT_AVAILABLE;
+        }
+        State state = getState();
+        mark();
+        this.polling = true;
+        try {
+            if (!super.hasNext()) {
+                throw new NoSuchElementException(Message.thatNoMoreParserEventsWereFound());
+            }
+            return super.next();
+        } catch (InputShortage e) {
+            rewind(markOffset, markLineNumber, markLineOffset);
+            rewindState(state);
+            return NOT_AVAILABLE;
+        } finally {
+            this.polling = false;
+        }
+    }
+
+    /* As a JsonParser */
+
+    @Override
+    public boolean hasNext() {
+        if (polling) {
+            return super.hasNext();
+        }
+        if (!endOfInput && !isInputTruncated() && !advanceScanner().hasStarted()) {
+            // Only whitespace follows the current event so far.
+            return true;
+        }
+        State state = getState();
+        mark();
+        this.polling = true;
+        try {
+            return super.hasNext();
+        } catch (InputShortage e) {
+            rewind(markOffset, markLineNumber, markLineOffset);
+            rewindState(state);
+            return true;
+        } finally {
+            this.polling = false;
+        }
+    }
+
+    @Override
+    public Event next() {
+        Event event = poll();
+        if (event == NOT_AVAILABLE) {
+            throw newInputShortageException();
+        }
+        return event;
+    }
+
+    /* As a Utf8JsonParser */
+
+    @Override
+    boolean requestInput() {
+        if (endOfInput) {
+            return false;
+        } else if (polling) {
+            throw InputShortage.INSTANCE;
+        } else {
+            throw newInputShortageException();
+        }
+    }
+
+    /**
+     * Scans the bytes fed since the last call, starting over at the current
+     * position if the parser has moved beyond the token scanned.
+     *
+     * @return the scanner of the token of the next event.
+     */
+    private TokenScanner advanceScanner() {
+        final TokenScanner scanner = this.scanner;
+        final long offset = getStreamOffset();
+        if (offset < scanner.getStart() || offset > scanner.getOffset()
+                || (offset == scanner.getOffset() && scanner.hasEnded())) {
+            scanner.reset(offset, getLineNumber(), offset + 1 - getColumnNumber());
+        }
+        if (!scanner.hasEnded()) {
+            scanner.scan(getReadArray(), toReadIndex(scanner.getOffset()), getReadEnd());
+        }
+        return scanner;
+    }
+
+    /**
+     * Returns whether the next event can be parsed from the bytes fed so far,
+     * or whether the parser can report an error in it.
+     *
+     * @return {@code true} if the parser should try the next event.
+     */
+    private boolean isReady() {
+        if (endOfInput || isInputTruncated()) {
+            return true;
+        }
+        final TokenScanner scanner = advanceScanner();
+        return scanner.hasEnded()
+                || scanner.getStringLength() > getMaxStringLength()
+                || scanner.getNumberDigits() > getMaxNumberDigits()
+                || (scanner.getNumberExponent() > getMaxNumberExponent()
+                        && getMaxNumberExponent() < Integer.MAX_VALUE);
+    }
+
+    private void mark() {
+        this.markOffset = getStreamOffset();
+        this.markLineNumber = getLineNumber();
+        this.markLineOffset = markOffset + 1 - getColumnNumber();
+    }
+
+    private JsonParsingException newInputShortageException() {
+        JsonLocation location = getLocation();
+        String message = Message.thatFedInputWasExhausted(location);
+        return new JsonParsingException(message, location);
+    }
+
+    /**
+     * Thrown when the input fed so far runs out in the middle of an event.
+     *
+     * @author leadpony
+     */
+    @SuppressWarnings("serial")
+    private static final class InputShortage extends RuntimeException {
+
+        static final InputShortage INSTANCE = new InputShortage();
+
+        private InputShortage() {
+            super(null, null, false, false);
+        }
+    }
+}
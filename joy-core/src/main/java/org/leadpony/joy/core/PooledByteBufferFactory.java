@@ -0,0 +1,65 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+/**
+ * A byte buffer factory which can keep created buffers.
+ *
+ * @author leadpony
+ */
+class PooledByteBufferFactory extends StripedBufferPool<byte[]> implements ByteBufferFactory {
+
+    /**
+     * Constructs this factory.
+     *
+     * @param capacity   the maximum number of buffers to keep.
+     * @param bufferSize the size of the buffers to create.
+     */
+    PooledByteBufferFactory(int capacity, int bufferSize) {
+        super(capacity, bufferSize);
+    }
+
+    /**
+     * Constructs this factory adapting the size of buffers.
+     *
+     * @param capacity      the maximum number of buffers to keep.
+     * @param bufferSize    the initial size of the buffers to create.
+     * @param maxBufferSize the maximum size of the buffers to create and keep.
+     */
+    PooledByteBufferFactory(int capacity, int bufferSize, int maxBufferSize) {
+        super(capacity, bufferSize, maxBufferSize);
+    }
+
+    @Override
+    public byte[] createBuffer() {
+        return takeBuffer();
+    }
+
+    @Override
+    public void releaseBuffer(byte[] buffer) {
+        putBuffer(buffer);
+    }
+
+    @Override
+    byte[] newBuffer(int size) {
+        return new byte[size];
+    }
+
+    @Override
+    int lengthOf(byte[] buffer) {
+        return buffer.length;
+    }
+}
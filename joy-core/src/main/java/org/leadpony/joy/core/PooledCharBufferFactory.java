@@ -1,5 +1,5 @@
 /*
- * Copyright 2019 the Joy Authors.
+ * Copyright 2019-2021 the Joy Authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,39 +15,37 @@
  */
 package org.leadpony.joy.core;
 
-import java.lang.ref.WeakReference;
-import java.util.ArrayDeque;
-import java.util.Queue;
-
 /**
  * A char buffer factory which can keep created buffers.
  *
  * @author leadpony
  */
-class PooledCharBufferFactory implements CharBufferFactory {
-
-    private final int defaultSize;
-    private final int maxBuffers;
+class PooledCharBufferFactory extends StripedBufferPool<char[]> implements CharBufferFactory {
 
-    private final Queue<WeakReference<char[]>> pool;
-
-    PooledCharBufferFactory() {
-        this(4096, 5);
+    /**
+     * Constructs this factory.
+     *
+     * @param capacity   the maximum number of buffers to keep.
+     * @param bufferSize the size of the buffers to create.
+     */
+    PooledCharBufferFactory(int capacity, int bufferSize) {
+        super(capacity, bufferSize);
     }
 
-    PooledCharBufferFactory(int defaultSize, int maxBuffers) {
-        this.defaultSize = defaultSize;
-        this.maxBuffers = maxBuffers;
-        this.pool = new ArrayDeque<>();
+    /**
+     * Constructs this factory adapting the size of buffers.
+     *
+     * @param capacity      the maximum number of buffers to keep.
+     * @param bufferSize    the initial size of the buffers to create.
+     * @param maxBufferSize the maximum size of the buffers to create and keep.
+     */
+    PooledCharBufferFactory(int capacity, int bufferSize, int maxBufferSize) {
+        super(capacity, bufferSize, maxBufferSize);
     }
 
     @Override
     public char[] createBuffer() {
-        char[] buffer = getBuffer();
-        if (buffer != null) {
-            return buffer;
-        }
-        return createNewBuffer();
+        return takeBuffer();
     }
 
     @Override
@@ -55,25 +53,13 @@ class PooledCharBufferFactory implements CharBufferFactory {
         putBuffer(buffer);
     }
 
-    private char[] createNewBuffer() {
-        return new char[defaultSize];
-    }
-
-    private synchronized char[] getBuffer() {
-        while (!pool.isEmpty()) {
-            WeakReference<char[]> ref = pool.poll();
-            char[] buffer = ref.get();
-            if (buffer != null) {
-                return buffer;
-            }
-        }
-        return null;
+    @Override
+    char[] newBuffer(int size) {
+        return new char[size];
     }
 
-    private synchronized void putBuffer(char[] buffer) {
-        while (pool.size() >= maxBuffers) {
-            pool.poll();
-        }
-        pool.offer(new WeakReference<>(buffer));
+    @Override
+    int lengthOf(char[] buffer) {
+        return buffer.length;
     }
 }
@@ -32,6 +32,12 @@ final class PrettyJsonGenerator extends CompactJsonGenerator {
         this.indentationSize = indentationSize;
     }
 
+    @Override
+    void resetState() {
+        super.resetState();
+        indentationTotal = 0;
+    }
+
     @Override
     protected void appendOpeningBracket(char c) {
         super.appendOpeningBracket(c);
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+import static org.leadpony.joy.core.Preconditions.requireNonNull;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonLocation;
+
+import org.leadpony.joy.api.KeyMatcher;
+import org.leadpony.joy.api.ResettableJsonParser;
+
+/**
+ * An implementation of {@link ResettableJsonParser}.
+ *
+ * <p>
+ * This parser delegates to either of the two parsers, one for UTF-8 input
+ * and the other for the input decoded into characters. Each of them is
+ * created when it is needed for the first time and is reset for each input
+ * afterwards, keeping its buffers.
+ * </p>
+ *
+ * @author leadpony
+ */
+final class ResettableJsonParserImpl implements ResettableJsonParser {
+
+    private final JsonParserFactoryImpl factory;
+
+    private Utf8JsonParser byteParser;
+    private BasicJsonParser charParser;
+
+    // The parser of the current input, or null before the first reset.
+    private AbstractStreamJsonParser parser;
+
+    private final byte[] head = new byte[StreamReaders.HEAD_LENGTH];
+
+    ResettableJsonParserImpl(JsonParserFactoryImpl factory) {
+        this.factory = factory;
+    }
+
+    /* As a ResettableJsonParser */
+
+    @Override
+    public void reset(Reader reader) {
+        requireNonNull(reader, "reader");
+        closeInput();
+        resetCharParser(reader);
+    }
+
+    @Override
+    public void reset(InputStream in) {
+        requireNonNull(in, "in");
+        closeInput();
+        Utf8JsonParser byteParser = getByteParser();
+        // Reads the first bytes into the buffer of the byte parser.
+        byte[] buffer = byteParser.getReadArray();
+        int length = StreamReaders.readHead(in, buffer);
+        Charset charset = StreamReaders.detectEncoding(buffer, length);
+        int bomLength = StreamReaders.getBomLength(charset, buffer, length);
+        if (charset.equals(StandardCharsets.UTF_8)) {
+            byteParser.reset(in, bomLength, length);
+            this.parser = byteParser;
+        } else {
+            resetCharParser(StreamReaders.createReader(in, charset, buffer, length));
+        }
+    }
+
+    @Override
+    public void reset(byte[] bytes, int offset, int length) {
+        requireNonNull(bytes, "bytes");
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+        closeInput();
+        int headLength = Math.min(head.length, length);
+        System.arraycopy(bytes, offset, head, 0, headLength);
+        Charset charset = StreamReaders.detectEncoding(head, headLength);
+        int start = offset + StreamReaders.getBomLength(charset, head, headLength);
+        if (charset.equals(StandardCharsets.UTF_8)) {
+            Utf8JsonParser byteParser = getByteParser();
+            byteParser.reset(buffer, start);
+            this.parser = byteParser;
+        } else {
+            resetCharParser(StreamReaders.createReader(buffer, charset, start));
+        }
+    }
+
+    /* As a JsonParser */
+
+    @Override
+    public boolean hasNext() {
+        return parser().hasNext();
+    }
+
+    @Override
+    public Event next() {
+        return parser().next();
+    }
+
+    @Override
+    public String getString() {
+        return parser().getString();
+    }
+
+    @Override
+    public boolean isIntegralNumber() {
+        return parser().isIntegralNumber();
+    }
+
+    @Override
+    public int getInt() {
+        return parser().getInt();
+    }
+
+    @Override
+    public long getLong() {
+        return parser().getLong();
+    }
+
+    @Override
+    public BigDecimal getBigDecimal() {
+        return parser().getBigDecimal();
+    }
+
+    @Override
+    public double getDouble() {
+        return parser().getDouble();
+    }
+
+    @Override
+    public CharSequence getCharSequence() {
+        return parser().getCharSequence();
+    }
+
+    @Override
+    public boolean contentEquals(CharSequence chars) {
+        return parser().contentEquals(chars);
+    }
+
+    @Override
+    public boolean startsWith(CharSequence prefix) {
+        return parser().startsWith(prefix);
+    }
+
+    @Override
+    public int getKeyIndex(KeyMatcher matcher) {
+        return parser().getKeyIndex(matcher);
+    }
+
+    @Override
+    public int nextKeyIndex(KeyMatcher matcher) {
+        return parser().nextKeyIndex(matcher);
+    }
+
+    @Override
+    public JsonLocation getLocation() {
+        return parser().getLocation();
+    }
+
+    @Override
+    public JsonObject getObject() {
+        return parser().getObject();
+    }
+
+    @Override
+    public JsonValue getValue() {
+        return parser().getValue();
+    }
+
+    @Override
+    public JsonArray getArray() {
+        return parser().getArray();
+    }
+
+    @Override
+    public Stream<JsonValue> getArrayStream() {
+        return parser().getArrayStream();
+    }
+
+    @Override
+    public Stream<Map.Entry<String, JsonValue>> getObjectStream() {
+        return parser().getObjectStream();
+    }
+
+    @Override
+    public Stream<JsonValue> getValueStream() {
+        return parser().getValueStream();
+    }
+
+    @Override
+    public void skipArray() {
+        parser().skipArray();
+    }
+
+    @Override
+    public void skipObject() {
+        parser().skipObject();
+    }
+
+    @Override
+    public void close() {
+        closeInput();
+    }
+
+    private AbstractStreamJsonParser parser() {
+        AbstractStreamJsonParser parser = this.parser;
+        if (parser == null) {
+            throw new IllegalStateException(Message.thatParserHasNoInput());
+        }
+        return parser;
+    }
+
+    private void closeInput() {
+        if (parser != null) {
+            parser.closeInput();
+        }
+    }
+
+    private Utf8JsonParser getByteParser() {
+        if (byteParser == null) {
+            byteParser = factory.createByteParser();
+        }
+        return byteParser;
+    }
+
+    private void resetCharParser(Reader reader) {
+        if (charParser == null) {
+            charParser = factory.createCharParser(reader);
+        } else {
+            charParser.reset(reader);
+        }
+        this.parser = charParser;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A stack of nested scopes, each of which is either an array or an object.
+ *
+ * <p>
+ * The stack keeps one bit for each scope, so all of the operations including
+ * the queries on the whole stack run in constant time and without boxing.
+ * </p>
+ *
+ * @author leadpony
+ */
+final class ScopeStack {
+
+    private static final int BITS_PER_WORD = 64;
+
+    // The bits set for arrays.
+    private long[] words = new long[1];
+    private int depth;
+    // The number of arrays in this stack.
+    private int arrays;
+
+    /**
+     * Pushes a scope.
+     *
+     * @param array {@code true} for an array, {@code false} for an object.
+     */
+    void push(boolean array) {
+        final int index = depth / BITS_PER_WORD;
+        if (index >= words.length) {
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+        final long bit = 1L << depth;
+        if (array) {
+            words[index] |= bit;
+            arrays++;
+        } else {
+            words[index] &= ~bit;
+        }
+        depth++;
+    }
+
+    /**
+     * Pops the innermost scope.
+     *
+     * @return {@code true} if the scope popped is an array.
+     * @throws NoSuchElementException if this stack is empty.
+     */
+    boolean pop() {
+        if (depth == 0) {
+            throw new NoSuchElementException();
+        }
+        boolean array = isArrayAt(--depth);
+        if (array) {
+            arrays--;
+        }
+        return array;
+    }
+
+    /**
+     * Removes all the scopes.
+     */
+    void clear() {
+        depth = 0;
+        arrays = 0;
+    }
+
+    /**
+     * Checks if the innermost scope is an array.
+     *
+     * @return {@code true} if the innermost scope is an array, {@code false}
+     *         if it is an object or this stack is empty.
+     */
+    boolean isInArray() {
+        return depth > 0 && isArrayAt(depth - 1);
+    }
+
+    /**
+     * Returns the number of the scopes.
+     *
+     * @return the depth of this stack.
+     */
+    int depth() {
+        return depth;
+    }
+
+    boolean isEmpty() {
+        return depth == 0;
+    }
+
+    boolean containsArray() {
+        return arrays > 0;
+    }
+
+    boolean containsObject() {
+        return arrays < depth;
+    }
+
+    /**
+     * Returns the number of the scopes from the innermost one to the nearest
+     * scope of the specified type, both inclusive.
+     *
+     * @param array {@code true} to find an array, {@code false} to find an
+     *              object.
+     * @return the number of the scopes, or 0 if no such scope exists.
+     */
+    int distanceTo(boolean array) {
+        for (int i = depth - 1; i >= 0; i--) {
+            if (isArrayAt(i) == array) {
+                return depth - i;
+            }
+        }
+        return 0;
+    }
+
+    private boolean isArrayAt(int level) {
+        return (words[level / BITS_PER_WORD] & (1L << level)) != 0;
+    }
+}
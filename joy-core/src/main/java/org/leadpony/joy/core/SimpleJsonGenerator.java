@@ -32,6 +32,7 @@ import jakarta.json.JsonException;
 import jakarta.json.JsonObject;
 import jakarta.json.JsonString;
 import jakarta.json.JsonValue;
+import jakarta.json.JsonValue.ValueType;
 import jakarta.json.stream.JsonGenerationException;
 
 import org.leadpony.joy.api.JsonGenerator;
@@ -41,7 +42,8 @@ import org.leadpony.joy.api.JsonGenerator;
  */
 class SimpleJsonGenerator extends JsonStringBuilder implements JsonGenerator {
 
-    private final Deque<State> stateStack = new ArrayDeque<>();
+    // The outer states to return to, except FINAL at the bottom.
+    private final ScopeStack scopes = new ScopeStack();
     private State state;
 
     SimpleJsonGenerator() {
@@ -230,12 +232,26 @@ class SimpleJsonGenerator extends JsonStringBuilder implements JsonGenerator {
     public void flush() {
     }
 
+    /**
+     * Returns this generator to the initial state before writing a new JSON
+     * text.
+     */
+    void resetState() {
+        state = State.INITIAL;
+        scopes.clear();
+        writePos = 0;
+    }
+
     final void pushState(State state) {
-        stateStack.push(state);
+        scopes.push(state == State.ARRAY);
     }
 
     final State popState() {
-        return stateStack.pop();
+        boolean array = scopes.pop();
+        if (scopes.isEmpty()) {
+            return State.FINAL;
+        }
+        return array ? State.ARRAY : State.OBJECT;
     }
 
     final void appendKey(String name) {
@@ -248,11 +264,17 @@ class SimpleJsonGenerator extends JsonStringBuilder implements JsonGenerator {
     final void appendValue(JsonValue value) {
         switch (value.getValueType()) {
         case ARRAY:
-            appendArray((JsonArray) value);
-            break;
         case OBJECT:
-            appendObject((JsonObject) value);
+            appendStructure(value);
+            break;
+        default:
+            appendScalar(value);
             break;
+        }
+    }
+
+    private void appendScalar(JsonValue value) {
+        switch (value.getValueType()) {
         case STRING:
             appendValue(((JsonString) value).getString());
             break;
@@ -273,36 +295,84 @@ class SimpleJsonGenerator extends JsonStringBuilder implements JsonGenerator {
         }
     }
 
-    final void appendArray(JsonArray array) {
-        appendOpeningBracket('[');
-        Iterator<JsonValue> it = array.iterator();
-        if (it.hasNext()) {
-            appendBreak();
-            appendValue(it.next());
-            while (it.hasNext()) {
-                appendComma();
-                appendValue(it.next());
+    /**
+     * Appends an array or object. The iterators of the enclosing arrays and
+     * objects are kept in a stack on the heap instead of the call stack, so
+     * that deeply nested values cannot overflow the call stack.
+     *
+     * @param value the array or object to append.
+     */
+    private void appendStructure(JsonValue value) {
+        // The iterators of the enclosing arrays and objects.
+        Deque<Iterator<?>> iterators = new ArrayDeque<>();
+        Iterator<?> it = openStructure(value);
+        boolean first = true;
+        for (;;) {
+            if (it.hasNext()) {
+                if (first) {
+                    appendBreak();
+                } else {
+                    appendComma();
+                }
+                JsonValue item;
+                if (it instanceof ArrayIterator) {
+                    item = ((ArrayIterator) it).next();
+                } else {
+                    Map.Entry<?, ?> entry = (Map.Entry<?, ?>) it.next();
+                    appendKey((String) entry.getKey());
+                    item = (JsonValue) entry.getValue();
+                }
+                ValueType type = item.getValueType();
+                if (type == ValueType.ARRAY || type == ValueType.OBJECT) {
+                    iterators.push(it);
+                    it = openStructure(item);
+                    first = true;
+                } else {
+                    appendScalar(item);
+                    first = false;
+                }
+            } else {
+                appendClosingBracket(it instanceof ArrayIterator ? ']' : '}');
+                if (iterators.isEmpty()) {
+                    return;
+                }
+                it = iterators.pop();
+                first = false;
             }
         }
-        appendClosingBracket(']');
     }
 
-    final void appendObject(JsonObject object) {
-        appendOpeningBracket('{');
-        Iterator<Map.Entry<String, JsonValue>> it = object.entrySet().iterator();
-        if (it.hasNext()) {
-            Map.Entry<String, JsonValue> entry = it.next();
-            appendBreak();
-            appendKey(entry.getKey());
-            appendValue(entry.getValue());
-            while (it.hasNext()) {
-                entry = it.next();
-                appendComma();
-                appendKey(entry.getKey());
-                appendValue(entry.getValue());
-            }
+    private Iterator<?> openStructure(JsonValue value) {
+        if (value.getValueType() == ValueType.ARRAY) {
+            appendOpeningBracket('[');
+            return new ArrayIterator(((JsonArray) value).iterator());
+        } else {
+            appendOpeningBracket('{');
+            return ((JsonObject) value).entrySet().iterator();
+        }
+    }
+
+    /**
+     * An iterator over the items of an array, which is distinguished from the
+     * iterators over the properties of objects.
+     */
+    private static final class ArrayIterator implements Iterator<JsonValue> {
+
+        private final Iterator<JsonValue> it;
+
+        ArrayIterator(Iterator<JsonValue> it) {
+            this.it = it;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return it.hasNext();
+        }
+
+        @Override
+        public JsonValue next() {
+            return it.next();
         }
-        appendClosingBracket('}');
     }
 
     final void appendValue(String value) {
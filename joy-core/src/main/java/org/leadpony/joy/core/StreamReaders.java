@@ -19,11 +19,14 @@ import static java.nio.charset.StandardCharsets.UTF_16BE;
 import static java.nio.charset.StandardCharsets.UTF_16LE;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.io.CharArrayReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.PushbackInputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 
@@ -51,6 +54,11 @@ final class StreamReaders {
      */
     private static final Charset DEFAULT_ENCODING = StandardCharsets.UTF_8;
 
+    /**
+     * The number of bytes required to detect the character encoding.
+     */
+    static final int HEAD_LENGTH = 4;
+
     /**
      * Creates a reader which will read from the specified input stream. The The
      * character encoding of the input will be detected according to the logic
@@ -62,99 +70,211 @@ final class StreamReaders {
      * @see <a href="https://www.ietf.org/rfc/rfc4627.txt">RFC 4627</a>
      */
     static Reader createStreamReader(InputStream in) {
-        try {
-            int b1 = in.read();
-            if (b1 < 0) {
-                // empty
-                return createReader(in, DEFAULT_ENCODING);
-            }
+        byte[] head = new byte[HEAD_LENGTH];
+        int length = readHead(in, head);
+        Charset charset = detectEncoding(head, length);
+        return createReader(in, charset, head, length);
+    }
 
-            int b2 = in.read();
-            if (b2 < 0) {
-                // 1 letter
-                if (b1 == 0) {
-                    throw unknownEncodingException();
+    /**
+     * Reads the first bytes of the input stream which are required to detect
+     * the character encoding.
+     *
+     * @param in     the original input source.
+     * @param buffer the buffer to store the bytes, which must have at least
+     *               {@link #HEAD_LENGTH} bytes.
+     * @return the number of bytes read.
+     */
+    static int readHead(InputStream in, byte[] buffer) {
+        try {
+            int length = 0;
+            while (length < HEAD_LENGTH) {
+                int bytesRead = in.read(buffer, length, HEAD_LENGTH - length);
+                if (bytesRead < 0) {
+                    break;
                 }
-                return createReader(in, DEFAULT_ENCODING, (byte) b1);
+                length += bytesRead;
             }
+            return length;
+        } catch (IOException e) {
+            throw new JsonException(Message.thatIOErrorOccurredWhileParserWasReading(), e);
+        }
+    }
 
-            // 2 letters or more
+    /**
+     * Detects the character encoding from the first bytes of the input. The
+     * character encoding will be detected according to the logic described in
+     * RFC 4627.
+     *
+     * @param head   the first bytes of the input.
+     * @param length the number of bytes in {@code head}.
+     * @return the detected character encoding.
+     * @throws JsonException if the character encoding cannot be detected.
+     *
+     * @see <a href="https://www.ietf.org/rfc/rfc4627.txt">RFC 4627</a>
+     */
+    static Charset detectEncoding(byte[] head, int length) {
+        if (length == 0) {
+            // empty
+            return DEFAULT_ENCODING;
+        }
 
-            if (b1 == 0xfe && b2 == 0xff) {
-                // UTF-16BE with BOM
-                return createReader(in, UTF_16BE);
+        int b1 = head[0] & 0xff;
+        if (length == 1) {
+            // 1 letter
+            if (b1 == 0) {
+                throw unknownEncodingException();
             }
+            return DEFAULT_ENCODING;
+        }
 
-            int b3 = in.read();
-            if (b3 < 0) {
-                // 2 letters
-                if (b1 == 0xff && b2 == 0xfe) {
-                    return createReader(in, UTF_16LE);
-                } else {
-                    if (b1 == 0) {
-                        return createReader(in, UTF_16BE, (byte) b1, (byte) b2);
-                    } else if (b2 == 0) {
-                        return createReader(in, UTF_16LE, (byte) b1, (byte) b2);
-                    }
-                    return createReader(in, DEFAULT_ENCODING, (byte) b1, (byte) b2);
-                }
-            }
+        // 2 letters or more
 
-            // 3 letters or more
+        int b2 = head[1] & 0xff;
+        if (b1 == 0xfe && b2 == 0xff) {
+            // UTF-16BE with BOM
+            return UTF_16BE;
+        }
 
-            if (b1 == 0xef && b2 == 0xbb && b3 == 0xbf) {
-                // UTF-8 with BOM
-                return createReader(in, UTF_8);
+        if (length == 2) {
+            // 2 letters
+            if (b1 == 0xff && b2 == 0xfe) {
+                return UTF_16LE;
+            } else if (b1 == 0) {
+                return UTF_16BE;
+            } else if (b2 == 0) {
+                return UTF_16LE;
             }
+            return DEFAULT_ENCODING;
+        }
 
-            int b4 = in.read();
-            if (b4 < 0) {
-                // 3 letters
-                return createReader(in, DEFAULT_ENCODING, (byte) b1, (byte) b2, (byte) b3);
-            }
+        // 3 letters or more
 
-            // 4 letters or more
-
-            if (b1 == 0 && b2 == 0 && b3 == 0xfe && b4 == 0xff) {
-                // UTF-32BE with BOM
-                return createReader(in, UTF_32BE);
-            } else if (b1 == 0xff && b2 == 0xfe && b3 == 0 && b4 == 0) {
-                // UTF-32LE with BOM
-                return createReader(in, UTF_32LE);
-            } else if (b1 == 0xff && b2 == 0xfe) {
-                // UTF-16LE with BOM
-                return createReader(in, UTF_16LE, (byte) b3, (byte) b4);
-            }
+        int b3 = head[2] & 0xff;
+        if (b1 == 0xef && b2 == 0xbb && b3 == 0xbf) {
+            // UTF-8 with BOM
+            return UTF_8;
+        }
 
-            if (b1 == 0 && b3 == 0) {
-                if (b2 == 0) {
-                    return createReader(in, UTF_32BE, (byte) b1, (byte) b2, (byte) b3, (byte) b4);
-                } else {
-                    return createReader(in, UTF_16BE, (byte) b1, (byte) b2, (byte) b3, (byte) b4);
-                }
-            } else if (b2 == 0 && b4 == 0) {
-                if (b3 == 0) {
-                    return createReader(in, UTF_32LE, (byte) b1, (byte) b2, (byte) b3, (byte) b4);
-                } else {
-                    return createReader(in, UTF_16LE, (byte) b1, (byte) b2, (byte) b3, (byte) b4);
-                }
+        if (length == 3) {
+            // 3 letters
+            return DEFAULT_ENCODING;
+        }
+
+        // 4 letters or more
+
+        int b4 = head[3] & 0xff;
+        if (b1 == 0 && b2 == 0 && b3 == 0xfe && b4 == 0xff) {
+            // UTF-32BE with BOM
+            return UTF_32BE;
+        } else if (b1 == 0xff && b2 == 0xfe && b3 == 0 && b4 == 0) {
+            // UTF-32LE with BOM
+            return UTF_32LE;
+        } else if (b1 == 0xff && b2 == 0xfe) {
+            // UTF-16LE with BOM
+            return UTF_16LE;
+        }
+
+        if (b1 == 0 && b3 == 0) {
+            if (b2 == 0) {
+                return UTF_32BE;
+            } else {
+                return UTF_16BE;
             }
+        } else if (b2 == 0 && b4 == 0) {
+            if (b3 == 0) {
+                return UTF_32LE;
+            } else {
+                return UTF_16LE;
+            }
+        }
 
-            return createReader(in, DEFAULT_ENCODING, (byte) b1, (byte) b2, (byte) b3, (byte) b4);
+        return DEFAULT_ENCODING;
+    }
 
+    /**
+     * Returns the length of the byte order mark at the beginning of the input.
+     *
+     * @param charset the character encoding detected.
+     * @param head    the first bytes of the input.
+     * @param length  the number of bytes in {@code head}.
+     * @return the length of the byte order mark, or 0 if the input does not
+     *         start with the byte order mark.
+     */
+    static int getBomLength(Charset charset, byte[] head, int length) {
+        if (charset.equals(UTF_8)) {
+            if (startsWith(head, length, 0xef, 0xbb, 0xbf)) {
+                return 3;
+            }
+        } else if (charset.equals(UTF_16BE)) {
+            if (startsWith(head, length, 0xfe, 0xff)) {
+                return 2;
+            }
+        } else if (charset.equals(UTF_16LE)) {
+            if (startsWith(head, length, 0xff, 0xfe)) {
+                return 2;
+            }
+        } else if (charset.equals(UTF_32BE)) {
+            if (startsWith(head, length, 0, 0, 0xfe, 0xff)) {
+                return 4;
+            }
+        } else if (charset.equals(UTF_32LE)) {
+            if (startsWith(head, length, 0xff, 0xfe, 0, 0)) {
+                return 4;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Creates a reader which will read from the specified input stream.
+     *
+     * @param in      the original input source.
+     * @param charset the character encoding of the input.
+     * @param head    the first bytes already read from the input.
+     * @param length  the number of bytes in {@code head}.
+     * @return newly create reader.
+     */
+    static Reader createReader(InputStream in, Charset charset, byte[] head, int length) {
+        int bomLength = getBomLength(charset, head, length);
+        if (bomLength == length) {
+            return new InputStreamReader(in, charset);
+        }
+        try {
+            PushbackInputStream s = new PushbackInputStream(in, length - bomLength);
+            s.unread(head, bomLength, length - bomLength);
+            return new InputStreamReader(s, charset);
         } catch (IOException e) {
             throw new JsonException(Message.thatIOErrorOccurredWhileParserWasReading(), e);
         }
     }
 
-    private static Reader createReader(InputStream in, Charset charset) {
-        return new InputStreamReader(in, charset);
+    /**
+     * Creates a reader which will read the remaining bytes in the specified
+     * buffer. The buffer itself is not modified.
+     *
+     * @param buffer  the buffer containing the whole input.
+     * @param charset the character encoding of the input.
+     * @param start   the index of the first byte to read in the buffer.
+     * @return newly create reader.
+     */
+    static Reader createReader(ByteBuffer buffer, Charset charset, int start) {
+        ByteBuffer source = buffer.duplicate();
+        source.position(start);
+        CharBuffer chars = charset.decode(source);
+        return new CharArrayReader(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
     }
 
-    private static Reader createReader(InputStream in, Charset charset, byte... bytes) throws IOException {
-        PushbackInputStream s = new PushbackInputStream(in, bytes.length);
-        s.unread(bytes);
-        return new InputStreamReader(s, charset);
+    private static boolean startsWith(byte[] head, int length, int... bytes) {
+        if (length < bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if ((head[i] & 0xff) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     private static JsonException unknownEncodingException() {
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.leadpony.joy.api.BufferPool;
+
+/**
+ * A skeletal implementation of {@link BufferPool} which keeps buffers
+ * without locking.
+ *
+ * <p>
+ * The slots keeping the buffers are divided into stripes, and each thread
+ * uses the stripe selected by its identifier. A buffer is taken from and
+ * released to a slot by compare-and-set, so the threads using different
+ * stripes never contend with each other, and the threads sharing a stripe
+ * never block. When all the slots in the stripe are empty, a new buffer is
+ * created. When all of them are full, the released buffer is left to the
+ * garbage collector.
+ * </p>
+ *
+ * <p>
+ * An adaptive pool starts with small buffers. When a buffer longer than the
+ * current size is released, typically a buffer grown by a parser to hold a
+ * long token, the pool creates buffers of that length afterwards, up to the
+ * maximum size. The buffers shorter than the current size or longer than the
+ * maximum size are not kept.
+ * </p>
+ *
+ * @param <T> the type of the buffers.
+ * @author leadpony
+ */
+abstract class StripedBufferPool<T> implements BufferPool {
+
+    private final AtomicInteger bufferSize;
+    private final int maxBufferSize;
+    private final int stripeShift;
+    private final int slotsPerStripe;
+
+    private final AtomicReferenceArray<WeakReference<T>> slots;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Constructs this pool.
+     *
+     * @param capacity   the maximum number of buffers to keep.
+     * @param bufferSize the size of the buffers to create.
+     */
+    StripedBufferPool(int capacity, int bufferSize) {
+        this(capacity, bufferSize, bufferSize);
+    }
+
+    /**
+     * Constructs this pool adapting the size of buffers.
+     *
+     * @param capacity      the maximum number of buffers to keep.
+     * @param bufferSize    the initial size of the buffers to create.
+     * @param maxBufferSize the maximum size of the buffers to create and keep.
+     */
+    StripedBufferPool(int capacity, int bufferSize, int maxBufferSize) {
+        this.bufferSize = new AtomicInteger(bufferSize);
+        this.maxBufferSize = maxBufferSize;
+        int stripes = Integer.highestOneBit(Math.min(capacity, Runtime.getRuntime().availableProcessors() * 2));
+        this.stripeShift = Integer.SIZE - Integer.numberOfTrailingZeros(stripes);
+        // Rounds down so that the pool never keeps more buffers than the capacity.
+        this.slotsPerStripe = capacity / stripes;
+        this.slots = new AtomicReferenceArray<>(stripes * slotsPerStripe);
+    }
+
+    @Override
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    @Override
+    public int getBufferSize() {
+        return bufferSize.get();
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Takes a buffer kept in this pool, or creates a new one.
+     *
+     * @return the buffer taken or created.
+     */
+    final T takeBuffer() {
+        final AtomicReferenceArray<WeakReference<T>> slots = this.slots;
+        final int first = firstSlot();
+        final int last = first + slotsPerStripe;
+        for (int i = first; i < last; i++) {
+            WeakReference<T> ref = slots.get(i);
+            if (ref != null && slots.compareAndSet(i, ref, null)) {
+                T buffer = ref.get();
+                if (buffer != null) {
+                    hits.increment();
+                    return buffer;
+                }
+            }
+        }
+        misses.increment();
+        return newBuffer(bufferSize.get());
+    }
+
+    /**
+     * Puts the specified buffer into this pool if it has an empty slot.
+     *
+     * @param buffer the buffer to put.
+     */
+    final void putBuffer(T buffer) {
+        final int length = lengthOf(buffer);
+        if (length > maxBufferSize) {
+            return;
+        } else if (length > bufferSize.get()) {
+            bufferSize.accumulateAndGet(length, Math::max);
+        } else if (length < bufferSize.get()) {
+            return;
+        }
+        final AtomicReferenceArray<WeakReference<T>> slots = this.slots;
+        final int first = firstSlot();
+        final int last = first + slotsPerStripe;
+        WeakReference<T> newRef = null;
+        for (int i = first; i < last; i++) {
+            WeakReference<T> ref = slots.get(i);
+            // The slot is empty or its buffer was reclaimed.
+            if (ref == null || ref.get() == null) {
+                if (newRef == null) {
+                    newRef = new WeakReference<>(buffer);
+                }
+                if (slots.compareAndSet(i, ref, newRef)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a new buffer.
+     *
+     * @param size the size of the buffer.
+     * @return newly created buffer.
+     */
+    abstract T newBuffer(int size);
+
+    /**
+     * Returns the size of the specified buffer.
+     *
+     * @param buffer the buffer to measure.
+     * @return the size of the buffer.
+     */
+    abstract int lengthOf(T buffer);
+
+    private int firstSlot() {
+        if (stripeShift == Integer.SIZE) {
+            return 0;
+        }
+        // Spreads the sequential identifiers of threads over the stripes.
+        int hash = (int) Thread.currentThread().getId() * 0x9e3779b9;
+        return (hash >>> stripeShift) * slotsPerStripe;
+    }
+}
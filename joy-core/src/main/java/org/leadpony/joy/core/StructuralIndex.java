@@ -0,0 +1,263 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * The structural index of JSON text, which locates the values decoded lazily
+ * by {@link LazyDocument}.
+ *
+ * <p>
+ * The index holds the positions of the structural characters {@code {}[]:,}
+ * and the opening quotation marks of strings, all of which are outside of
+ * strings, and the first bytes of the other tokens such as numbers and
+ * literals. A byte is regarded as the first byte of a token if it is neither
+ * whitespace nor structural and follows whitespace or a structural character.
+ * Any other byte outside of strings is therefore either whitespace or a part
+ * of the token starting at the last position in the index.
+ * </p>
+ *
+ * <p>
+ * Whether a quotation mark is escaped or not is decided only by the number of
+ * the reverse solidi preceding it. The number of unescaped quotation marks
+ * preceding a position tells whether the position is inside of a string. This
+ * allows the input to be divided into chunks, each of which is indexed
+ * independently, after counting the quotation marks in all the chunks.
+ * </p>
+ *
+ * <p>
+ * The index built from invalid JSON text may not reflect the actual tokens.
+ * The parser using the index must validate the tokens as usual.
+ * </p>
+ *
+ * @author leadpony
+ */
+final class StructuralIndex {
+
+    // The minimum size of the input indexed in parallel.
+    static final int MIN_PARALLEL_SIZE = 1 << 22;
+    // The size of the chunks indexed in parallel.
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    private static final byte WHITESPACE = 1;
+    private static final byte STRUCTURAL = 2;
+    private static final byte QUOTATION_MARK = 3;
+    private static final byte OTHER = 0;
+
+    private static final byte[] CLASSES = new byte[256];
+
+    static {
+        CLASSES[' '] = WHITESPACE;
+        CLASSES['\t'] = WHITESPACE;
+        CLASSES['\n'] = WHITESPACE;
+        CLASSES['\r'] = WHITESPACE;
+        CLASSES['{'] = STRUCTURAL;
+        CLASSES['}'] = STRUCTURAL;
+        CLASSES['['] = STRUCTURAL;
+        CLASSES[']'] = STRUCTURAL;
+        CLASSES[':'] = STRUCTURAL;
+        CLASSES[','] = STRUCTURAL;
+        CLASSES['"'] = QUOTATION_MARK;
+    }
+
+    private static final long QUOTATION_MARKS = Swar.repeat((byte) '"');
+
+    private int[] positions;
+    private int size;
+
+    private StructuralIndex(int capacity) {
+        this.positions = new int[Math.max(capacity, 16)];
+    }
+
+    /**
+     * Builds the structural index of the specified range of the buffer. The
+     * buffer must be in little-endian order.
+     *
+     * @param buffer   the buffer containing JSON text.
+     * @param start    the index of the first byte.
+     * @param end      the index next to the last byte.
+     * @param parallel {@code true} to index large input in parallel.
+     * @return the positions in the index, terminated by {@code end}.
+     */
+    static int[] build(ByteBuffer buffer, int start, int end, boolean parallel) {
+        final int length = end - start;
+        if (!parallel || length < MIN_PARALLEL_SIZE) {
+            StructuralIndex index = new StructuralIndex(length / 4);
+            index.scan(buffer, start, start, end, false);
+            return index.toArray(end);
+        }
+
+        final int chunks = (length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        final int[] quotes = IntStream.range(0, chunks).parallel()
+                .map(i -> countQuotes(buffer, start, start + i * CHUNK_SIZE, chunkEnd(start, end, i)))
+                .toArray();
+        final boolean[] inString = new boolean[chunks];
+        for (int i = 1; i < chunks; i++) {
+            inString[i] = inString[i - 1] ^ ((quotes[i - 1] & 1) != 0);
+        }
+        StructuralIndex[] indexes = IntStream.range(0, chunks).parallel()
+                .mapToObj(i -> {
+                    StructuralIndex index = new StructuralIndex(CHUNK_SIZE / 4);
+                    index.scan(buffer, start, start + i * CHUNK_SIZE, chunkEnd(start, end, i), inString[i]);
+                    return index;
+                })
+                .toArray(StructuralIndex[]::new);
+
+        int total = 0;
+        for (StructuralIndex index : indexes) {
+            total += index.size;
+        }
+        int[] positions = new int[total + 1];
+        int offset = 0;
+        for (StructuralIndex index : indexes) {
+            System.arraycopy(index.positions, 0, positions, offset, index.size);
+            offset += index.size;
+        }
+        positions[total] = end;
+        return positions;
+    }
+
+    private static int chunkEnd(int start, int end, int chunk) {
+        return (int) Math.min(end, start + (long) (chunk + 1) * CHUNK_SIZE);
+    }
+
+    /**
+     * Counts the unescaped quotation marks in the specified range.
+     *
+     * @param start the index of the first byte of the whole input.
+     */
+    private static int countQuotes(ByteBuffer buffer, int start, int from, int to) {
+        int count = 0;
+        int i = from;
+        while (i < to) {
+            i = findClosingQuote(buffer, start, i, to);
+            if (i < to) {
+                count++;
+                i++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks if the byte at the specified position is preceded by an odd
+     * number of reverse solidi, which are looked for back to the beginning of
+     * the whole input.
+     */
+    private static boolean isEscaped(ByteBuffer buffer, int start, int position) {
+        int i = position - 1;
+        while (i >= start && buffer.get(i) == '\\') {
+            i--;
+        }
+        return ((position - 1 - i) & 1) != 0;
+    }
+
+    /**
+     * Indexes the specified range of the buffer.
+     *
+     * @param start    the index of the first byte of the whole input.
+     * @param inString {@code true} if the range starts inside of a string.
+     */
+    private void scan(ByteBuffer buffer, int start, int from, int to, boolean inString) {
+        boolean afterSeparator = (from == start) || isSeparator(buffer.get(from - 1));
+        int i = from;
+        while (i < to) {
+            if (inString) {
+                i = findClosingQuote(buffer, start, i, to);
+                if (i >= to) {
+                    break;
+                }
+                // Skips the closing quotation mark.
+                i++;
+                inString = false;
+                afterSeparator = false;
+                continue;
+            }
+            final byte b = buffer.get(i);
+            switch (CLASSES[b & 0xff]) {
+            case WHITESPACE:
+                afterSeparator = true;
+                break;
+            case STRUCTURAL:
+                add(i);
+                afterSeparator = true;
+                break;
+            case QUOTATION_MARK:
+                add(i);
+                inString = true;
+                break;
+            default:
+                if (afterSeparator) {
+                    add(i);
+                    afterSeparator = false;
+                }
+                break;
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Finds the first unescaped quotation mark in the specified range.
+     *
+     * @param start the index of the first byte of the whole input.
+     * @return the position found, or {@code to} if not found.
+     */
+    private static int findClosingQuote(ByteBuffer buffer, int start, int from, int to) {
+        int i = from;
+        final int lastWord = to - Swar.WORD_BYTES;
+        while (i <= lastWord) {
+            long mask = Swar.zeroBytes(buffer.getLong(i) ^ QUOTATION_MARKS);
+            if (mask == 0) {
+                i += Swar.WORD_BYTES;
+                continue;
+            }
+            // Only the first byte found is exact.
+            i += Swar.firstIndex(mask);
+            if (!isEscaped(buffer, start, i)) {
+                return i;
+            }
+            i++;
+        }
+        for (; i < to; i++) {
+            if (buffer.get(i) == '"' && !isEscaped(buffer, start, i)) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private static boolean isSeparator(byte b) {
+        byte c = CLASSES[b & 0xff];
+        return c == WHITESPACE || c == STRUCTURAL;
+    }
+
+    private void add(int position) {
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, size * 2);
+        }
+        positions[size++] = position;
+    }
+
+    private int[] toArray(int end) {
+        int[] result = Arrays.copyOf(positions, size + 1);
+        result[size] = end;
+        return result;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+/**
+ * A utility class for scanning 8 bytes at once, which are packed into a
+ * {@code long} in little-endian order.
+ *
+ * <p>
+ * The methods of this class return a mask in which the most significant bit of
+ * each byte is set if the byte matched. Only the lowest bit set in the mask is
+ * exact, which is sufficient to find the first matched byte.
+ * </p>
+ *
+ * @author leadpony
+ */
+final class Swar {
+
+    /**
+     * The number of bytes in a word.
+     */
+    static final int WORD_BYTES = 8;
+
+    static final long SPACES = 0x2020202020202020L;
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long QUOTATION_MARKS = 0x2222222222222222L;
+    private static final long REVERSE_SOLIDUS = 0x5c5c5c5c5c5c5c5cL;
+    private static final long LINE_FEEDS = 0x0a0a0a0a0a0a0a0aL;
+    private static final long CARRIAGE_RETURNS = 0x0d0d0d0d0d0d0d0dL;
+    // Maps all of '[', ']', '{' and '}' to 0x79.
+    private static final long BRACKET_BITS = 0x2020202020202020L;
+    private static final long BRACKET_MASK = ~0x0606060606060606L;
+    private static final long BRACKETS = 0x7979797979797979L;
+
+    /**
+     * Finds the bytes which are zero.
+     *
+     * @param word the bytes to test.
+     * @return the mask of the bytes found.
+     */
+    static long zeroBytes(long word) {
+        return (word - ONES) & ~word & HIGH_BITS;
+    }
+
+    /**
+     * Returns a word filled with the specified byte, which can be used to find
+     * the byte with {@link #zeroBytes(long)}.
+     *
+     * @param b the byte to fill.
+     * @return the word filled with the byte.
+     */
+    static long repeat(byte b) {
+        return ONES * (b & 0xff);
+    }
+
+    /**
+     * Finds the bytes which must stop the scanning of a string, that is,
+     * quotation marks, reverse solidi and control characters.
+     *
+     * @param word the bytes to test.
+     * @return the mask of the bytes found.
+     */
+    static long stringStoppers(long word) {
+        return zeroBytes(word ^ QUOTATION_MARKS)
+                | zeroBytes(word ^ REVERSE_SOLIDUS)
+                | ((word - SPACES) & ~word & HIGH_BITS);
+    }
+
+    /**
+     * Finds the bytes which must stop the skipping outside of strings, that
+     * is, quotation marks, brackets and line terminators. Some other bytes
+     * such as {@code 'Y'} and {@code '_'} may also be found.
+     *
+     * @param word the bytes to test.
+     * @return the mask of the bytes found.
+     */
+    static long skipStoppers(long word) {
+        return zeroBytes(word ^ QUOTATION_MARKS)
+                | zeroBytes(((word | BRACKET_BITS) & BRACKET_MASK) ^ BRACKETS)
+                | zeroBytes(word ^ LINE_FEEDS)
+                | zeroBytes(word ^ CARRIAGE_RETURNS);
+    }
+
+    /**
+     * Returns the index of the first byte found.
+     *
+     * @param mask the mask returned by other methods, which must not be zero.
+     * @return the index of the byte in the word.
+     */
+    static int firstIndex(long mask) {
+        return Long.numberOfTrailingZeros(mask) >>> 3;
+    }
+
+    private Swar() {
+    }
+}
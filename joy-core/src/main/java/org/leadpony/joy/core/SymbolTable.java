@@ -0,0 +1,137 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A bounded table of key names, which returns the same {@code String}
+ * instance for the same key name.
+ *
+ * <p>
+ * The table is a direct-mapped cache. Each key name is stored in the slot
+ * determined by its hash code, evicting the key name stored there before.
+ * The table can be shared by parsers in different threads without locking,
+ * because the slots hold only immutable strings.
+ * </p>
+ *
+ * @author leadpony
+ */
+final class SymbolTable {
+
+    static final int DEFAULT_SIZE = 1024;
+
+    /*
+     * Key names longer than this are not worth caching.
+     */
+    private static final int MAX_KEY_LENGTH = 64;
+
+    private final String[] slots;
+    private final int mask;
+
+    /**
+     * Constructs this table.
+     *
+     * @param maxSize the maximum number of key names to keep, which must be
+     *                positive. The actual size is the largest power of two
+     *                not greater than this.
+     */
+    SymbolTable(int maxSize) {
+        int size = Integer.highestOneBit(maxSize);
+        this.slots = new String[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the key name in the specified range of a char array.
+     *
+     * @param chars the array containing the key name.
+     * @param start the index of the first character.
+     * @param end   the index next to the last character.
+     * @return the key name, which may be shared.
+     */
+    String intern(char[] chars, int start, int end) {
+        final int length = end - start;
+        if (length > MAX_KEY_LENGTH) {
+            return new String(chars, start, length);
+        }
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        final int slot = slotOf(hash);
+        String symbol = slots[slot];
+        if (symbol != null
+                && symbol.length() == length
+                && CharArraySequence.startsWith(chars, start, end, symbol)) {
+            return symbol;
+        }
+        symbol = new String(chars, start, length);
+        slots[slot] = symbol;
+        return symbol;
+    }
+
+    /**
+     * Returns the key name in the specified range of a byte buffer, if all of
+     * the bytes are in the US-ASCII range.
+     *
+     * @param bytes the buffer containing the key name.
+     * @param start the index of the first byte.
+     * @param end   the index next to the last byte.
+     * @return the key name, which may be shared, or {@code null} if the bytes
+     *         are not in the US-ASCII range or the key name is too long.
+     */
+    String intern(ByteBuffer bytes, int start, int end) {
+        final int length = end - start;
+        if (length > MAX_KEY_LENGTH) {
+            return null;
+        }
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            byte b = bytes.get(i);
+            if (b < 0) {
+                return null;
+            }
+            hash = 31 * hash + b;
+        }
+        final int slot = slotOf(hash);
+        String symbol = slots[slot];
+        if (symbol != null && symbol.length() == length && matches(symbol, bytes, start)) {
+            return symbol;
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) bytes.get(start + i);
+        }
+        symbol = new String(chars);
+        slots[slot] = symbol;
+        return symbol;
+    }
+
+    private int slotOf(int hash) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static boolean matches(String symbol, ByteBuffer bytes, int start) {
+        final int length = symbol.length();
+        for (int i = 0; i < length; i++) {
+            if (symbol.charAt(i) != bytes.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+/**
+ * A scanner which finds the end of the next token in UTF-8 input given chunk
+ * by chunk, without validating the token.
+ *
+ * <p>
+ * The scanner keeps its position inside a partial token between the chunks,
+ * so each byte is scanned only once however the input is split. It skips
+ * whitespace and at most one separator preceding the token, and counts the
+ * lines in them. It also counts what the parser will limit in a partial
+ * token: the minimum length of a string after unescaping, and the digits and
+ * the exponent of a number.
+ * </p>
+ *
+ * @author leadpony
+ */
+final class TokenScanner {
+
+    private enum Phase {
+        SPACE,
+        STRING,
+        ESCAPE,
+        NUMBER,
+        LITERAL,
+        ENDED
+    }
+
+    private Phase phase;
+
+    // The stream offset of the position where the scanning started.
+    private long start;
+    // The stream offset of the next byte to scan.
+    private long offset;
+    private long lineNumber;
+    // The stream offset of the first byte in the current line.
+    private long lineOffset;
+    private boolean afterCarriageReturn;
+    private boolean separatorSeen;
+
+    // The stream offset of the first byte of the token, or -1.
+    private long tokenStart;
+    // The minimum length of the string after unescaping.
+    private int stringLength;
+    // The number of the hexadecimal digits to skip in the string.
+    private int digitsToSkip;
+    // The number of the letters remaining in the literal.
+    private int lettersRemaining;
+    private int numberDigits;
+    private long numberExponent;
+    private boolean inExponent;
+
+    /**
+     * Constructs this scanner at the beginning of the input.
+     */
+    TokenScanner() {
+        reset(0, 1, 0);
+    }
+
+    /**
+     * Starts scanning a new token at the specified position.
+     *
+     * @param offset     the stream offset to start.
+     * @param lineNumber the line number at the offset.
+     * @param lineOffset the stream offset of the line at the offset.
+     */
+    void reset(long offset, long lineNumber, long lineOffset) {
+        this.start = offset;
+        this.offset = offset;
+        this.lineNumber = lineNumber;
+        this.lineOffset = lineOffset;
+        this.afterCarriageReturn = false;
+        this.separatorSeen = false;
+        startNext();
+    }
+
+    /**
+     * Starts scanning the next token following the current one.
+     */
+    void startNext() {
+        this.phase = Phase.SPACE;
+        this.tokenStart = -1;
+        this.stringLength = 0;
+        this.digitsToSkip = 0;
+        this.numberDigits = 0;
+        this.numberExponent = 0;
+        this.inExponent = false;
+    }
+
+    /**
+     * Scans the bytes until the end of the current token.
+     *
+     * @param bytes the bytes to scan.
+     * @param index the index of the byte at the current offset.
+     * @param end   the end of the bytes available.
+     * @return the index following the last byte scanned.
+     */
+    int scan(byte[] bytes, int index, int end) {
+        Phase phase = this.phase;
+        int i = index;
+        scanning:
+        while (i < end && phase != Phase.ENDED) {
+            final byte b = bytes[i];
+            switch (phase) {
+            case SPACE:
+                if (b == 0x20 || b == '\t') {
+                    afterCarriageReturn = false;
+                } else if (b == '\n' || b == '\r') {
+                    if (b == '\r' || !afterCarriageReturn) {
+                        lineNumber++;
+                    }
+                    lineOffset = offset + (i - index) + 1;
+                    afterCarriageReturn = b == '\r';
+                } else if ((b == ',' || b == ':') && !separatorSeen) {
+                    afterCarriageReturn = false;
+                    separatorSeen = true;
+                } else {
+                    tokenStart = offset + (i - index);
+                    phase = startToken(b);
+                    if (phase == Phase.ENDED) {
+                        // The structural character or the unexpected byte.
+                        i++;
+                        break scanning;
+                    }
+                }
+                break;
+            case STRING:
+                if (b == '"') {
+                    phase = Phase.ENDED;
+                } else if (digitsToSkip > 0) {
+                    digitsToSkip--;
+                } else if (b == '\\') {
+                    stringLength++;
+                    phase = Phase.ESCAPE;
+                } else if (b >= 0 && b < 0x20) {
+                    // Leaves the unexpected byte to the parser.
+                    phase = Phase.ENDED;
+                    break scanning;
+                } else {
+                    stringLength++;
+                }
+                break;
+            case ESCAPE:
+                if (b == 'u') {
+                    digitsToSkip = 4;
+                }
+                phase = Phase.STRING;
+                break;
+            case NUMBER:
+                if ('0' <= b && b <= '9') {
+                    if (inExponent) {
+                        if (numberExponent <= Integer.MAX_VALUE) {
+                            numberExponent = numberExponent * 10 + (b - '0');
+                        }
+                    } else {
+                        numberDigits++;
+                    }
+                } else if (b == 'e' || b == 'E') {
+                    inExponent = true;
+                } else if (b != '.' && b != '+' && b != '-') {
+                    // The byte following the number is not a part of it.
+                    phase = Phase.ENDED;
+                    break scanning;
+                }
+                break;
+            default:
+                if (b < 'a' || b > 'z') {
+                    phase = Phase.ENDED;
+                    break scanning;
+                } else if (--lettersRemaining == 0) {
+                    phase = Phase.ENDED;
+                }
+                break;
+            }
+            i++;
+        }
+        this.phase = phase;
+        this.offset += i - index;
+        return i;
+    }
+
+    private Phase startToken(byte b) {
+        if (b == '"') {
+            return Phase.STRING;
+        } else if (b == '-' || ('0' <= b && b <= '9')) {
+            if (b != '-') {
+                numberDigits++;
+            }
+            return Phase.NUMBER;
+        } else if (b == 't' || b == 'n') {
+            lettersRemaining = 3;
+            return Phase.LITERAL;
+        } else if (b == 'f') {
+            lettersRemaining = 4;
+            return Phase.LITERAL;
+        }
+        return Phase.ENDED;
+    }
+
+    /**
+     * Returns the stream offset where the scanning started.
+     *
+     * @return the offset given by {@link #reset(long, long, long)}.
+     */
+    long getStart() {
+        return start;
+    }
+
+    /**
+     * Returns the stream offset of the next byte to scan.
+     *
+     * @return the offset of the next byte.
+     */
+    long getOffset() {
+        return offset;
+    }
+
+    long getLineNumber() {
+        return lineNumber;
+    }
+
+    long getLineOffset() {
+        return lineOffset;
+    }
+
+    /**
+     * Returns whether any byte other than whitespace was found or not.
+     *
+     * @return {@code true} if a separator or a token was found.
+     */
+    boolean hasStarted() {
+        return separatorSeen || tokenStart >= 0;
+    }
+
+    /**
+     * Returns whether the end of the token was found or not.
+     *
+     * @return {@code true} if the token ended.
+     */
+    boolean hasEnded() {
+        return phase == Phase.ENDED;
+    }
+
+    /**
+     * Returns the stream offset of the first byte of the token.
+     *
+     * @return the offset of the token, or -1 if the token was not found yet.
+     */
+    long getTokenStart() {
+        return tokenStart;
+    }
+
+    /**
+     * Returns the length of the token scanned so far.
+     *
+     * @return the length in bytes.
+     */
+    long getTokenLength() {
+        return (tokenStart < 0) ? 0 : offset - tokenStart;
+    }
+
+    /**
+     * Returns the minimum length of the string scanned so far after unescaping.
+     *
+     * @return the length in bytes.
+     */
+    int getStringLength() {
+        return stringLength;
+    }
+
+    /**
+     * Returns the number of the digits in the integral and fractional parts of
+     * the number scanned so far.
+     *
+     * @return the number of the digits.
+     */
+    int getNumberDigits() {
+        return numberDigits;
+    }
+
+    /**
+     * Returns the absolute value of the exponent scanned so far.
+     *
+     * @return the exponent, which may be larger than {@link Integer#MAX_VALUE}.
+     */
+    long getNumberExponent() {
+        return numberExponent;
+    }
+}
@@ -0,0 +1,1751 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.core;
+
+import static org.leadpony.joy.core.Preconditions.requireNonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonString;
+import jakarta.json.stream.JsonParsingException;
+
+/**
+ * A JSON parser which scans UTF-8 encoded bytes directly.
+ *
+ * <p>
+ * Unlike {@link BasicJsonParser}, this parser does not decode the input into
+ * characters in advance. Structural characters, literals and numbers are all
+ * in the ASCII range and are recognized at the byte level. The contents of
+ * strings and keys are decoded only when they are requested.
+ * </p>
+ * <p>
+ * The input is an input stream read into a pooled buffer, a byte buffer given
+ * as a whole, which is parsed in place and never modified, a file mapped
+ * into memory window by window, or chunks of bytes fed to
+ * {@link NonBlockingJsonParserImpl}.
+ * </p>
+ * <p>
+ * The column numbers and the stream offsets reported by this parser are
+ * counted in bytes.
+ * </p>
+ *
+ * @author leadpony
+ */
+class Utf8JsonParser extends AbstractStreamJsonParser {
+
+    private static final char REPLACEMENT_CHAR = '\uFFFD';
+
+    // The input stream, or {@code null} if the whole input is given as a buffer.
+    private InputStream in;
+    private boolean alreadyClosed;
+
+    private final ByteBufferFactory bufferFactory;
+
+    private boolean eoi;
+
+    // The file channel, or {@code null} if the input is not a file.
+    private final FileChannel channel;
+    // The position in the file at which the current window starts.
+    private long windowPosition;
+    // The end position of the input in the file.
+    private long channelEnd;
+    private int windowSize;
+
+    // The array backing the read buffer, which is used only for input streams.
+    private byte[] readArray;
+    private ByteBuffer readBuffer;
+    private int readStart;
+    private int readEnd;
+    private int readPos;
+
+    private int valueStart;
+    private int valueEnd;
+
+    /*
+     * Whether the current string contains any escape sequences or not. If it
+     * does, the unescaped bytes are stored in the unescape buffer.
+     */
+    private boolean escaped;
+    private byte[] unescapeBuffer;
+    private int unescapedLength;
+
+    private long lineNumber;
+
+    /*
+     * The stream offset of the first byte in the read buffer.
+     */
+    private long bufferOffset;
+
+    /*
+     * The stream offset of the first byte in the current line.
+     */
+    private long lineOffset;
+
+    private boolean hasFracOrExp;
+
+    private char[] charBuffer;
+    private CharArraySequence charSequence;
+    private CharsetDecoder decoder;
+
+    /**
+     * Constructs this parser.
+     *
+     * @param in            the input stream to read.
+     * @param buffer        the buffer which may already contain the first bytes
+     *                      of the input.
+     * @param start         the index of the first byte to parse in the buffer.
+     * @param end           the index of the end of the bytes in the buffer.
+     * @param bufferFactory the factory which created the buffer.
+     */
+    Utf8JsonParser(InputStream in, byte[] buffer, int start, int end, ByteBufferFactory bufferFactory) {
+        this.in = in;
+        this.channel = null;
+        this.bufferFactory = bufferFactory;
+
+        this.lineNumber = 1;
+        setReadArray(buffer);
+        this.readStart = start;
+        this.readPos = start;
+        this.readEnd = end;
+    }
+
+    /**
+     * Constructs this parser which parses the remaining bytes in the specified
+     * buffer. Neither the content nor the position of the buffer is modified.
+     *
+     * @param buffer the buffer containing the whole input.
+     * @param start  the index of the first byte to parse in the buffer.
+     */
+    Utf8JsonParser(ByteBuffer buffer, int start) {
+        this.in = null;
+        this.channel = null;
+        this.bufferFactory = null;
+        this.eoi = true;
+
+        this.lineNumber = 1;
+        this.readBuffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.readStart = start;
+        this.readPos = start;
+        this.readEnd = buffer.limit();
+    }
+
+    /**
+     * Constructs this parser which parses a file through the memory-mapped
+     * windows of it.
+     *
+     * @param channel    the file channel to read.
+     * @param window     the first window already mapped.
+     * @param position   the position in the file at which the first window
+     *                   starts.
+     * @param start      the index of the first byte to parse in the first
+     *                   window.
+     * @param end        the end position of the input in the file.
+     * @param windowSize the preferred size of the windows.
+     */
+    Utf8JsonParser(FileChannel channel, ByteBuffer window, long position, int start, long end, int windowSize) {
+        this.in = null;
+        this.channel = channel;
+        this.bufferFactory = null;
+        this.windowPosition = position;
+        this.channelEnd = end;
+        this.windowSize = windowSize;
+
+        this.lineNumber = 1;
+        this.readBuffer = window;
+        this.readStart = start;
+        this.readPos = start;
+        this.readEnd = window.limit();
+    }
+
+    /**
+     * Constructs this parser which parses the bytes appended by
+     * {@link #appendInput(ByteBuffer, long)}.
+     *
+     * @param bufferFactory the factory of the buffer holding the bytes.
+     */
+    Utf8JsonParser(ByteBufferFactory bufferFactory) {
+        this.in = null;
+        this.channel = null;
+        this.bufferFactory = bufferFactory;
+
+        this.lineNumber = 1;
+        setReadArray(bufferFactory.createBuffer());
+    }
+
+    /* As a JsonParser */
+
+    @Override
+    public String getString() {
+        if (!hasString()) {
+            throw newIllegalStateException("getString()");
+        }
+        SymbolTable symbolTable = getSymbolTable();
+        if (symbolTable != null && getCurrentEvent() == Event.KEY_NAME) {
+            return internKeyName(symbolTable);
+        }
+        return buildString();
+    }
+
+    @Override
+    public CharSequence getCharSequence() {
+        if (!hasString()) {
+            throw newIllegalStateException("getCharSequence()");
+        }
+        final int length = decodeChars();
+        CharArraySequence view = this.charSequence;
+        if (view == null) {
+            view = new CharArraySequence();
+            this.charSequence = view;
+        }
+        return view.reset(charBuffer, 0, length);
+    }
+
+    @Override
+    public boolean contentEquals(CharSequence chars) {
+        requireNonNull(chars, "chars");
+        if (!hasString()) {
+            throw newIllegalStateException("contentEquals()");
+        }
+        return matchString(chars, false);
+    }
+
+    @Override
+    public boolean startsWith(CharSequence prefix) {
+        requireNonNull(prefix, "prefix");
+        if (!hasString()) {
+            throw newIllegalStateException("startsWith()");
+        }
+        return matchString(prefix, true);
+    }
+
+    @Override
+    public boolean isIntegralNumber() {
+        if (getCurrentEvent() != Event.VALUE_NUMBER) {
+            throw newIllegalStateException("isIntegralNumber()");
+        }
+        return !hasFracOrExp || getBigDecimal().scale() == 0;
+    }
+
+    @Override
+    public int getInt() {
+        if (getCurrentEvent() != Event.VALUE_NUMBER) {
+            throw newIllegalStateException("getInt()");
+        }
+        if (canGetIntStrictly()) {
+            return getStrictInt();
+        } else {
+            return getBigDecimal().intValue();
+        }
+    }
+
+    @Override
+    public long getLong() {
+        if (getCurrentEvent() != Event.VALUE_NUMBER) {
+            throw newIllegalStateException("getLong()");
+        }
+        if (canGetLongStrictly()) {
+            return getStrictLong();
+        } else {
+            return getBigDecimal().longValue();
+        }
+    }
+
+    @Override
+    public BigDecimal getBigDecimal() {
+        if (getCurrentEvent() != Event.VALUE_NUMBER) {
+            throw newIllegalStateException("getBigDecimal()");
+        }
+        return buildBigDecimal();
+    }
+
+    @Override
+    public double getDouble() {
+        if (getCurrentEvent() != Event.VALUE_NUMBER) {
+            throw newIllegalStateException("getDouble()");
+        }
+        if (canGetLongStrictly()) {
+            return getStrictLong();
+        } else {
+            return DoubleParser.parse(readBuffer, valueStart, valueEnd);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (alreadyClosed) {
+            return;
+        }
+
+        if (readArray != null) {
+            bufferFactory.releaseBuffer(readArray);
+        }
+        closeInput();
+    }
+
+    /**
+     * Closes the input stream or the file channel, keeping the buffers of
+     * this parser for {@link #reset(InputStream, int, int)} and
+     * {@link #reset(ByteBuffer, int)}.
+     */
+    @Override
+    final void closeInput() {
+        if (alreadyClosed) {
+            return;
+        }
+
+        alreadyClosed = true;
+
+        if (in == null && channel == null) {
+            return;
+        }
+
+        try {
+            if (in != null) {
+                in.close();
+            } else {
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw newJsonException(Message.thatIOErrorOccurredWhileParserWasClosing(), e);
+        }
+    }
+
+    @Override
+    void truncateInput() {
+        this.readEnd = readStart + limitReadLength(bufferOffset, readEnd - readStart);
+    }
+
+    /**
+     * Returns the array into which the input stream is read.
+     *
+     * @return the array backing the read buffer for input streams.
+     */
+    final byte[] getReadArray() {
+        return readArray;
+    }
+
+    /**
+     * Resets this parser to parse the specified input stream, reusing the
+     * buffers. This parser must have been closed by {@link #closeInput()}.
+     *
+     * @param in    the input stream to read.
+     * @param start the index of the first byte to parse in the read array.
+     * @param end   the index of the end of the bytes already read into the
+     *              read array.
+     */
+    final void reset(InputStream in, int start, int end) {
+        this.in = in;
+        this.eoi = false;
+        if (!readBuffer.hasArray() || readBuffer.array() != readArray) {
+            setReadArray(readArray);
+        }
+        resetInput(start, end);
+    }
+
+    /**
+     * Resets this parser to parse the remaining bytes in the specified
+     * buffer, reusing the buffers. This parser must have been closed by
+     * {@link #closeInput()}.
+     *
+     * @param buffer the buffer containing the whole input, which must be in
+     *               little-endian byte order.
+     * @param start  the index of the first byte to parse in the buffer.
+     */
+    final void reset(ByteBuffer buffer, int start) {
+        this.in = null;
+        this.eoi = true;
+        this.readBuffer = buffer;
+        resetInput(start, buffer.limit());
+    }
+
+    private void resetInput(int start, int end) {
+        this.alreadyClosed = false;
+        this.readStart = start;
+        this.readPos = start;
+        this.readEnd = end;
+        this.valueStart = 0;
+        this.valueEnd = 0;
+        this.escaped = false;
+        this.lineNumber = 1;
+        this.bufferOffset = 0;
+        this.lineOffset = 0;
+        this.hasFracOrExp = false;
+        resetState();
+        truncateInput();
+    }
+
+    /* As a AbstractStreamJsonParser */
+
+    @Override
+    int peekNonSpaceChar() {
+        if (!isTrackingLines()) {
+            return peekNonSpaceCharIgnoringLines();
+        }
+        for (;;) {
+            ByteBuffer buffer = this.readBuffer;
+            int readPos = this.readPos;
+            int readEnd = this.readEnd;
+            while (readPos < readEnd) {
+                byte b = buffer.get(readPos);
+                if (b > 0x20 || b < 0) {
+                    this.readPos = readPos;
+                    return b & 0xff;
+                } else if (b == 0x20 || b == '\t') {
+                    readPos = skipSpaces(buffer, readPos + 1, readEnd);
+                } else if (b == '\n') {
+                    startNewLine(++readPos);
+                } else if (b == '\r') {
+                    if (++readPos >= readEnd) {
+                        this.readPos = readPos;
+                        if (!fillReadBuffer(readEnd)) {
+                            return -1;
+                        }
+                        buffer = this.readBuffer;
+                        readPos = this.readPos;
+                        readEnd = this.readEnd;
+                    }
+                    if (buffer.get(readPos) == '\n') {
+                        readPos++;
+                    }
+                    startNewLine(readPos);
+                } else {
+                    this.readPos = readPos;
+                    throw newUnexpectedCharException(b & 0xff);
+                }
+            }
+
+            this.readPos = readPos;
+            if (!fillReadBuffer(readEnd)) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Skips whitespace without counting lines.
+     *
+     * @return the next non-whitespace byte, or -1 if the end of input was
+     *         reached.
+     */
+    private int peekNonSpaceCharIgnoringLines() {
+        for (;;) {
+            final ByteBuffer buffer = this.readBuffer;
+            int readPos = this.readPos;
+            final int readEnd = this.readEnd;
+            while (readPos < readEnd) {
+                byte b = buffer.get(readPos);
+                if (b > 0x20 || b < 0) {
+                    this.readPos = readPos;
+                    return b & 0xff;
+                } else if (b == 0x20 || b == '\t' || b == '\n' || b == '\r') {
+                    // Indentation follows line breaks in most cases.
+                    readPos = skipSpaces(buffer, readPos + 1, readEnd);
+                } else {
+                    this.readPos = readPos;
+                    throw newUnexpectedCharException(b & 0xff);
+                }
+            }
+
+            this.readPos = readPos;
+            if (!fillReadBuffer(readEnd)) {
+                return -1;
+            }
+        }
+    }
+
+    @Override
+    void consumeChar() {
+        readPos++;
+    }
+
+    @Override
+    long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    long getColumnNumber() {
+        return 1L + getStreamOffset() - lineOffset;
+    }
+
+    @Override
+    long getStreamOffset() {
+        return bufferOffset + (readPos - readStart);
+    }
+
+    @Override
+    void parseTrue() {
+        // Consumes 't'
+        consumeChar();
+
+        consumeChar('r');
+        consumeChar('u');
+        consumeChar('e');
+    }
+
+    @Override
+    void parseFalse() {
+        // Consumes 'f'
+        consumeChar();
+
+        consumeChar('a');
+        consumeChar('l');
+        consumeChar('s');
+        consumeChar('e');
+    }
+
+    @Override
+    void parseNull() {
+        // Consumes 'n'
+        consumeChar();
+
+        consumeChar('u');
+        consumeChar('l');
+        consumeChar('l');
+    }
+
+    @Override
+    void parseString() {
+        // Consumes the opening quotation mark
+        this.valueStart = ++this.readPos;
+        this.escaped = false;
+
+        for (;;) {
+            final ByteBuffer buffer = this.readBuffer;
+            int readPos = this.readPos;
+            final int readEnd = this.readEnd;
+            // The position of the first byte beyond the maximum length.
+            final int limit = (int) Math.min(readEnd, (long) this.valueStart + getMaxStringLength());
+
+            while (readPos < readEnd) {
+                byte b = buffer.get(readPos);
+                if (b == '"') {
+                    // Consumes the closing quotation mark
+                    this.readPos = readPos + 1;
+                    this.valueEnd = readPos;
+                    return;
+                } else if (b == '\\') {
+                    this.readPos = readPos;
+                    this.valueEnd = readPos;
+                    parseEscapedString();
+                    return;
+                } else if (b >= 0x20 || b < 0) {
+                    if (readPos >= limit) {
+                        this.readPos = readPos;
+                        throw newStringLengthException();
+                    }
+                    readPos = skipStringBytes(buffer, readPos + 1, limit);
+                } else {
+                    this.readPos = readPos;
+                    throw newUnexpectedCharException(b);
+                }
+            }
+
+            this.readPos = readPos;
+            if (!fillReadBufferRetainingValue()) {
+                throw newUnexpectedEndException();
+            }
+        }
+    }
+
+    @Override
+    void parseNumber(int c) {
+        hasFracOrExp = false;
+
+        valueStart = readPos;
+        // The digits in the int and frac parts.
+        int digits = 0;
+
+        // minus (optional)
+        if (c == '-') {
+            consumeChar();
+            c = peekNumberChar();
+        }
+
+        // int
+        if (c == '0') {
+            checkNumberDigits(++digits);
+            consumeChar();
+            c = peekNumberChar();
+        } else if ('1' <= c && c <= '9') {
+            do {
+                checkNumberDigits(++digits);
+                consumeChar();
+                c = peekNumberChar();
+            } while ('0' <= c && c <= '9');
+        } else {
+            throw newUnexpectedCharException(c);
+        }
+
+        // frac (optional)
+        if (c == '.') {
+            hasFracOrExp = true;
+            consumeChar();
+            c = peekNumberChar();
+            if (c < '0' || c > '9') {
+                throw newUnexpectedCharException(c);
+            }
+            do {
+                checkNumberDigits(++digits);
+                consumeChar();
+                c = peekNumberChar();
+            } while ('0' <= c && c <= '9');
+        }
+
+        // exp (optional)
+        if (c == 'e' || c == 'E') {
+            hasFracOrExp = true;
+            consumeChar();
+            c = peekNumberChar();
+            if (c == '-' || c == '+') {
+                consumeChar();
+                c = peekNumberChar();
+            }
+            if (c < '0' || c > '9') {
+                throw newUnexpectedCharException(c);
+            }
+            long exponent = 0;
+            do {
+                exponent = exponent * 10 + (c - '0');
+                checkNumberExponent(exponent);
+                consumeChar();
+                c = peekNumberChar();
+            } while ('0' <= c && c <= '9');
+        }
+
+        valueEnd = readPos;
+    }
+
+    @Override
+    JsonParsingException newUnexpectedCharException(int actual) {
+        return super.newUnexpectedCharException(decodeUnexpectedChar(actual));
+    }
+
+    @Override
+    JsonParsingException newUnexpectedCharException(int actual, Object expected) {
+        return super.newUnexpectedCharException(decodeUnexpectedChar(actual), expected);
+    }
+
+    /* As a AbstractJsonParser */
+
+    @Override
+    protected JsonString getValueAsString() {
+        return JsonValues.valueOf(buildString());
+    }
+
+    @Override
+    protected JsonNumber getValueAsNumber() {
+        if (hasFracOrExp) {
+            byte[] text = new byte[valueEnd - valueStart];
+            copyBytes(valueStart, text, 0, text.length);
+            return new LazyJsonNumber(text);
+        } else if (canGetIntStrictly()) {
+            return JsonValues.valueOf(getStrictInt());
+        } else if (canGetLongStrictly()) {
+            return JsonValues.valueOf(getStrictLong());
+        } else {
+            BigInteger value = new BigInteger(buildString());
+            return JsonValues.valueOf(value);
+        }
+    }
+
+    /* As a Utf8JsonParser */
+
+    /**
+     * Skips the spaces 8 bytes at once.
+     *
+     * @param buffer  the buffer to scan.
+     * @param readPos the position to start.
+     * @param readEnd the end of the bytes to scan.
+     * @return the position of the first byte which may not be a space.
+     */
+    private static int skipSpaces(ByteBuffer buffer, int readPos, int readEnd) {
+        final int lastWord = readEnd - Swar.WORD_BYTES;
+        while (readPos <= lastWord) {
+            long mask = buffer.getLong(readPos) ^ Swar.SPACES;
+            if (mask != 0) {
+                return readPos + Swar.firstIndex(mask);
+            }
+            readPos += Swar.WORD_BYTES;
+        }
+        return readPos;
+    }
+
+    /**
+     * Skips the bytes in a string which need no special treatment, 8 bytes at
+     * once.
+     *
+     * @param buffer  the buffer to scan.
+     * @param readPos the position to start.
+     * @param readEnd the end of the bytes to scan.
+     * @return the position of the first byte which may need special treatment.
+     */
+    private static int skipStringBytes(ByteBuffer buffer, int readPos, int readEnd) {
+        final int lastWord = readEnd - Swar.WORD_BYTES;
+        while (readPos <= lastWord) {
+            long mask = Swar.stringStoppers(buffer.getLong(readPos));
+            if (mask != 0) {
+                return readPos + Swar.firstIndex(mask);
+            }
+            readPos += Swar.WORD_BYTES;
+        }
+        return readPos;
+    }
+
+    @Override
+    int skipToClosingBracket() {
+        int depth = 0;
+        boolean inString = false;
+        boolean escaping = false;
+        int last = 0;
+        for (;;) {
+            final ByteBuffer buffer = this.readBuffer;
+            final int readEnd = this.readEnd;
+            int readPos = this.readPos;
+            while (readPos < readEnd) {
+                int next = readPos;
+                if (!inString) {
+                    next = skipNonStringBytes(buffer, readPos, readEnd);
+                } else if (!escaping) {
+                    next = skipStringBytes(buffer, readPos, readEnd);
+                }
+                if (next != readPos) {
+                    readPos = next;
+                    last = 0;
+                    if (readPos >= readEnd) {
+                        break;
+                    }
+                }
+                byte b = buffer.get(readPos++);
+                if (inString) {
+                    if (escaping) {
+                        escaping = false;
+                    } else if (b == '"') {
+                        inString = false;
+                    } else if (b == '\\') {
+                        escaping = true;
+                    }
+                } else if (b == '"') {
+                    inString = true;
+                } else if (b == '[' || b == '{') {
+                    depth++;
+                } else if (b == ']' || b == '}') {
+                    if (depth == 0) {
+                        this.readPos = readPos - 1;
+                        return b;
+                    }
+                    depth--;
+                } else if (b == '\n') {
+                    if (last == '\r') {
+                        this.readPos = readPos;
+                        this.lineOffset = getStreamOffset();
+                    } else {
+                        startNewLine(readPos);
+                    }
+                } else if (b == '\r') {
+                    startNewLine(readPos);
+                }
+                last = b;
+            }
+            this.readPos = readPos;
+            if (!fillReadBuffer(readEnd)) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Skips the bytes outside of strings which are not interesting while
+     * skipping arrays and objects.
+     *
+     * @param buffer  the buffer to scan.
+     * @param readPos the position to start scanning.
+     * @param readEnd the end of the bytes in the buffer.
+     * @return the position of the first byte which may be interesting.
+     */
+    private static int skipNonStringBytes(ByteBuffer buffer, int readPos, int readEnd) {
+        final int lastWord = readEnd - Swar.WORD_BYTES;
+        while (readPos <= lastWord) {
+            long mask = Swar.skipStoppers(buffer.getLong(readPos));
+            if (mask != 0) {
+                return readPos + Swar.firstIndex(mask);
+            }
+            readPos += Swar.WORD_BYTES;
+        }
+        return readPos;
+    }
+
+    private void startNewLine(int readPos) {
+        this.readPos = readPos;
+        this.lineNumber++;
+        this.lineOffset = getStreamOffset();
+    }
+
+    /**
+     * Returns the next byte as an unsigned value.
+     *
+     * @return the next byte, or -1 if the end of input was reached.
+     */
+    private int peekChar() {
+        if (readPos >= readEnd) {
+            if (!fillReadBuffer(readEnd)) {
+                return -1;
+            }
+        }
+        return readBuffer.get(readPos) & 0xff;
+    }
+
+    private int peekNumberChar() {
+        if (this.readPos >= this.readEnd) {
+            if (!fillReadBufferRetainingValue()) {
+                return -1;
+            }
+        }
+        return this.readBuffer.get(this.readPos) & 0xff;
+    }
+
+    private void consumeChar(char expected) {
+        int c = peekChar();
+        if (c == expected) {
+            readPos++;
+        } else {
+            throw newUnexpectedCharException(c, expected);
+        }
+    }
+
+    /**
+     * Fills the buffer with new bytes. The bytes from the specified position to
+     * the end of the buffer are retained and moved to the beginning of the
+     * buffer, followed by the new bytes.
+     *
+     * @param retainFrom the position of the first byte to retain.
+     * @return {@code false} if the end of input was reached.
+     */
+    private boolean fillReadBuffer(int retainFrom) {
+        if (isInputTruncated()) {
+            // Reports the first byte beyond the maximum length.
+            this.readPos = this.readEnd;
+            throw newDocumentLengthException();
+        }
+        if (eoi) {
+            return false;
+        }
+        try {
+            boolean filled;
+            if (channel != null) {
+                filled = mapNextWindow(retainFrom);
+            } else if (in != null) {
+                filled = readStream(retainFrom);
+            } else {
+                filled = requestInput();
+            }
+            if (filled && readPos >= readEnd && isInputTruncated()) {
+                throw newDocumentLengthException();
+            }
+            return filled;
+        } catch (IOException e) {
+            throw newJsonException(Message.thatIOErrorOccurredWhileParserWasReading(), e);
+        }
+    }
+
+    /**
+     * Requests more bytes when all the bytes appended by
+     * {@link #appendInput(ByteBuffer, long)} were consumed.
+     *
+     * @return {@code false} if the end of input was reached.
+     */
+    boolean requestInput() {
+        return false;
+    }
+
+    /**
+     * Appends the specified bytes to the end of the input. The bytes already
+     * consumed are discarded, except for the bytes from the specified offset
+     * and the value of the current event.
+     *
+     * @param bytes        the bytes to append, which are consumed entirely.
+     * @param retainOffset the stream offset of the first byte to retain.
+     */
+    final void appendInput(ByteBuffer bytes, long retainOffset) {
+        int retainFrom = Math.min(toReadIndex(retainOffset), readPos);
+        if (hasString() && valueStart < retainFrom) {
+            retainFrom = valueStart;
+        }
+        final int retained = readEnd - retainFrom;
+        // The bytes beyond the maximum length are dropped without being copied.
+        final int length = limitReadLength(bufferOffset + (readEnd - readStart), bytes.remaining());
+        if (retained + length > readArray.length) {
+            byte[] newArray = new byte[Math.max(readArray.length * 2, retained + length)];
+            System.arraycopy(readArray, retainFrom, newArray, 0, retained);
+            setReadArray(newArray);
+        } else if (retainFrom > 0 && retained > 0) {
+            System.arraycopy(readArray, retainFrom, readArray, 0, retained);
+        }
+        shiftReadPositions(retainFrom);
+        bytes.get(readArray, readEnd, length);
+        bytes.position(bytes.limit());
+        appendReadBytes(length);
+    }
+
+    /**
+     * Moves the current position back to the specified offset, which must not
+     * be discarded yet.
+     *
+     * @param offset     the stream offset to move to.
+     * @param lineNumber the line number at the offset.
+     * @param lineOffset the stream offset of the line at the offset.
+     */
+    final void rewind(long offset, long lineNumber, long lineOffset) {
+        this.readPos = toReadIndex(offset);
+        this.lineNumber = lineNumber;
+        this.lineOffset = lineOffset;
+    }
+
+    /**
+     * Returns the index of the current position in the read buffer.
+     *
+     * @return the index of the current position.
+     */
+    final int getReadPosition() {
+        return readPos;
+    }
+
+    /**
+     * Moves the current position in the read buffer.
+     *
+     * @param readPos the index of the new position.
+     */
+    final void setReadPosition(int readPos) {
+        this.readPos = readPos;
+    }
+
+    /**
+     * Returns the index of the end of the input in the read buffer.
+     *
+     * @return the end of the bytes available.
+     */
+    final int getReadEnd() {
+        return readEnd;
+    }
+
+    /**
+     * Returns the index in the read buffer of the specified stream offset.
+     *
+     * @param offset the stream offset which must not be discarded yet.
+     * @return the index in the read buffer.
+     */
+    final int toReadIndex(long offset) {
+        return readStart + (int) (offset - bufferOffset);
+    }
+
+    private boolean fillReadBufferRetainingValue() {
+        return fillReadBuffer(this.valueStart);
+    }
+
+    private boolean readStream(int retainFrom) throws IOException {
+        final int retained = readEnd - retainFrom;
+        if (retained > readArray.length / 2) {
+            extendReadBuffer(retainFrom, retained);
+        } else if (retained > 0) {
+            System.arraycopy(readArray, retainFrom, readArray, 0, retained);
+        }
+        shiftReadPositions(retainFrom);
+        int bytesRead = this.in.read(readArray, readEnd, readArray.length - readEnd);
+        if (bytesRead < 0) {
+            eoi = true;
+            return false;
+        }
+        appendReadBytes(bytesRead);
+        return true;
+    }
+
+    private boolean mapNextWindow(int retainFrom) throws IOException {
+        if (windowPosition + readEnd >= channelEnd) {
+            eoi = true;
+            return false;
+        }
+        final int retained = readEnd - retainFrom;
+        final long position = windowPosition + retainFrom;
+        long size = windowSize;
+        if (retained > windowSize / 2) {
+            if (retained > getMaxTokenLength()) {
+                this.readPos = this.readEnd;
+                throw newTokenLengthException();
+            }
+            size = growBufferLength(retained);
+        }
+        size = Math.min(size, Math.min(channelEnd - position, Integer.MAX_VALUE));
+        this.readBuffer = mapWindow(channel, position, size);
+        this.windowPosition = position;
+        shiftReadPositions(retainFrom);
+        appendReadBytes((int) size - retained);
+        return true;
+    }
+
+    /**
+     * Shifts the positions in the buffer after the bytes were moved toward the
+     * beginning of the buffer.
+     *
+     * @param distance the distance the bytes were moved.
+     */
+    private void shiftReadPositions(int distance) {
+        this.readStart -= distance;
+        this.readEnd -= distance;
+        this.readPos -= distance;
+        this.valueStart -= distance;
+        this.valueEnd -= distance;
+    }
+
+    /**
+     * Appends the bytes newly read to the end of the buffer.
+     *
+     * @param length the number of the bytes.
+     */
+    private void appendReadBytes(int length) {
+        this.bufferOffset += readEnd - readStart;
+        this.readStart = readEnd;
+        this.readEnd += limitReadLength(bufferOffset, length);
+    }
+
+    /**
+     * Makes sure that the buffer has at least the specified number of bytes
+     * available from the current position, unless the end of input is reached.
+     *
+     * @param length the number of bytes required.
+     * @return the number of bytes available from the current position.
+     */
+    private int ensureAvailable(int length) {
+        while (readEnd - readPos < length) {
+            if (isInputTruncated() || !fillReadBuffer(readPos)) {
+                break;
+            }
+        }
+        return readEnd - readPos;
+    }
+
+    private void extendReadBuffer(int valueStart, int valueLen) {
+        if (valueLen > getMaxTokenLength()) {
+            // Reports the end of the token read so far.
+            this.readPos = this.readEnd;
+            throw newTokenLengthException();
+        }
+        int newLength = growBufferLength(readArray.length);
+        byte[] newArray = new byte[newLength];
+        System.arraycopy(readArray, valueStart, newArray, 0, valueLen);
+        setReadArray(newArray);
+    }
+
+    private void setReadArray(byte[] array) {
+        this.readArray = array;
+        this.readBuffer = ByteBuffer.wrap(array).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Maps a region of the file channel into memory.
+     *
+     * @param channel  the file channel to map.
+     * @param position the position in the file at which the region starts.
+     * @param size     the size of the region.
+     * @return the mapped region.
+     * @throws IOException if an I/O error occurred.
+     */
+    static ByteBuffer mapWindow(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void parseEscapedString() {
+        this.escaped = true;
+        this.unescapedLength = 0;
+        // Copies the bytes preceding the first reverse solidus.
+        appendRawBytes(valueStart, valueEnd);
+
+        final int maxLength = getMaxStringLength();
+        byte[] unescaped = this.unescapeBuffer;
+        int length = this.unescapedLength;
+        // The start of the raw bytes not checked as UTF-8 yet.
+        int rawStart = 0;
+        // The bytes added by replacing ill-formed sequences, not counted in the limit.
+        int replaced = 0;
+        // The high surrogate waiting for the low surrogate.
+        int highSurrogate = 0;
+        for (;;) {
+            final ByteBuffer buffer = this.readBuffer;
+            int readPos = this.readPos;
+            final int readEnd = this.readEnd;
+
+            while (readPos < readEnd) {
+                // Reserves the room for a surrogate and a code point.
+                if (length + 8 > unescaped.length) {
+                    if (length - replaced > getMaxTokenLength()) {
+                        this.readPos = readPos;
+                        throw newTokenLengthException();
+                    }
+                    unescaped = Arrays.copyOf(unescaped, unescaped.length * 2);
+                    this.unescapeBuffer = unescaped;
+                }
+                byte b = buffer.get(readPos);
+                if (b == '"') {
+                    length = replaceIllFormedBytes(rawStart, length);
+                    if (highSurrogate != 0) {
+                        length = encodeUtf8(highSurrogate, this.unescapeBuffer, length);
+                    }
+                    this.unescapedLength = length;
+                    // Consumes the last quotation mark.
+                    this.readPos = readPos + 1;
+                    return;
+                } else if (b == '\\') {
+                    final int rawEnd = replaceIllFormedBytes(rawStart, length);
+                    replaced += rawEnd - length;
+                    length = rawEnd;
+                    unescaped = this.unescapeBuffer;
+                    // The escape sequence may be moved by refilling the buffer.
+                    final long escapeOffset = bufferOffset + (readPos - readStart);
+                    int unit;
+                    boolean refilled = false;
+                    if (readPos + 6 <= readEnd) {
+                        // The whole escape sequence is in the buffer.
+                        byte next = buffer.get(readPos + 1);
+                        if (next == 'u') {
+                            unit = unescapeUnicode(buffer, readPos + 2);
+                            readPos += 6;
+                        } else {
+                            unit = JsonChar.unescape(next);
+                            if (unit < 0) {
+                                this.readPos = readPos + 1;
+                                throw newUnexpectedCharException(next & 0xff);
+                            }
+                            readPos += 2;
+                        }
+                    } else {
+                        this.readPos = readPos;
+                        unit = unescape();
+                        refilled = true;
+                    }
+                    if (highSurrogate != 0 && Character.isLowSurrogate((char) unit)) {
+                        int codePoint = Character.toCodePoint((char) highSurrogate, (char) unit);
+                        length = encodeUtf8(codePoint, unescaped, length);
+                        highSurrogate = 0;
+                    } else {
+                        if (highSurrogate != 0) {
+                            length = encodeUtf8(highSurrogate, unescaped, length);
+                        }
+                        if (Character.isHighSurrogate((char) unit)) {
+                            highSurrogate = unit;
+                        } else {
+                            highSurrogate = 0;
+                            length = encodeUtf8(unit, unescaped, length);
+                        }
+                    }
+                    rawStart = length;
+                    // A pending high surrogate takes 3 bytes unless paired.
+                    if (length - replaced + (highSurrogate != 0 ? 3 : 0) > maxLength) {
+                        this.readPos = toReadIndex(escapeOffset);
+                        throw newStringLengthException();
+                    }
+                    if (refilled) {
+                        // Reloads the buffer which may be refilled.
+                        break;
+                    }
+                } else if (b >= 0x20 || b < 0) {
+                    if (highSurrogate != 0) {
+                        length = encodeUtf8(highSurrogate, unescaped, length);
+                        highSurrogate = 0;
+                        rawStart = length;
+                    }
+                    if (length - replaced >= maxLength) {
+                        this.readPos = readPos;
+                        throw newStringLengthException();
+                    }
+                    unescaped[length++] = b;
+                    readPos++;
+                } else {
+                    this.readPos = readPos;
+                    throw newUnexpectedCharException(b);
+                }
+            }
+
+            if (readPos >= readEnd) {
+                this.readPos = readPos;
+                if (!fillReadBuffer(readEnd)) {
+                    throw newUnexpectedEndException();
+                }
+            }
+        }
+    }
+
+    /**
+     * Unescapes an escape sequence, which may span the end of the buffer.
+     *
+     * @return the UTF-16 code unit unescaped.
+     */
+    private int unescape() {
+        // Consumes the reverse solidus
+        consumeChar();
+        int c = peekChar();
+        if (c == 'u') {
+            return unescapeUnicode();
+        }
+        int unescaped = JsonChar.unescape(c);
+        if (unescaped < 0) {
+            throw newUnexpectedCharException(c);
+        }
+        consumeChar();
+        return unescaped;
+    }
+
+    private int unescapeUnicode() {
+        // Consumes 'u'
+        consumeChar();
+
+        int codeUnit = 0;
+        for (int i = 0; i < 4; i++) {
+            int c = peekChar();
+            codeUnit = (codeUnit << 4) + hexadecimalToInt(c);
+            consumeChar();
+        }
+        return codeUnit;
+    }
+
+    /**
+     * Unescapes the 4 hexadecimal digits in the buffer.
+     *
+     * @param buffer the buffer containing the digits.
+     * @param start  the position of the first digit.
+     * @return the UTF-16 code unit unescaped.
+     */
+    private int unescapeUnicode(ByteBuffer buffer, int start) {
+        int codeUnit = 0;
+        for (int i = start; i < start + 4; i++) {
+            int c = buffer.get(i) & 0xff;
+            int digit = JsonChar.hexadecimalToInt(c);
+            if (digit < 0) {
+                this.readPos = i;
+                throw newUnexpectedCharException(c);
+            }
+            codeUnit = (codeUnit << 4) + digit;
+        }
+        return codeUnit;
+    }
+
+    private int hexadecimalToInt(int c) {
+        int value = JsonChar.hexadecimalToInt(c);
+        if (value < 0) {
+            throw newUnexpectedCharException(c);
+        }
+        return value;
+    }
+
+    private byte[] prepareUnescapeBuffer(int minLength) {
+        byte[] buffer = this.unescapeBuffer;
+        if (buffer == null || buffer.length < minLength + 4) {
+            buffer = new byte[Math.max(minLength * 2, 64)];
+            this.unescapeBuffer = buffer;
+        }
+        return buffer;
+    }
+
+    /**
+     * Appends the bytes in the read buffer to the unescaped bytes as they are.
+     *
+     * @param start the position of the first byte in the read buffer.
+     * @param end   the end position of the bytes in the read buffer.
+     */
+    private void appendRawBytes(int start, int end) {
+        final int length = end - start;
+        byte[] buffer = this.unescapeBuffer;
+        if (buffer == null) {
+            buffer = prepareUnescapeBuffer(length);
+        } else if (unescapedLength + length > buffer.length) {
+            int newLength = Math.max(buffer.length * 2, unescapedLength + length);
+            buffer = Arrays.copyOf(buffer, newLength);
+            this.unescapeBuffer = buffer;
+        }
+        copyBytes(start, buffer, unescapedLength, length);
+        unescapedLength += length;
+    }
+
+    /**
+     * Replaces the ill-formed UTF-8 sequences in the raw bytes of the unescape
+     * buffer with U+FFFD, in the same way as {@link CharsetDecoder} does with
+     * {@link CodingErrorAction#REPLACE}. Each maximal subpart of an ill-formed
+     * sequence is replaced with one character, which covers overlong forms,
+     * surrogates, code points above U+10FFFF and truncated sequences.
+     *
+     * <p>
+     * This keeps the raw bytes apart from the lone surrogates unescaped, which
+     * are the only surrogates encoded in the buffer.
+     * </p>
+     *
+     * @param start the start of the raw bytes in the unescape buffer.
+     * @param end   the end of the raw bytes in the unescape buffer.
+     * @return the end of the raw bytes after the replacement. The room for 8
+     *         bytes following the end is kept.
+     */
+    private int replaceIllFormedBytes(int start, int end) {
+        byte[] bytes = this.unescapeBuffer;
+        int i = start;
+        while (i < end) {
+            if (bytes[i] >= 0) {
+                i++;
+            } else {
+                int length = measureUtf8Sequence(bytes, i, end);
+                if (length < 0) {
+                    break;
+                }
+                i += length;
+            }
+        }
+        if (i == end) {
+            return end;
+        }
+
+        // Each byte is replaced with 3 bytes at most.
+        final byte[] tail = Arrays.copyOfRange(bytes, i, end);
+        final int minLength = i + tail.length * 3 + 8;
+        if (bytes.length < minLength) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, minLength));
+            this.unescapeBuffer = bytes;
+        }
+        int length = i;
+        int j = 0;
+        while (j < tail.length) {
+            if (tail[j] >= 0) {
+                bytes[length++] = tail[j++];
+                continue;
+            }
+            int sequenceLength = measureUtf8Sequence(tail, j, tail.length);
+            if (sequenceLength > 0) {
+                System.arraycopy(tail, j, bytes, length, sequenceLength);
+                length += sequenceLength;
+                j += sequenceLength;
+            } else {
+                length = encodeUtf8(REPLACEMENT_CHAR, bytes, length);
+                j -= sequenceLength;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Measures the UTF-8 sequence starting with a non-ASCII byte, following
+     * the table of well-formed byte sequences in the Unicode Standard. As the
+     * decoder of the platform does, an encoded surrogate is a single
+     * ill-formed sequence.
+     *
+     * @param bytes the bytes containing the sequence.
+     * @param start the position of the first byte of the sequence.
+     * @param end   the end of the bytes available.
+     * @return the length of the well-formed sequence, or the negated length of
+     *         the maximal subpart if the sequence is ill-formed.
+     */
+    private static int measureUtf8Sequence(byte[] bytes, int start, int end) {
+        final int lead = bytes[start] & 0xff;
+        final int length;
+        int lower = 0x80;
+        int upper = 0xbf;
+        if (lead < 0xc2) {
+            return -1;
+        } else if (lead < 0xe0) {
+            length = 2;
+        } else if (lead < 0xf0) {
+            length = 3;
+            if (lead == 0xe0) {
+                lower = 0xa0;
+            }
+        } else if (lead < 0xf5) {
+            length = 4;
+            if (lead == 0xf0) {
+                lower = 0x90;
+            } else if (lead == 0xf4) {
+                upper = 0x8f;
+            }
+        } else {
+            return -1;
+        }
+        for (int i = 1; i < length; i++) {
+            if (start + i >= end) {
+                return -i;
+            }
+            final int b = bytes[start + i] & 0xff;
+            if (b < lower || b > upper) {
+                return -i;
+            }
+            lower = 0x80;
+            upper = 0xbf;
+        }
+        if (lead == 0xed && (bytes[start + 1] & 0xff) >= 0xa0) {
+            // An encoded surrogate is replaced as a whole.
+            return -length;
+        }
+        return length;
+    }
+
+    /**
+     * Copies the bytes in the read buffer to the specified array.
+     *
+     * @param start  the position of the first byte in the read buffer.
+     * @param dest   the destination array.
+     * @param offset the position in the destination array.
+     * @param length the number of bytes to copy.
+     */
+    private void copyBytes(int start, byte[] dest, int offset, int length) {
+        final ByteBuffer buffer = this.readBuffer;
+        if (buffer.hasArray()) {
+            System.arraycopy(buffer.array(), buffer.arrayOffset() + start, dest, offset, length);
+        } else if (length < Swar.WORD_BYTES * 2) {
+            for (int i = 0; i < length; i++) {
+                dest[offset + i] = buffer.get(start + i);
+            }
+        } else {
+            ByteBuffer source = buffer.duplicate();
+            source.position(start);
+            source.get(dest, offset, length);
+        }
+    }
+
+    /**
+     * Encodes a code point or a lone surrogate in UTF-8.
+     *
+     * <p>
+     * Lone surrogates are encoded in the same way as the other code points in
+     * the BMP, which allows them to be restored when the string is built. The
+     * raw bytes never take this form because their surrogates are replaced by
+     * {@link #replaceIllFormedBytes(int, int)}.
+     * </p>
+     *
+     * @param codePoint the code point to encode.
+     * @param bytes     the array which has the room for 4 bytes at least.
+     * @param offset    the position in the array.
+     * @return the position next to the encoded bytes.
+     */
+    private static int encodeUtf8(int codePoint, byte[] bytes, int offset) {
+        if (codePoint < 0x80) {
+            bytes[offset++] = (byte) codePoint;
+        } else if (codePoint < 0x800) {
+            bytes[offset++] = (byte) (0xc0 | (codePoint >> 6));
+            bytes[offset++] = (byte) (0x80 | (codePoint & 0x3f));
+        } else if (codePoint < 0x10000) {
+            bytes[offset++] = (byte) (0xe0 | (codePoint >> 12));
+            bytes[offset++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+            bytes[offset++] = (byte) (0x80 | (codePoint & 0x3f));
+        } else {
+            bytes[offset++] = (byte) (0xf0 | (codePoint >> 18));
+            bytes[offset++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+            bytes[offset++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+            bytes[offset++] = (byte) (0x80 | (codePoint & 0x3f));
+        }
+        return offset;
+    }
+
+    private String buildString() {
+        if (escaped && getCurrentEvent() != Event.VALUE_NUMBER) {
+            return decodeUnescaped();
+        }
+        final int length = valueEnd - valueStart;
+        if (readBuffer.hasArray()) {
+            byte[] array = readBuffer.array();
+            int offset = readBuffer.arrayOffset() + valueStart;
+            return new String(array, offset, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = prepareUnescapeBuffer(length);
+        copyBytes(valueStart, bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private String internKeyName(SymbolTable symbolTable) {
+        if (!escaped) {
+            String keyName = symbolTable.intern(readBuffer, valueStart, valueEnd);
+            if (keyName != null) {
+                return keyName;
+            }
+        }
+        final int length = decodeChars();
+        return symbolTable.intern(charBuffer, 0, length);
+    }
+
+    /**
+     * Compares the current string with the specified characters without
+     * decoding the string as long as it is in the US-ASCII range.
+     *
+     * @param chars  the characters to compare with.
+     * @param prefix {@code true} if the characters are a prefix to test.
+     * @return {@code true} if the string matches the characters.
+     */
+    private boolean matchString(CharSequence chars, boolean prefix) {
+        final boolean unescaped = escaped && getCurrentEvent() != Event.VALUE_NUMBER;
+        final int start = unescaped ? 0 : valueStart;
+        final int length = unescaped ? unescapedLength : valueEnd - valueStart;
+        final int charsLength = chars.length();
+        // A string never has more chars than its bytes.
+        if (charsLength > length) {
+            return false;
+        }
+        for (int i = 0; i < charsLength; i++) {
+            int b = unescaped ? unescapeBuffer[i] : readBuffer.get(start + i);
+            if (b < 0) {
+                final int decodedLength = decodeChars();
+                if (prefix) {
+                    return CharArraySequence.startsWith(charBuffer, 0, decodedLength, chars);
+                } else {
+                    return CharArraySequence.contentEquals(charBuffer, 0, decodedLength, chars);
+                }
+            } else if (b != chars.charAt(i)) {
+                return false;
+            }
+        }
+        return prefix || charsLength == length;
+    }
+
+    /**
+     * Decodes the current string into the char buffer.
+     *
+     * @return the number of the chars decoded.
+     */
+    private int decodeChars() {
+        if (escaped && getCurrentEvent() != Event.VALUE_NUMBER) {
+            return decodeUnescapedChars(0);
+        }
+        final ByteBuffer buffer = this.readBuffer;
+        final int start = valueStart;
+        final int length = valueEnd - start;
+        final char[] chars = prepareCharBuffer(length);
+        int i = 0;
+        for (; i < length; i++) {
+            byte b = buffer.get(start + i);
+            if (b < 0) {
+                break;
+            }
+            chars[i] = (char) b;
+        }
+        if (i == length) {
+            return length;
+        }
+
+        // Decodes the rest in the same way as String does.
+        ByteBuffer in = buffer.duplicate();
+        in.limit(valueEnd);
+        in.position(start + i);
+        CharBuffer out = CharBuffer.wrap(chars, i, chars.length - i);
+        CharsetDecoder decoder = this.decoder;
+        if (decoder == null) {
+            decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            this.decoder = decoder;
+        } else {
+            decoder.reset();
+        }
+        decoder.decode(in, out, true);
+        decoder.flush(out);
+        return out.position();
+    }
+
+    /**
+     * Decodes the unescaped string, which may contain lone surrogates.
+     *
+     * @return the decoded string.
+     */
+    private String decodeUnescaped() {
+        final byte[] bytes = this.unescapeBuffer;
+        final int end = this.unescapedLength;
+        int i = 0;
+        while (i < end && bytes[i] >= 0) {
+            i++;
+        }
+        if (i == end) {
+            // US-ASCII only
+            return new String(bytes, 0, end, StandardCharsets.ISO_8859_1);
+        }
+        final int length = decodeUnescapedChars(i);
+        return new String(charBuffer, 0, length);
+    }
+
+    /**
+     * Decodes the unescaped string into the char buffer. The bytes are
+     * well-formed UTF-8 except for the lone surrogates unescaped.
+     *
+     * @param asciiLength the number of the leading bytes known to be US-ASCII.
+     * @return the number of the chars decoded.
+     */
+    private int decodeUnescapedChars(int asciiLength) {
+        final byte[] bytes = this.unescapeBuffer;
+        final int end = this.unescapedLength;
+        int i = asciiLength;
+        char[] chars = prepareCharBuffer(end);
+        for (int j = 0; j < i; j++) {
+            chars[j] = (char) bytes[j];
+        }
+        int length = i;
+        while (i < end) {
+            int b = bytes[i];
+            if (b >= 0) {
+                chars[length++] = (char) b;
+                i++;
+            } else if ((b & 0xe0) == 0xc0 && isContinuation(bytes, i + 1, end)) {
+                chars[length++] = (char) (((b & 0x1f) << 6) | (bytes[i + 1] & 0x3f));
+                i += 2;
+            } else if ((b & 0xf0) == 0xe0 && isContinuation(bytes, i + 1, end)
+                    && isContinuation(bytes, i + 2, end)) {
+                chars[length++] = (char) (((b & 0x0f) << 12)
+                        | ((bytes[i + 1] & 0x3f) << 6)
+                        | (bytes[i + 2] & 0x3f));
+                i += 3;
+            } else if ((b & 0xf8) == 0xf0 && isContinuation(bytes, i + 1, end)
+                    && isContinuation(bytes, i + 2, end)
+                    && isContinuation(bytes, i + 3, end)) {
+                int codePoint = ((b & 0x07) << 18)
+                        | ((bytes[i + 1] & 0x3f) << 12)
+                        | ((bytes[i + 2] & 0x3f) << 6)
+                        | (bytes[i + 3] & 0x3f);
+                if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT
+                        && codePoint <= Character.MAX_CODE_POINT) {
+                    chars[length++] = Character.highSurrogate(codePoint);
+                    chars[length++] = Character.lowSurrogate(codePoint);
+                } else {
+                    chars[length++] = REPLACEMENT_CHAR;
+                }
+                i += 4;
+            } else {
+                chars[length++] = REPLACEMENT_CHAR;
+                i++;
+            }
+        }
+        return length;
+    }
+
+    private static boolean isContinuation(byte[] bytes, int index, int end) {
+        return index < end && (bytes[index] & 0xc0) == 0x80;
+    }
+
+    private char[] prepareCharBuffer(int minLength) {
+        char[] buffer = this.charBuffer;
+        if (buffer == null || buffer.length < minLength) {
+            buffer = new char[Math.max(minLength, 64)];
+            this.charBuffer = buffer;
+        }
+        return buffer;
+    }
+
+    private BigDecimal buildBigDecimal() {
+        final int length = valueEnd - valueStart;
+        char[] chars = prepareCharBuffer(length);
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) readBuffer.get(valueStart + i);
+        }
+        return new BigDecimal(chars, 0, length);
+    }
+
+    private boolean canGetIntStrictly() {
+        if (hasFracOrExp) {
+            return false;
+        }
+        final int length = valueEnd - valueStart;
+        if (readBuffer.get(valueStart) == '-') {
+            if (length <= 10) {
+                return true;
+            } else if (length == 11) {
+                return buildString().compareTo(MIN_INT_AS_STRING) <= 0;
+            }
+        } else {
+            if (length <= 9) {
+                return true;
+            } else if (length == 10) {
+                return buildString().compareTo(MAX_INT_AS_STRING) <= 0;
+            }
+        }
+        return false;
+    }
+
+    private boolean canGetLongStrictly() {
+        if (hasFracOrExp) {
+            return false;
+        }
+        final int length = valueEnd - valueStart;
+        if (readBuffer.get(valueStart) == '-') {
+            if (length <= 19) {
+                return true;
+            } else if (length == 20) {
+                return buildString().compareTo(MIN_LONG_AS_STRING) <= 0;
+            }
+        } else {
+            if (length <= 18) {
+                return true;
+            } else if (length == 19) {
+                return buildString().compareTo(MAX_LONG_AS_STRING) <= 0;
+            }
+        }
+        return false;
+    }
+
+    private int getStrictInt() {
+        int i = valueStart;
+        final boolean minus = readBuffer.get(i) == '-';
+        if (minus) {
+            i++;
+        }
+        int value = 0;
+        while (i < valueEnd) {
+            int c = readBuffer.get(i++);
+            value = value * 10 + (c - '0');
+        }
+        return minus ? -value : value;
+    }
+
+    private long getStrictLong() {
+        int i = valueStart;
+        final boolean minus = readBuffer.get(i) == '-';
+        if (minus) {
+            i++;
+        }
+        long value = 0;
+        while (i < valueEnd) {
+            int c = readBuffer.get(i++);
+            value = value * 10 + (c - '0');
+        }
+        return minus ? -value : value;
+    }
+
+    /**
+     * Decodes the unexpected character at the current position.
+     *
+     * @param actual the unexpected byte as an unsigned value.
+     * @return the decoded character.
+     */
+    private int decodeUnexpectedChar(int actual) {
+        if (actual < 0x80 || readPos >= readEnd) {
+            return actual;
+        }
+        int length = ensureAvailable(4);
+        byte[] bytes = new byte[Math.min(length, 4)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = readBuffer.get(readPos + i);
+        }
+        String decoded = new String(bytes, StandardCharsets.UTF_8);
+        return decoded.isEmpty() ? REPLACEMENT_CHAR : decoded.charAt(0);
+    }
+}
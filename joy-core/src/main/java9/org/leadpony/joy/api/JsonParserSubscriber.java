@@ -0,0 +1,154 @@
+/*
+ * Copyright 2021 the Joy Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.leadpony.joy.api;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.BiConsumer;
+
+import jakarta.json.stream.JsonParser.Event;
+
+/**
+ * A {@link Flow.Subscriber} which feeds the chunks of bytes it receives to a
+ * {@link NonBlockingJsonParser} and passes each event parsed to a handler.
+ *
+ * <p>
+ * The subscriber requests one chunk at a time, after all the events available
+ * from the previous chunk were handled. The handler is called on the thread
+ * delivering the chunk and may retrieve the value of the event from the
+ * parser. The parser is closed when the input is completed or fails.
+ * </p>
+ *
+ * <pre>
+ * <code>
+ * JsonParserSubscriber subscriber = new JsonParserSubscriber(
+ *         factory.createNonBlockingParser(),
+ *         (event, parser) -&gt; { ... });
+ * publisher.subscribe(subscriber);
+ * subscriber.completion().thenRun(...);
+ * </code>
+ * </pre>
+ *
+ * <p>
+ * This class is available only in Java 9 and higher.
+ * </p>
+ *
+ * @author leadpony
+ * @since 2.2
+ */
+public final class JsonParserSubscriber implements Flow.Subscriber<ByteBuffer> {
+
+    private final NonBlockingJsonParser parser;
+    private final BiConsumer<? super Event, ? super NonBlockingJsonParser> handler;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+
+    /**
+     * Constructs this subscriber.
+     *
+     * @param parser  the parser to feed.
+     * @param handler the handler of the events.
+     * @throws NullPointerException if any of the arguments is {@code null}.
+     */
+    public JsonParserSubscriber(NonBlockingJsonParser parser,
+            BiConsumer<? super Event, ? super NonBlockingJsonParser> handler) {
+        this.parser = Objects.requireNonNull(parser, "parser must not be null.");
+        this.handler = Objects.requireNonNull(handler, "handler must not be null.");
+    }
+
+    /**
+     * Returns the future completed when all the events were handled, or
+     * completed exceptionally if the input or the handler failed.
+     *
+     * @return the future of the completion.
+     */
+    public CompletableFuture<Void> completion() {
+        return completion;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription, "subscription must not be null.");
+        if (this.subscription != null || completion.isDone()) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(ByteBuffer item) {
+        Objects.requireNonNull(item, "item must not be null.");
+        if (completion.isDone()) {
+            return;
+        }
+        try {
+            parser.feed(item);
+            handleEvents();
+        } catch (RuntimeException e) {
+            subscription.cancel();
+            fail(e);
+            return;
+        }
+        subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        Objects.requireNonNull(throwable, "throwable must not be null.");
+        if (!completion.isDone()) {
+            fail(throwable);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        if (completion.isDone()) {
+            return;
+        }
+        try {
+            parser.endOfInput();
+            handleEvents();
+            parser.close();
+        } catch (RuntimeException e) {
+            fail(e);
+            return;
+        }
+        completion.complete(null);
+    }
+
+    private void handleEvents() {
+        while (parser.hasNext()) {
+            Event event = parser.poll();
+            if (event == NonBlockingJsonParser.NOT_AVAILABLE) {
+                break;
+            }
+            handler.accept(event, parser);
+        }
+    }
+
+    private void fail(Throwable throwable) {
+        try {
+            parser.close();
+        } catch (RuntimeException e) {
+            throwable.addSuppressed(e);
+        }
+        completion.completeExceptionally(throwable);
+    }
+}